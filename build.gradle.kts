@@ -29,6 +29,7 @@ val vertxVersion: String by project
 val slf4jApiVersion: String by project
 val log4jApiVersion: String by project
 val keelLoggerApiVersion: String by project
+val jmhVersion: String by project
 
 repositories {
     maven {
@@ -44,6 +45,23 @@ repositories {
     mavenCentral()
 }
 
+// JMH benchmark source set (src/jmh/java), compiled against the main output
+sourceSets {
+    create("jmh") {
+        compileClasspath += sourceSets.main.get().output
+        runtimeClasspath += sourceSets.main.get().output
+    }
+}
+
+configurations {
+    named("jmhImplementation") {
+        extendsFrom(configurations.implementation.get())
+    }
+    named("jmhRuntimeOnly") {
+        extendsFrom(configurations.runtimeOnly.get())
+    }
+}
+
 dependencies {
     // Main dependencies
     api("org.slf4j:slf4j-api:$slf4jApiVersion")
@@ -58,6 +76,11 @@ dependencies {
     // Test dependencies
     testImplementation("io.vertx:vertx-junit5:$vertxVersion")
     testRuntimeOnly("org.junit.platform:junit-platform-launcher")
+
+    // Benchmark dependencies
+    "jmhImplementation"("org.openjdk.jmh:jmh-core:$jmhVersion")
+    "jmhAnnotationProcessor"("org.openjdk.jmh:jmh-generator-annprocess:$jmhVersion")
+    "jmhCompileOnly"("org.jspecify:jspecify:$jspecifyVersion")
 }
 
 java {
@@ -78,6 +101,11 @@ tasks.compileTestJava {
     options.release.set(17)
 }
 
+tasks.named<JavaCompile>("compileJmhJava") {
+    options.encoding = "UTF-8"
+    options.release.set(17)
+}
+
 // Configure resources (exclude config.properties like Maven)
 tasks.processResources {
     exclude("config.properties")
@@ -89,6 +117,19 @@ tasks.test {
     include("io/github/sinri/keel/logger/ext/**/*Test.class")
 }
 
+// Run JMH benchmarks: ./gradlew jmh [-PjmhIncludes=<regex>] [-PjmhArgs="<extra jmh args>"]
+// The GC profiler is always enabled so that each case reports gc.alloc.rate.norm (bytes/op).
+tasks.register<JavaExec>("jmh") {
+    group = "benchmark"
+    description = "Runs the JMH benchmarks in src/jmh/java."
+    dependsOn(tasks.named("jmhClasses"))
+    classpath = sourceSets["jmh"].runtimeClasspath
+    mainClass.set("org.openjdk.jmh.Main")
+    val includes = findProperty("jmhIncludes") as String?
+    val extraArgs = (findProperty("jmhArgs") as String?)?.split(" ")?.filter { it.isNotBlank() } ?: emptyList()
+    args(listOfNotNull(includes) + listOf("-prof", "gc", "-rf", "json", "-rff", "build/jmh-result.json") + extraArgs)
+}
+
 // Configure JavaDoc
 tasks.javadoc {
     options.encoding = "UTF-8"
@@ -0,0 +1,71 @@
+package io.github.sinri.keel.logger.ext;
+
+import io.github.sinri.keel.logger.api.adapter.BaseLogWriter;
+import io.github.sinri.keel.logger.api.adapter.LogWriterAdapter;
+import io.github.sinri.keel.logger.api.log.SpecificLog;
+import org.jspecify.annotations.NullMarked;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 基准测试使用的 {@link LogWriterAdapter} 实现。
+ * <p>
+ * 基准测试通过 {@code @Param} 选择其一：
+ * <ul>
+ *     <li>{@link #NOOP}：直接丢弃日志事件，用于测量桥接层自身的开销</li>
+ *     <li>{@link #COUNTING}：计数并读取消息，避免 JIT 将日志事件的构建当作死代码消除</li>
+ * </ul>
+ *
+ * @since 5.0.3
+ */
+@NullMarked
+public enum BenchmarkLogWriters {
+    NOOP {
+        @Override
+        public LogWriterAdapter create() {
+            return new BaseLogWriter() {
+                @Override
+                public void accept(String topic, SpecificLog<?> log) {
+                }
+            };
+        }
+    },
+    COUNTING {
+        @Override
+        public LogWriterAdapter create() {
+            return new CountingLogWriter();
+        }
+    };
+
+    /**
+     * 创建一个新的适配器实例。
+     *
+     * @return 适配器实例
+     */
+    public abstract LogWriterAdapter create();
+
+    /**
+     * 对接收到的日志事件及其消息长度计数的适配器。
+     */
+    public static final class CountingLogWriter extends BaseLogWriter {
+        private final LongAdder events = new LongAdder();
+        private final LongAdder messageChars = new LongAdder();
+
+        @Override
+        public void accept(String topic, SpecificLog<?> log) {
+            events.increment();
+            String message = log.message();
+            if (message != null) {
+                messageChars.add(message.length());
+            }
+        }
+
+        public long events() {
+            return events.sum();
+        }
+
+        public long messageChars() {
+            return messageChars.sum();
+        }
+    }
+}
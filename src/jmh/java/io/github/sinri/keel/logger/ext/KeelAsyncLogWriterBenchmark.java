@@ -0,0 +1,66 @@
+package io.github.sinri.keel.logger.ext;
+
+import io.github.sinri.keel.logger.api.LogLevel;
+import io.github.sinri.keel.logger.api.adapter.LogWriterAdapter;
+import io.github.sinri.keel.logger.api.log.Log;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link KeelAsyncLogWriter} 调用方一侧开销的基准测试。
+ * <p>
+ * 对比同步调用下游适配器与经由环形缓冲区异步交接的单次调用耗时；
+ * 溢出策略为 {@link KeelAsyncLogWriterOptions.OverflowPolicy#DROP}，避免测量结果受消费者速度影响而退化为阻塞等待。
+ *
+ * @since 5.0.3
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KeelAsyncLogWriterBenchmark {
+
+    @Param({"SPIN", "YIELD", "PARK"})
+    public KeelAsyncLogWriterOptions.WaitStrategy waitStrategy;
+
+    @Param({"1", "4"})
+    public int shards;
+
+    private LogWriterAdapter sync;
+    private KeelAsyncLogWriter async;
+    private Log log;
+
+    @Setup
+    public void setup() {
+        sync = BenchmarkLogWriters.COUNTING.create();
+        async = new KeelAsyncLogWriter(
+                () -> sync,
+                KeelAsyncLogWriterOptions.defaults()
+                                         .withShards(shards)
+                                         .withWaitStrategy(waitStrategy)
+                                         .withOverflowPolicy(KeelAsyncLogWriterOptions.OverflowPolicy.DROP),
+                false);
+        async.start();
+        log = new Log().level(LogLevel.INFO).message("benchmark");
+    }
+
+    @TearDown
+    public void tearDown() {
+        async.close();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void synchronous() {
+        sync.accept("benchmark", log);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void asynchronous() {
+        async.accept("benchmark", log);
+    }
+}
@@ -0,0 +1,80 @@
+package io.github.sinri.keel.logger.ext;
+
+import io.github.sinri.keel.logger.api.LogLevel;
+import io.github.sinri.keel.logger.api.adapter.BaseLogWriter;
+import io.github.sinri.keel.logger.api.adapter.LogWriterAdapter;
+import io.github.sinri.keel.logger.api.log.Log;
+import io.github.sinri.keel.logger.api.log.SpecificLog;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 逐条写出与 {@link KeelBatchingLogWriter} 攒批写出的吞吐量对比。
+ * <p>
+ * 模拟的下游每次调用有固定开销（如一次系统调用或网络往返），每个事件另有少量开销；
+ * 逐条写出为每个事件支付一次固定开销，攒批写出每批只支付一次。
+ *
+ * @since 5.0.3
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KeelBatchingLogWriterBenchmark {
+    /**
+     * 模拟下游每次调用的固定开销。
+     */
+    private static final long CALL_COST_TOKENS = 500;
+    /**
+     * 模拟下游每个事件的开销。
+     */
+    private static final long EVENT_COST_TOKENS = 20;
+
+    @Param({"16", "256"})
+    public int maxCount;
+
+    private LogWriterAdapter perEvent;
+    private KeelBatchingLogWriter batching;
+    private Log log;
+
+    @Setup
+    public void setup() {
+        perEvent = new BaseLogWriter() {
+            @Override
+            public void accept(String topic, SpecificLog<?> log) {
+                Blackhole.consumeCPU(CALL_COST_TOKENS);
+                Blackhole.consumeCPU(EVENT_COST_TOKENS);
+            }
+        };
+        batching = new KeelBatchingLogWriter(
+                (String topic, List<SpecificLog<?>> logs) -> {
+                    Blackhole.consumeCPU(CALL_COST_TOKENS);
+                    Blackhole.consumeCPU(EVENT_COST_TOKENS * logs.size());
+                },
+                maxCount,
+                Long.MAX_VALUE,
+                Duration.ofMillis(100));
+        log = new Log().level(LogLevel.INFO).message("benchmark");
+    }
+
+    @TearDown
+    public void tearDown() {
+        batching.close();
+    }
+
+    @Benchmark
+    public void perEvent() {
+        perEvent.accept("benchmark", log);
+    }
+
+    @Benchmark
+    public void batched() {
+        batching.accept("benchmark", log);
+    }
+}
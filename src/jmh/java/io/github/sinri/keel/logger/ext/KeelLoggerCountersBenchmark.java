@@ -0,0 +1,55 @@
+package io.github.sinri.keel.logger.ext;
+
+import io.github.sinri.keel.logger.api.LogLevel;
+import io.github.sinri.keel.logger.api.adapter.LogWriterAdapter;
+import io.github.sinri.keel.logger.api.log.Log;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link KeelLoggerCounters} 计数开销的基准测试。
+ * <p>
+ * {@code direct} 直接调用适配器作为基线，{@code counted} 经计数后调用适配器，二者之差即每个事件的计数开销
+ * （含每 {@value KeelLoggerCounters#LATENCY_SAMPLE_INTERVAL} 次一次的耗时记录）；
+ * {@code filtered} 衡量被采样或日志风暴抑制丢弃时的计数。以 {@code -t} 指定多线程运行可观察 {@link java.util.concurrent.atomic.LongAdder} 在竞争下的表现。
+ *
+ * @since 5.0.3
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KeelLoggerCountersBenchmark {
+
+    @Param({"NOOP", "COUNTING"})
+    public BenchmarkLogWriters writer;
+
+    private LogWriterAdapter adapter;
+    private KeelLoggerCounters counters;
+    private Log log;
+
+    @Setup
+    public void setup() {
+        adapter = writer.create();
+        counters = new KeelLoggerMetrics().counters("benchmark");
+        log = new Log().level(LogLevel.INFO).message("benchmark message");
+    }
+
+    @Benchmark
+    public void direct() {
+        adapter.accept("benchmark", log);
+    }
+
+    @Benchmark
+    public void counted() {
+        counters.deliver(adapter, "benchmark", log, LogLevel.INFO);
+    }
+
+    @Benchmark
+    public void filtered() {
+        counters.filtered(LogLevel.INFO);
+    }
+}
@@ -0,0 +1,138 @@
+package io.github.sinri.keel.logger.ext.log4j2;
+
+import io.github.sinri.keel.logger.api.LogLevel;
+import io.github.sinri.keel.logger.api.adapter.LogWriterAdapter;
+import io.github.sinri.keel.logger.ext.BenchmarkLogWriters;
+import io.github.sinri.keel.logger.ext.KeelCallerLocation;
+import io.github.sinri.keel.logger.ext.KeelLoggerFeatures;
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.Marker;
+import org.apache.logging.log4j.MarkerManager;
+import org.apache.logging.log4j.ThreadContext;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link KeelLog4j2Logger} 单次调用开销的基准测试。
+ * <p>
+ * 覆盖禁用/启用级别、0/1/2/N 个参数的格式化、有无 {@link Marker}、携带异常的调用，
+ * 以及 {@link ThreadContext} 中 0/5/20 个条目对单次调用的影响；
+ * {@code located*} 衡量开启调用位置记录（{@link KeelCallerLocation}）时查找调用方的开销。
+ * 通过 {@code ./gradlew jmh} 运行时会启用 GC 分析器，报告 {@code gc.alloc.rate.norm}（字节/操作）。
+ *
+ * @since 5.0.3
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KeelLog4j2LoggerBenchmark {
+
+    @Param({"NOOP", "COUNTING"})
+    public BenchmarkLogWriters writer;
+
+    @Param({"0", "5", "20"})
+    public int threadContextSize;
+
+    private KeelLog4j2Logger logger;
+    private KeelLog4j2Logger locatedLogger;
+    private Marker marker;
+    private Throwable throwable;
+    private Object[] arguments;
+    private Level customLevel;
+
+    @Setup
+    public void setup() {
+        LogWriterAdapter adapter = writer.create();
+        logger = new KeelLog4j2Logger(() -> adapter, LogLevel.INFO, "benchmark", null, false);
+        locatedLogger = new KeelLog4j2Logger(() -> adapter, LogLevel.INFO, "benchmark", null,
+                KeelLoggerFeatures.none().withCallerLocation(KeelCallerLocation.parse("benchmark")), false);
+        marker = MarkerManager.getMarker("BENCHMARK");
+        throwable = new IllegalStateException("benchmark");
+        arguments = new Object[]{"a", 1, 2L, 3.0, true};
+        customLevel = Level.forName("BENCHMARK_VERBOSE", 550);
+        // ThreadContext 为线程私有，@State(Scope.Thread) 保证在执行基准测试的线程上填充
+        ThreadContext.clearMap();
+        for (int i = 0; i < threadContextSize; i++) {
+            ThreadContext.put("key" + i, "value" + i);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        ThreadContext.clearMap();
+    }
+
+    @Benchmark
+    public void disabledNoParameter() {
+        logger.debug("disabled message");
+    }
+
+    @Benchmark
+    public void disabledTwoParameters() {
+        logger.debug("disabled {} and {}", "a", 1);
+    }
+
+    @Benchmark
+    public void disabledFiveParameters() {
+        logger.debug("disabled {} {} {} {} {}", "a", 1, 2L, 3.0, true);
+    }
+
+    @Benchmark
+    public void disabledCustomLevel() {
+        logger.log(customLevel, "disabled {}", "a");
+    }
+
+    @Benchmark
+    public void disabledWithMarker() {
+        logger.debug(marker, "disabled {}", "a");
+    }
+
+    @Benchmark
+    public void locatedDisabled() {
+        locatedLogger.debug("disabled {} and {}", "a", 1);
+    }
+
+    @Benchmark
+    public void locatedNoParameter() {
+        locatedLogger.info("located message");
+    }
+
+    @Benchmark
+    public void locatedTwoParameters() {
+        locatedLogger.info("located {} and {}", "a", 1);
+    }
+
+    @Benchmark
+    public void enabledNoParameter() {
+        logger.info("enabled message");
+    }
+
+    @Benchmark
+    public void enabledOneParameter() {
+        logger.info("enabled {}", "a");
+    }
+
+    @Benchmark
+    public void enabledTwoParameters() {
+        logger.info("enabled {} and {}", "a", 1);
+    }
+
+    @Benchmark
+    public void enabledManyParameters() {
+        logger.info("enabled {} {} {} {} {}", arguments);
+    }
+
+    @Benchmark
+    public void enabledWithMarker() {
+        logger.info(marker, "enabled message");
+    }
+
+    @Benchmark
+    public void enabledWithException() {
+        logger.warn("enabled with exception", throwable);
+    }
+}
@@ -0,0 +1,72 @@
+package io.github.sinri.keel.logger.ext.log4j2;
+
+import io.github.sinri.keel.logger.api.LogLevel;
+import io.github.sinri.keel.logger.api.adapter.LogWriterAdapter;
+import io.github.sinri.keel.logger.ext.BenchmarkLogWriters;
+import org.apache.logging.log4j.spi.ExtendedLogger;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link KeelLog4j2LoggerContext#getLogger(String)} 在不同并发度下的查找开销。
+ * <p>
+ * 日志记录器在 {@link Setup} 中预先创建，因此基准测试只测量缓存命中路径。
+ *
+ * @since 5.0.3
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KeelLog4j2LoggerContextBenchmark {
+    private static final int LOGGER_COUNT = 256;
+
+    @Param({"NOOP", "COUNTING"})
+    public BenchmarkLogWriters writer;
+
+    private KeelLog4j2LoggerContext context;
+    private String[] names;
+
+    @Setup
+    public void setup() {
+        LogWriterAdapter adapter = writer.create();
+        context = new KeelLog4j2LoggerContext(() -> adapter, LogLevel.INFO, null, false);
+        names = new String[LOGGER_COUNT];
+        for (int i = 0; i < LOGGER_COUNT; i++) {
+            names[i] = "io.github.sinri.benchmark.Logger" + i;
+            context.getLogger(names[i]);
+        }
+    }
+
+    private ExtendedLogger lookup() {
+        return context.getLogger(names[ThreadLocalRandom.current().nextInt(LOGGER_COUNT)]);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public ExtendedLogger getLoggerThreads1() {
+        return lookup();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public ExtendedLogger getLoggerThreads4() {
+        return lookup();
+    }
+
+    @Benchmark
+    @Threads(16)
+    public ExtendedLogger getLoggerThreads16() {
+        return lookup();
+    }
+
+    @Benchmark
+    @Threads(64)
+    public ExtendedLogger getLoggerThreads64() {
+        return lookup();
+    }
+}
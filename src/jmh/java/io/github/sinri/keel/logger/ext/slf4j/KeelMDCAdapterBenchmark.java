@@ -0,0 +1,75 @@
+package io.github.sinri.keel.logger.ext.slf4j;
+
+import io.github.sinri.keel.logger.api.LogLevel;
+import io.github.sinri.keel.logger.api.adapter.LogWriterAdapter;
+import io.github.sinri.keel.logger.ext.BenchmarkLogWriters;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link KeelMDCAdapter} 的基准测试。
+ * <p>
+ * 测量 {@code put}/{@code get} 的开销，以及 MDC 中有 0/5/20 个条目时每条日志事件写入上下文的开销
+ * （与被过滤的日志事件对比，后者不应访问 MDC）。
+ *
+ * @since 5.0.3
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KeelMDCAdapterBenchmark {
+
+    @Param({"NOOP", "COUNTING"})
+    public BenchmarkLogWriters writer;
+
+    @Param({"0", "5", "20"})
+    public int mdcSize;
+
+    private KeelMDCAdapter mdcAdapter;
+    private KeelSlf4jLogger logger;
+    private int counter;
+
+    @Setup
+    public void setup() {
+        LogWriterAdapter adapter = writer.create();
+        mdcAdapter = new KeelMDCAdapter();
+        logger = new KeelSlf4jLogger(() -> adapter, LogLevel.INFO, "benchmark", null, mdcAdapter);
+        for (int i = 0; i < mdcSize; i++) {
+            mdcAdapter.put("key" + i, "value" + i);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        mdcAdapter.clear();
+    }
+
+    @Benchmark
+    public String get() {
+        return mdcAdapter.get("key0");
+    }
+
+    @Benchmark
+    public void putSameValue() {
+        mdcAdapter.put("requestId", "fixed");
+    }
+
+    @Benchmark
+    public void putChangingValue() {
+        mdcAdapter.put("requestId", (counter++ & 1) == 0 ? "even" : "odd");
+    }
+
+    @Benchmark
+    public void enabledEventWithMdc() {
+        logger.info("enabled message");
+    }
+
+    @Benchmark
+    public void disabledEventWithMdc() {
+        logger.debug("disabled message");
+    }
+}
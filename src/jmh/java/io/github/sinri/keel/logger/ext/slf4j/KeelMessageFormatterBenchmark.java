@@ -0,0 +1,71 @@
+package io.github.sinri.keel.logger.ext.slf4j;
+
+import org.openjdk.jmh.annotations.*;
+import org.slf4j.helpers.MessageFormatter;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link KeelMessageFormatter} 与 SLF4J {@link MessageFormatter} 的对比基准测试。
+ * <p>
+ * 分别测量 1、2、3 个参数以及模板中没有占位符时的格式化开销；
+ * 以 {@code -prof gc} 运行可对比每次调用的分配量（前者只分配结果字符串）。
+ *
+ * @since 5.0.3
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KeelMessageFormatterBenchmark {
+    private static final String ONE = "user {} logged in";
+    private static final String TWO = "user {} logged in from {}";
+    private static final String THREE = "user {} logged in from {} after {} ms";
+    private static final String NONE = "user logged in";
+
+    private String user = "alice";
+    private String address = "10.0.0.1";
+    private Integer elapsed = 42;
+
+    @Benchmark
+    public String slf4jOneArgument() {
+        return MessageFormatter.format(ONE, user).getMessage();
+    }
+
+    @Benchmark
+    public String keelOneArgument() {
+        return KeelMessageFormatter.format(ONE, user);
+    }
+
+    @Benchmark
+    public String slf4jTwoArguments() {
+        return MessageFormatter.format(TWO, user, address).getMessage();
+    }
+
+    @Benchmark
+    public String keelTwoArguments() {
+        return KeelMessageFormatter.format(TWO, user, address);
+    }
+
+    @Benchmark
+    public String slf4jThreeArguments() {
+        return MessageFormatter.arrayFormat(THREE, new Object[]{user, address, elapsed}).getMessage();
+    }
+
+    @Benchmark
+    public String keelThreeArguments() {
+        return KeelMessageFormatter.arrayFormat(THREE, new Object[]{user, address, elapsed});
+    }
+
+    @Benchmark
+    public String slf4jNoPlaceholder() {
+        return MessageFormatter.format(NONE, user).getMessage();
+    }
+
+    @Benchmark
+    public String keelNoPlaceholder() {
+        return KeelMessageFormatter.format(NONE, user);
+    }
+}
@@ -0,0 +1,168 @@
+package io.github.sinri.keel.logger.ext.slf4j;
+
+import io.github.sinri.keel.logger.api.LogLevel;
+import io.github.sinri.keel.logger.api.adapter.LogWriterAdapter;
+import io.github.sinri.keel.logger.ext.BenchmarkLogWriters;
+import io.github.sinri.keel.logger.ext.KeelCallerLocation;
+import io.github.sinri.keel.logger.ext.KeelLogRouting;
+import io.github.sinri.keel.logger.ext.KeelLoggerFeatures;
+import io.github.sinri.keel.logger.ext.KeelMarkerLevels;
+import org.openjdk.jmh.annotations.*;
+import org.slf4j.Marker;
+import org.slf4j.helpers.BasicMarkerFactory;
+import org.slf4j.spi.LocationAwareLogger;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link KeelSlf4jLogger} 单次调用开销的基准测试。
+ * <p>
+ * 覆盖禁用/启用级别、0/1/2/N 个参数的格式化、有无 {@link Marker} 以及携带异常的调用；
+ * {@code enabledWithMarker} 与 {@code enabledWithBasicMarker} 对比缓存分类的 {@link KeelMarker} 与逐次转换的
+ * {@link BasicMarkerFactory} 标记；{@code markerThreshold*} 衡量配置了标记阈值（{@link KeelMarkerLevels}）时的级别检查；
+ * {@code routed*} 衡量配置了路由表（{@link KeelLogRouting}）时选择适配器的开销；
+ * {@code located*} 衡量开启调用位置记录（{@link KeelCallerLocation}）时查找调用方的开销，
+ * 与对应的 {@code enabled*} 相比即每个事件的额外开销，{@code locatedDisabled} 确认被过滤的事件不查找调用方。
+ * 通过 {@code ./gradlew jmh} 运行时会启用 GC 分析器，报告 {@code gc.alloc.rate.norm}（字节/操作）。
+ *
+ * @since 5.0.3
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KeelSlf4jLoggerBenchmark {
+
+    @Param({"NOOP", "COUNTING"})
+    public BenchmarkLogWriters writer;
+
+    private KeelSlf4jLogger logger;
+    private KeelSlf4jLogger thresholdLogger;
+    private KeelSlf4jLogger routedLogger;
+    private KeelSlf4jLogger locatedLogger;
+    private Marker marker;
+    private Marker sqlMarker;
+    private Marker basicMarker;
+    private Throwable throwable;
+    private Object[] arguments;
+
+    @Setup
+    public void setup() {
+        LogWriterAdapter adapter = writer.create();
+        logger = new KeelSlf4jLogger(() -> adapter, LogLevel.INFO, "benchmark", null);
+        marker = new KeelMarkerFactory().getMarker("BENCHMARK");
+        marker.add(new KeelMarkerFactory().getMarker("AUDIT"));
+        thresholdLogger = new KeelSlf4jLogger(() -> adapter, LogLevel.WARNING, "benchmark", null);
+        thresholdLogger.setMarkerLevels(KeelMarkerLevels.of(Map.of("AUDIT", LogLevel.TRACE, "SQL", LogLevel.SILENT)));
+        sqlMarker = new KeelMarkerFactory().getMarker("SQL");
+        KeelLogRouting routing = KeelLogRouting.none()
+                                               .withRoute("", LogLevel.TRACE, "AUDIT", () -> adapter)
+                                               .withRoute("benchmark", LogLevel.WARNING, null, () -> adapter);
+        routedLogger = new KeelSlf4jLogger(() -> adapter, LogLevel.INFO, "benchmark", null, null,
+                KeelLoggerFeatures.none().withRouting(routing));
+        locatedLogger = new KeelSlf4jLogger(() -> adapter, LogLevel.INFO, "benchmark", null, null,
+                KeelLoggerFeatures.none().withCallerLocation(KeelCallerLocation.parse("benchmark")));
+        basicMarker = new BasicMarkerFactory().getMarker("BENCHMARK");
+        basicMarker.add(new BasicMarkerFactory().getMarker("AUDIT"));
+        throwable = new IllegalStateException("benchmark");
+        arguments = new Object[]{"a", 1, 2L, 3.0, true};
+    }
+
+    @Benchmark
+    public void disabledNoParameter() {
+        logger.debug("disabled message");
+    }
+
+    @Benchmark
+    public void disabledTwoParameters() {
+        logger.debug("disabled {} and {}", "a", 1);
+    }
+
+    @Benchmark
+    public void disabledWithMarker() {
+        logger.debug(marker, "disabled {}", "a");
+    }
+
+    @Benchmark
+    public void enabledNoParameter() {
+        logger.info("enabled message");
+    }
+
+    @Benchmark
+    public void enabledOneParameter() {
+        logger.info("enabled {}", "a");
+    }
+
+    @Benchmark
+    public void enabledTwoParameters() {
+        logger.info("enabled {} and {}", "a", 1);
+    }
+
+    @Benchmark
+    public void enabledManyParameters() {
+        logger.info("enabled {} {} {} {} {}", arguments);
+    }
+
+    @Benchmark
+    public void enabledWithMarker() {
+        logger.info(marker, "enabled message");
+    }
+
+    @Benchmark
+    public void enabledWithBasicMarker() {
+        logger.info(basicMarker, "enabled message");
+    }
+
+    @Benchmark
+    public void enabledWithMarkerTwoParameters() {
+        logger.info(marker, "enabled {} and {}", "a", 1);
+    }
+
+    @Benchmark
+    public boolean markerThresholdEnabledCheck() {
+        return thresholdLogger.isDebugEnabled(marker);
+    }
+
+    @Benchmark
+    public void markerThresholdFiltered() {
+        thresholdLogger.error(sqlMarker, "filtered {} and {}", "a", 1);
+    }
+
+    @Benchmark
+    public void routedNoParameter() {
+        routedLogger.info("routed message");
+    }
+
+    @Benchmark
+    public void routedWithMarker() {
+        routedLogger.info(marker, "routed {} and {}", "a", 1);
+    }
+
+    @Benchmark
+    public void locatedDisabled() {
+        locatedLogger.debug("disabled {} and {}", "a", 1);
+    }
+
+    @Benchmark
+    public void locatedNoParameter() {
+        locatedLogger.info("located message");
+    }
+
+    @Benchmark
+    public void locatedTwoParameters() {
+        locatedLogger.info("located {} and {}", "a", 1);
+    }
+
+    @Benchmark
+    public void locatedViaLocationAwareLogger() {
+        locatedLogger.log(null, KeelSlf4jLoggerBenchmark.class.getName(), LocationAwareLogger.INFO_INT, "located {}", arguments, null);
+    }
+
+    @Benchmark
+    public void enabledWithException() {
+        logger.warn("enabled with exception", throwable);
+    }
+}
@@ -0,0 +1,72 @@
+package io.github.sinri.keel.logger.ext.slf4j;
+
+import io.github.sinri.keel.logger.api.LogLevel;
+import io.github.sinri.keel.logger.api.adapter.LogWriterAdapter;
+import io.github.sinri.keel.logger.ext.BenchmarkLogWriters;
+import org.openjdk.jmh.annotations.*;
+import org.slf4j.Logger;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link KeelSlf4jLoggerFactory#getLogger(String)} 在不同并发度下的查找开销。
+ * <p>
+ * 日志记录器在 {@link Setup} 中预先创建，因此基准测试只测量缓存命中路径。
+ *
+ * @since 5.0.3
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KeelSlf4jLoggerFactoryBenchmark {
+    private static final int LOGGER_COUNT = 256;
+
+    @Param({"NOOP", "COUNTING"})
+    public BenchmarkLogWriters writer;
+
+    private KeelSlf4jLoggerFactory factory;
+    private String[] names;
+
+    @Setup
+    public void setup() {
+        LogWriterAdapter adapter = writer.create();
+        factory = new KeelSlf4jLoggerFactory(() -> adapter, LogLevel.INFO, null, false);
+        names = new String[LOGGER_COUNT];
+        for (int i = 0; i < LOGGER_COUNT; i++) {
+            names[i] = "io.github.sinri.benchmark.Logger" + i;
+            factory.getLogger(names[i]);
+        }
+    }
+
+    private Logger lookup() {
+        return factory.getLogger(names[ThreadLocalRandom.current().nextInt(LOGGER_COUNT)]);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Logger getLoggerThreads1() {
+        return lookup();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Logger getLoggerThreads4() {
+        return lookup();
+    }
+
+    @Benchmark
+    @Threads(16)
+    public Logger getLoggerThreads16() {
+        return lookup();
+    }
+
+    @Benchmark
+    @Threads(64)
+    public Logger getLoggerThreads64() {
+        return lookup();
+    }
+}
@@ -0,0 +1,349 @@
+package io.github.sinri.keel.logger.ext;
+
+import io.github.sinri.keel.logger.api.LogLevel;
+import io.github.sinri.keel.logger.api.adapter.BaseLogWriter;
+import io.github.sinri.keel.logger.api.adapter.LogWriterAdapter;
+import io.github.sinri.keel.logger.api.log.SpecificLog;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+import java.io.PrintWriter;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * 在日志记录器与 {@link LogWriterAdapter} 之间加入的异步交接层。
+ * <p>
+ * 调用方线程只把（主题，日志事件）放入预分配的无锁环形缓冲区后立即返回，
+ * 由专用的消费者线程调用下游适配器，慢速的下游不再直接体现为调用方的延迟。
+ * <ul>
+ *     <li>按主题哈希分片：同一主题（即同一日志记录器）总是进入同一分片、由同一消费者线程写出，保持其事件顺序；
+ *     多个分片可并行写出</li>
+ *     <li>缓冲区已满时按 {@link KeelAsyncLogWriterOptions.OverflowPolicy} 处理，丢弃与等待均有计数</li>
+ *     <li>{@link #close()} 停止接收并在 {@link KeelAsyncLogWriterOptions#drainTimeout()} 内写完剩余事件；
+ *     {@link #start()} 会注册 JVM 关闭钩子执行同样的操作</li>
+ * </ul>
+ * 下游适配器通过供应者在消费者线程上获取，因此调用方线程也不再执行供应者。
+ * 关闭之后到达的事件在调用方线程上同步写出；{@link #close()} 先等待已越过关闭检查、正在入队的调用方完成，
+ * 再写出剩余事件，因此与关闭并发到达的事件要么被写出，要么计入丢弃数。
+ * 消费者线程与 {@link #close()} 使用同一个写出截止时刻，到期仍未写出的事件由消费者线程计入丢弃数。
+ *
+ * @since 5.0.3
+ */
+@NullMarked
+public final class KeelAsyncLogWriter extends BaseLogWriter implements AutoCloseable {
+    /**
+     * {@link KeelAsyncLogWriterOptions.WaitStrategy#PARK} 每次休眠的纳秒数。
+     */
+    private static final long PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    private final Supplier<LogWriterAdapter> delegateSupplier;
+    private final KeelAsyncLogWriterOptions options;
+    private final boolean verbose;
+    private final KeelLogRingBuffer[] buffers;
+    private final Thread[] consumers;
+    /**
+     * 每个分片上已越过关闭检查、尚未完成入队的调用方数量，由 {@link #close()} 等待归零。
+     */
+    private final AtomicInteger[] offering;
+    private final LongAdder enqueuedCount = new LongAdder();
+    private final LongAdder writtenCount = new LongAdder();
+    private final LongAdder droppedCount = new LongAdder();
+    private final LongAdder blockedCount = new LongAdder();
+    private final LongAdder failedCount = new LongAdder();
+    /**
+     * 关闭时剩余事件的写出截止时刻（{@link System#nanoTime()}），在设置 {@link #closed} 之前发布。
+     */
+    private volatile long drainDeadline;
+    private volatile boolean closed;
+    private @Nullable Thread shutdownHook;
+
+    /**
+     * 创建异步写出器（尚未启动）。
+     *
+     * @param delegateSupplier 下游适配器的供应者，在消费者线程上调用
+     * @param options          配置
+     * @param verbose          是否在下游写出失败时输出错误信息
+     */
+    public KeelAsyncLogWriter(
+            Supplier<LogWriterAdapter> delegateSupplier,
+            KeelAsyncLogWriterOptions options,
+            boolean verbose) {
+        this.delegateSupplier = delegateSupplier;
+        this.options = options;
+        this.verbose = verbose;
+        this.buffers = new KeelLogRingBuffer[options.shards()];
+        this.consumers = new Thread[options.shards()];
+        this.offering = new AtomicInteger[options.shards()];
+        for (int i = 0; i < buffers.length; i++) {
+            KeelLogRingBuffer buffer = new KeelLogRingBuffer(options.bufferSize());
+            buffers[i] = buffer;
+            Thread consumer = new Thread(() -> consume(buffer), "keel-logger-async-" + i);
+            consumer.setDaemon(true);
+            consumers[i] = consumer;
+            offering[i] = new AtomicInteger();
+        }
+    }
+
+    /**
+     * 以 {@link KeelAsyncLogWriter} 包装适配器供应者并启动。
+     *
+     * @param adapterSupplier 下游适配器的供应者
+     * @param options         配置；为 null 时不包装，原样返回 {@code adapterSupplier}
+     * @param verbose         是否输出调试信息
+     * @return 日志记录器应使用的适配器供应者
+     */
+    public static Supplier<LogWriterAdapter> wrap(
+            Supplier<LogWriterAdapter> adapterSupplier,
+            @Nullable KeelAsyncLogWriterOptions options,
+            boolean verbose) {
+        if (options == null) {
+            return adapterSupplier;
+        }
+        KeelAsyncLogWriter writer = new KeelAsyncLogWriter(adapterSupplier, options, verbose);
+        writer.start();
+        if (verbose) {
+            System.out.println("Keel Logging async hand-off started: " + options);
+        }
+        return () -> writer;
+    }
+
+    /**
+     * 启动消费者线程，并注册在 JVM 关闭时调用 {@link #close()} 的钩子。
+     */
+    public synchronized void start() {
+        if (shutdownHook != null || closed) {
+            return;
+        }
+        for (Thread consumer : consumers) {
+            consumer.start();
+        }
+        Thread hook = new Thread(this::close, "keel-logger-async-shutdown");
+        Runtime.getRuntime().addShutdownHook(hook);
+        this.shutdownHook = hook;
+    }
+
+    @Override
+    public void accept(String topic, SpecificLog<?> log) {
+        int shard = buffers.length == 1 ? 0 : (topic.hashCode() & Integer.MAX_VALUE) % buffers.length;
+        AtomicInteger pending = offering[shard];
+        // 先登记再检查关闭标志：close() 先设置标志再等待登记数归零，二者之间不会有事件漏入无人消费的缓冲区
+        // 同步写出在登记窗口之外进行，close() 不会等待慢速的下游
+        pending.incrementAndGet();
+        boolean handedOff = false;
+        try {
+            if (!closed) {
+                handedOff = offer(buffers[shard], topic, log);
+            }
+        } finally {
+            pending.decrementAndGet();
+        }
+        if (!handedOff) {
+            write(topic, log);
+        }
+    }
+
+    /**
+     * @return 事件已入队或已按溢出策略丢弃时返回 true；等待空位期间已关闭、须由调用方同步写出时返回 false
+     */
+    private boolean offer(KeelLogRingBuffer buffer, String topic, SpecificLog<?> log) {
+        if (buffer.offer(topic, log)) {
+            enqueuedCount.increment();
+            return true;
+        }
+        switch (options.overflowPolicy()) {
+            case DROP -> {
+                droppedCount.increment();
+                return true;
+            }
+            case DROP_BELOW_LEVEL -> {
+                LogLevel level = log.level();
+                if (level == null || !level.isEnoughSeriousAs(options.dropBelowLevel())) {
+                    droppedCount.increment();
+                    return true;
+                }
+                return offerBlocking(buffer, topic, log);
+            }
+            default -> {
+                return offerBlocking(buffer, topic, log);
+            }
+        }
+    }
+
+    private boolean offerBlocking(KeelLogRingBuffer buffer, String topic, SpecificLog<?> log) {
+        blockedCount.increment();
+        while (!buffer.offer(topic, log)) {
+            if (closed) {
+                return false;
+            }
+            idle();
+        }
+        enqueuedCount.increment();
+        return true;
+    }
+
+    private void consume(KeelLogRingBuffer buffer) {
+        KeelLogRingBuffer.Sink sink = this::write;
+        while (!closed) {
+            if (!buffer.poll(sink)) {
+                idle();
+            }
+        }
+        drain(buffer, drainDeadline);
+    }
+
+    /**
+     * 在截止时刻之前写出缓冲区中的事件，之后仍未写出的事件出队并计入丢弃数。
+     * 只能由该分片唯一的消费方调用：仍在运行的消费者线程，或已确认其退出后的 {@link #close()}。
+     */
+    private void drain(KeelLogRingBuffer buffer, long deadline) {
+        while (System.nanoTime() - deadline < 0 && buffer.poll(this::write)) {
+            // 在限定时间内写完剩余事件
+        }
+        while (buffer.poll((topic, log) -> droppedCount.increment())) {
+            // 超时未写出
+        }
+    }
+
+    private void idle() {
+        switch (options.waitStrategy()) {
+            case SPIN -> Thread.onSpinWait();
+            case YIELD -> Thread.yield();
+            case PARK -> LockSupport.parkNanos(PARK_NANOS);
+        }
+    }
+
+    private void write(String topic, SpecificLog<?> log) {
+        try {
+            LogWriterAdapter delegate = delegateSupplier.get();
+            if (delegate == null) {
+                droppedCount.increment();
+                return;
+            }
+            delegate.accept(topic, log);
+            writtenCount.increment();
+        } catch (Throwable throwable) {
+            failedCount.increment();
+            if (verbose) {
+                System.err.println("Keel Logging async hand-off failed to write event of topic [" + topic + "]: " + throwable);
+                throwable.printStackTrace(new PrintWriter(System.err, true));
+            }
+        }
+    }
+
+    /**
+     * 停止接收新事件，等待正在入队的调用方完成，再等待消费者线程在 {@link KeelAsyncLogWriterOptions#drainTimeout()} 内写完剩余事件。
+     * <p>
+     * 之后到达的事件在调用方线程上同步写出；超时未写出的事件计入丢弃数。
+     * 超时时正在写出的消费者线程在写完当前事件后停止，并将其余事件计入丢弃数。
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            drainDeadline = System.nanoTime() + options.drainTimeout().toNanos();
+            closed = true;
+            Thread hook = shutdownHook;
+            if (hook != null && Thread.currentThread() != hook) {
+                try {
+                    Runtime.getRuntime().removeShutdownHook(hook);
+                } catch (IllegalStateException ignored) {
+                    // JVM 正在关闭
+                }
+            }
+        }
+        long deadline = drainDeadline;
+        for (AtomicInteger pending : offering) {
+            // 入队本身不会长时间阻塞：等待空位的调用方看到关闭标志后退出登记窗口，改为同步写出
+            while (pending.get() > 0 && System.nanoTime() - deadline < 0) {
+                Thread.onSpinWait();
+            }
+        }
+        for (Thread consumer : consumers) {
+            if (!consumer.isAlive()) {
+                continue;
+            }
+            long remaining = deadline - System.nanoTime();
+            if (remaining > 0) {
+                try {
+                    consumer.join(TimeUnit.NANOSECONDS.toMillis(remaining) + 1);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+        for (int i = 0; i < buffers.length; i++) {
+            if (!consumers[i].isAlive()) {
+                // 消费者已退出（或从未启动），由当前线程接手写出关闭前最后入队的事件；
+                // 仍在运行的消费者到期后自行将剩余事件计入丢弃数
+                drain(buffers[i], deadline);
+            }
+        }
+    }
+
+    /**
+     * @return 是否已关闭
+     */
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * @return 配置
+     */
+    public KeelAsyncLogWriterOptions getOptions() {
+        return options;
+    }
+
+    /**
+     * @return 成功放入缓冲区的事件数
+     */
+    public long getEnqueuedCount() {
+        return enqueuedCount.sum();
+    }
+
+    /**
+     * @return 已交给下游适配器的事件数（含同步写出的事件）
+     */
+    public long getWrittenCount() {
+        return writtenCount.sum();
+    }
+
+    /**
+     * @return 因缓冲区已满、关闭超时或没有可用的下游适配器而丢弃的事件数
+     */
+    public long getDroppedCount() {
+        return droppedCount.sum();
+    }
+
+    /**
+     * @return 因缓冲区已满而使调用方等待的次数
+     */
+    public long getBlockedCount() {
+        return blockedCount.sum();
+    }
+
+    /**
+     * @return 下游适配器抛出异常的次数
+     */
+    public long getFailedCount() {
+        return failedCount.sum();
+    }
+
+    /**
+     * @return 所有分片缓冲区中尚未写出的近似事件数
+     */
+    public int getPendingCount() {
+        int pending = 0;
+        for (KeelLogRingBuffer buffer : buffers) {
+            pending += buffer.size();
+        }
+        return pending;
+    }
+}
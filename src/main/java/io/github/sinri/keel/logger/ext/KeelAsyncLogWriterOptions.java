@@ -0,0 +1,276 @@
+package io.github.sinri.keel.logger.ext;
+
+import io.github.sinri.keel.logger.api.LogLevel;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * {@link KeelAsyncLogWriter} 的配置，不可变对象。
+ * <p>
+ * 以 {@link #defaults()} 为起点，通过 {@code withXxx} 方法派生新配置，例如：
+ * <pre>{@code
+ * KeelAsyncLogWriterOptions.defaults()
+ *         .withBufferSize(16384)
+ *         .withShards(2)
+ *         .withWaitStrategy(KeelAsyncLogWriterOptions.WaitStrategy.YIELD)
+ *         .withOverflowPolicy(KeelAsyncLogWriterOptions.OverflowPolicy.DROP_BELOW_LEVEL)
+ *         .withDropBelowLevel(LogLevel.WARNING);
+ * }</pre>
+ * 也可以通过系统属性启用，见 {@link #fromSystemProperties()}。
+ *
+ * @since 5.0.3
+ */
+@NullMarked
+public final class KeelAsyncLogWriterOptions {
+    /**
+     * 启用异步写出的系统属性，取值为 {@code true} 时启用。
+     */
+    public static final String ASYNC_PROPERTY = "keel.logger.ext.async";
+    /**
+     * 异步写出相关配置的系统属性前缀，如 {@code keel.logger.ext.async.bufferSize}。
+     */
+    public static final String ASYNC_PROPERTY_PREFIX = ASYNC_PROPERTY + ".";
+
+    private static final KeelAsyncLogWriterOptions DEFAULTS = new KeelAsyncLogWriterOptions(
+            8192, 1, WaitStrategy.PARK, OverflowPolicy.BLOCK, LogLevel.WARNING, Duration.ofSeconds(5));
+
+    private final int bufferSize;
+    private final int shards;
+    private final WaitStrategy waitStrategy;
+    private final OverflowPolicy overflowPolicy;
+    private final LogLevel dropBelowLevel;
+    private final Duration drainTimeout;
+
+    private KeelAsyncLogWriterOptions(
+            int bufferSize,
+            int shards,
+            WaitStrategy waitStrategy,
+            OverflowPolicy overflowPolicy,
+            LogLevel dropBelowLevel,
+            Duration drainTimeout) {
+        if (bufferSize < 2 || Integer.bitCount(bufferSize) != 1) {
+            throw new IllegalArgumentException("bufferSize must be a power of two: " + bufferSize);
+        }
+        if (shards < 1) {
+            throw new IllegalArgumentException("shards must be positive: " + shards);
+        }
+        if (drainTimeout.isNegative()) {
+            throw new IllegalArgumentException("drainTimeout must not be negative: " + drainTimeout);
+        }
+        this.bufferSize = bufferSize;
+        this.shards = shards;
+        this.waitStrategy = waitStrategy;
+        this.overflowPolicy = overflowPolicy;
+        this.dropBelowLevel = dropBelowLevel;
+        this.drainTimeout = drainTimeout;
+    }
+
+    /**
+     * 默认配置：每个分片 8192 个槽位，1 个分片，{@link WaitStrategy#PARK}，{@link OverflowPolicy#BLOCK}，
+     * 关闭时最多等待 5 秒写完剩余事件。
+     *
+     * @return 默认配置
+     */
+    public static KeelAsyncLogWriterOptions defaults() {
+        return DEFAULTS;
+    }
+
+    /**
+     * 从系统属性读取配置。
+     * <p>
+     * 仅当 {@value #ASYNC_PROPERTY} 为 {@code true} 时启用，其余属性可选：
+     * <ul>
+     *     <li>{@code keel.logger.ext.async.bufferSize}：每个分片的槽位数，2 的幂</li>
+     *     <li>{@code keel.logger.ext.async.shards}：分片（消费者线程）数</li>
+     *     <li>{@code keel.logger.ext.async.waitStrategy}：{@code SPIN}、{@code YIELD} 或 {@code PARK}</li>
+     *     <li>{@code keel.logger.ext.async.overflowPolicy}：{@code BLOCK}、{@code DROP} 或 {@code DROP_BELOW_LEVEL}</li>
+     *     <li>{@code keel.logger.ext.async.dropBelowLevel}：级别名称，如 {@code WARN}</li>
+     *     <li>{@code keel.logger.ext.async.drainTimeoutMillis}：关闭时等待写完的毫秒数</li>
+     * </ul>
+     *
+     * @return 配置；未启用时返回 null
+     * @throws IllegalArgumentException 当属性取值无法解析时抛出
+     */
+    @Nullable
+    public static KeelAsyncLogWriterOptions fromSystemProperties() {
+        if (!Boolean.parseBoolean(System.getProperty(ASYNC_PROPERTY, "false").trim())) {
+            return null;
+        }
+        KeelAsyncLogWriterOptions options = defaults();
+        String value = property("bufferSize");
+        if (value != null) {
+            options = options.withBufferSize(Integer.parseInt(value));
+        }
+        value = property("shards");
+        if (value != null) {
+            options = options.withShards(Integer.parseInt(value));
+        }
+        value = property("waitStrategy");
+        if (value != null) {
+            options = options.withWaitStrategy(WaitStrategy.valueOf(value.toUpperCase(Locale.ROOT)));
+        }
+        value = property("overflowPolicy");
+        if (value != null) {
+            options = options.withOverflowPolicy(OverflowPolicy.valueOf(value.toUpperCase(Locale.ROOT)));
+        }
+        value = property("dropBelowLevel");
+        if (value != null) {
+            options = options.withDropBelowLevel(KeelLoggerLevels.parseLevel(value));
+        }
+        value = property("drainTimeoutMillis");
+        if (value != null) {
+            options = options.withDrainTimeout(Duration.ofMillis(Long.parseLong(value)));
+        }
+        return options;
+    }
+
+    @Nullable
+    private static String property(String name) {
+        String value = System.getProperty(ASYNC_PROPERTY_PREFIX + name);
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        return value.trim();
+    }
+
+    /**
+     * @return 每个分片环形缓冲区的槽位数
+     */
+    public int bufferSize() {
+        return bufferSize;
+    }
+
+    /**
+     * @return 分片数，即消费者线程数
+     */
+    public int shards() {
+        return shards;
+    }
+
+    /**
+     * @return 消费者线程在缓冲区为空时、生产者线程在 {@link OverflowPolicy#BLOCK} 下等待时使用的等待策略
+     */
+    public WaitStrategy waitStrategy() {
+        return waitStrategy;
+    }
+
+    /**
+     * @return 缓冲区已满时的处理策略
+     */
+    public OverflowPolicy overflowPolicy() {
+        return overflowPolicy;
+    }
+
+    /**
+     * @return {@link OverflowPolicy#DROP_BELOW_LEVEL} 下不会被丢弃的最低级别
+     */
+    public LogLevel dropBelowLevel() {
+        return dropBelowLevel;
+    }
+
+    /**
+     * @return 关闭时等待写完剩余事件的最长时间
+     */
+    public Duration drainTimeout() {
+        return drainTimeout;
+    }
+
+    /**
+     * @param bufferSize 每个分片环形缓冲区的槽位数，必须是 2 的幂
+     * @return 新配置
+     */
+    public KeelAsyncLogWriterOptions withBufferSize(int bufferSize) {
+        return new KeelAsyncLogWriterOptions(bufferSize, shards, waitStrategy, overflowPolicy, dropBelowLevel, drainTimeout);
+    }
+
+    /**
+     * @param shards 分片数；同一主题总是落在同一分片，从而保持每个日志记录器的事件顺序
+     * @return 新配置
+     */
+    public KeelAsyncLogWriterOptions withShards(int shards) {
+        return new KeelAsyncLogWriterOptions(bufferSize, shards, waitStrategy, overflowPolicy, dropBelowLevel, drainTimeout);
+    }
+
+    /**
+     * @param waitStrategy 等待策略
+     * @return 新配置
+     */
+    public KeelAsyncLogWriterOptions withWaitStrategy(WaitStrategy waitStrategy) {
+        return new KeelAsyncLogWriterOptions(bufferSize, shards, Objects.requireNonNull(waitStrategy), overflowPolicy, dropBelowLevel, drainTimeout);
+    }
+
+    /**
+     * @param overflowPolicy 缓冲区已满时的处理策略
+     * @return 新配置
+     */
+    public KeelAsyncLogWriterOptions withOverflowPolicy(OverflowPolicy overflowPolicy) {
+        return new KeelAsyncLogWriterOptions(bufferSize, shards, waitStrategy, Objects.requireNonNull(overflowPolicy), dropBelowLevel, drainTimeout);
+    }
+
+    /**
+     * @param dropBelowLevel {@link OverflowPolicy#DROP_BELOW_LEVEL} 下不会被丢弃的最低级别
+     * @return 新配置
+     */
+    public KeelAsyncLogWriterOptions withDropBelowLevel(LogLevel dropBelowLevel) {
+        return new KeelAsyncLogWriterOptions(bufferSize, shards, waitStrategy, overflowPolicy, Objects.requireNonNull(dropBelowLevel), drainTimeout);
+    }
+
+    /**
+     * @param drainTimeout 关闭时等待写完剩余事件的最长时间
+     * @return 新配置
+     */
+    public KeelAsyncLogWriterOptions withDrainTimeout(Duration drainTimeout) {
+        return new KeelAsyncLogWriterOptions(bufferSize, shards, waitStrategy, overflowPolicy, dropBelowLevel, Objects.requireNonNull(drainTimeout));
+    }
+
+    @Override
+    public String toString() {
+        return "KeelAsyncLogWriterOptions{bufferSize=" + bufferSize
+                + ", shards=" + shards
+                + ", waitStrategy=" + waitStrategy
+                + ", overflowPolicy=" + overflowPolicy
+                + ", dropBelowLevel=" + dropBelowLevel
+                + ", drainTimeout=" + drainTimeout
+                + "}";
+    }
+
+    /**
+     * 等待策略。
+     */
+    public enum WaitStrategy {
+        /**
+         * 忙等（{@link Thread#onSpinWait()}），延迟最低，独占一个 CPU 核心。
+         */
+        SPIN,
+        /**
+         * 让出 CPU（{@link Thread#yield()}），延迟较低，空闲时仍有一定 CPU 占用。
+         */
+        YIELD,
+        /**
+         * 短暂休眠（{@link java.util.concurrent.locks.LockSupport#parkNanos(long)}），空闲时几乎不占用 CPU。
+         */
+        PARK
+    }
+
+    /**
+     * 缓冲区已满时的处理策略。
+     */
+    public enum OverflowPolicy {
+        /**
+         * 调用方等待直到有空闲槽位，不丢失事件。
+         */
+        BLOCK,
+        /**
+         * 直接丢弃新事件并计数。
+         */
+        DROP,
+        /**
+         * 低于 {@link #dropBelowLevel()} 的事件被丢弃并计数，其余事件等待空闲槽位。
+         */
+        DROP_BELOW_LEVEL
+    }
+}
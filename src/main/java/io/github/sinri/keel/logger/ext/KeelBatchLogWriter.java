@@ -0,0 +1,41 @@
+package io.github.sinri.keel.logger.ext;
+
+import io.github.sinri.keel.logger.api.adapter.LogWriterAdapter;
+import io.github.sinri.keel.logger.api.log.SpecificLog;
+import org.jspecify.annotations.NullMarked;
+
+import java.util.List;
+
+/**
+ * 按批接收日志事件的下游写出器，由 {@link KeelBatchingLogWriter} 调用。
+ * <p>
+ * 同一主题的批次按事件到达顺序交付，且同一主题不会被并发交付。
+ * 传入的列表由 {@link KeelBatchingLogWriter} 复用，实现类不得在 {@link #acceptBatch(String, List)} 返回后继续持有或修改它。
+ *
+ * @since 5.0.3
+ */
+@NullMarked
+@FunctionalInterface
+public interface KeelBatchLogWriter {
+    /**
+     * 将逐条接收的 {@link LogWriterAdapter} 适配为按批接收的写出器，批内事件依次交给它。
+     *
+     * @param adapter 逐条接收的适配器
+     * @return 按批接收的写出器
+     */
+    static KeelBatchLogWriter perEvent(LogWriterAdapter adapter) {
+        return (topic, logs) -> {
+            for (int i = 0; i < logs.size(); i++) {
+                adapter.accept(topic, logs.get(i));
+            }
+        };
+    }
+
+    /**
+     * 接收同一主题的一批日志事件。
+     *
+     * @param topic 主题
+     * @param logs  日志事件，按到达顺序排列；只在本方法执行期间有效
+     */
+    void acceptBatch(String topic, List<SpecificLog<?>> logs);
+}
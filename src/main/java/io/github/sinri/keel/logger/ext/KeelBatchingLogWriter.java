@@ -0,0 +1,246 @@
+package io.github.sinri.keel.logger.ext;
+
+import io.github.sinri.keel.logger.api.adapter.BaseLogWriter;
+import io.github.sinri.keel.logger.api.log.SpecificLog;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+import java.io.PrintWriter;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 按主题攒批后交给 {@link KeelBatchLogWriter} 的适配器。
+ * <p>
+ * 每个主题持有一个可复用的批次，满足以下任一条件时整批交付给下游：
+ * <ul>
+ *     <li>事件数达到 {@code maxCount}</li>
+ *     <li>估算字节数达到 {@code maxBytes}（以消息的 UTF-16 字符数乘 2 估算，不做编码）</li>
+ *     <li>批次中最早的事件已等待 {@code maxLinger}（由后台守护线程定期检查）</li>
+ * </ul>
+ * 达到数量或字节上限时在当前调用线程上交付；同一主题的交付互斥且按到达顺序进行。
+ * <p>
+ * 可在服务提供者的 {@code getAdapterSupplier()} 中使用，例如：
+ * <pre>{@code
+ * private final KeelBatchingLogWriter batching = new KeelBatchingLogWriter(
+ *         (topic, logs) -> sink.writeAll(topic, logs), 256, 64 * 1024, Duration.ofMillis(50));
+ *
+ * @Override
+ * protected Supplier<LogWriterAdapter> getAdapterSupplier() {
+ *     return () -> batching;
+ * }
+ * }</pre>
+ * 与异步交接（{@link KeelAsyncLogWriter}）组合使用时，攒批与交付都发生在异步消费者线程上。
+ * <p>
+ * 创建时注册 JVM 关闭钩子，在退出时调用 {@link #close()} 交付所有未满的批次；
+ * 关闭之后到达的事件（例如异步交接在退出时写出的剩余事件）逐条直接交付，不会滞留在批次中。
+ *
+ * @since 5.0.3
+ */
+@NullMarked
+public final class KeelBatchingLogWriter extends BaseLogWriter implements AutoCloseable {
+    private final KeelBatchLogWriter downstream;
+    private final int maxCount;
+    private final long maxBytes;
+    private final long maxLingerNanos;
+    private final ConcurrentMap<String, Batch> batches = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService lingerScheduler;
+    private final boolean verbose;
+    private final LongAdder flushedBatchCount = new LongAdder();
+    private final LongAdder flushedEventCount = new LongAdder();
+    private final LongAdder failedBatchCount = new LongAdder();
+    private volatile boolean closed;
+    private @Nullable Thread shutdownHook;
+
+    /**
+     * 创建攒批适配器并启动检查等待时长的后台守护线程。
+     *
+     * @param downstream 按批接收的下游写出器
+     * @param maxCount   每批最大事件数
+     * @param maxBytes   每批最大估算字节数
+     * @param maxLinger  批次中最早事件的最长等待时间
+     */
+    public KeelBatchingLogWriter(KeelBatchLogWriter downstream, int maxCount, long maxBytes, Duration maxLinger) {
+        this(downstream, maxCount, maxBytes, maxLinger, false);
+    }
+
+    /**
+     * 创建攒批适配器，启动检查等待时长的后台守护线程，并注册在 JVM 关闭时调用 {@link #close()} 的钩子。
+     *
+     * @param downstream 按批接收的下游写出器
+     * @param maxCount   每批最大事件数
+     * @param maxBytes   每批最大估算字节数
+     * @param maxLinger  批次中最早事件的最长等待时间
+     * @param verbose    是否在下游写出失败时输出错误信息
+     */
+    public KeelBatchingLogWriter(KeelBatchLogWriter downstream, int maxCount, long maxBytes, Duration maxLinger, boolean verbose) {
+        if (maxCount < 1) {
+            throw new IllegalArgumentException("maxCount must be positive: " + maxCount);
+        }
+        if (maxBytes < 1) {
+            throw new IllegalArgumentException("maxBytes must be positive: " + maxBytes);
+        }
+        if (maxLinger.isNegative() || maxLinger.isZero()) {
+            throw new IllegalArgumentException("maxLinger must be positive: " + maxLinger);
+        }
+        this.downstream = downstream;
+        this.maxCount = maxCount;
+        this.maxBytes = maxBytes;
+        this.maxLingerNanos = maxLinger.toNanos();
+        this.verbose = verbose;
+        this.lingerScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "keel-logger-batch-linger");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long checkIntervalNanos = Math.max(TimeUnit.MILLISECONDS.toNanos(1), maxLingerNanos / 2);
+        lingerScheduler.scheduleAtFixedRate(this::flushExpired, checkIntervalNanos, checkIntervalNanos, TimeUnit.NANOSECONDS);
+        Thread hook = new Thread(this::close, "keel-logger-batch-shutdown");
+        Runtime.getRuntime().addShutdownHook(hook);
+        this.shutdownHook = hook;
+    }
+
+    @Override
+    public void accept(String topic, SpecificLog<?> log) {
+        Batch batch = batches.get(topic);
+        if (batch == null) {
+            batch = batches.computeIfAbsent(topic, Batch::new);
+        }
+        batch.add(log);
+    }
+
+    /**
+     * 立即交付所有主题中未满的批次。
+     */
+    public void flush() {
+        for (Batch batch : batches.values()) {
+            batch.flush();
+        }
+    }
+
+    private void flushExpired() {
+        long now = System.nanoTime();
+        for (Batch batch : batches.values()) {
+            batch.flushIfExpired(now);
+        }
+    }
+
+    /**
+     * 停止后台线程并交付所有未满的批次；之后到达的事件直接逐批交付。
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            Thread hook = shutdownHook;
+            if (hook != null && Thread.currentThread() != hook) {
+                try {
+                    Runtime.getRuntime().removeShutdownHook(hook);
+                } catch (IllegalStateException ignored) {
+                    // JVM 正在关闭
+                }
+            }
+        }
+        lingerScheduler.shutdownNow();
+        flush();
+    }
+
+    /**
+     * @return 是否已关闭
+     */
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * @return 已交付的批次数
+     */
+    public long getFlushedBatchCount() {
+        return flushedBatchCount.sum();
+    }
+
+    /**
+     * @return 已交付的事件数
+     */
+    public long getFlushedEventCount() {
+        return flushedEventCount.sum();
+    }
+
+    /**
+     * @return 下游写出器抛出异常的批次数
+     */
+    public long getFailedBatchCount() {
+        return failedBatchCount.sum();
+    }
+
+    private static long estimateBytes(SpecificLog<?> log) {
+        String message = log.message();
+        return message == null ? 0 : 2L * message.length();
+    }
+
+    /**
+     * 单个主题的可复用批次，所有操作都在批次自身的锁内进行。
+     */
+    private final class Batch {
+        private final String topic;
+        private final List<SpecificLog<?>> logs;
+        private long bytes;
+        private long firstEventNanos;
+
+        private Batch(String topic) {
+            this.topic = topic;
+            this.logs = new ArrayList<>(Math.min(maxCount, 1024));
+        }
+
+        synchronized void add(SpecificLog<?> log) {
+            if (logs.isEmpty()) {
+                firstEventNanos = System.nanoTime();
+            }
+            logs.add(log);
+            bytes += estimateBytes(log);
+            if (closed || logs.size() >= maxCount || bytes >= maxBytes) {
+                flushLocked();
+            }
+        }
+
+        synchronized void flush() {
+            if (!logs.isEmpty()) {
+                flushLocked();
+            }
+        }
+
+        synchronized void flushIfExpired(long now) {
+            if (!logs.isEmpty() && now - firstEventNanos >= maxLingerNanos) {
+                flushLocked();
+            }
+        }
+
+        private void flushLocked() {
+            int size = logs.size();
+            try {
+                downstream.acceptBatch(topic, logs);
+                flushedBatchCount.increment();
+                flushedEventCount.add(size);
+            } catch (Throwable throwable) {
+                failedBatchCount.increment();
+                if (verbose) {
+                    System.err.println("Keel Logging batch writer failed to write batch of topic [" + topic + "]: " + throwable);
+                    throwable.printStackTrace(new PrintWriter(System.err, true));
+                }
+            } finally {
+                logs.clear();
+                bytes = 0;
+            }
+        }
+    }
+}
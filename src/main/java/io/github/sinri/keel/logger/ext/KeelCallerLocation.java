@@ -0,0 +1,177 @@
+package io.github.sinri.keel.logger.ext;
+
+import io.github.sinri.keel.logger.api.log.SpecificLog;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * 按日志记录器名称前缀开启的调用位置记录（不可变）。
+ * <p>
+ * 开启后，通过全部检查、即将交给适配器的事件在上下文中携带调用方的类（{@value #CALLER_CLASS_CONTEXT_KEY}）、
+ * 方法（{@value #CALLER_METHOD_CONTEXT_KEY}）、源文件（{@value #CALLER_FILE_CONTEXT_KEY}）与行号（{@value #CALLER_LINE_CONTEXT_KEY}）；
+ * 被级别检查、采样或日志风暴抑制过滤的事件不查找调用位置。
+ * <p>
+ * 调用位置由 {@link StackWalker} 按需逐帧查找：跳过日志框架自身的栈帧，直到出现边界类（fqcn），
+ * 边界类之后的第一个栈帧即为调用方，其余栈帧不会被读取。边界类由日志门面传入，
+ * 例如 SLF4J 的 {@link org.slf4j.spi.LocationAwareLogger} 与 Log4j2 的 {@code logMessage}；
+ * 边界类不在当前调用栈上时不写入调用位置。
+ * <p>
+ * 对每个日志记录器取最长匹配前缀上的设置，在创建日志记录器时通过 {@link #isEnabledFor(String)} 解析一次。
+ *
+ * @since 5.0.3
+ */
+@NullMarked
+public final class KeelCallerLocation {
+    /**
+     * 以字符串形式配置调用位置记录的系统属性，格式见 {@link #parse(String)}。
+     */
+    public static final String LOCATION_PROPERTY = "keel.logger.ext.location";
+    /**
+     * 调用方类名在上下文中的键。
+     */
+    public static final String CALLER_CLASS_CONTEXT_KEY = "caller_class";
+    /**
+     * 调用方方法名在上下文中的键。
+     */
+    public static final String CALLER_METHOD_CONTEXT_KEY = "caller_method";
+    /**
+     * 调用方源文件名在上下文中的键；源文件未知时不写入。
+     */
+    public static final String CALLER_FILE_CONTEXT_KEY = "caller_file";
+    /**
+     * 调用方行号在上下文中的键；行号未知时不写入。
+     */
+    public static final String CALLER_LINE_CONTEXT_KEY = "caller_line";
+
+    private static final StackWalker STACK_WALKER = StackWalker.getInstance();
+    private static final KeelCallerLocation NONE = new KeelCallerLocation(Map.of());
+
+    private final Map<String, Boolean> prefixes;
+    private final KeelLoggerNameTree<Boolean> tree;
+
+    private KeelCallerLocation(Map<String, Boolean> prefixes) {
+        this.prefixes = Collections.unmodifiableMap(new TreeMap<>(prefixes));
+        this.tree = new KeelLoggerNameTree<>(this.prefixes);
+    }
+
+    /**
+     * @return 不记录调用位置的配置
+     */
+    public static KeelCallerLocation none() {
+        return NONE;
+    }
+
+    /**
+     * 解析字符串形式的配置。
+     * <p>
+     * 前缀之间以 {@code ,} 分隔；以 {@code -} 开头的前缀表示关闭，{@code *} 表示所有日志记录器，例如：
+     * <pre>{@code
+     * com.ourco, -com.ourco.hotpath
+     * }</pre>
+     *
+     * @param specification 配置字符串
+     * @return 配置
+     */
+    public static KeelCallerLocation parse(String specification) {
+        KeelCallerLocation location = none();
+        for (String entry : specification.split(",")) {
+            String trimmed = entry.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            boolean enabled = !trimmed.startsWith("-");
+            String prefix = enabled ? trimmed : trimmed.substring(1).trim();
+            location = location.with("*".equals(prefix) ? "" : prefix, enabled);
+        }
+        return location;
+    }
+
+    /**
+     * 为前缀开启或关闭调用位置记录，返回新的配置。
+     *
+     * @param prefix  日志记录器名称前缀；空字符串表示所有日志记录器
+     * @param enabled 是否开启；关闭可用于覆盖较短前缀上的开启
+     * @return 新配置
+     */
+    public KeelCallerLocation with(String prefix, boolean enabled) {
+        Map<String, Boolean> copy = new TreeMap<>(prefixes);
+        copy.put(prefix, enabled);
+        return new KeelCallerLocation(copy);
+    }
+
+    /**
+     * @return 是否没有任何设置
+     */
+    public boolean isEmpty() {
+        return prefixes.isEmpty();
+    }
+
+    /**
+     * @param loggerName 日志记录器名称
+     * @return 该日志记录器是否记录调用位置
+     */
+    public boolean isEnabledFor(String loggerName) {
+        Boolean enabled = tree.resolve(loggerName);
+        return enabled != null && enabled;
+    }
+
+    /**
+     * 查找边界类之后的第一个栈帧。
+     *
+     * @param fqcn 边界类的全限定名，通常是日志门面中被应用直接调用的类
+     * @return 调用方的栈帧；边界类不在当前调用栈上时返回 null
+     */
+    public static StackWalker.@Nullable StackFrame locate(String fqcn) {
+        Optional<StackWalker.StackFrame> caller = STACK_WALKER.walk(frames -> frames
+                .dropWhile(frame -> !fqcn.equals(frame.getClassName()))
+                .dropWhile(frame -> fqcn.equals(frame.getClassName()))
+                .findFirst());
+        return caller.orElse(null);
+    }
+
+    /**
+     * 查找调用位置并写入日志事件的上下文。
+     *
+     * @param log  日志事件
+     * @param fqcn 边界类的全限定名
+     */
+    public static void annotate(SpecificLog<?> log, String fqcn) {
+        StackWalker.StackFrame caller = locate(fqcn);
+        if (caller == null) {
+            return;
+        }
+        log.context(CALLER_CLASS_CONTEXT_KEY, caller.getClassName());
+        log.context(CALLER_METHOD_CONTEXT_KEY, caller.getMethodName());
+        String fileName = caller.getFileName();
+        if (fileName != null) {
+            log.context(CALLER_FILE_CONTEXT_KEY, fileName);
+        }
+        int lineNumber = caller.getLineNumber();
+        if (lineNumber > 0) {
+            log.context(CALLER_LINE_CONTEXT_KEY, lineNumber);
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof KeelCallerLocation that)) return false;
+        return prefixes.equals(that.prefixes);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(prefixes);
+    }
+
+    @Override
+    public String toString() {
+        return "KeelCallerLocation" + prefixes;
+    }
+}
@@ -0,0 +1,174 @@
+package io.github.sinri.keel.logger.ext;
+
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.net.URI;
+import java.time.*;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * 延迟格式化的策略，不可变对象。
+ * <p>
+ * 启用后，参数化消息不在应用线程上拼接：日志事件以 {@link KeelDeferredLog} 的形式携带模板与参数快照，
+ * 在写出线程首次读取消息时才渲染；按模板与参数分别存储的下游可以完全跳过渲染。
+ * <p>
+ * 参数快照只对可能在渲染前被修改的参数做预先渲染：
+ * 不可变类型（字符串、包装类型、枚举、{@link BigDecimal}、{@code java.time} 类型等，
+ * 以及通过 {@link #withImmutableType(Class)} 登记的类型）按引用保留，其余参数在记录时即渲染为字符串。
+ * 类型的判定结果按类缓存，热路径上只是一次 {@link ClassValue} 查找。
+ *
+ * @since 5.0.3
+ */
+@NullMarked
+public final class KeelDeferredFormatting {
+    /**
+     * 启用延迟格式化的系统属性，取值为 true 时启用。
+     */
+    public static final String DEFERRED_FORMATTING_PROPERTY = "keel.logger.ext.deferredFormatting";
+    /**
+     * 额外登记为不可变类型的类名，以 {@code ,} 分隔。
+     */
+    public static final String IMMUTABLE_TYPES_PROPERTY = "keel.logger.ext.deferredFormatting.immutableTypes";
+
+    private static final Set<Class<?>> DEFAULT_IMMUTABLE_TYPES = Set.of(
+            String.class, Boolean.class, Character.class,
+            Byte.class, Short.class, Integer.class, Long.class, Float.class, Double.class,
+            BigInteger.class, BigDecimal.class, UUID.class, URI.class, Class.class,
+            Instant.class, Duration.class, Period.class,
+            LocalDate.class, LocalTime.class, LocalDateTime.class,
+            OffsetDateTime.class, OffsetTime.class, ZonedDateTime.class, ZoneOffset.class
+    );
+
+    private static final KeelDeferredFormatting NONE = new KeelDeferredFormatting(false, Set.of());
+
+    private final boolean enabled;
+    private final Set<Class<?>> immutableTypes;
+    private final ClassValue<Boolean> immutability = new ClassValue<>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            return DEFAULT_IMMUTABLE_TYPES.contains(type)
+                    || immutableTypes.contains(type)
+                    || Enum.class.isAssignableFrom(type);
+        }
+    };
+
+    private KeelDeferredFormatting(boolean enabled, Set<Class<?>> immutableTypes) {
+        this.enabled = enabled;
+        this.immutableTypes = Collections.unmodifiableSet(new HashSet<>(immutableTypes));
+    }
+
+    /**
+     * @return 不延迟格式化的配置
+     */
+    public static KeelDeferredFormatting none() {
+        return NONE;
+    }
+
+    /**
+     * @return 启用延迟格式化、只认可默认不可变类型的配置
+     */
+    public static KeelDeferredFormatting enabled() {
+        return new KeelDeferredFormatting(true, Set.of());
+    }
+
+    /**
+     * 从系统属性读取配置。
+     *
+     * @return 配置；未启用时为 {@link #none()}
+     * @throws IllegalArgumentException 当登记的类无法加载时抛出
+     */
+    public static KeelDeferredFormatting fromSystemProperties() {
+        if (!Boolean.parseBoolean(System.getProperty(DEFERRED_FORMATTING_PROPERTY))) {
+            return NONE;
+        }
+        KeelDeferredFormatting formatting = enabled();
+        String types = System.getProperty(IMMUTABLE_TYPES_PROPERTY);
+        if (types != null) {
+            for (String type : types.split(",")) {
+                String className = type.trim();
+                if (className.isEmpty()) {
+                    continue;
+                }
+                try {
+                    formatting = formatting.withImmutableType(Class.forName(className));
+                } catch (ClassNotFoundException e) {
+                    throw new IllegalArgumentException("Unknown immutable type for deferred formatting: " + className, e);
+                }
+            }
+        }
+        return formatting;
+    }
+
+    /**
+     * 登记一个不可变类型，其实例在参数快照中按引用保留、延迟渲染。
+     * <p>
+     * 登记按类精确匹配，不包含子类；类型的 {@code toString()} 须在实例生命周期内保持不变。
+     *
+     * @param type 不可变类型
+     * @return 新配置
+     */
+    public KeelDeferredFormatting withImmutableType(Class<?> type) {
+        Set<Class<?>> types = new HashSet<>(immutableTypes);
+        types.add(type);
+        return new KeelDeferredFormatting(enabled, types);
+    }
+
+    /**
+     * @return 是否启用延迟格式化
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 判断参数能否按引用保留到写出线程再渲染。
+     *
+     * @param argument 参数
+     * @return null 或不可变类型的实例时返回 true
+     */
+    public boolean isImmutable(@Nullable Object argument) {
+        return argument == null || immutability.get(argument.getClass());
+    }
+
+    /**
+     * 捕获单个参数：不可变参数按引用保留，其余参数以桥接自身的规则预先渲染为字符串。
+     *
+     * @param argument 参数
+     * @param renderer 桥接渲染单个参数的规则，须与最终渲染消息时的规则一致
+     * @return 可以安全延迟渲染的参数
+     */
+    public @Nullable Object capture(@Nullable Object argument, Function<Object, String> renderer) {
+        if (argument == null || immutability.get(argument.getClass())) {
+            return argument;
+        }
+        return renderer.apply(argument);
+    }
+
+    /**
+     * 复制参数快照，逐个参数按 {@link #capture(Object, Function)} 处理。
+     *
+     * @param arguments 参数
+     * @param count     参与替换的参数个数（不含作为异常的最后一个参数）
+     * @param renderer  桥接渲染单个参数的规则，须与最终渲染消息时的规则一致
+     * @return 参数快照
+     */
+    public @Nullable Object[] snapshot(@Nullable Object[] arguments, int count, Function<Object, String> renderer) {
+        @Nullable Object[] snapshot = new Object[count];
+        for (int i = 0; i < count; i++) {
+            snapshot[i] = capture(arguments[i], renderer);
+        }
+        return snapshot;
+    }
+
+    @Override
+    public String toString() {
+        return enabled ? "KeelDeferredFormatting" + immutableTypes : "KeelDeferredFormatting[disabled]";
+    }
+}
@@ -0,0 +1,91 @@
+package io.github.sinri.keel.logger.ext;
+
+import io.github.sinri.keel.logger.api.log.Log;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.BiFunction;
+
+/**
+ * 延迟格式化的日志事件：携带消息模板与参数快照，首次读取 {@link #message()} 时才渲染消息。
+ * <p>
+ * 由启用了 {@link KeelDeferredFormatting} 的桥接创建。参数快照中只有 null、不可变类型的实例
+ * 以及预先渲染好的字符串，因此渲染可以安全地推迟到写出线程（例如 {@link KeelAsyncLogWriter} 的后台线程），
+ * 渲染结果与在应用线程上直接格式化一致。
+ * 按模板与参数分别存储的下游可以读取 {@link #template()} 与 {@link #arguments()}，不触发渲染。
+ *
+ * @since 5.0.3
+ */
+@NullMarked
+public final class KeelDeferredLog extends Log {
+    private final String template;
+    private final @Nullable Object[] arguments;
+    private final BiFunction<String, @Nullable Object[], String> renderer;
+    /**
+     * 渲染结果；并发读取时可能重复渲染，结果相同，因而无需加锁。
+     */
+    private volatile @Nullable String rendered;
+
+    /**
+     * @param template  消息模板
+     * @param arguments 参数快照，由 {@link KeelDeferredFormatting#snapshot} 或 {@link KeelDeferredFormatting#capture} 生成
+     * @param renderer  以桥接自身的规则渲染消息
+     */
+    public KeelDeferredLog(String template, @Nullable Object[] arguments, BiFunction<String, @Nullable Object[], String> renderer) {
+        this.template = template;
+        this.arguments = arguments;
+        this.renderer = renderer;
+    }
+
+    /**
+     * @return 消息模板
+     */
+    public String template() {
+        return template;
+    }
+
+    /**
+     * @return 参数快照的只读视图
+     */
+    public List<@Nullable Object> arguments() {
+        return Collections.unmodifiableList(Arrays.asList(arguments));
+    }
+
+    /**
+     * @return 是否已渲染消息
+     */
+    public boolean isRendered() {
+        return rendered != null;
+    }
+
+    /**
+     * 获取消息，首次调用时渲染。
+     *
+     * @return 渲染后的消息
+     */
+    @Override
+    public String message() {
+        String message = rendered;
+        if (message == null) {
+            message = renderer.apply(template, arguments);
+            rendered = message;
+            super.message(message);
+        }
+        return message;
+    }
+
+    /**
+     * 以给定的消息取代模板渲染的结果。
+     *
+     * @param message 消息
+     * @return 本事件
+     */
+    @Override
+    public Log message(String message) {
+        rendered = message;
+        return super.message(message);
+    }
+}
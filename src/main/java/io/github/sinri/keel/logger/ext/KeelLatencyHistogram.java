@@ -0,0 +1,89 @@
+package io.github.sinri.keel.logger.ext;
+
+import org.jspecify.annotations.NullMarked;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 固定分桶的耗时直方图，按 2 的幂划分区间，记录时只做一次位运算与一次 {@link LongAdder} 累加。
+ * <p>
+ * 第 0 个桶为 {@code [0, 256ns)}，之后每个桶的上界翻倍（{@code 512ns}、{@code 1024ns}……），
+ * 最后一个桶收纳所有超过 {@code 2^26ns}（约 67ms）的记录；各桶上界见 {@link #upperBoundsNanos()}。
+ *
+ * @since 5.0.3
+ */
+@NullMarked
+public final class KeelLatencyHistogram {
+    /**
+     * 桶的数量，含最后一个溢出桶。
+     */
+    public static final int BUCKETS = 20;
+    /**
+     * 第 0 个桶上界的以 2 为底的对数，即 256ns。
+     */
+    private static final int FIRST_BOUND_SHIFT = 8;
+
+    private final LongAdder[] counts = new LongAdder[BUCKETS];
+
+    public KeelLatencyHistogram() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * 各桶的上界（不含），最后一个溢出桶为 {@link Long#MAX_VALUE}。
+     *
+     * @return 纳秒数组，长度为 {@link #BUCKETS}
+     */
+    public static long[] upperBoundsNanos() {
+        long[] bounds = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS - 1; i++) {
+            bounds[i] = 1L << (FIRST_BOUND_SHIFT + i);
+        }
+        bounds[BUCKETS - 1] = Long.MAX_VALUE;
+        return bounds;
+    }
+
+    /**
+     * 计算耗时所在的桶。
+     *
+     * @param nanos 耗时（纳秒）；负数按 0 计
+     * @return 桶的下标
+     */
+    static int bucketOf(long nanos) {
+        int bucket = 64 - Long.numberOfLeadingZeros(nanos >>> FIRST_BOUND_SHIFT);
+        return nanos < 0 ? 0 : Math.min(bucket, BUCKETS - 1);
+    }
+
+    /**
+     * 记录一次耗时。
+     *
+     * @param nanos 耗时（纳秒）
+     */
+    public void record(long nanos) {
+        counts[bucketOf(nanos)].increment();
+    }
+
+    /**
+     * @return 各桶当前的计数，与 {@link #upperBoundsNanos()} 一一对应
+     */
+    public long[] snapshot() {
+        long[] snapshot = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts[i].sum();
+        }
+        return snapshot;
+    }
+
+    /**
+     * @return 记录的总次数
+     */
+    public long count() {
+        long count = 0;
+        for (LongAdder bucket : counts) {
+            count += bucket.sum();
+        }
+        return count;
+    }
+}
@@ -0,0 +1,65 @@
+package io.github.sinri.keel.logger.ext;
+
+import io.github.sinri.keel.logger.api.LogLevel;
+import io.github.sinri.keel.logger.api.log.Log;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+import java.util.List;
+
+/**
+ * 无垃圾模式下按线程复用的日志事件。
+ * <p>
+ * {@link Log} 没有清空上下文与异常的接口，因此复用的事件只承载级别、时间戳、消息与分类，
+ * 并在每次借出时全部重新写入；需要写入上下文或异常的事件仍由调用方新建，复用的事件从不写入这两项。
+ * <p>
+ * 借出与归还须成对出现在同一线程上（{@code try/finally}）。
+ * 适配器在写出过程中再次记录日志（重入）时，{@link #acquire} 返回 null，调用方回退为新建事件。
+ *
+ * @since 5.0.3
+ */
+@NullMarked
+public final class KeelLogPool {
+    private static final ThreadLocal<Slot> SLOTS = ThreadLocal.withInitial(Slot::new);
+
+    private KeelLogPool() {
+    }
+
+    /**
+     * 借出当前线程的复用事件，并写入本次事件的全部字段。
+     *
+     * @param level          日志级别
+     * @param message        日志消息
+     * @param classification 分类；没有分类时传入空列表
+     * @return 复用的事件；当前线程的事件尚未归还时返回 null
+     */
+    @Nullable
+    public static Log acquire(LogLevel level, String message, List<String> classification) {
+        Slot slot = SLOTS.get();
+        if (slot.inUse) {
+            return null;
+        }
+        slot.inUse = true;
+        Log log = slot.log;
+        log.timestamp(System.currentTimeMillis());
+        log.level(level);
+        log.message(message);
+        log.classification(classification);
+        return log;
+    }
+
+    /**
+     * 归还当前线程借出的复用事件。
+     */
+    public static void release() {
+        SLOTS.get().inUse = false;
+    }
+
+    /**
+     * 单个线程的复用事件及其借出状态。
+     */
+    private static final class Slot {
+        private final Log log = new Log();
+        private boolean inUse;
+    }
+}
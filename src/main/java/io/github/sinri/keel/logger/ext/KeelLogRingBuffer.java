@@ -0,0 +1,122 @@
+package io.github.sinri.keel.logger.ext;
+
+import io.github.sinri.keel.logger.api.log.SpecificLog;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 有界、预分配的多生产者单消费者（MPSC）环形缓冲区，存放待写出的（主题，日志事件）对。
+ * <p>
+ * 采用按槽位序号的无锁算法：每个槽位带一个序号，生产者通过一次 CAS 抢占写入位置，
+ * 写完后以 volatile 写发布该槽位的序号；消费者只读取已发布的槽位。
+ * 槽位数组在构造时一次性分配，入队与出队不创建任何对象。
+ * <p>
+ * {@link #offer(String, SpecificLog)} 可被任意线程并发调用；{@link #poll(Sink)} 同一时刻只能由一个线程调用。
+ *
+ * @since 5.0.3
+ */
+@NullMarked
+final class KeelLogRingBuffer {
+    private final int mask;
+    private final AtomicLongArray sequences;
+    private final @Nullable String[] topics;
+    private final @Nullable SpecificLog<?>[] logs;
+    private final AtomicLong tail = new AtomicLong();
+    /**
+     * 下一个待消费的位置；只由消费者线程读写，另以 volatile 读提供近似的 {@link #size()}。
+     */
+    private volatile long head;
+
+    /**
+     * @param capacity 容量，必须是 2 的幂
+     */
+    KeelLogRingBuffer(int capacity) {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("capacity must be a power of two: " + capacity);
+        }
+        this.mask = capacity - 1;
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+        this.topics = new String[capacity];
+        this.logs = new SpecificLog<?>[capacity];
+    }
+
+    /**
+     * @return 容量
+     */
+    int capacity() {
+        return mask + 1;
+    }
+
+    /**
+     * @return 当前的近似元素数量
+     */
+    int size() {
+        long size = tail.get() - head;
+        return (int) Math.max(0, Math.min(size, capacity()));
+    }
+
+    /**
+     * 尝试入队。
+     *
+     * @param topic 主题
+     * @param log   日志事件
+     * @return 缓冲区已满时返回 false
+     */
+    boolean offer(String topic, SpecificLog<?> log) {
+        while (true) {
+            long position = tail.get();
+            int index = (int) (position & mask);
+            long difference = sequences.get(index) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    topics[index] = topic;
+                    logs[index] = log;
+                    sequences.lazySet(index, position + 1);
+                    return true;
+                }
+            } else if (difference < 0) {
+                return false;
+            } else {
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    /**
+     * 尝试出队一个元素并交给接收者处理。只能由唯一的消费者线程调用。
+     *
+     * @param sink 接收者
+     * @return 缓冲区为空时返回 false
+     */
+    boolean poll(Sink sink) {
+        long position = head;
+        int index = (int) (position & mask);
+        if (sequences.get(index) != position + 1) {
+            return false;
+        }
+        String topic = topics[index];
+        SpecificLog<?> log = logs[index];
+        topics[index] = null;
+        logs[index] = null;
+        sequences.lazySet(index, position + mask + 1);
+        head = position + 1;
+        if (topic != null && log != null) {
+            sink.accept(topic, log);
+        }
+        return true;
+    }
+
+    /**
+     * 出队元素的接收者。
+     */
+    @FunctionalInterface
+    interface Sink {
+        void accept(String topic, SpecificLog<?> log);
+    }
+}
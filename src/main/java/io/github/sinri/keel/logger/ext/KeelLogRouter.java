@@ -0,0 +1,88 @@
+package io.github.sinri.keel.logger.ext;
+
+import io.github.sinri.keel.logger.api.LogLevel;
+import io.github.sinri.keel.logger.api.adapter.LogWriterAdapter;
+import org.jspecify.annotations.NullMarked;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * 单个日志记录器的路由器，由 {@link KeelLogRouting#resolve(String, Supplier)} 在创建日志记录器时生成。
+ * <p>
+ * 创建时只保留作用于该日志记录器的规则，并为不带标记的事件按级别预先算好目标；
+ * 带标记的事件按 classification（分类）列表缓存各级别的目标。记录时只做一次数组读取（带标记时再加一次哈希查找），
+ * 不逐条求值规则。
+ *
+ * @since 5.0.3
+ */
+@NullMarked
+public final class KeelLogRouter {
+    /**
+     * 缓存的分类列表数上限，防止动态创建大量标记时无限增长；超出后的分类每次重新计算。
+     */
+    private static final int MAX_CACHED_CLASSIFICATIONS = 256;
+
+    private final KeelLogRouting.Route[] routes;
+    private final Supplier<LogWriterAdapter> defaultSupplier;
+    private final boolean hasMarkerRoutes;
+    private final Supplier<LogWriterAdapter>[] unmarkedTargets;
+    private final ConcurrentMap<List<String>, Supplier<LogWriterAdapter>[]> markedTargets = new ConcurrentHashMap<>();
+
+    KeelLogRouter(KeelLogRouting.Route[] routes, Supplier<LogWriterAdapter> defaultSupplier) {
+        this.routes = routes;
+        this.defaultSupplier = defaultSupplier;
+        boolean markerRoutes = false;
+        for (KeelLogRouting.Route route : routes) {
+            markerRoutes |= route.marker() != null;
+        }
+        this.hasMarkerRoutes = markerRoutes;
+        this.unmarkedTargets = targets(List.of());
+    }
+
+    /**
+     * 选择事件的目标适配器供应者。
+     *
+     * @param level          事件级别
+     * @param classification 事件的分类列表；不带标记时为空列表
+     * @return 目标适配器的供应者；未匹配任何规则时为日志记录器原本的供应者
+     */
+    public Supplier<LogWriterAdapter> route(LogLevel level, List<String> classification) {
+        if (classification.isEmpty() || !hasMarkerRoutes) {
+            return unmarkedTargets[level.ordinal()];
+        }
+        Supplier<LogWriterAdapter>[] targets = markedTargets.get(classification);
+        if (targets == null) {
+            targets = targets(classification);
+            if (markedTargets.size() < MAX_CACHED_CLASSIFICATIONS) {
+                markedTargets.putIfAbsent(List.copyOf(classification), targets);
+            }
+        }
+        return targets[level.ordinal()];
+    }
+
+    /**
+     * 按级别计算分类列表对应的目标。
+     *
+     * @param classification 分类列表
+     * @return 以级别序号为下标的目标
+     */
+    @SuppressWarnings("unchecked")
+    private Supplier<LogWriterAdapter>[] targets(List<String> classification) {
+        LogLevel[] levels = LogLevel.values();
+        Supplier<LogWriterAdapter>[] targets = (Supplier<LogWriterAdapter>[]) new Supplier<?>[levels.length];
+        for (LogLevel level : levels) {
+            Supplier<LogWriterAdapter> target = defaultSupplier;
+            for (KeelLogRouting.Route route : routes) {
+                if (route.matches(level, classification)) {
+                    target = route.target();
+                    break;
+                }
+            }
+            targets[level.ordinal()] = target;
+        }
+        return targets;
+    }
+}
@@ -0,0 +1,134 @@
+package io.github.sinri.keel.logger.ext;
+
+import io.github.sinri.keel.logger.api.LogLevel;
+import io.github.sinri.keel.logger.api.adapter.LogWriterAdapter;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * 将日志事件按规则分发到多个 {@link LogWriterAdapter} 的路由表（不可变）。
+ * <p>
+ * 每条规则由（日志记录器名称前缀，最低级别，标记名称）与目标适配器组成，按添加顺序匹配，第一条匹配的规则生效；
+ * 都不匹配时交给日志记录器原本的适配器。例如：
+ * <pre>{@code
+ * KeelLogRouting.none()
+ *         .withRoute("", LogLevel.TRACE, "AUDIT", durableWriter)
+ *         .withRoute("io.netty", LogLevel.WARN, null, localWriter)
+ * }</pre>
+ * 审计事件进入持久化的写入器，{@code io.netty} 下 WARN 及以上的事件进入本地写入器，其余照常输出。
+ * <p>
+ * 前缀的匹配方式与 {@link KeelLoggerLevels} 相同，只按 {@code .} 分隔的完整分段匹配；
+ * 标记按 classification（分类）列表匹配，即标记自身名称或其引用（SLF4J）、父标记（Log4j2）的名称。
+ * <p>
+ * 路由表在创建日志记录器时通过 {@link #resolve(String, Supplier)} 解析为该日志记录器专属的 {@link KeelLogRouter}，
+ * 记录时不再逐条求值规则。目标适配器缓存在各自的 {@link KeelLogWriterHolder} 中，
+ * 不会被异步写出器包装；需要异步写出时请自行以 {@link KeelAsyncLogWriter} 包装。
+ *
+ * @since 5.0.3
+ */
+@NullMarked
+public final class KeelLogRouting {
+    private static final KeelLogRouting NONE = new KeelLogRouting(List.of());
+
+    private final List<Route> routes;
+
+    private KeelLogRouting(List<Route> routes) {
+        this.routes = routes;
+    }
+
+    /**
+     * @return 不做任何路由的配置
+     */
+    public static KeelLogRouting none() {
+        return NONE;
+    }
+
+    /**
+     * 在末尾追加一条路由规则，返回新的配置。
+     *
+     * @param prefix          日志记录器名称前缀；空字符串表示所有日志记录器
+     * @param minimumLevel    最低级别，达到该级别的事件才匹配
+     * @param marker          标记名称；为 null 时不限标记
+     * @param adapterSupplier 目标适配器的供应者，首次使用时调用一次
+     * @return 新配置
+     */
+    public KeelLogRouting withRoute(
+            String prefix,
+            LogLevel minimumLevel,
+            @Nullable String marker,
+            Supplier<LogWriterAdapter> adapterSupplier) {
+        List<Route> copy = new ArrayList<>(routes.size() + 1);
+        copy.addAll(routes);
+        copy.add(new Route(prefix, minimumLevel, marker, KeelLogWriterHolder.of(adapterSupplier, false)));
+        return new KeelLogRouting(List.copyOf(copy));
+    }
+
+    /**
+     * @return 是否没有任何路由规则
+     */
+    public boolean isEmpty() {
+        return routes.isEmpty();
+    }
+
+    /**
+     * 为指定日志记录器解析路由器。
+     *
+     * @param loggerName      日志记录器名称
+     * @param defaultSupplier 日志记录器原本的适配器供应者，未匹配任何规则的事件交给它
+     * @return 该日志记录器专属的路由器；没有任何规则作用于该日志记录器时返回 null
+     */
+    @Nullable
+    public KeelLogRouter resolve(String loggerName, Supplier<LogWriterAdapter> defaultSupplier) {
+        List<Route> applicable = new ArrayList<>();
+        for (Route route : routes) {
+            if (matchesPrefix(route.prefix, loggerName)) {
+                applicable.add(route);
+            }
+        }
+        if (applicable.isEmpty()) {
+            return null;
+        }
+        return new KeelLogRouter(applicable.toArray(new Route[0]), defaultSupplier);
+    }
+
+    private static boolean matchesPrefix(String prefix, String loggerName) {
+        if (prefix.isEmpty()) {
+            return true;
+        }
+        return loggerName.startsWith(prefix)
+                && (loggerName.length() == prefix.length() || loggerName.charAt(prefix.length()) == '.');
+    }
+
+    @Override
+    public String toString() {
+        return "KeelLogRouting" + routes;
+    }
+
+    /**
+     * 单条路由规则。
+     *
+     * @param prefix       日志记录器名称前缀
+     * @param minimumLevel 最低级别
+     * @param marker       标记名称；为 null 时不限标记
+     * @param target       目标适配器的持有者
+     */
+    record Route(String prefix, LogLevel minimumLevel, @Nullable String marker, KeelLogWriterHolder target) {
+        /**
+         * @param level          事件级别
+         * @param classification 事件的分类列表
+         * @return 本规则是否匹配该事件（前缀已在解析时匹配）
+         */
+        boolean matches(LogLevel level, List<String> classification) {
+            return level.isEnoughSeriousAs(minimumLevel) && (marker == null || classification.contains(marker));
+        }
+
+        @Override
+        public String toString() {
+            return (prefix.isEmpty() ? "*" : prefix) + ":" + minimumLevel + (marker == null ? "" : "@" + marker);
+        }
+    }
+}
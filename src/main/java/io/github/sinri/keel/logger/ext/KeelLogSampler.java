@@ -0,0 +1,104 @@
+package io.github.sinri.keel.logger.ext;
+
+import io.github.sinri.keel.logger.api.LogLevel;
+import io.github.sinri.keel.logger.api.log.Log;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 单个日志记录器的采样器，由 {@link KeelLogSampling#resolve(String)} 在创建日志记录器时生成。
+ * <p>
+ * 采样决定在级别检查之后、格式化消息与创建日志事件之前做出，不访问任何共享的竞争状态：
+ * <ul>
+ *     <li>概率采样使用 {@link ThreadLocalRandom}</li>
+ *     <li>1/N 采样使用按线程分条（striped）的计数器，各条目之间以缓存行填充隔开</li>
+ * </ul>
+ * 分条计数使得每个分条内严格每 N 个保留 1 个，整体保留比例为 1/N。
+ *
+ * @since 5.0.3
+ */
+@NullMarked
+public final class KeelLogSampler {
+    private final @Nullable Rule[] rulesByLevel;
+
+    KeelLogSampler(@Nullable Rule[] rulesByLevel) {
+        this.rulesByLevel = rulesByLevel;
+    }
+
+    /**
+     * 决定是否保留一个事件。
+     *
+     * @param level 事件级别
+     * @return 保留时返回 true
+     */
+    public boolean sample(LogLevel level) {
+        Rule rule = rulesByLevel[level.ordinal()];
+        return rule == null || rule.sample();
+    }
+
+    /**
+     * 判断指定级别是否启用了采样；启用时被保留的事件会写入保留比例。
+     *
+     * @param level 事件级别
+     * @return 启用采样时返回 true
+     */
+    public boolean isSampling(LogLevel level) {
+        return rulesByLevel[level.ordinal()] != null;
+    }
+
+    /**
+     * 为被保留的事件写入保留比例 {@value KeelLogSampling#SAMPLE_RATE_CONTEXT_KEY}；该级别未采样时不写入。
+     *
+     * @param log   被保留的事件
+     * @param level 事件级别
+     */
+    public void annotate(Log log, LogLevel level) {
+        Rule rule = rulesByLevel[level.ordinal()];
+        if (rule != null) {
+            log.context(KeelLogSampling.SAMPLE_RATE_CONTEXT_KEY, rule.rate);
+        }
+    }
+
+    /**
+     * 单个级别的采样规则。
+     */
+    static final class Rule {
+        /**
+         * 每个分条占用的 long 数，使相邻分条位于不同的缓存行。
+         */
+        private static final int PADDING = 8;
+        private static final int STRIPES = stripes();
+
+        private final double probability;
+        private final int oneIn;
+        /**
+         * 预先装箱的保留比例，写入上下文时不再装箱。
+         */
+        private final Double rate;
+        private final @Nullable AtomicLongArray counters;
+
+        Rule(double probability, int oneIn) {
+            this.probability = probability;
+            this.oneIn = oneIn;
+            this.rate = probability;
+            this.counters = oneIn > 0 ? new AtomicLongArray(STRIPES * PADDING) : null;
+        }
+
+        private static int stripes() {
+            int processors = Runtime.getRuntime().availableProcessors();
+            return Math.min(64, Integer.highestOneBit(Math.max(1, processors) * 2 - 1));
+        }
+
+        boolean sample() {
+            AtomicLongArray stripedCounters = counters;
+            if (stripedCounters == null) {
+                return ThreadLocalRandom.current().nextDouble() < probability;
+            }
+            int index = (int) (Thread.currentThread().getId() & (STRIPES - 1)) * PADDING;
+            return stripedCounters.getAndIncrement(index) % oneIn == 0;
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package io.github.sinri.keel.logger.ext;
+
+import io.github.sinri.keel.logger.api.LogLevel;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * 按日志记录器名称前缀与级别配置的采样规则（不可变）。
+ * <p>
+ * 每条规则作用于（前缀，级别），取值为以下两种之一：
+ * <ul>
+ *     <li>概率采样：以概率 {@code p}（0 &lt; p &le; 1）保留事件</li>
+ *     <li>1/N 采样：确定性地每 N 个事件保留 1 个</li>
+ * </ul>
+ * 对每个级别分别取最长匹配前缀上的规则；保留比例为 1 的规则表示该前缀下不采样，可用于覆盖较短前缀的规则。
+ * <p>
+ * 规则在创建日志记录器时通过 {@link #resolve(String)} 解析为该日志记录器专属的 {@link KeelLogSampler}。
+ * 被保留的事件在上下文中携带 {@value #SAMPLE_RATE_CONTEXT_KEY}（保留比例），供下游按 {@code 1 / rate} 还原计数。
+ *
+ * @since 5.0.3
+ */
+@NullMarked
+public final class KeelLogSampling {
+    /**
+     * 以字符串形式配置采样规则的系统属性，格式见 {@link #parse(String)}。
+     */
+    public static final String SAMPLING_PROPERTY = "keel.logger.ext.sampling";
+    /**
+     * 被保留的事件在上下文中记录保留比例的键。
+     */
+    public static final String SAMPLE_RATE_CONTEXT_KEY = "sample_rate";
+
+    private static final KeelLogSampling NONE = new KeelLogSampling(Map.of());
+
+    private final Map<String, Map<LogLevel, Rate>> rules;
+    private final Map<LogLevel, KeelLoggerNameTree<Rate>> trees;
+
+    private KeelLogSampling(Map<String, Map<LogLevel, Rate>> rules) {
+        Map<String, Map<LogLevel, Rate>> copy = new TreeMap<>();
+        rules.forEach((prefix, levelRates) -> copy.put(prefix, Collections.unmodifiableMap(new EnumMap<>(levelRates))));
+        this.rules = Collections.unmodifiableMap(copy);
+        Map<LogLevel, KeelLoggerNameTree<Rate>> levelTrees = new EnumMap<>(LogLevel.class);
+        for (LogLevel level : LogLevel.values()) {
+            Map<String, Rate> prefixRates = new TreeMap<>();
+            this.rules.forEach((prefix, levelRates) -> {
+                Rate rate = levelRates.get(level);
+                if (rate != null) {
+                    prefixRates.put(prefix, rate);
+                }
+            });
+            if (!prefixRates.isEmpty()) {
+                levelTrees.put(level, new KeelLoggerNameTree<>(prefixRates));
+            }
+        }
+        this.trees = levelTrees;
+    }
+
+    /**
+     * @return 不采样的配置
+     */
+    public static KeelLogSampling none() {
+        return NONE;
+    }
+
+    /**
+     * 解析字符串形式的采样规则。
+     * <p>
+     * 规则之间以 {@code ,} 分隔，每条规则形如 {@code <prefix>:<LEVEL>=<rate>}；
+     * 省略 {@code <prefix>:} 时作用于所有日志记录器。{@code <rate>} 为小数（概率）或 {@code 1/N}，例如：
+     * <pre>{@code
+     * com.ourco.chatty:INFO=0.1, com.ourco.chatty:DEBUG=1/100, DEBUG=0.01
+     * }</pre>
+     *
+     * @param specification 规则字符串
+     * @return 采样规则
+     * @throws IllegalArgumentException 当规则无法解析时抛出
+     */
+    public static KeelLogSampling parse(String specification) {
+        KeelLogSampling sampling = none();
+        for (String entry : specification.split(",")) {
+            String trimmed = entry.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            int equals = trimmed.indexOf('=');
+            if (equals < 0) {
+                throw new IllegalArgumentException("Sampling rule must look like <prefix>:<LEVEL>=<rate>: " + trimmed);
+            }
+            String target = trimmed.substring(0, equals).trim();
+            String rate = trimmed.substring(equals + 1).trim();
+            int colon = target.lastIndexOf(':');
+            String prefix = colon < 0 ? "" : target.substring(0, colon).trim();
+            LogLevel level = KeelLoggerLevels.parseLevel(colon < 0 ? target : target.substring(colon + 1));
+            if (rate.startsWith("1/")) {
+                sampling = sampling.withOneIn(prefix, level, Integer.parseInt(rate.substring(2).trim()));
+            } else {
+                sampling = sampling.withProbability(prefix, level, Double.parseDouble(rate));
+            }
+        }
+        return sampling;
+    }
+
+    /**
+     * 添加概率采样规则，返回新的配置。
+     *
+     * @param prefix      日志记录器名称前缀；空字符串表示所有日志记录器
+     * @param level       级别
+     * @param probability 保留概率，0 &lt; probability &le; 1
+     * @return 新配置
+     */
+    public KeelLogSampling withProbability(String prefix, LogLevel level, double probability) {
+        if (!(probability > 0 && probability <= 1)) {
+            throw new IllegalArgumentException("probability must be in (0, 1]: " + probability);
+        }
+        return with(prefix, level, new Rate(probability, 0));
+    }
+
+    /**
+     * 添加 1/N 采样规则，返回新的配置。
+     *
+     * @param prefix 日志记录器名称前缀；空字符串表示所有日志记录器
+     * @param level  级别
+     * @param n      每 n 个事件保留 1 个，n &ge; 1
+     * @return 新配置
+     */
+    public KeelLogSampling withOneIn(String prefix, LogLevel level, int n) {
+        if (n < 1) {
+            throw new IllegalArgumentException("n must be positive: " + n);
+        }
+        return with(prefix, level, new Rate(1.0 / n, n));
+    }
+
+    private KeelLogSampling with(String prefix, LogLevel level, Rate rate) {
+        Map<String, Map<LogLevel, Rate>> copy = new TreeMap<>(rules);
+        Map<LogLevel, Rate> levelRates = new EnumMap<>(LogLevel.class);
+        levelRates.putAll(copy.getOrDefault(prefix, Map.of()));
+        levelRates.put(level, rate);
+        copy.put(prefix, levelRates);
+        return new KeelLogSampling(copy);
+    }
+
+    /**
+     * @return 是否没有任何采样规则
+     */
+    public boolean isEmpty() {
+        return rules.isEmpty();
+    }
+
+    /**
+     * 为指定日志记录器解析采样器。
+     *
+     * @param loggerName 日志记录器名称
+     * @return 该日志记录器专属的采样器；所有级别都不采样时返回 null
+     */
+    @Nullable
+    public KeelLogSampler resolve(String loggerName) {
+        KeelLogSampler.Rule[] rulesByLevel = new KeelLogSampler.Rule[LogLevel.values().length];
+        boolean any = false;
+        for (Map.Entry<LogLevel, KeelLoggerNameTree<Rate>> entry : trees.entrySet()) {
+            Rate rate = entry.getValue().resolve(loggerName);
+            if (rate != null && rate.probability() < 1) {
+                rulesByLevel[entry.getKey().ordinal()] = new KeelLogSampler.Rule(rate.probability(), rate.oneIn());
+                any = true;
+            }
+        }
+        return any ? new KeelLogSampler(rulesByLevel) : null;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof KeelLogSampling that)) return false;
+        return rules.equals(that.rules);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(rules);
+    }
+
+    @Override
+    public String toString() {
+        return "KeelLogSampling" + rules;
+    }
+
+    /**
+     * @param probability 保留比例
+     * @param oneIn       1/N 采样的 N；为 0 时表示概率采样
+     */
+    private record Rate(double probability, int oneIn) {
+        @Override
+        public String toString() {
+            return oneIn > 0 ? "1/" + oneIn : String.valueOf(probability);
+        }
+    }
+}
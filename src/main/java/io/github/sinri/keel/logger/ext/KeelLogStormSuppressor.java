@@ -0,0 +1,304 @@
+package io.github.sinri.keel.logger.ext;
+
+import io.github.sinri.keel.logger.api.LogLevel;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+import java.io.PrintWriter;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 日志风暴抑制器：按（主题，未格式化的消息模板）限制单位时间内的日志事件数。
+ * <p>
+ * 每个（主题，模板）对应一个令牌桶，每个时间窗口最多放行 {@code permitsPerWindow} 个事件（允许在窗口内突发）。
+ * 令牌桶以单个 {@link AtomicLong} 记录理论到达时间（GCRA 算法），检查只需一次读取与一次 CAS，
+ * 在格式化消息与创建日志事件之前完成，被抑制的事件不产生格式化开销。
+ * <p>
+ * 后台守护线程每个窗口检查一次：对本窗口内有事件被抑制的模板，
+ * 通过 {@link SummaryEmitter} 输出一条「已抑制 N 条相似事件」的汇总；长期空闲的令牌桶被回收。
+ * 所有抑制器共用同一个后台线程，空闲时自动退出。
+ * <p>
+ * 创建时注册 JVM 关闭钩子，在退出时调用 {@link #close()} 输出最后一个窗口的汇总。
+ * <p>
+ * 跟踪的模板总数不超过 {@code maxTemplates}；超出后，新模板共用所在主题的一个溢出令牌桶，
+ * 内存占用始终有界。
+ *
+ * @since 5.0.3
+ */
+@NullMarked
+public final class KeelLogStormSuppressor implements AutoCloseable {
+    /**
+     * 溢出令牌桶在汇总中使用的模板描述。
+     */
+    static final String OVERFLOW_TEMPLATE = "(untracked templates)";
+    /**
+     * 共用后台线程的空闲存活时间（秒）。
+     */
+    private static final long SWEEPER_KEEP_ALIVE_SECONDS = 60;
+    private static final ScheduledThreadPoolExecutor SWEEPER = createSweeper();
+
+    private final int permitsPerWindow;
+    private final long windowNanos;
+    private final long emissionIntervalNanos;
+    private final int maxTemplates;
+    private final boolean verbose;
+    private final AtomicInteger trackedTemplates = new AtomicInteger();
+    private final ConcurrentMap<String, Scope> scopes = new ConcurrentHashMap<>();
+    private final ScheduledFuture<?> sweeping;
+    private final Thread shutdownHook;
+    private boolean closed;
+
+    /**
+     * 创建抑制器并启动每个窗口运行一次的后台守护线程。
+     *
+     * @param permitsPerWindow 每个（主题，模板）在每个窗口内放行的事件数
+     * @param window           时间窗口
+     * @param maxTemplates     跟踪的模板总数上限
+     */
+    public KeelLogStormSuppressor(int permitsPerWindow, Duration window, int maxTemplates) {
+        this(permitsPerWindow, window, maxTemplates, false);
+    }
+
+    /**
+     * 创建抑制器并启动每个窗口运行一次的后台守护线程。
+     *
+     * @param permitsPerWindow 每个（主题，模板）在每个窗口内放行的事件数
+     * @param window           时间窗口
+     * @param maxTemplates     跟踪的模板总数上限
+     * @param verbose          是否在输出汇总失败时输出错误信息
+     */
+    public KeelLogStormSuppressor(int permitsPerWindow, Duration window, int maxTemplates, boolean verbose) {
+        if (permitsPerWindow < 1) {
+            throw new IllegalArgumentException("permitsPerWindow must be positive: " + permitsPerWindow);
+        }
+        if (window.isNegative() || window.isZero()) {
+            throw new IllegalArgumentException("window must be positive: " + window);
+        }
+        if (maxTemplates < 1) {
+            throw new IllegalArgumentException("maxTemplates must be positive: " + maxTemplates);
+        }
+        this.permitsPerWindow = permitsPerWindow;
+        this.windowNanos = window.toNanos();
+        this.emissionIntervalNanos = Math.max(1, windowNanos / permitsPerWindow);
+        this.maxTemplates = maxTemplates;
+        this.verbose = verbose;
+        this.sweeping = SWEEPER.scheduleAtFixedRate(this::sweep, windowNanos, windowNanos, TimeUnit.NANOSECONDS);
+        this.shutdownHook = new Thread(this::close, "keel-logger-storm-shutdown");
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+    }
+
+    private static ScheduledThreadPoolExecutor createSweeper() {
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "keel-logger-storm-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.setKeepAliveTime(SWEEPER_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS);
+        executor.allowCoreThreadTimeOut(true);
+        executor.setRemoveOnCancelPolicy(true);
+        return executor;
+    }
+
+    /**
+     * 获取指定主题的抑制范围；同一主题多次调用返回同一实例，汇总输出器以首次调用时的为准。
+     *
+     * @param topic   主题
+     * @param emitter 汇总的输出器
+     * @return 抑制范围
+     */
+    public Scope scope(String topic, SummaryEmitter emitter) {
+        Scope scope = scopes.get(topic);
+        if (scope == null) {
+            scope = scopes.computeIfAbsent(topic, t -> new Scope(emitter));
+        }
+        return scope;
+    }
+
+    /**
+     * @return 每个窗口放行的事件数
+     */
+    public int getPermitsPerWindow() {
+        return permitsPerWindow;
+    }
+
+    /**
+     * @return 时间窗口
+     */
+    public Duration getWindow() {
+        return Duration.ofNanos(windowNanos);
+    }
+
+    /**
+     * @return 当前跟踪的模板数（不含溢出令牌桶）
+     */
+    public int getTrackedTemplateCount() {
+        return trackedTemplates.get();
+    }
+
+    /**
+     * 输出所有待输出的汇总并回收空闲的令牌桶。由后台线程每个窗口调用一次。
+     */
+    void sweep() {
+        long now = System.nanoTime();
+        for (Scope scope : scopes.values()) {
+            try {
+                scope.sweep(now);
+            } catch (Throwable throwable) {
+                if (verbose) {
+                    System.err.println("Keel Logging storm suppressor failed to emit summary: " + throwable);
+                    throwable.printStackTrace(new PrintWriter(System.err, true));
+                }
+            }
+        }
+    }
+
+    /**
+     * 停止定期检查并输出剩余的汇总；重复调用无副作用。
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (Thread.currentThread() != shutdownHook) {
+                try {
+                    Runtime.getRuntime().removeShutdownHook(shutdownHook);
+                } catch (IllegalStateException ignored) {
+                    // JVM 正在关闭
+                }
+            }
+        }
+        sweeping.cancel(false);
+        sweep();
+    }
+
+    /**
+     * 汇总的输出器，通常由日志记录器提供，将汇总作为一条普通日志事件写出。
+     */
+    @FunctionalInterface
+    public interface SummaryEmitter {
+        /**
+         * @param level   被抑制事件的级别
+         * @param message 汇总消息
+         */
+        void emit(LogLevel level, String message);
+    }
+
+    /**
+     * 单个主题的抑制范围，由该主题的日志记录器持有。
+     */
+    public final class Scope {
+        private final SummaryEmitter emitter;
+        private final ConcurrentMap<String, Bucket> buckets = new ConcurrentHashMap<>();
+        private final Bucket overflowBucket = new Bucket(OVERFLOW_TEMPLATE);
+
+        private Scope(SummaryEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        /**
+         * 尝试放行一个事件。
+         *
+         * @param level    事件级别，用于汇总
+         * @param template 未格式化的消息模板
+         * @return 放行时返回 true；被抑制时返回 false 并计数
+         */
+        public boolean tryAcquire(LogLevel level, @Nullable String template) {
+            String key = template == null ? "null" : template;
+            Bucket bucket = buckets.get(key);
+            if (bucket == null) {
+                bucket = track(key);
+            }
+            return bucket.tryAcquire(level, System.nanoTime());
+        }
+
+        private Bucket track(String template) {
+            if (trackedTemplates.incrementAndGet() > maxTemplates) {
+                trackedTemplates.decrementAndGet();
+                return overflowBucket;
+            }
+            Bucket created = new Bucket(template);
+            Bucket existed = buckets.putIfAbsent(template, created);
+            if (existed != null) {
+                trackedTemplates.decrementAndGet();
+                return existed;
+            }
+            return created;
+        }
+
+        private void sweep(long now) {
+            Iterator<Map.Entry<String, Bucket>> iterator = buckets.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Bucket bucket = iterator.next().getValue();
+                if (!bucket.emitSummary(emitter) && bucket.isIdle(now)) {
+                    iterator.remove();
+                    trackedTemplates.decrementAndGet();
+                }
+            }
+            overflowBucket.emitSummary(emitter);
+        }
+    }
+
+    /**
+     * 单个模板的令牌桶。
+     */
+    private final class Bucket {
+        private final String template;
+        /**
+         * 理论到达时间（纳秒）：放行一个事件后向后推进一个发放间隔。
+         */
+        private final AtomicLong theoreticalArrival = new AtomicLong(Long.MIN_VALUE);
+        private final LongAdder suppressed = new LongAdder();
+        private volatile LogLevel suppressedLevel = LogLevel.INFO;
+
+        private Bucket(String template) {
+            this.template = template;
+        }
+
+        boolean tryAcquire(LogLevel level, long now) {
+            while (true) {
+                long arrival = theoreticalArrival.get();
+                long base = arrival == Long.MIN_VALUE || arrival - now < 0 ? now : arrival;
+                long next = base + emissionIntervalNanos;
+                if (next - now > windowNanos) {
+                    suppressedLevel = level;
+                    suppressed.increment();
+                    return false;
+                }
+                if (theoreticalArrival.compareAndSet(arrival, next)) {
+                    return true;
+                }
+            }
+        }
+
+        /**
+         * @return 是否输出了汇总
+         */
+        boolean emitSummary(SummaryEmitter emitter) {
+            long count = suppressed.sumThenReset();
+            if (count <= 0) {
+                return false;
+            }
+            emitter.emit(suppressedLevel, "Suppressed " + count + " similar events in the last "
+                    + TimeUnit.NANOSECONDS.toMillis(windowNanos) + "ms: " + template);
+            return true;
+        }
+
+        boolean isIdle(long now) {
+            long arrival = theoreticalArrival.get();
+            return arrival == Long.MIN_VALUE || now - arrival > windowNanos;
+        }
+    }
+}
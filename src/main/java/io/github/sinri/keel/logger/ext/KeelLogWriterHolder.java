@@ -0,0 +1,111 @@
+package io.github.sinri.keel.logger.ext;
+
+import io.github.sinri.keel.logger.api.adapter.LogWriterAdapter;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+import java.io.PrintWriter;
+import java.util.function.Supplier;
+
+/**
+ * 日志记录器共享的 {@link LogWriterAdapter} 持有者，可在运行期切换适配器。
+ * <p>
+ * 首次使用时通过初始的供应者解析适配器并缓存（供应者返回 null 时下次再试），
+ * 之后 {@link #get()} 只读取一个 volatile 字段，不再执行供应者；需要切换时调用 {@link #swap(LogWriterAdapter)}。
+ * <p>
+ * 切换不会丢失或重复事件：每个事件只交给它解析到的那一个适配器。
+ * 切换前已解析到旧适配器的事件仍由旧适配器写完；启用异步写出时持有者位于 {@link KeelAsyncLogWriter} 的下游，
+ * 缓冲区中尚未写出的事件在写出时才解析适配器，因而交给新的适配器。
+ * 旧适配器自身缓冲的事件可以通过 {@link #swapAndDrain(LogWriterAdapter)} 在切换后写出；
+ * 旧适配器关闭超时未能写出的事件由其计入丢弃数（如 {@link KeelAsyncLogWriter#getDroppedCount()}）。
+ *
+ * @since 5.0.3
+ */
+@NullMarked
+public final class KeelLogWriterHolder implements Supplier<LogWriterAdapter> {
+    private final Supplier<LogWriterAdapter> initialSupplier;
+    private final boolean verbose;
+    private volatile @Nullable LogWriterAdapter adapter;
+
+    /**
+     * @param initialSupplier 初始适配器的供应者，在首次使用时调用
+     * @param verbose         是否在关闭旧适配器失败时输出错误信息
+     */
+    public KeelLogWriterHolder(Supplier<LogWriterAdapter> initialSupplier, boolean verbose) {
+        this.initialSupplier = initialSupplier;
+        this.verbose = verbose;
+    }
+
+    /**
+     * 以持有者包装适配器供应者；已是持有者时原样返回，保证同一条链路上只有一个持有者。
+     *
+     * @param adapterSupplier 适配器供应者
+     * @param verbose         是否输出调试信息
+     * @return 持有者
+     */
+    public static KeelLogWriterHolder of(Supplier<LogWriterAdapter> adapterSupplier, boolean verbose) {
+        if (adapterSupplier instanceof KeelLogWriterHolder holder) {
+            return holder;
+        }
+        return new KeelLogWriterHolder(adapterSupplier, verbose);
+    }
+
+    /**
+     * 获取当前的适配器。
+     *
+     * @return 当前的适配器；初始的供应者尚未提供适配器时返回 null
+     */
+    @Override
+    public @Nullable LogWriterAdapter get() {
+        LogWriterAdapter current = adapter;
+        return current != null ? current : resolve();
+    }
+
+    private synchronized @Nullable LogWriterAdapter resolve() {
+        LogWriterAdapter current = adapter;
+        if (current == null) {
+            current = initialSupplier.get();
+            adapter = current;
+        }
+        return current;
+    }
+
+    /**
+     * 切换适配器，之后解析适配器的事件都交给新的适配器。
+     * <p>
+     * 旧适配器不会被关闭：切换前已解析到它的事件仍由它写完。
+     *
+     * @param next 新的适配器
+     * @return 切换前的适配器；尚未解析过时返回 null
+     */
+    public synchronized @Nullable LogWriterAdapter swap(LogWriterAdapter next) {
+        LogWriterAdapter previous = adapter;
+        adapter = next;
+        return previous;
+    }
+
+    /**
+     * 切换适配器，并在旧适配器实现了 {@link AutoCloseable} 时关闭它，写出其缓冲的事件。
+     * <p>
+     * 本项目中的 {@link KeelAsyncLogWriter} 与 {@link KeelBatchingLogWriter} 关闭时写出剩余事件，
+     * 与关闭并发或在关闭后到达的事件（切换前已解析到旧适配器的事件）直接同步写出；
+     * 只有超过旧适配器的关闭等待时间仍未写出的事件会被丢弃，并计入其丢弃数。
+     *
+     * @param next 新的适配器
+     * @return 切换前的适配器；尚未解析过时返回 null
+     */
+    public @Nullable LogWriterAdapter swapAndDrain(LogWriterAdapter next) {
+        LogWriterAdapter previous = swap(next);
+        if (previous != next && previous instanceof AutoCloseable closeable) {
+            try {
+                closeable.close();
+            } catch (Exception e) {
+                if (verbose) {
+                    System.err.println("Keel Logging failed to drain replaced writer: " + e);
+                    e.printStackTrace(new PrintWriter(System.err, true));
+                }
+            }
+        }
+        return previous;
+    }
+}
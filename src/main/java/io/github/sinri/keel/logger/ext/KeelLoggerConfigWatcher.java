@@ -0,0 +1,199 @@
+package io.github.sinri.keel.logger.ext;
+
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.Properties;
+import java.util.function.Consumer;
+
+import static java.nio.file.StandardWatchEventKinds.*;
+
+/**
+ * 监视日志级别配置文件，在文件变化时重新计算并发布 {@link KeelLoggerLevels}。
+ * <p>
+ * 配置文件为 {@link Properties} 格式（UTF-8），键的含义见 {@link KeelLoggerLevels#withProperties(Properties)}，例如：
+ * <pre>{@code
+ * level=INFO
+ * level.io.vertx=WARN
+ * level.com.ourco.billing=DEBUG
+ * marker.AUDIT=TRACE
+ * }</pre>
+ * 文件内容覆盖在构造时给定的基线配置之上；文件被删除时恢复为基线配置；
+ * 文件内容无法解析时保留上一次生效的配置。
+ * <p>
+ * 文件只在 {@link java.nio.file.WatchService} 报告变化时由后台守护线程读取，
+ * 日志记录热路径上不会读取文件。
+ * <p>
+ * 通过系统属性 {@value #CONFIG_FILE_PROPERTY} 指定配置文件路径时，两侧桥接会自动启用本监视器。
+ *
+ * @since 5.0.3
+ */
+@NullMarked
+public final class KeelLoggerConfigWatcher implements AutoCloseable {
+    /**
+     * 指定日志级别配置文件路径的系统属性。
+     */
+    public static final String CONFIG_FILE_PROPERTY = "keel.logger.ext.config";
+
+    /**
+     * 收到变化事件后等待文件写入完成的时间（毫秒）。
+     */
+    private static final long DEBOUNCE_MILLIS = 100;
+
+    private final Path file;
+    private final KeelLoggerLevels baseline;
+    private final Consumer<KeelLoggerLevels> listener;
+    private final boolean verbose;
+    private final Object reloadLock = new Object();
+    private @Nullable KeelLoggerLevels current;
+    private volatile @Nullable WatchService watchService;
+    private volatile boolean closed;
+
+    /**
+     * 创建配置文件监视器（尚未启动）。
+     *
+     * @param file     配置文件路径；文件可以暂不存在
+     * @param baseline 基线配置，文件内容覆盖在其之上
+     * @param listener 新配置的接收者；在启动线程或监视线程上被调用
+     * @param verbose  是否输出调试信息到标准输出
+     */
+    public KeelLoggerConfigWatcher(
+            Path file,
+            KeelLoggerLevels baseline,
+            Consumer<KeelLoggerLevels> listener,
+            boolean verbose) {
+        this.file = file.toAbsolutePath();
+        this.baseline = baseline;
+        this.listener = listener;
+        this.verbose = verbose;
+    }
+
+    /**
+     * 读取系统属性 {@value #CONFIG_FILE_PROPERTY} 指定的配置文件路径。
+     *
+     * @return 配置文件路径；未指定时返回 null
+     */
+    @Nullable
+    public static Path configuredFile() {
+        String value = System.getProperty(CONFIG_FILE_PROPERTY);
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        return Paths.get(value.trim());
+    }
+
+    /**
+     * @return 被监视的配置文件的绝对路径
+     */
+    public Path file() {
+        return file;
+    }
+
+    /**
+     * 立即加载一次配置文件并发布，然后启动后台守护线程监视其所在目录。
+     *
+     * @throws IOException 当无法注册目录监视时抛出
+     */
+    public void start() throws IOException {
+        reload();
+        Path directory = file.getParent();
+        WatchService ws = directory.getFileSystem().newWatchService();
+        directory.register(ws, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE);
+        this.watchService = ws;
+        Thread thread = new Thread(() -> watch(ws), "keel-logger-config-watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void watch(WatchService ws) {
+        Path fileName = file.getFileName();
+        while (!closed) {
+            WatchKey key;
+            try {
+                key = ws.take();
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+            boolean relevant = false;
+            for (WatchEvent<?> event : key.pollEvents()) {
+                if (event.kind() == OVERFLOW || fileName.equals(event.context())) {
+                    relevant = true;
+                }
+            }
+            boolean valid = key.reset();
+            if (relevant) {
+                try {
+                    Thread.sleep(DEBOUNCE_MILLIS);
+                } catch (InterruptedException e) {
+                    return;
+                }
+                reload();
+            }
+            if (!valid) {
+                // 目录已不可访问，无法继续监视
+                if (verbose) {
+                    System.out.println("Keel Logging stopped watching level config [" + file + "]: directory is no longer accessible");
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * 重新读取配置文件，若有效配置发生变化则发布给接收者。
+     */
+    void reload() {
+        synchronized (reloadLock) {
+            KeelLoggerLevels levels;
+            try {
+                levels = load();
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Keel Logging failed to load level config [" + file + "], keeping current levels: " + e);
+                if (verbose) {
+                    e.printStackTrace(new PrintWriter(System.err, true));
+                }
+                return;
+            }
+            if (levels.equals(current)) {
+                return;
+            }
+            current = levels;
+            if (verbose) {
+                System.out.println("Keel Logging applies level config from [" + file + "]: " + levels);
+            }
+            listener.accept(levels);
+        }
+    }
+
+    private KeelLoggerLevels load() throws IOException {
+        if (!Files.isRegularFile(file)) {
+            return baseline;
+        }
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+        return baseline.withProperties(properties);
+    }
+
+    /**
+     * 停止监视。已发布的配置保持生效。
+     */
+    @Override
+    public void close() {
+        closed = true;
+        WatchService ws = this.watchService;
+        if (ws != null) {
+            try {
+                ws.close();
+            } catch (IOException ignored) {
+                // 关闭失败不影响日志记录
+            }
+        }
+    }
+}
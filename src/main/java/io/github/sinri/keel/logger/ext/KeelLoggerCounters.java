@@ -0,0 +1,207 @@
+package io.github.sinri.keel.logger.ext;
+
+import io.github.sinri.keel.logger.api.LogLevel;
+import io.github.sinri.keel.logger.api.adapter.LogWriterAdapter;
+import io.github.sinri.keel.logger.api.log.SpecificLog;
+import org.jspecify.annotations.NullMarked;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 单个日志记录器按级别统计的事件计数，由 {@link KeelLoggerMetrics#counters(String)} 在创建日志记录器时分配。
+ * <p>
+ * 统计以下几类事件，各级别各一个 {@link LongAdder}，无竞争时每次累加只是一次 CAS：
+ * <ul>
+ *     <li>accepted：交给适配器的事件，同时累加消息长度（字符数；延迟格式化的消息此时尚未渲染，不计长度）</li>
+ *     <li>filtered：通过级别检查后被采样或日志风暴抑制丢弃的事件；未通过级别检查的调用不计数，
+ *     以免在禁用级别的热路径上增加开销</li>
+ *     <li>dropped：通过全部检查但没有可用适配器的事件</li>
+ * </ul>
+ * 适配器调用的耗时每 {@value #LATENCY_SAMPLE_INTERVAL} 次记录一次到共享的 {@link KeelLatencyHistogram}，
+ * 其余调用不读取时钟。
+ *
+ * @since 5.0.3
+ */
+@NullMarked
+public final class KeelLoggerCounters {
+    /**
+     * 记录适配器耗时的间隔，须为 2 的幂。
+     */
+    public static final int LATENCY_SAMPLE_INTERVAL = 64;
+
+    private final String loggerName;
+    private final KeelLatencyHistogram adapterLatency;
+    private final LongAdder[] accepted;
+    private final LongAdder[] filtered;
+    private final LongAdder[] dropped;
+    private final LongAdder[] messageChars;
+    /**
+     * 决定是否记录耗时的计数；多线程下的竞争写入只影响记录的间隔，不影响计数，因而不做同步。
+     */
+    private int tick;
+
+    KeelLoggerCounters(String loggerName, KeelLatencyHistogram adapterLatency) {
+        this.loggerName = loggerName;
+        this.adapterLatency = adapterLatency;
+        this.accepted = adders();
+        this.filtered = adders();
+        this.dropped = adders();
+        this.messageChars = adders();
+    }
+
+    /**
+     * 创建不属于任何 {@link KeelLoggerMetrics} 的计数，用于单独构造的日志记录器。
+     *
+     * @param loggerName 日志记录器名称
+     * @return 计数
+     */
+    public static KeelLoggerCounters detached(String loggerName) {
+        return new KeelLoggerCounters(loggerName, new KeelLatencyHistogram());
+    }
+
+    private static LongAdder[] adders() {
+        LongAdder[] adders = new LongAdder[LogLevel.values().length];
+        for (int i = 0; i < adders.length; i++) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+
+    /**
+     * @return 日志记录器名称
+     */
+    public String getLoggerName() {
+        return loggerName;
+    }
+
+    /**
+     * 将日志事件交给适配器并计数。
+     *
+     * @param adapter 日志写入适配器
+     * @param topic   日志主题
+     * @param log     日志事件
+     * @param level   日志级别
+     */
+    public void deliver(LogWriterAdapter adapter, String topic, SpecificLog<?> log, LogLevel level) {
+        int ordinal = level.ordinal();
+        accepted[ordinal].increment();
+        if (!(log instanceof KeelDeferredLog)) {
+            String message = log.message();
+            if (message != null) {
+                messageChars[ordinal].add(message.length());
+            }
+        }
+        if ((++tick & (LATENCY_SAMPLE_INTERVAL - 1)) != 0) {
+            adapter.accept(topic, log);
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            adapter.accept(topic, log);
+        } finally {
+            adapterLatency.record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * 记录一个被采样或日志风暴抑制丢弃的事件。
+     *
+     * @param level 日志级别
+     */
+    public void filtered(LogLevel level) {
+        filtered[level.ordinal()].increment();
+    }
+
+    /**
+     * 记录一个没有可用适配器的事件。
+     *
+     * @param level 日志级别
+     */
+    public void dropped(LogLevel level) {
+        dropped[level.ordinal()].increment();
+    }
+
+    /**
+     * @param level 日志级别
+     * @return 交给适配器的事件数
+     */
+    public long getAcceptedCount(LogLevel level) {
+        return accepted[level.ordinal()].sum();
+    }
+
+    /**
+     * @param level 日志级别
+     * @return 被采样或日志风暴抑制丢弃的事件数
+     */
+    public long getFilteredCount(LogLevel level) {
+        return filtered[level.ordinal()].sum();
+    }
+
+    /**
+     * @param level 日志级别
+     * @return 没有可用适配器的事件数
+     */
+    public long getDroppedCount(LogLevel level) {
+        return dropped[level.ordinal()].sum();
+    }
+
+    /**
+     * @param level 日志级别
+     * @return 交给适配器的消息的总字符数
+     */
+    public long getMessageChars(LogLevel level) {
+        return messageChars[level.ordinal()].sum();
+    }
+
+    /**
+     * @return 各级别交给适配器的事件总数
+     */
+    public long getAcceptedCount() {
+        return sum(accepted);
+    }
+
+    /**
+     * @return 各级别被丢弃的事件总数
+     */
+    public long getFilteredCount() {
+        return sum(filtered);
+    }
+
+    /**
+     * @return 各级别没有可用适配器的事件总数
+     */
+    public long getDroppedCount() {
+        return sum(dropped);
+    }
+
+    /**
+     * @return 各级别消息的总字符数
+     */
+    public long getMessageChars() {
+        return sum(messageChars);
+    }
+
+    /**
+     * @return 适配器调用耗时的直方图，同一 {@link KeelLoggerMetrics} 下的日志记录器共享
+     */
+    public KeelLatencyHistogram getAdapterLatency() {
+        return adapterLatency;
+    }
+
+    private static long sum(LongAdder[] adders) {
+        long sum = 0;
+        for (LongAdder adder : adders) {
+            sum += adder.sum();
+        }
+        return sum;
+    }
+
+    @Override
+    public String toString() {
+        return "KeelLoggerCounters{" + loggerName
+                + ", accepted=" + getAcceptedCount()
+                + ", filtered=" + getFilteredCount()
+                + ", dropped=" + getDroppedCount()
+                + ", messageChars=" + getMessageChars() + "}";
+    }
+}
@@ -0,0 +1,255 @@
+package io.github.sinri.keel.logger.ext;
+
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+import java.time.Duration;
+
+/**
+ * 两侧桥接的日志记录器共享的可选功能，不可变对象。
+ * <p>
+ * 以 {@link #none()} 为起点，通过 {@code withXxx} 方法派生新配置；各功能默认关闭。
+ * 在日志记录器创建时读取一次，热路径上只做字段判空。
+ *
+ * @since 5.0.3
+ */
+@NullMarked
+public final class KeelLoggerFeatures {
+    /**
+     * 启用日志风暴抑制的系统属性：每个（主题，模板）在每个窗口内放行的事件数。
+     */
+    public static final String STORM_PERMITS_PROPERTY = "keel.logger.ext.storm.permits";
+    /**
+     * 日志风暴抑制的窗口毫秒数，默认 1000。
+     */
+    public static final String STORM_WINDOW_MILLIS_PROPERTY = "keel.logger.ext.storm.windowMillis";
+    /**
+     * 日志风暴抑制跟踪的模板总数上限，默认 10000。
+     */
+    public static final String STORM_MAX_TEMPLATES_PROPERTY = "keel.logger.ext.storm.maxTemplates";
+
+    /**
+     * 启用无垃圾模式的系统属性，取值为 true 时启用。
+     */
+    public static final String GARBAGE_FREE_PROPERTY = "keel.logger.ext.garbageFree";
+    /**
+     * 启用堆栈去重的系统属性：时间窗口的毫秒数。
+     */
+    public static final String STACK_TRACE_DEDUP_WINDOW_MILLIS_PROPERTY = "keel.logger.ext.stackTraceDedup.windowMillis";
+    /**
+     * 堆栈去重跟踪的指纹数上限，默认 1000。
+     */
+    public static final String STACK_TRACE_DEDUP_MAX_FINGERPRINTS_PROPERTY = "keel.logger.ext.stackTraceDedup.maxFingerprints";
+
+    private static final KeelLoggerFeatures NONE = new KeelLoggerFeatures(null, KeelLogSampling.none(), false, KeelDeferredFormatting.none(), null, KeelLogRouting.none(), KeelCallerLocation.none());
+
+    private final @Nullable KeelLogStormSuppressor stormSuppressor;
+    private final KeelLogSampling sampling;
+    private final boolean garbageFree;
+    private final KeelDeferredFormatting deferredFormatting;
+    private final @Nullable KeelStackTraceDeduplicator stackTraceDeduplicator;
+    private final KeelLogRouting routing;
+    private final KeelCallerLocation callerLocation;
+
+    private KeelLoggerFeatures(
+            @Nullable KeelLogStormSuppressor stormSuppressor,
+            KeelLogSampling sampling,
+            boolean garbageFree,
+            KeelDeferredFormatting deferredFormatting,
+            @Nullable KeelStackTraceDeduplicator stackTraceDeduplicator,
+            KeelLogRouting routing,
+            KeelCallerLocation callerLocation) {
+        this.stormSuppressor = stormSuppressor;
+        this.sampling = sampling;
+        this.garbageFree = garbageFree;
+        this.deferredFormatting = deferredFormatting;
+        this.stackTraceDeduplicator = stackTraceDeduplicator;
+        this.routing = routing;
+        this.callerLocation = callerLocation;
+    }
+
+    /**
+     * @return 不启用任何可选功能的配置
+     */
+    public static KeelLoggerFeatures none() {
+        return NONE;
+    }
+
+    /**
+     * 从系统属性读取配置。
+     * <p>
+     * 设置了 {@value #STORM_PERMITS_PROPERTY} 时启用日志风暴抑制，
+     * 可选属性 {@value #STORM_WINDOW_MILLIS_PROPERTY} 与 {@value #STORM_MAX_TEMPLATES_PROPERTY}；
+     * 设置了 {@value KeelLogSampling#SAMPLING_PROPERTY} 时按 {@link KeelLogSampling#parse(String)} 启用采样；
+     * {@value #GARBAGE_FREE_PROPERTY} 为 true 时启用无垃圾模式；
+     * 延迟格式化按 {@link KeelDeferredFormatting#fromSystemProperties()} 读取；
+     * 设置了 {@value #STACK_TRACE_DEDUP_WINDOW_MILLIS_PROPERTY} 时启用堆栈去重，
+     * 可选属性 {@value #STACK_TRACE_DEDUP_MAX_FINGERPRINTS_PROPERTY}；
+     * 设置了 {@value KeelCallerLocation#LOCATION_PROPERTY} 时按 {@link KeelCallerLocation#parse(String)} 记录调用位置。
+     *
+     * @return 配置
+     * @throws IllegalArgumentException 当属性取值无法解析时抛出
+     */
+    public static KeelLoggerFeatures fromSystemProperties() {
+        KeelLoggerFeatures features = none();
+        String permits = property(STORM_PERMITS_PROPERTY);
+        if (permits != null) {
+            String windowMillis = property(STORM_WINDOW_MILLIS_PROPERTY);
+            String maxTemplates = property(STORM_MAX_TEMPLATES_PROPERTY);
+            features = features.withStormSuppressor(new KeelLogStormSuppressor(
+                    Integer.parseInt(permits),
+                    Duration.ofMillis(windowMillis == null ? 1000 : Long.parseLong(windowMillis)),
+                    maxTemplates == null ? 10000 : Integer.parseInt(maxTemplates),
+                    "true".equalsIgnoreCase(property("keel.logger.ext.verbose"))));
+        }
+        String sampling = property(KeelLogSampling.SAMPLING_PROPERTY);
+        if (sampling != null) {
+            features = features.withSampling(KeelLogSampling.parse(sampling));
+        }
+        if (Boolean.parseBoolean(property(GARBAGE_FREE_PROPERTY))) {
+            features = features.withGarbageFree(true);
+        }
+        String dedupWindowMillis = property(STACK_TRACE_DEDUP_WINDOW_MILLIS_PROPERTY);
+        if (dedupWindowMillis != null) {
+            String maxFingerprints = property(STACK_TRACE_DEDUP_MAX_FINGERPRINTS_PROPERTY);
+            features = features.withStackTraceDeduplicator(new KeelStackTraceDeduplicator(
+                    Duration.ofMillis(Long.parseLong(dedupWindowMillis)),
+                    maxFingerprints == null ? 1000 : Integer.parseInt(maxFingerprints)));
+        }
+        String location = property(KeelCallerLocation.LOCATION_PROPERTY);
+        if (location != null) {
+            features = features.withCallerLocation(KeelCallerLocation.parse(location));
+        }
+        return features.withDeferredFormatting(KeelDeferredFormatting.fromSystemProperties());
+    }
+
+    @Nullable
+    private static String property(String name) {
+        String value = System.getProperty(name);
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        return value.trim();
+    }
+
+    /**
+     * @return 日志风暴抑制器；未启用时为 null
+     */
+    @Nullable
+    public KeelLogStormSuppressor stormSuppressor() {
+        return stormSuppressor;
+    }
+
+    /**
+     * @param stormSuppressor 日志风暴抑制器；为 null 时关闭
+     * @return 新配置
+     */
+    public KeelLoggerFeatures withStormSuppressor(@Nullable KeelLogStormSuppressor stormSuppressor) {
+        return new KeelLoggerFeatures(stormSuppressor, sampling, garbageFree, deferredFormatting, stackTraceDeduplicator, routing, callerLocation);
+    }
+
+    /**
+     * @return 采样规则
+     */
+    public KeelLogSampling sampling() {
+        return sampling;
+    }
+
+    /**
+     * @param sampling 采样规则；{@link KeelLogSampling#none()} 表示不采样
+     * @return 新配置
+     */
+    public KeelLoggerFeatures withSampling(KeelLogSampling sampling) {
+        return new KeelLoggerFeatures(stormSuppressor, sampling, garbageFree, deferredFormatting, stackTraceDeduplicator, routing, callerLocation);
+    }
+
+    /**
+     * @return 是否启用无垃圾模式
+     */
+    public boolean garbageFree() {
+        return garbageFree;
+    }
+
+    /**
+     * 启用或关闭无垃圾模式。
+     * <p>
+     * 启用后，若适配器实现了 {@link KeelSynchronousLogWriter}，
+     * 不携带上下文与异常的事件复用线程本地的日志事件（见 {@link KeelLogPool}），不再逐条新建；
+     * 其余情况仍按原方式新建。
+     *
+     * @param garbageFree 是否启用
+     * @return 新配置
+     */
+    public KeelLoggerFeatures withGarbageFree(boolean garbageFree) {
+        return new KeelLoggerFeatures(stormSuppressor, sampling, garbageFree, deferredFormatting, stackTraceDeduplicator, routing, callerLocation);
+    }
+
+    /**
+     * @return 延迟格式化的策略
+     */
+    public KeelDeferredFormatting deferredFormatting() {
+        return deferredFormatting;
+    }
+
+    /**
+     * @param deferredFormatting 延迟格式化的策略；{@link KeelDeferredFormatting#none()} 表示在应用线程上直接格式化
+     * @return 新配置
+     */
+    public KeelLoggerFeatures withDeferredFormatting(KeelDeferredFormatting deferredFormatting) {
+        return new KeelLoggerFeatures(stormSuppressor, sampling, garbageFree, deferredFormatting, stackTraceDeduplicator, routing, callerLocation);
+    }
+
+    /**
+     * @return 堆栈去重器；未启用时为 null
+     */
+    @Nullable
+    public KeelStackTraceDeduplicator stackTraceDeduplicator() {
+        return stackTraceDeduplicator;
+    }
+
+    /**
+     * @param stackTraceDeduplicator 堆栈去重器；为 null 时关闭
+     * @return 新配置
+     */
+    public KeelLoggerFeatures withStackTraceDeduplicator(@Nullable KeelStackTraceDeduplicator stackTraceDeduplicator) {
+        return new KeelLoggerFeatures(stormSuppressor, sampling, garbageFree, deferredFormatting, stackTraceDeduplicator, routing, callerLocation);
+    }
+
+    /**
+     * @return 路由表
+     */
+    public KeelLogRouting routing() {
+        return routing;
+    }
+
+    /**
+     * 按日志记录器名称前缀、级别与标记将事件分发到不同的适配器，见 {@link KeelLogRouting}。
+     * <p>
+     * 路由表只能以代码配置，例如在服务提供者子类的 {@code getLoggerFeatures()} 中追加。
+     *
+     * @param routing 路由表；{@link KeelLogRouting#none()} 表示全部交给日志记录器原本的适配器
+     * @return 新配置
+     */
+    public KeelLoggerFeatures withRouting(KeelLogRouting routing) {
+        return new KeelLoggerFeatures(stormSuppressor, sampling, garbageFree, deferredFormatting, stackTraceDeduplicator, routing, callerLocation);
+    }
+
+    /**
+     * @return 调用位置记录的设置
+     */
+    public KeelCallerLocation callerLocation() {
+        return callerLocation;
+    }
+
+    /**
+     * 按日志记录器名称前缀记录调用位置，见 {@link KeelCallerLocation}。
+     * <p>
+     * 记录调用位置的日志记录器不使用无垃圾模式复用的日志事件。
+     *
+     * @param callerLocation 调用位置记录的设置；{@link KeelCallerLocation#none()} 表示不记录
+     * @return 新配置
+     */
+    public KeelLoggerFeatures withCallerLocation(KeelCallerLocation callerLocation) {
+        return new KeelLoggerFeatures(stormSuppressor, sampling, garbageFree, deferredFormatting, stackTraceDeduplicator, routing, callerLocation);
+    }
+}
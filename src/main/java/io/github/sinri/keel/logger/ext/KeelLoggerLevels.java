@@ -0,0 +1,190 @@
+package io.github.sinri.keel.logger.ext;
+
+import io.github.sinri.keel.logger.api.LogLevel;
+import org.jspecify.annotations.NullMarked;
+
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.TreeMap;
+
+/**
+ * 按日志记录器名称前缀配置的可见基础级别（不可变）。
+ * <p>
+ * 例如 {@code io.vertx=WARN}、{@code com.ourco.billing=DEBUG}；未匹配任何前缀的日志记录器使用根级别。
+ * 前缀按 {@code .} 分段完整匹配，取最长匹配前缀的级别。
+ * <p>
+ * 还可以按标记名称配置阈值（见 {@link KeelMarkerLevels}），例如 {@code AUDIT=TRACE}、{@code SQL=OFF}；
+ * 携带这些标记的事件以标记的阈值代替日志记录器的级别。
+ * <p>
+ * 级别在创建日志记录器时通过 {@link #resolve(String)} 解析一次并缓存在日志记录器中，
+ * 因此日志记录热路径上的级别检查仍然只是一次字段比较。
+ *
+ * @since 5.0.3
+ */
+@NullMarked
+public final class KeelLoggerLevels {
+    /**
+     * 属性形式配置中根级别的键。
+     */
+    public static final String ROOT_LEVEL_KEY = "level";
+    /**
+     * 属性形式配置中前缀级别的键前缀，其后紧跟日志记录器名称前缀，如 {@code level.io.vertx=WARN}。
+     */
+    public static final String PREFIX_LEVEL_KEY_PREFIX = "level.";
+    /**
+     * 属性形式配置中标记阈值的键前缀，其后紧跟标记名称，如 {@code marker.AUDIT=TRACE}。
+     */
+    public static final String MARKER_LEVEL_KEY_PREFIX = "marker.";
+
+    private final LogLevel rootLevel;
+    private final Map<String, LogLevel> prefixLevels;
+    private final KeelLoggerNameTree<LogLevel> tree;
+    private final Map<String, LogLevel> markerLevels;
+    private final KeelMarkerLevels markers;
+
+    /**
+     * 创建只有根级别的配置，所有日志记录器都使用同一级别。
+     *
+     * @param rootLevel 根级别
+     */
+    public KeelLoggerLevels(LogLevel rootLevel) {
+        this(rootLevel, Map.of());
+    }
+
+    /**
+     * 创建按前缀配置级别的配置。
+     *
+     * @param rootLevel    根级别，用于未匹配任何前缀的日志记录器
+     * @param prefixLevels 前缀与级别的映射；键为日志记录器名称前缀
+     */
+    public KeelLoggerLevels(LogLevel rootLevel, Map<String, LogLevel> prefixLevels) {
+        this(rootLevel, prefixLevels, Map.of());
+    }
+
+    /**
+     * 创建按前缀与标记配置级别的配置。
+     *
+     * @param rootLevel    根级别，用于未匹配任何前缀的日志记录器
+     * @param prefixLevels 前缀与级别的映射；键为日志记录器名称前缀
+     * @param markerLevels 标记阈值的映射；键为标记名称
+     */
+    public KeelLoggerLevels(LogLevel rootLevel, Map<String, LogLevel> prefixLevels, Map<String, LogLevel> markerLevels) {
+        this.rootLevel = rootLevel;
+        this.prefixLevels = Collections.unmodifiableMap(new TreeMap<>(prefixLevels));
+        this.tree = new KeelLoggerNameTree<>(this.prefixLevels);
+        this.markerLevels = Collections.unmodifiableMap(new TreeMap<>(markerLevels));
+        this.markers = KeelMarkerLevels.of(this.markerLevels);
+    }
+
+    /**
+     * 将级别名称解析为 {@link LogLevel}。
+     * <p>
+     * 不区分大小写；除 {@link LogLevel} 的枚举名外，还接受 {@code WARN}（对应 {@link LogLevel#WARNING}）
+     * 与 {@code OFF}（对应 {@link LogLevel#SILENT}）。
+     *
+     * @param levelName 级别名称
+     * @return 对应的 {@link LogLevel}
+     * @throws IllegalArgumentException 当级别名称无法识别时抛出
+     */
+    public static LogLevel parseLevel(String levelName) {
+        String normalized = levelName.trim().toUpperCase(Locale.ROOT);
+        return switch (normalized) {
+            case "WARN" -> LogLevel.WARNING;
+            case "OFF" -> LogLevel.SILENT;
+            default -> LogLevel.valueOf(normalized);
+        };
+    }
+
+    /**
+     * 以属性形式的配置覆盖当前配置，返回新的配置。
+     * <p>
+     * 识别的键：
+     * <ul>
+     *     <li>{@code level}：根级别</li>
+     *     <li>{@code level.<prefix>}：指定前缀的级别，如 {@code level.io.vertx=WARN}</li>
+     *     <li>{@code marker.<name>}：指定标记的阈值，如 {@code marker.AUDIT=TRACE}</li>
+     * </ul>
+     * 其他键被忽略。级别名称按 {@link #parseLevel(String)} 解析。
+     *
+     * @param properties 属性形式的配置
+     * @return 覆盖后的新配置；当前配置不受影响
+     * @throws IllegalArgumentException 当存在无法识别的级别名称时抛出
+     */
+    public KeelLoggerLevels withProperties(Properties properties) {
+        LogLevel root = rootLevel;
+        Map<String, LogLevel> prefixes = new TreeMap<>(prefixLevels);
+        Map<String, LogLevel> markerThresholds = new TreeMap<>(markerLevels);
+        for (String key : properties.stringPropertyNames()) {
+            String value = properties.getProperty(key);
+            if (ROOT_LEVEL_KEY.equals(key)) {
+                root = parseLevel(value);
+            } else if (key.startsWith(PREFIX_LEVEL_KEY_PREFIX)) {
+                prefixes.put(key.substring(PREFIX_LEVEL_KEY_PREFIX.length()), parseLevel(value));
+            } else if (key.startsWith(MARKER_LEVEL_KEY_PREFIX)) {
+                markerThresholds.put(key.substring(MARKER_LEVEL_KEY_PREFIX.length()), parseLevel(value));
+            }
+        }
+        return new KeelLoggerLevels(root, prefixes, markerThresholds);
+    }
+
+    /**
+     * @return 根级别
+     */
+    public LogLevel rootLevel() {
+        return rootLevel;
+    }
+
+    /**
+     * @return 前缀与级别的只读映射（按前缀排序）
+     */
+    public Map<String, LogLevel> prefixLevels() {
+        return prefixLevels;
+    }
+
+    /**
+     * @return 标记阈值的只读映射（按标记名称排序）
+     */
+    public Map<String, LogLevel> markerLevels() {
+        return markerLevels;
+    }
+
+    /**
+     * @return 编译后的标记阈值，由日志记录器在级别检查时使用
+     */
+    public KeelMarkerLevels markers() {
+        return markers;
+    }
+
+    /**
+     * 解析指定日志记录器的有效级别。
+     *
+     * @param loggerName 日志记录器名称
+     * @return 最长匹配前缀的级别；无匹配时返回根级别
+     */
+    public LogLevel resolve(String loggerName) {
+        LogLevel level = tree.resolve(loggerName);
+        return level == null ? rootLevel : level;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof KeelLoggerLevels that)) return false;
+        return rootLevel == that.rootLevel
+                && prefixLevels.equals(that.prefixLevels)
+                && markerLevels.equals(that.markerLevels);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(rootLevel, prefixLevels, markerLevels);
+    }
+
+    @Override
+    public String toString() {
+        return "KeelLoggerLevels{root=" + rootLevel + ", prefixes=" + prefixLevels + ", markers=" + markerLevels + "}";
+    }
+}
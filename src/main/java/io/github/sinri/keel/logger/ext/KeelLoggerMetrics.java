@@ -0,0 +1,217 @@
+package io.github.sinri.keel.logger.ext;
+
+import io.github.sinri.keel.logger.api.LogLevel;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 一个日志记录器工厂（或上下文）下所有日志记录器的计数，始终启用。
+ * <p>
+ * 每个日志记录器在创建时通过 {@link #counters(String)} 取得自己的 {@link KeelLoggerCounters}，
+ * 记录时只累加自己的计数，不经过本对象；适配器调用耗时的直方图由所有日志记录器共享。
+ * <p>
+ * 计数可通过 Java API 读取，也可通过 {@link #registerMBean(String, boolean)} 以
+ * {@value #OBJECT_NAME_DOMAIN}{@code :type=LoggerMetrics,name=<name>} 发布到平台 MBean 服务器；
+ * 系统属性 {@value #JMX_PROPERTY} 为 false 时桥接不注册 MBean。
+ *
+ * @since 5.0.3
+ */
+@NullMarked
+public final class KeelLoggerMetrics implements KeelLoggerMetricsMXBean {
+    /**
+     * 本项目注册的 MBean 所在的域。
+     */
+    public static final String OBJECT_NAME_DOMAIN = "io.github.sinri.keel.logger.ext";
+    /**
+     * 控制桥接是否注册 MBean 的系统属性，默认注册。
+     */
+    public static final String JMX_PROPERTY = "keel.logger.ext.jmx";
+
+    private final ConcurrentMap<String, KeelLoggerCounters> countersByLogger = new ConcurrentHashMap<>();
+    private final KeelLatencyHistogram adapterLatency = new KeelLatencyHistogram();
+
+    /**
+     * @return 系统属性 {@value #JMX_PROPERTY} 是否允许注册 MBean
+     */
+    public static boolean isJmxEnabled() {
+        return !"false".equalsIgnoreCase(System.getProperty(JMX_PROPERTY, "true").trim());
+    }
+
+    /**
+     * 获取（必要时分配）日志记录器的计数。
+     *
+     * @param loggerName 日志记录器名称
+     * @return 计数
+     */
+    public KeelLoggerCounters counters(String loggerName) {
+        return countersByLogger.computeIfAbsent(loggerName, name -> new KeelLoggerCounters(name, adapterLatency));
+    }
+
+    /**
+     * @param loggerName 日志记录器名称
+     * @return 计数；尚未分配时返回 null
+     */
+    @Nullable
+    public KeelLoggerCounters find(String loggerName) {
+        return countersByLogger.get(loggerName);
+    }
+
+    /**
+     * @return 所有已分配的计数
+     */
+    public Collection<KeelLoggerCounters> all() {
+        return Collections.unmodifiableCollection(countersByLogger.values());
+    }
+
+    /**
+     * @return 适配器调用耗时的直方图
+     */
+    public KeelLatencyHistogram getAdapterLatency() {
+        return adapterLatency;
+    }
+
+    /**
+     * 将本对象注册到平台 MBean 服务器；同名的 MBean 已存在时在名称后追加 {@code id}。
+     *
+     * @param name    MBean 名称中的 {@code name} 部分，例如 {@code slf4j}
+     * @param verbose 是否在注册失败时输出错误信息
+     * @return 注册使用的名称；注册失败时返回 null
+     */
+    @Nullable
+    public ObjectName registerMBean(String name, boolean verbose) {
+        return register(this, "LoggerMetrics", name, verbose);
+    }
+
+    /**
+     * 将 MBean 注册到平台 MBean 服务器，名称为 {@value #OBJECT_NAME_DOMAIN}{@code :type=<type>,name=<name>}；
+     * 同名的 MBean 已存在时在名称后追加 {@code id}。
+     *
+     * @param mbean   MBean
+     * @param type    名称中的 {@code type} 部分
+     * @param name    名称中的 {@code name} 部分
+     * @param verbose 是否在注册失败时输出错误信息
+     * @return 注册使用的名称；注册失败时返回 null
+     */
+    @Nullable
+    static ObjectName register(Object mbean, String type, String name, boolean verbose) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName(OBJECT_NAME_DOMAIN + ":type=" + type + ",name=" + name);
+            if (server.isRegistered(objectName)) {
+                objectName = new ObjectName(objectName + ",id=" + Integer.toHexString(System.identityHashCode(mbean)));
+            }
+            server.registerMBean(mbean, objectName);
+            return objectName;
+        } catch (JMException | RuntimeException e) {
+            if (verbose) {
+                System.err.println("Keel Logging failed to register MBean [" + type + "/" + name + "]: " + e);
+                e.printStackTrace(new PrintWriter(System.err, true));
+            }
+            return null;
+        }
+    }
+
+    @Override
+    public List<String> getLoggerNames() {
+        List<String> names = new ArrayList<>(countersByLogger.keySet());
+        Collections.sort(names);
+        return names;
+    }
+
+    @Override
+    public long getAcceptedCount() {
+        long sum = 0;
+        for (KeelLoggerCounters counters : countersByLogger.values()) {
+            sum += counters.getAcceptedCount();
+        }
+        return sum;
+    }
+
+    @Override
+    public long getFilteredCount() {
+        long sum = 0;
+        for (KeelLoggerCounters counters : countersByLogger.values()) {
+            sum += counters.getFilteredCount();
+        }
+        return sum;
+    }
+
+    @Override
+    public long getDroppedCount() {
+        long sum = 0;
+        for (KeelLoggerCounters counters : countersByLogger.values()) {
+            sum += counters.getDroppedCount();
+        }
+        return sum;
+    }
+
+    @Override
+    public long getMessageChars() {
+        long sum = 0;
+        for (KeelLoggerCounters counters : countersByLogger.values()) {
+            sum += counters.getMessageChars();
+        }
+        return sum;
+    }
+
+    @Override
+    public Map<String, Long> getAcceptedCountByLogger() {
+        Map<String, Long> byLogger = new TreeMap<>();
+        countersByLogger.forEach((name, counters) -> byLogger.put(name, counters.getAcceptedCount()));
+        return byLogger;
+    }
+
+    @Override
+    public Map<String, Long> getAcceptedCountByLevel() {
+        Map<String, Long> byLevel = new LinkedHashMap<>();
+        for (LogLevel level : LogLevel.values()) {
+            long sum = 0;
+            for (KeelLoggerCounters counters : countersByLogger.values()) {
+                sum += counters.getAcceptedCount(level);
+            }
+            byLevel.put(level.name(), sum);
+        }
+        return byLevel;
+    }
+
+    @Override
+    public long[] getAdapterLatencyHistogram() {
+        return adapterLatency.snapshot();
+    }
+
+    @Override
+    public long[] getAdapterLatencyUpperBoundsNanos() {
+        return KeelLatencyHistogram.upperBoundsNanos();
+    }
+
+    @Override
+    public Map<String, Long> loggerCounters(String loggerName) {
+        KeelLoggerCounters counters = countersByLogger.get(loggerName);
+        if (counters == null) {
+            return Map.of();
+        }
+        Map<String, Long> snapshot = new LinkedHashMap<>();
+        for (LogLevel level : LogLevel.values()) {
+            snapshot.put("accepted." + level.name(), counters.getAcceptedCount(level));
+            snapshot.put("filtered." + level.name(), counters.getFilteredCount(level));
+            snapshot.put("dropped." + level.name(), counters.getDroppedCount(level));
+            snapshot.put("messageChars." + level.name(), counters.getMessageChars(level));
+        }
+        return snapshot;
+    }
+}
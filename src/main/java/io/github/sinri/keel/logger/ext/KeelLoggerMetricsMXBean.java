@@ -0,0 +1,69 @@
+package io.github.sinri.keel.logger.ext;
+
+import org.jspecify.annotations.NullMarked;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 通过 JMX 发布的日志记录器计数，实现见 {@link KeelLoggerMetrics}。
+ * <p>
+ * 各计数的含义见 {@link KeelLoggerCounters}；按级别或日志记录器汇总的映射以级别名称或日志记录器名称为键。
+ *
+ * @since 5.0.3
+ */
+@NullMarked
+public interface KeelLoggerMetricsMXBean {
+    /**
+     * @return 已分配计数的日志记录器名称
+     */
+    List<String> getLoggerNames();
+
+    /**
+     * @return 所有日志记录器交给适配器的事件总数
+     */
+    long getAcceptedCount();
+
+    /**
+     * @return 所有日志记录器被采样或日志风暴抑制丢弃的事件总数
+     */
+    long getFilteredCount();
+
+    /**
+     * @return 所有日志记录器没有可用适配器的事件总数
+     */
+    long getDroppedCount();
+
+    /**
+     * @return 所有日志记录器交给适配器的消息的总字符数
+     */
+    long getMessageChars();
+
+    /**
+     * @return 按日志记录器汇总的交给适配器的事件数
+     */
+    Map<String, Long> getAcceptedCountByLogger();
+
+    /**
+     * @return 按级别汇总的交给适配器的事件数
+     */
+    Map<String, Long> getAcceptedCountByLevel();
+
+    /**
+     * @return 适配器调用耗时直方图各桶的计数
+     */
+    long[] getAdapterLatencyHistogram();
+
+    /**
+     * @return 适配器调用耗时直方图各桶的上界（纳秒，不含）
+     */
+    long[] getAdapterLatencyUpperBoundsNanos();
+
+    /**
+     * 读取单个日志记录器的计数。
+     *
+     * @param loggerName 日志记录器名称
+     * @return 以 {@code <计数>.<级别>} 为键的计数，例如 {@code accepted.INFO}；未知的日志记录器返回空映射
+     */
+    Map<String, Long> loggerCounters(String loggerName);
+}
@@ -0,0 +1,75 @@
+package io.github.sinri.keel.logger.ext;
+
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 按日志记录器名称前缀组织的不可变前缀树。
+ * <p>
+ * 名称以 {@code .} 分段，前缀只按完整分段匹配：前缀 {@code io.vertx} 匹配
+ * {@code io.vertx} 与 {@code io.vertx.core.Vertx}，但不匹配 {@code io.vertxx}。
+ * 空字符串前缀匹配所有名称。
+ * <p>
+ * 查找沿名称分段逐级下降一次，返回最长匹配前缀上的值；
+ * 预期只在创建日志记录器或重新计算配置时调用，不在日志记录热路径上使用。
+ *
+ * @param <V> 节点值类型
+ * @since 5.0.3
+ */
+@NullMarked
+final class KeelLoggerNameTree<V> {
+    private final Node<V> root = new Node<>();
+
+    /**
+     * 以“前缀 → 值”映射构建前缀树。
+     *
+     * @param prefixValues 前缀与对应的值；空字符串表示根
+     */
+    KeelLoggerNameTree(Map<String, V> prefixValues) {
+        prefixValues.forEach((prefix, value) -> {
+            Node<V> node = root;
+            if (!prefix.isEmpty()) {
+                for (String segment : prefix.split("\\.", -1)) {
+                    node = node.children.computeIfAbsent(segment, s -> new Node<>());
+                }
+            }
+            node.value = value;
+        });
+    }
+
+    /**
+     * 查找与日志记录器名称最长匹配的前缀上的值。
+     *
+     * @param loggerName 日志记录器名称
+     * @return 最长匹配前缀上的值；无任何前缀匹配时返回 null
+     */
+    @Nullable
+    V resolve(String loggerName) {
+        Node<V> node = root;
+        V found = root.value;
+        int start = 0;
+        while (true) {
+            int dot = loggerName.indexOf('.', start);
+            String segment = dot < 0 ? loggerName.substring(start) : loggerName.substring(start, dot);
+            node = node.children.get(segment);
+            if (node == null) {
+                return found;
+            }
+            if (node.value != null) {
+                found = node.value;
+            }
+            if (dot < 0) {
+                return found;
+            }
+            start = dot + 1;
+        }
+    }
+
+    private static final class Node<V> {
+        private final Map<String, Node<V>> children = new HashMap<>();
+        private @Nullable V value;
+    }
+}
@@ -0,0 +1,255 @@
+package io.github.sinri.keel.logger.ext;
+
+import io.github.sinri.keel.logger.api.LogLevel;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+import javax.management.ObjectName;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * 在运行期调整一侧桥接的日志级别，可通过 {@link #registerMBean(String, boolean)} 以
+ * {@value KeelLoggerMetrics#OBJECT_NAME_DOMAIN}{@code :type=LoggingControl,name=<name>} 发布到平台 MBean 服务器。
+ * <p>
+ * 运行期的设置覆盖在基础配置之上：基础配置在构造时给定，并可由 {@link #applyBase(KeelLoggerLevels)}
+ * 替换（例如作为 {@link KeelLoggerConfigWatcher} 的接收者），替换后运行期的设置仍然保留；
+ * 临时设置再覆盖在运行期的设置之上，到期后由后台守护线程撤销。
+ * <p>
+ * 每次变化都将合并后的配置交给桥接的 {@code applyLevels}，立即发布到所有已缓存的日志记录器。
+ * 本对象的锁只与桥接创建日志记录器的锁交替持有，日志记录线程只读取自身的 volatile 级别字段，不会因调用而阻塞。
+ *
+ * @since 5.0.3
+ */
+@NullMarked
+public final class KeelLoggingControl implements KeelLoggingControlMXBean {
+    /**
+     * 临时设置到期后撤销线程的空闲存活时间（秒）。
+     */
+    private static final long REVERT_THREAD_KEEP_ALIVE_SECONDS = 60;
+
+    private final Consumer<KeelLoggerLevels> publisher;
+    private final Supplier<Map<String, LogLevel>> loggerLevels;
+    private final boolean verbose;
+    private final Object lock = new Object();
+    private KeelLoggerLevels base;
+    private final Map<String, LogLevel> overrides = new TreeMap<>();
+    private final Map<String, Temporary> temporaries = new TreeMap<>();
+    private volatile KeelLoggerLevels effective;
+    private @Nullable ScheduledThreadPoolExecutor reverter;
+
+    /**
+     * @param base         基础配置
+     * @param publisher    桥接发布级别配置的方法，如 {@code applyLevels}
+     * @param loggerLevels 读取已缓存的日志记录器及其当前级别的方法
+     * @param verbose      是否输出调试信息到标准输出
+     */
+    public KeelLoggingControl(
+            KeelLoggerLevels base,
+            Consumer<KeelLoggerLevels> publisher,
+            Supplier<Map<String, LogLevel>> loggerLevels,
+            boolean verbose) {
+        this.base = base;
+        this.effective = base;
+        this.publisher = publisher;
+        this.loggerLevels = loggerLevels;
+        this.verbose = verbose;
+    }
+
+    /**
+     * 替换基础配置，保留运行期的设置，并发布合并后的配置。
+     *
+     * @param newBase 新的基础配置
+     */
+    public void applyBase(KeelLoggerLevels newBase) {
+        synchronized (lock) {
+            this.base = newBase;
+            publish();
+        }
+    }
+
+    /**
+     * @return 合并运行期设置后当前生效的级别配置
+     */
+    public KeelLoggerLevels getLevels() {
+        return effective;
+    }
+
+    /**
+     * 将本对象注册到平台 MBean 服务器；同名的 MBean 已存在时在名称后追加 {@code id}。
+     *
+     * @param name    MBean 名称中的 {@code name} 部分，例如 {@code slf4j}
+     * @param verbose 是否在注册失败时输出错误信息
+     * @return 注册使用的名称；注册失败时返回 null
+     */
+    @Nullable
+    public ObjectName registerMBean(String name, boolean verbose) {
+        return KeelLoggerMetrics.register(this, "LoggingControl", name, verbose);
+    }
+
+    @Override
+    public Map<String, String> getLoggerLevels() {
+        Map<String, String> levels = new TreeMap<>();
+        loggerLevels.get().forEach((name, level) -> levels.put(name, level.name()));
+        return levels;
+    }
+
+    @Override
+    public String getRootLevel() {
+        return effective.rootLevel().name();
+    }
+
+    @Override
+    public Map<String, String> getPrefixLevels() {
+        Map<String, String> levels = new LinkedHashMap<>();
+        effective.prefixLevels().forEach((prefix, level) -> levels.put(prefix, level.name()));
+        return levels;
+    }
+
+    @Override
+    public Map<String, String> getTemporaryLevels() {
+        Map<String, String> levels = new LinkedHashMap<>();
+        synchronized (lock) {
+            temporaries.forEach((prefix, temporary) -> levels.put(prefix, temporary.level.name() + " until " + temporary.until));
+        }
+        return levels;
+    }
+
+    @Override
+    public void setLevel(String prefix, String level) {
+        LogLevel parsed = KeelLoggerLevels.parseLevel(level);
+        synchronized (lock) {
+            cancelTemporary(prefix);
+            overrides.put(prefix, parsed);
+            publish();
+        }
+    }
+
+    @Override
+    public void clearLevel(String prefix) {
+        synchronized (lock) {
+            cancelTemporary(prefix);
+            overrides.remove(prefix);
+            publish();
+        }
+    }
+
+    @Override
+    public void setLevelTemporarily(String prefix, String level, long durationSeconds) {
+        LogLevel parsed = KeelLoggerLevels.parseLevel(level);
+        if (durationSeconds <= 0) {
+            throw new IllegalArgumentException("durationSeconds must be positive: " + durationSeconds);
+        }
+        synchronized (lock) {
+            cancelTemporary(prefix);
+            Temporary temporary = new Temporary(parsed, Instant.now().plusSeconds(durationSeconds));
+            temporaries.put(prefix, temporary);
+            temporary.revert = reverter().schedule(() -> revert(prefix, temporary), durationSeconds, TimeUnit.SECONDS);
+            publish();
+        }
+    }
+
+    @Override
+    public void resetLevels() {
+        synchronized (lock) {
+            temporaries.values().forEach(Temporary::cancel);
+            temporaries.clear();
+            overrides.clear();
+            publish();
+        }
+    }
+
+    /**
+     * 撤销到期的临时设置；期间已被替换或清除的设置不受影响。
+     */
+    private void revert(String prefix, Temporary temporary) {
+        synchronized (lock) {
+            if (temporaries.get(prefix) != temporary) {
+                return;
+            }
+            temporaries.remove(prefix);
+            publish();
+        }
+    }
+
+    private void cancelTemporary(String prefix) {
+        Temporary temporary = temporaries.remove(prefix);
+        if (temporary != null) {
+            temporary.cancel();
+        }
+    }
+
+    private ScheduledThreadPoolExecutor reverter() {
+        ScheduledThreadPoolExecutor executor = reverter;
+        if (executor == null) {
+            executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+                Thread thread = new Thread(runnable, "keel-logger-level-revert");
+                thread.setDaemon(true);
+                return thread;
+            });
+            executor.setKeepAliveTime(REVERT_THREAD_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS);
+            executor.allowCoreThreadTimeOut(true);
+            executor.setRemoveOnCancelPolicy(true);
+            reverter = executor;
+        }
+        return executor;
+    }
+
+    /**
+     * 合并基础配置、运行期设置与临时设置并发布，调用方须持有 {@link #lock}。
+     */
+    private void publish() {
+        LogLevel root = base.rootLevel();
+        Map<String, LogLevel> prefixes = new TreeMap<>(base.prefixLevels());
+        for (Map<String, LogLevel> layer : List.of(overrides, temporaryLevels())) {
+            for (Map.Entry<String, LogLevel> entry : layer.entrySet()) {
+                if (entry.getKey().isEmpty()) {
+                    root = entry.getValue();
+                } else {
+                    prefixes.put(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+        KeelLoggerLevels merged = new KeelLoggerLevels(root, prefixes, base.markerLevels());
+        this.effective = merged;
+        publisher.accept(merged);
+        if (verbose) {
+            System.out.println("Keel Logging control published " + merged + " with temporary " + temporaries.keySet());
+        }
+    }
+
+    private Map<String, LogLevel> temporaryLevels() {
+        Map<String, LogLevel> levels = new TreeMap<>();
+        temporaries.forEach((prefix, temporary) -> levels.put(prefix, temporary.level));
+        return levels;
+    }
+
+    /**
+     * 一次临时设置及其撤销任务。
+     */
+    private static final class Temporary {
+        private final LogLevel level;
+        private final Instant until;
+        private @Nullable ScheduledFuture<?> revert;
+
+        private Temporary(LogLevel level, Instant until) {
+            this.level = level;
+            this.until = until;
+        }
+
+        private void cancel() {
+            ScheduledFuture<?> future = revert;
+            if (future != null) {
+                future.cancel(false);
+            }
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package io.github.sinri.keel.logger.ext;
+
+import org.jspecify.annotations.NullMarked;
+
+import java.util.Map;
+
+/**
+ * 通过 JMX 在运行期调整日志级别，实现见 {@link KeelLoggingControl}。
+ * <p>
+ * 级别以名称传递，按 {@link KeelLoggerLevels#parseLevel(String)} 解析（如 {@code DEBUG}、{@code WARN}、{@code OFF}）；
+ * 前缀为空字符串时表示根级别。日志记录器仍按最长匹配前缀取级别，因此较短前缀上的设置不影响配置了更长前缀的日志记录器。
+ *
+ * @since 5.0.3
+ */
+@NullMarked
+public interface KeelLoggingControlMXBean {
+    /**
+     * @return 已缓存的日志记录器名称与其当前生效的级别
+     */
+    Map<String, String> getLoggerLevels();
+
+    /**
+     * @return 当前生效的根级别
+     */
+    String getRootLevel();
+
+    /**
+     * @return 当前生效的前缀与级别（含运行期设置与临时设置）
+     */
+    Map<String, String> getPrefixLevels();
+
+    /**
+     * @return 尚未恢复的临时设置，值为级别与恢复时刻，如 {@code DEBUG until 2026-10-17T08:00:00Z}
+     */
+    Map<String, String> getTemporaryLevels();
+
+    /**
+     * 为前缀设置级别，直到被清除；同一前缀上的临时设置随之取消。
+     *
+     * @param prefix 日志记录器名称前缀；空字符串表示根级别
+     * @param level  级别名称
+     */
+    void setLevel(String prefix, String level);
+
+    /**
+     * 清除运行期为前缀设置的级别（含临时设置），恢复为配置中的级别。
+     *
+     * @param prefix 日志记录器名称前缀；空字符串表示根级别
+     */
+    void clearLevel(String prefix);
+
+    /**
+     * 临时为前缀设置级别，到期后自动恢复为设置前的级别。
+     *
+     * @param prefix          日志记录器名称前缀；空字符串表示根级别
+     * @param level           级别名称
+     * @param durationSeconds 持续的秒数，须为正数
+     */
+    void setLevelTemporarily(String prefix, String level, long durationSeconds);
+
+    /**
+     * 清除运行期的全部设置，恢复为配置中的级别。
+     */
+    void resetLevels();
+}
@@ -0,0 +1,121 @@
+package io.github.sinri.keel.logger.ext;
+
+import io.github.sinri.keel.logger.api.LogLevel;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 按标记名称配置的级别阈值（不可变），由 {@link KeelLoggerLevels} 编译后发布到每个日志记录器。
+ * <p>
+ * 携带标记的事件以标记的阈值代替日志记录器的可见基础级别：例如 {@code AUDIT=TRACE} 让审计事件在
+ * 日志记录器处于 WARN 时仍然输出，{@code SQL=OFF} 则屏蔽 SQL 事件，除非为其配置更详细的级别。
+ * <p>
+ * 标记按其 classification（分类）列表匹配，即标记自身名称在前、其引用（SLF4J）或父标记（Log4j2）在后，
+ * 取第一个配置了阈值的名称；都未配置时仍使用日志记录器的可见基础级别。
+ * <p>
+ * 阈值编译为开放寻址的散列表，查找只读取字符串已缓存的哈希值并做少量比较，不创建任何对象。
+ *
+ * @since 5.0.3
+ */
+@NullMarked
+public final class KeelMarkerLevels {
+    private static final KeelMarkerLevels NONE = new KeelMarkerLevels(Map.of());
+
+    private final @Nullable String[] names;
+    private final @Nullable LogLevel[] levels;
+    private final int mask;
+    private final @Nullable LogLevel mostVerbose;
+
+    private KeelMarkerLevels(Map<String, LogLevel> markerLevels) {
+        int capacity = Integer.highestOneBit(Math.max(1, markerLevels.size()) * 4 - 1) << 1;
+        this.names = new String[capacity];
+        this.levels = new LogLevel[capacity];
+        this.mask = capacity - 1;
+        LogLevel verbose = null;
+        for (Map.Entry<String, LogLevel> entry : markerLevels.entrySet()) {
+            int slot = entry.getKey().hashCode() & mask;
+            while (names[slot] != null) {
+                slot = (slot + 1) & mask;
+            }
+            names[slot] = entry.getKey();
+            levels[slot] = entry.getValue();
+            if (verbose == null || verbose.isEnoughSeriousAs(entry.getValue())) {
+                verbose = entry.getValue();
+            }
+        }
+        this.mostVerbose = verbose;
+    }
+
+    /**
+     * @return 没有任何标记阈值的配置
+     */
+    public static KeelMarkerLevels none() {
+        return NONE;
+    }
+
+    /**
+     * 编译标记阈值。
+     *
+     * @param markerLevels 标记名称与级别的映射
+     * @return 编译后的配置
+     */
+    public static KeelMarkerLevels of(Map<String, LogLevel> markerLevels) {
+        return markerLevels.isEmpty() ? NONE : new KeelMarkerLevels(markerLevels);
+    }
+
+    /**
+     * @return 是否没有任何标记阈值
+     */
+    public boolean isEmpty() {
+        return mostVerbose == null;
+    }
+
+    /**
+     * 获取最详细的标记阈值，用于判断某个级别是否可能因为标记而被放行。
+     *
+     * @return 最详细的阈值；没有任何标记阈值时返回 null
+     */
+    public @Nullable LogLevel mostVerbose() {
+        return mostVerbose;
+    }
+
+    /**
+     * 查找单个标记名称的阈值。
+     *
+     * @param markerName 标记名称
+     * @return 阈值；未配置时返回 null
+     */
+    public @Nullable LogLevel resolve(String markerName) {
+        int slot = markerName.hashCode() & mask;
+        String name;
+        while ((name = names[slot]) != null) {
+            if (name.equals(markerName)) {
+                return levels[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+
+    /**
+     * 按 classification（分类）列表的顺序查找第一个配置了阈值的标记名称。
+     *
+     * @param classification 标记转换得到的分类列表
+     * @return 阈值；都未配置时返回 null
+     */
+    public @Nullable LogLevel resolve(List<String> classification) {
+        if (mostVerbose == null) {
+            return null;
+        }
+        for (int i = 0; i < classification.size(); i++) {
+            LogLevel level = resolve(classification.get(i));
+            if (level != null) {
+                return level;
+            }
+        }
+        return null;
+    }
+}
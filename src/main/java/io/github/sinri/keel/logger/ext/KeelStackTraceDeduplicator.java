@@ -0,0 +1,214 @@
+package io.github.sinri.keel.logger.ext;
+
+import io.github.sinri.keel.logger.api.log.Log;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 重复异常的堆栈去重：同一堆栈在每个时间窗口内只完整输出一次，其余事件只引用指纹。
+ * <p>
+ * 指纹由异常类名、每一帧的（类名，方法名，行号）以及整条 cause 链计算得到，不包含异常消息，
+ * 因此消息中带有不同 ID 的同一故障会被视为同一堆栈。计算只读取各字符串已缓存的哈希值，不拼接字符串。
+ * <p>
+ * 对每个带异常的事件：
+ * <ul>
+ *     <li>窗口内首次出现：照常写入异常，并在上下文中写入 {@value #FINGERPRINT_CONTEXT_KEY}</li>
+ *     <li>窗口内重复出现：不写入异常，只在上下文中写入 {@value #FINGERPRINT_CONTEXT_KEY}
+ *     与本窗口内的出现次数 {@value #OCCURRENCE_CONTEXT_KEY}</li>
+ * </ul>
+ * 跟踪的指纹数不超过 {@code maxFingerprints}；已满时先回收窗口已过期的指纹（每个窗口至多回收一次），
+ * 仍然无法跟踪的新指纹照常输出完整异常，不做去重。
+ *
+ * @since 5.0.3
+ */
+@NullMarked
+public final class KeelStackTraceDeduplicator {
+    /**
+     * 上下文中记录堆栈指纹的键。
+     */
+    public static final String FINGERPRINT_CONTEXT_KEY = "exception_fingerprint";
+    /**
+     * 上下文中记录本窗口内出现次数的键，只出现在省略了异常的事件上。
+     */
+    public static final String OCCURRENCE_CONTEXT_KEY = "exception_occurrence";
+
+    /**
+     * 计算指纹时沿 cause 链向下的最大层数，也用于防止异常链成环。
+     */
+    private static final int MAX_CAUSE_DEPTH = 16;
+
+    private final long windowNanos;
+    private final int maxFingerprints;
+    private final ConcurrentMap<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicInteger trackedFingerprints = new AtomicInteger();
+    private final AtomicLong lastPurge = new AtomicLong(System.nanoTime());
+
+    /**
+     * @param window          时间窗口
+     * @param maxFingerprints 跟踪的指纹数上限
+     */
+    public KeelStackTraceDeduplicator(Duration window, int maxFingerprints) {
+        if (window.isNegative() || window.isZero()) {
+            throw new IllegalArgumentException("window must be positive: " + window);
+        }
+        if (maxFingerprints < 1) {
+            throw new IllegalArgumentException("maxFingerprints must be positive: " + maxFingerprints);
+        }
+        this.windowNanos = window.toNanos();
+        this.maxFingerprints = maxFingerprints;
+    }
+
+    /**
+     * 计算异常堆栈的指纹。
+     *
+     * @param throwable 异常
+     * @return 64 位指纹
+     */
+    public static long fingerprint(Throwable throwable) {
+        long hash = 0xcbf29ce484222325L;
+        Throwable current = throwable;
+        for (int depth = 0; current != null && depth < MAX_CAUSE_DEPTH; depth++) {
+            hash = mix(hash, current.getClass().getName().hashCode());
+            for (StackTraceElement frame : current.getStackTrace()) {
+                hash = mix(hash, frame.getClassName().hashCode());
+                hash = mix(hash, frame.getMethodName().hashCode());
+                hash = mix(hash, frame.getLineNumber());
+            }
+            Throwable cause = current.getCause();
+            current = cause == current ? null : cause;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    private static long mix(long hash, int value) {
+        return (hash ^ value) * 0x100000001b3L;
+    }
+
+    /**
+     * 将异常写入日志事件：窗口内首次出现时写入完整异常，重复出现时只写入指纹与出现次数。
+     *
+     * @param log       日志事件
+     * @param throwable 异常
+     */
+    public void attach(Log log, Throwable throwable) {
+        long fingerprint = fingerprint(throwable);
+        long now = System.nanoTime();
+        Entry entry = entries.get(fingerprint);
+        if (entry == null) {
+            entry = track(fingerprint, now);
+            if (entry == null) {
+                log.exception(throwable);
+                log.context(FINGERPRINT_CONTEXT_KEY, Long.toHexString(fingerprint));
+                return;
+            }
+        }
+        long occurrence = entry.observe(now);
+        log.context(FINGERPRINT_CONTEXT_KEY, entry.id);
+        if (occurrence == 1) {
+            log.exception(throwable);
+        } else {
+            log.context(OCCURRENCE_CONTEXT_KEY, occurrence);
+        }
+    }
+
+    /**
+     * @return 当前跟踪的指纹数
+     */
+    public int getTrackedFingerprintCount() {
+        return trackedFingerprints.get();
+    }
+
+    /**
+     * @return 时间窗口
+     */
+    public Duration getWindow() {
+        return Duration.ofNanos(windowNanos);
+    }
+
+    /**
+     * 开始跟踪一个新指纹；已满时先尝试回收过期的指纹。
+     *
+     * @param fingerprint 指纹
+     * @param now         当前时间（纳秒）
+     * @return 指纹条目；无法跟踪时返回 null
+     */
+    @Nullable
+    private Entry track(long fingerprint, long now) {
+        if (trackedFingerprints.incrementAndGet() > maxFingerprints) {
+            trackedFingerprints.decrementAndGet();
+            purgeExpired(now);
+            if (trackedFingerprints.incrementAndGet() > maxFingerprints) {
+                trackedFingerprints.decrementAndGet();
+                return null;
+            }
+        }
+        Entry created = new Entry(Long.toHexString(fingerprint), now - windowNanos);
+        Entry existed = entries.putIfAbsent(fingerprint, created);
+        if (existed != null) {
+            trackedFingerprints.decrementAndGet();
+            return existed;
+        }
+        return created;
+    }
+
+    /**
+     * 回收窗口已过期的指纹；每个窗口至多执行一次，避免指纹已满时每个新异常都遍历一遍。
+     *
+     * @param now 当前时间（纳秒）
+     */
+    private void purgeExpired(long now) {
+        long last = lastPurge.get();
+        if (now - last < windowNanos || !lastPurge.compareAndSet(last, now)) {
+            return;
+        }
+        entries.entrySet().removeIf(e -> {
+            if (e.getValue().isExpired(now)) {
+                trackedFingerprints.decrementAndGet();
+                return true;
+            }
+            return false;
+        });
+    }
+
+    /**
+     * 单个指纹的窗口与计数。
+     */
+    private final class Entry {
+        private final String id;
+        private final AtomicLong windowStart;
+        private final AtomicLong occurrences = new AtomicLong();
+
+        private Entry(String id, long windowStart) {
+            this.id = id;
+            this.windowStart = new AtomicLong(windowStart);
+        }
+
+        /**
+         * 记录一次出现；窗口已过期时开启新窗口。
+         *
+         * @param now 当前时间（纳秒）
+         * @return 本窗口内的出现次数，从 1 开始
+         */
+        long observe(long now) {
+            long start = windowStart.get();
+            if (now - start >= windowNanos && windowStart.compareAndSet(start, now)) {
+                occurrences.set(1);
+                return 1;
+            }
+            return occurrences.incrementAndGet();
+        }
+
+        boolean isExpired(long now) {
+            return now - windowStart.get() >= windowNanos;
+        }
+    }
+}
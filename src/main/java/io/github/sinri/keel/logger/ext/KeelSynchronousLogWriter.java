@@ -0,0 +1,21 @@
+package io.github.sinri.keel.logger.ext;
+
+import io.github.sinri.keel.logger.api.adapter.LogWriterAdapter;
+import io.github.sinri.keel.logger.api.log.SpecificLog;
+import org.jspecify.annotations.NullMarked;
+
+/**
+ * 声明同步消费日志事件且不持有事件的写出适配器。
+ * <p>
+ * 实现类须保证：{@link #accept(String, SpecificLog)} 返回之前已完成对事件的全部读取，
+ * 返回之后不再持有事件或其中的可变对象（例如不放入队列、不交给其他线程）。
+ * 启用无垃圾模式（{@link KeelLoggerFeatures#withGarbageFree(boolean)}）时，
+ * 两侧桥接只对实现了本接口的适配器复用线程本地的日志事件（见 {@link KeelLogPool}）。
+ * <p>
+ * {@link KeelAsyncLogWriter} 与 {@link KeelBatchingLogWriter} 会持有事件，因而不实现本接口。
+ *
+ * @since 5.0.3
+ */
+@NullMarked
+public interface KeelSynchronousLogWriter extends LogWriterAdapter {
+}
@@ -3,14 +3,36 @@ package io.github.sinri.keel.logger.ext.log4j2;
 import io.github.sinri.keel.logger.api.LogLevel;
 import io.github.sinri.keel.logger.api.adapter.LogWriterAdapter;
 import io.github.sinri.keel.logger.api.log.Log;
+import io.github.sinri.keel.logger.ext.KeelCallerLocation;
+import io.github.sinri.keel.logger.ext.KeelDeferredFormatting;
+import io.github.sinri.keel.logger.ext.KeelDeferredLog;
+import io.github.sinri.keel.logger.ext.KeelLogPool;
+import io.github.sinri.keel.logger.ext.KeelLogRouter;
+import io.github.sinri.keel.logger.ext.KeelLogSampler;
+import io.github.sinri.keel.logger.ext.KeelLogStormSuppressor;
+import io.github.sinri.keel.logger.ext.KeelLoggerCounters;
+import io.github.sinri.keel.logger.ext.KeelLoggerFeatures;
+import io.github.sinri.keel.logger.ext.KeelMarkerLevels;
+import io.github.sinri.keel.logger.ext.KeelStackTraceDeduplicator;
+import io.github.sinri.keel.logger.ext.KeelSynchronousLogWriter;
 import org.apache.logging.log4j.Level;
 import org.apache.logging.log4j.Marker;
 import org.apache.logging.log4j.ThreadContext;
+import org.apache.logging.log4j.message.MapMessage;
 import org.apache.logging.log4j.message.Message;
+import org.apache.logging.log4j.message.MessageFactory;
+import org.apache.logging.log4j.message.ObjectMessage;
+import org.apache.logging.log4j.message.ParameterizedMessage;
+import org.apache.logging.log4j.message.ReusableObjectMessage;
+import org.apache.logging.log4j.message.ReusableParameterizedMessage;
+import org.apache.logging.log4j.message.StructuredDataId;
+import org.apache.logging.log4j.message.StructuredDataMessage;
 import org.apache.logging.log4j.spi.AbstractLogger;
+import org.apache.logging.log4j.util.TriConsumer;
 import org.jspecify.annotations.Nullable;
 
 import java.io.PrintWriter;
+import java.util.Map;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 
@@ -20,11 +42,80 @@ import java.util.function.Supplier;
  * @since 5.0.0
  */
 final class KeelLog4j2Logger extends AbstractLogger {
+    /**
+     * 以 {@link Level#intLevel()} 为下标的 Keel 级别映射表，覆盖 0 ~ 600（TRACE）的全部取值。
+     */
+    private static final LogLevel[] LEVEL_TABLE = buildLevelTable();
+    private static final Object[] NO_PARAMETERS = new Object[0];
+    /**
+     * {@link StructuredDataMessage} 的 ID 写入上下文时使用的键。
+     */
+    static final String STRUCTURED_DATA_ID_CONTEXT_KEY = "structured_data_id";
+    /**
+     * {@link StructuredDataMessage} 的类型写入上下文时使用的键。
+     */
+    static final String STRUCTURED_DATA_TYPE_CONTEXT_KEY = "structured_data_type";
+    /**
+     * 将 {@link MapMessage} 的条目写入日志事件的上下文；以日志事件作为状态传入，遍历时不创建捕获对象。
+     */
+    private static final TriConsumer<String, @Nullable Object, Log> MAP_ENTRY_WRITER = (key, value, log) -> {
+        if (value != null) {
+            log.context(key, value);
+        }
+    };
+
     private final Supplier<LogWriterAdapter> adapterSupplier;
     private final String topic;
-    private final LogLevel visibleBaseLevel;
+    /**
+     * 对外可见的基础级别（最小处理级别）。
+     * <p>
+     * 配置热更新时由日志记录器上下文发布新值；热路径上只做一次无锁的 volatile 读取。
+     */
+    private volatile LogLevel visibleBaseLevel;
+    /**
+     * 与 {@link #visibleBaseLevel} 对应的 {@link Level#intLevel()} 上限（含），级别检查只需一次整数比较。
+     */
+    private volatile int intLevelThreshold;
+    /**
+     * 标记阈值；携带配置了阈值的标记的事件以其代替 {@link #visibleBaseLevel}。
+     * <p>
+     * 与可见基础级别一同由日志记录器上下文发布。
+     */
+    private volatile KeelMarkerLevels markerLevels = KeelMarkerLevels.none();
     private final @Nullable Consumer<Log> logInitializer;
     private final boolean verbose;
+    /**
+     * 本主题的日志风暴抑制范围；为 null 时不抑制。
+     */
+    private final KeelLogStormSuppressor.@Nullable Scope stormScope;
+    /**
+     * 本日志记录器的采样器；为 null 时不采样。
+     */
+    private final @Nullable KeelLogSampler sampler;
+    /**
+     * 本日志记录器的路由器；为 null 时所有事件都交给 {@link #adapterSupplier}。
+     */
+    private final @Nullable KeelLogRouter router;
+    /**
+     * 是否启用无垃圾模式。
+     */
+    private final boolean garbageFree;
+    /**
+     * 延迟格式化的策略。
+     */
+    private final KeelDeferredFormatting deferredFormatting;
+    /**
+     * 堆栈去重器；为 null 时照常写入每个异常。
+     */
+    private final @Nullable KeelStackTraceDeduplicator stackTraceDeduplicator;
+    /**
+     * 本日志记录器的事件计数。
+     */
+    private final KeelLoggerCounters counters;
+    /**
+     * 是否为交给适配器的事件记录调用位置，以 {@link #logMessage} 传入的 {@code fqcn} 为边界类。
+     */
+    private final boolean captureLocation;
 
     public KeelLog4j2Logger(
             Supplier<LogWriterAdapter> adapterSupplier,
@@ -33,32 +124,163 @@ final class KeelLog4j2Logger extends AbstractLogger {
             @Nullable Consumer<Log> logInitializer,
             boolean verbose
     ) {
-        super(topic, null, null);
+        this(adapterSupplier, visibleBaseLevel, topic, logInitializer, KeelLoggerFeatures.none(), verbose);
+    }
+
+    public KeelLog4j2Logger(
+            Supplier<LogWriterAdapter> adapterSupplier,
+            LogLevel visibleBaseLevel,
+            String topic,
+            @Nullable Consumer<Log> logInitializer,
+            KeelLoggerFeatures features,
+            boolean verbose
+    ) {
+        this(adapterSupplier, visibleBaseLevel, topic, logInitializer, features, null, verbose);
+    }
+
+    /**
+     * @param messageFactory 创建消息的工厂；为 null 时使用 Log4j2 的默认工厂
+     */
+    public KeelLog4j2Logger(
+            Supplier<LogWriterAdapter> adapterSupplier,
+            LogLevel visibleBaseLevel,
+            String topic,
+            @Nullable Consumer<Log> logInitializer,
+            KeelLoggerFeatures features,
+            @Nullable MessageFactory messageFactory,
+            boolean verbose
+    ) {
+        this(adapterSupplier, visibleBaseLevel, topic, logInitializer, features, messageFactory, KeelLoggerCounters.detached(topic), verbose);
+    }
+
+    /**
+     * @param messageFactory 创建消息的工厂；为 null 时使用 Log4j2 的默认工厂
+     * @param counters       事件计数，通常由日志记录器上下文的 {@link io.github.sinri.keel.logger.ext.KeelLoggerMetrics} 分配
+     * @since 5.0.3
+     */
+    public KeelLog4j2Logger(
+            Supplier<LogWriterAdapter> adapterSupplier,
+            LogLevel visibleBaseLevel,
+            String topic,
+            @Nullable Consumer<Log> logInitializer,
+            KeelLoggerFeatures features,
+            @Nullable MessageFactory messageFactory,
+            KeelLoggerCounters counters,
+            boolean verbose
+    ) {
+        super(topic, messageFactory, null);
         this.adapterSupplier = adapterSupplier;
+        this.counters = counters;
         this.topic = topic;
         this.visibleBaseLevel = visibleBaseLevel;
+        this.intLevelThreshold = toIntLevelThreshold(visibleBaseLevel);
         this.logInitializer = logInitializer;
         this.verbose = verbose;
+        KeelLogStormSuppressor stormSuppressor = features.stormSuppressor();
+        this.stormScope = stormSuppressor == null ? null : stormSuppressor.scope(topic, this::emitSummary);
+        this.sampler = features.sampling().resolve(topic);
+        this.router = features.routing().resolve(topic, adapterSupplier);
+        this.garbageFree = features.garbageFree();
+        this.deferredFormatting = features.deferredFormatting();
+        this.stackTraceDeduplicator = features.stackTraceDeduplicator();
+        this.captureLocation = features.callerLocation().isEnabledFor(topic);
     }
 
-    private static LogLevel transLevel(Level level) {
-        if (level == Level.TRACE || level == Level.ALL) {
-            return LogLevel.TRACE;
-        } else if (level == Level.DEBUG) {
-            return LogLevel.DEBUG;
-        } else if (level == Level.INFO) {
-            return LogLevel.INFO;
-        } else if (level == Level.WARN) {
-            return LogLevel.WARNING;
-        } else if (level == Level.ERROR) {
-            return LogLevel.ERROR;
-        } else if (level == Level.FATAL) {
-            return LogLevel.FATAL;
-        } else if (level == Level.OFF) {
-            return LogLevel.SILENT;
-        } else {
+    /**
+     * 将 Log4j2 级别转换为 Keel 级别。
+     * <p>
+     * 按 {@link Level#intLevel()} 查表，自定义级别按其所在区间映射到最接近的 Keel 级别，而不是被当作 SILENT 丢弃：
+     * <ul>
+     *     <li>{@code intLevel <= 0}（OFF）→ SILENT</li>
+     *     <li>1 ~ 100（FATAL）→ FATAL</li>
+     *     <li>101 ~ 200（ERROR）→ ERROR</li>
+     *     <li>201 ~ 300（WARN）→ WARNING</li>
+     *     <li>301 ~ 399 → NOTICE</li>
+     *     <li>400（INFO）→ INFO</li>
+     *     <li>401 ~ 500（DEBUG）→ DEBUG</li>
+     *     <li>{@code intLevel > 500}（TRACE、ALL）→ TRACE</li>
+     * </ul>
+     *
+     * @param level Log4j2 级别
+     * @return 对应的 Keel 级别
+     */
+    static LogLevel transLevel(Level level) {
+        int intLevel = level.intLevel();
+        if (intLevel <= 0) {
             return LogLevel.SILENT;
         }
+        if (intLevel >= LEVEL_TABLE.length) {
+            return LogLevel.TRACE;
+        }
+        return LEVEL_TABLE[intLevel];
+    }
+
+    /**
+     * 计算 Keel 级别作为最小处理级别时对应的 {@link Level#intLevel()} 上限（含）。
+     * <p>
+     * 与 {@link #transLevel(Level)} 的区间划分一致，保证
+     * {@code level.intLevel() <= threshold} 当且仅当 {@code transLevel(level).isEnoughSeriousAs(visibleBaseLevel)}。
+     *
+     * @param visibleBaseLevel 最小处理级别
+     * @return {@link Level#intLevel()} 上限
+     */
+    static int toIntLevelThreshold(LogLevel visibleBaseLevel) {
+        return switch (visibleBaseLevel) {
+            case TRACE -> Integer.MAX_VALUE;
+            case DEBUG -> 500;
+            case INFO -> 400;
+            case NOTICE -> 399;
+            case WARNING -> 300;
+            case ERROR -> 200;
+            case FATAL -> 100;
+            case SILENT -> 0;
+        };
+    }
+
+    private static LogLevel[] buildLevelTable() {
+        LogLevel[] table = new LogLevel[Level.TRACE.intLevel() + 1];
+        for (int i = 0; i < table.length; i++) {
+            if (i <= 0) {
+                table[i] = LogLevel.SILENT;
+            } else if (i <= Level.FATAL.intLevel()) {
+                table[i] = LogLevel.FATAL;
+            } else if (i <= Level.ERROR.intLevel()) {
+                table[i] = LogLevel.ERROR;
+            } else if (i <= Level.WARN.intLevel()) {
+                table[i] = LogLevel.WARNING;
+            } else if (i < Level.INFO.intLevel()) {
+                table[i] = LogLevel.NOTICE;
+            } else if (i == Level.INFO.intLevel()) {
+                table[i] = LogLevel.INFO;
+            } else if (i <= Level.DEBUG.intLevel()) {
+                table[i] = LogLevel.DEBUG;
+            } else {
+                table[i] = LogLevel.TRACE;
+            }
+        }
+        return table;
+    }
+
+    /**
+     * 级别检查：一次 volatile 读取与一次整数比较，不创建任何对象。
+     * <p>
+     * 携带标记且配置了标记阈值时，标记（或其父标记）有阈值则以阈值判断；
+     * 标记的分类列表按标记实例缓存（见 {@link KeelLog4j2MarkerClassification}），查找同样不创建对象。
+     * {@link AbstractLogger} 在创建与格式化消息之前调用本检查，被过滤的事件不会被格式化。
+     *
+     * @param level  Log4j2 级别
+     * @param marker Log4j2 标记；可为 null
+     * @return 是否需要处理该级别的日志
+     */
+    private boolean isLevelEnabled(Level level, @Nullable Marker marker) {
+        KeelMarkerLevels thresholds = markerLevels;
+        if (marker != null && !thresholds.isEmpty()) {
+            LogLevel threshold = thresholds.resolve(KeelLog4j2MarkerClassification.classification(marker));
+            if (threshold != null) {
+                return level.intLevel() <= toIntLevelThreshold(threshold);
+            }
+        }
+        return level.intLevel() <= intLevelThreshold;
     }
 
     private static Level transLevel(@Nullable LogLevel level) {
@@ -76,118 +298,353 @@ final class KeelLog4j2Logger extends AbstractLogger {
 
     @Override
     public boolean isEnabled(Level level, Marker marker, Message message, Throwable t) {
-        return isEnabled(level, marker, (Object) message, t);
+        return isLevelEnabled(level, marker);
     }
 
     @Override
     public boolean isEnabled(Level level, Marker marker, CharSequence message, Throwable t) {
-        return isEnabled(level, marker, (Object) message, t);
+        return isLevelEnabled(level, marker);
     }
 
     @Override
     public boolean isEnabled(Level level, Marker marker, Object message, Throwable t) {
-        LogLevel keelLogLevel = transLevel(level);
-        return keelLogLevel.isEnoughSeriousAs(visibleBaseLevel);
+        return isLevelEnabled(level, marker);
     }
 
     @Override
     public boolean isEnabled(Level level, Marker marker, String message, Throwable t) {
-        return isEnabled(level, marker, (Object) message, t);
+        return isLevelEnabled(level, marker);
     }
 
     @Override
     public boolean isEnabled(Level level, Marker marker, String message) {
-        return isEnabled(level, marker, message, (Throwable) null);
+        return isLevelEnabled(level, marker);
     }
 
     @Override
     public boolean isEnabled(Level level, Marker marker, String message, Object... params) {
-        LogLevel keelLogLevel = transLevel(level);
-        return keelLogLevel.isEnoughSeriousAs(visibleBaseLevel);
+        return isLevelEnabled(level, marker);
     }
 
     @Override
     public boolean isEnabled(Level level, Marker marker, String message, Object p0) {
-        return isEnabled(level, marker, message, new Object[]{p0});
+        return isLevelEnabled(level, marker);
     }
 
     @Override
     public boolean isEnabled(Level level, Marker marker, String message, Object p0, Object p1) {
-        return isEnabled(level, marker, message, new Object[]{p0, p1});
+        return isLevelEnabled(level, marker);
     }
 
     @Override
     public boolean isEnabled(Level level, Marker marker, String message, Object p0, Object p1, Object p2) {
-        return isEnabled(level, marker, message, new Object[]{p0, p1, p2});
+        return isLevelEnabled(level, marker);
     }
 
     @Override
     public boolean isEnabled(Level level, Marker marker, String message, Object p0, Object p1, Object p2, Object p3) {
-        return isEnabled(level, marker, message, new Object[]{p0, p1, p2, p3});
+        return isLevelEnabled(level, marker);
     }
 
     @Override
     public boolean isEnabled(Level level, Marker marker, String message, Object p0, Object p1, Object p2, Object p3, Object p4) {
-        return isEnabled(level, marker, message, new Object[]{p0, p1, p2, p3, p4});
+        return isLevelEnabled(level, marker);
     }
 
     @Override
     public boolean isEnabled(Level level, Marker marker, String message, Object p0, Object p1, Object p2, Object p3, Object p4, Object p5) {
-        return isEnabled(level, marker, message, new Object[]{p0, p1, p2, p3, p4, p5});
+        return isLevelEnabled(level, marker);
     }
 
     @Override
     public boolean isEnabled(Level level, Marker marker, String message, Object p0, Object p1, Object p2, Object p3, Object p4, Object p5, Object p6) {
-        return isEnabled(level, marker, message, new Object[]{p0, p1, p2, p3, p4, p5, p6});
+        return isLevelEnabled(level, marker);
     }
 
     @Override
     public boolean isEnabled(Level level, Marker marker, String message, Object p0, Object p1, Object p2, Object p3, Object p4, Object p5, Object p6, Object p7) {
-        return isEnabled(level, marker, message, new Object[]{p0, p1, p2, p3, p4, p5, p6, p7});
+        return isLevelEnabled(level, marker);
     }
 
     @Override
     public boolean isEnabled(Level level, Marker marker, String message, Object p0, Object p1, Object p2, Object p3, Object p4, Object p5, Object p6, Object p7, Object p8) {
-        return isEnabled(level, marker, message, new Object[]{p0, p1, p2, p3, p4, p5, p6, p7, p8});
+        return isLevelEnabled(level, marker);
     }
 
     @Override
     public boolean isEnabled(Level level, Marker marker, String message, Object p0, Object p1, Object p2, Object p3, Object p4, Object p5, Object p6, Object p7, Object p8, Object p9) {
-        return isEnabled(level, marker, message, new Object[]{p0, p1, p2, p3, p4, p5, p6, p7, p8, p9});
+        return isLevelEnabled(level, marker);
     }
 
     @Override
     public void logMessage(String fqcn, Level level, Marker marker, Message message, Throwable t) {
-        LogWriterAdapter adapter = this.adapterSupplier.get();
-        if (adapter == null) return;
+        LogLevel keelLogLevel = transLevel(level);
+        // 采样与日志风暴抑制（以未格式化的模板为键）都在格式化消息与创建 Log 之前决定
+        if (sampler != null && !sampler.sample(keelLogLevel)) {
+            counters.filtered(keelLogLevel);
+            return;
+        }
+        if (stormScope != null && !stormScope.tryAcquire(keelLogLevel, templateOf(message))) {
+            counters.filtered(keelLogLevel);
+            return;
+        }
+        // 结构化消息的键值直接写入上下文，不先渲染为字符串
+        if (message instanceof MapMessage<?, ?> mapMessage) {
+            String text = mapMessage instanceof StructuredDataMessage structuredDataMessage
+                    ? structuredDataMessage.getFormat()
+                    : null;
+            emitStructured(keelLogLevel, marker, text == null ? "" : text, mapMessage, t, fqcn);
+            return;
+        }
+        if (objectParameterOf(message) instanceof Map<?, ?> map) {
+            emitStructured(keelLogLevel, marker, "", map, t, fqcn);
+            return;
+        }
+        if (deferredFormatting.isEnabled()
+                && (message instanceof ParameterizedMessage || message instanceof ReusableParameterizedMessage)) {
+            emitDeferred(keelLogLevel, marker, message.getFormat(), message.getParameters(), t, fqcn);
+            return;
+        }
+        emit(keelLogLevel, marker, message.getFormattedMessage(), t, true, fqcn);
+    }
+
+    /**
+     * 获取日志风暴抑制使用的模板。
+     * <p>
+     * {@link ObjectMessage} 的 {@link Message#getFormat()} 会渲染所携带的对象，因而以对象的类名代替。
+     *
+     * @param message 消息
+     * @return 模板
+     */
+    private static String templateOf(Message message) {
+        if (message instanceof ObjectMessage || message instanceof ReusableObjectMessage) {
+            Object parameter = objectParameterOf(message);
+            return parameter == null ? "null" : parameter.getClass().getName();
+        }
+        return message.getFormat();
+    }
+
+    /**
+     * @param message 消息
+     * @return {@link ObjectMessage} 或 {@link ReusableObjectMessage} 携带的对象；其他消息返回 null
+     */
+    private static @Nullable Object objectParameterOf(Message message) {
+        if (message instanceof ObjectMessage objectMessage) {
+            return objectMessage.getParameter();
+        }
+        if (message instanceof ReusableObjectMessage reusableObjectMessage) {
+            return reusableObjectMessage.getParameter();
+        }
+        return null;
+    }
+
+    /**
+     * 输出日志风暴抑制的汇总，不再经过采样与抑制检查，也不携带保留比例。
+     *
+     * @param level   被抑制事件的级别
+     * @param message 汇总消息
+     */
+    private void emitSummary(LogLevel level, String message) {
+        emit(level, null, message, null, false, null);
+    }
+
+    /**
+     * 选择事件的适配器：配置了路由时按级别与标记选择，否则使用 {@link #adapterSupplier}。
+     *
+     * @param level  日志级别
+     * @param marker Log4j2 标记；可为 null
+     * @return 日志写入适配器；尚不可用时返回 null
+     */
+    @Nullable
+    private LogWriterAdapter adapterFor(LogLevel level, @Nullable Marker marker) {
+        KeelLogRouter currentRouter = router;
+        if (currentRouter == null) {
+            return adapterSupplier.get();
+        }
+        return currentRouter.route(level, KeelLog4j2MarkerClassification.classification(marker)).get();
+    }
+
+    /**
+     * 创建并写出一条日志事件。
+     *
+     * @param level            日志级别
+     * @param marker           Log4j2 标记；可为 null
+     * @param formattedMessage 已格式化的消息
+     * @param t                异常；可为 null
+     * @param sampled          是否为经过采样的事件，是则写入保留比例
+     * @param fqcn             查找调用位置使用的边界类；为 null 时不记录调用位置
+     */
+    private void emit(LogLevel level, @Nullable Marker marker, String formattedMessage, @Nullable Throwable t, boolean sampled, @Nullable String fqcn) {
+        LogWriterAdapter adapter = adapterFor(level, marker);
+        if (adapter == null) {
+            counters.dropped(level);
+            return;
+        }
 
-        Log keelEventLog = new Log();
+        if (t == null && (fqcn == null || !captureLocation) && canReuseLog(adapter, level, sampled)) {
+            Log pooled = KeelLogPool.acquire(level, formattedMessage, KeelLog4j2MarkerClassification.classification(marker));
+            if (pooled != null) {
+                try {
+                    counters.deliver(adapter, topic, pooled, level);
+                } finally {
+                    KeelLogPool.release();
+                }
+                return;
+            }
+        }
+
+        deliver(adapter, new Log(), level, marker, formattedMessage, null, t, sampled, fqcn);
+    }
+
+    /**
+     * 创建并写出一条结构化的日志事件，键值在 {@link #deliver} 中直接写入上下文。
+     * <p>
+     * 只读取消息中的键值，不持有消息本身，复用的消息（{@link org.apache.logging.log4j.message.ReusableMessage}）
+     * 在本方法返回后即可被 Log4j2 回收。
+     *
+     * @param level  日志级别
+     * @param marker Log4j2 标记；可为 null
+     * @param text   消息文本
+     * @param data   {@link MapMessage} 或 {@link ObjectMessage} 携带的 {@link Map}
+     * @param t      异常；可为 null
+     * @param fqcn   查找调用位置使用的边界类
+     */
+    private void emitStructured(LogLevel level, @Nullable Marker marker, String text, Object data, @Nullable Throwable t, String fqcn) {
+        LogWriterAdapter adapter = adapterFor(level, marker);
+        if (adapter == null) {
+            counters.dropped(level);
+            return;
+        }
+
+        deliver(adapter, new Log(), level, marker, text, data, t, true, fqcn);
+    }
+
+    /**
+     * 创建并写出一条延迟格式化的日志事件，消息在首次读取时才按 {@link ParameterizedMessage} 的规则渲染。
+     * <p>
+     * 作为异常的最后一个参数不进入参数快照；其余参数按 {@link KeelDeferredFormatting} 的策略捕获。
+     *
+     * @param level      日志级别
+     * @param marker     Log4j2 标记；可为 null
+     * @param template   消息模板
+     * @param parameters 消息参数；可为 null
+     * @param t          异常；可为 null
+     * @param fqcn       查找调用位置使用的边界类
+     */
+    private void emitDeferred(LogLevel level, @Nullable Marker marker, String template, @Nullable Object @Nullable [] parameters, @Nullable Throwable t, String fqcn) {
+        LogWriterAdapter adapter = adapterFor(level, marker);
+        if (adapter == null) {
+            counters.dropped(level);
+            return;
+        }
+
+        @Nullable Object[] snapshot;
+        if (parameters == null) {
+            snapshot = NO_PARAMETERS;
+        } else {
+            int count = t != null && parameters.length > 0 && parameters[parameters.length - 1] == t
+                    ? parameters.length - 1
+                    : parameters.length;
+            snapshot = deferredFormatting.snapshot(parameters, count, ParameterizedMessage::deepToString);
+        }
+        deliver(adapter, new KeelDeferredLog(template, snapshot, ParameterizedMessage::format), level, marker, null, null, t, true, fqcn);
+    }
+
+    /**
+     * 执行初始化钩子，填充级别、分类、保留比例、异常、消息、线程上下文、结构化键值与调用位置后将日志事件交给适配器。
+     *
+     * @param adapter          日志写入适配器
+     * @param keelEventLog     新建的日志事件
+     * @param level            日志级别
+     * @param marker           Log4j2 标记；可为 null
+     * @param formattedMessage 已格式化的消息；为 null 时表示日志事件自行渲染消息
+     * @param data             结构化消息的键值来源；可为 null
+     * @param t                异常；可为 null
+     * @param sampled          是否为经过采样的事件，是则写入保留比例
+     * @param fqcn             查找调用位置使用的边界类；为 null 时不记录调用位置
+     */
+    private void deliver(
+            LogWriterAdapter adapter,
+            Log keelEventLog,
+            LogLevel level,
+            @Nullable Marker marker,
+            @Nullable String formattedMessage,
+            @Nullable Object data,
+            @Nullable Throwable t,
+            boolean sampled,
+            @Nullable String fqcn) {
         if (logInitializer != null) {
             logInitializer.accept(keelEventLog);
         }
-        // keelEventLog.classification(fqcn);
-        keelEventLog.level(transLevel(level));
+        keelEventLog.level(level);
+        if (marker != null) {
+            keelEventLog.classification(KeelLog4j2MarkerClassification.classification(marker));
+        }
+        if (sampled && sampler != null) {
+            sampler.annotate(keelEventLog, level);
+        }
         if (t != null) {
-            keelEventLog.exception(t);
+            if (stackTraceDeduplicator != null) {
+                stackTraceDeduplicator.attach(keelEventLog, t);
+            } else {
+                keelEventLog.exception(t);
+            }
+        }
+        if (formattedMessage != null) {
+            keelEventLog.message(formattedMessage);
         }
-        keelEventLog.message(message.getFormattedMessage());
 
         // 添加线程上下文信息到日志事件
         addThreadContextToLog(keelEventLog);
+        // 消息自身的键值优先于线程上下文中的同名条目
+        if (data != null) {
+            addStructuredDataToLog(keelEventLog, data);
+        }
+        if (captureLocation && fqcn != null) {
+            KeelCallerLocation.annotate(keelEventLog, fqcn);
+        }
+
+        counters.deliver(adapter, topic, keelEventLog, level);
+    }
 
-        adapter.accept(topic, keelEventLog);
+    /**
+     * 判断本次事件能否使用复用的日志事件：须启用无垃圾模式、适配器同步消费且不持有事件，
+     * 并且事件不会写入任何上下文（没有初始化钩子、未写入保留比例、当前线程的 {@link ThreadContext} 为空）。
+     *
+     * @param adapter 日志写入适配器
+     * @param level   日志级别
+     * @param sampled 是否为经过采样的事件
+     * @return 可以复用时返回 true
+     */
+    private boolean canReuseLog(LogWriterAdapter adapter, LogLevel level, boolean sampled) {
+        return garbageFree
+                && adapter instanceof KeelSynchronousLogWriter
+                && logInitializer == null
+                && (!sampled || sampler == null || !sampler.isSampling(level))
+                && ThreadContext.isEmpty();
     }
 
     /**
      * 将线程上下文信息写入日志事件。
      * <p>
-     * 本方法从 Log4j2 的 {@link ThreadContext} 获取当前线程的上下文映射，
-     * 并将其作为上下文字段写入 Keel 的日志事件。
+     * 当 {@link ThreadContext} 使用 {@link KeelThreadContextMap} 存储时，直接按引用读取当前线程的不可变快照，
+     * 不复制映射；否则回退为 {@link ThreadContext#getContext()}（返回映射的副本）。
+     * 上下文中的每个条目都作为上下文字段写入 Keel 的日志事件。
      *
      * @param keelEventLog 需要补充上下文的日志事件
      */
     private void addThreadContextToLog(Log keelEventLog) {
         try {
+            if (ThreadContext.getThreadContextMap() instanceof KeelThreadContextMap keelThreadContextMap) {
+                KeelThreadContextMap.Snapshot snapshot = keelThreadContextMap.snapshot();
+                for (int i = 0; i < snapshot.size(); i++) {
+                    String value = snapshot.value(i);
+                    if (value != null) {
+                        keelEventLog.context(snapshot.key(i), value);
+                    }
+                }
+                return;
+            }
             var contextMap = ThreadContext.getContext();
             if (contextMap != null && !contextMap.isEmpty()) {
                 contextMap.forEach(keelEventLog::context);
@@ -197,13 +654,77 @@ final class KeelLog4j2Logger extends AbstractLogger {
             // 可以考虑记录一个调试级别的错误，但避免递归日志记录
             if (verbose) {
                 System.err.println("Failed to add thread context to log event: " + e.getMessage());
-                e.printStackTrace(new PrintWriter(System.err));
+                e.printStackTrace(new PrintWriter(System.err, true));
             }
         }
     }
 
+    /**
+     * 将结构化消息的键值写入日志事件的上下文，值按引用写入，不渲染为字符串。
+     * <p>
+     * {@link StructuredDataMessage} 另外写入其 ID（{@value #STRUCTURED_DATA_ID_CONTEXT_KEY}）
+     * 与类型（{@value #STRUCTURED_DATA_TYPE_CONTEXT_KEY}）；值为 null 的条目被忽略。
+     *
+     * @param keelEventLog 日志事件
+     * @param data         {@link MapMessage} 或 {@link Map}
+     */
+    private static void addStructuredDataToLog(Log keelEventLog, Object data) {
+        if (data instanceof StructuredDataMessage structuredDataMessage) {
+            StructuredDataId id = structuredDataMessage.getId();
+            if (id != null) {
+                keelEventLog.context(STRUCTURED_DATA_ID_CONTEXT_KEY, id.toString());
+            }
+            String type = structuredDataMessage.getType();
+            if (type != null) {
+                keelEventLog.context(STRUCTURED_DATA_TYPE_CONTEXT_KEY, type);
+            }
+        }
+        if (data instanceof MapMessage<?, ?> mapMessage) {
+            mapMessage.forEach(MAP_ENTRY_WRITER, keelEventLog);
+        } else if (data instanceof Map<?, ?> map) {
+            map.forEach((key, value) -> {
+                if (key != null && value != null) {
+                    keelEventLog.context(String.valueOf(key), value);
+                }
+            });
+        }
+    }
+
     @Override
     public Level getLevel() {
         return transLevel(visibleBaseLevel);
     }
+
+    /**
+     * @return 本日志记录器的事件计数
+     */
+    KeelLoggerCounters getCounters() {
+        return counters;
+    }
+
+    /**
+     * @return 对外可见的基础级别
+     */
+    LogLevel getVisibleBaseLevel() {
+        return visibleBaseLevel;
+    }
+
+    /**
+     * 发布新的对外可见的基础级别，之后的级别检查立即生效。
+     *
+     * @param visibleBaseLevel 新的对外可见的基础级别
+     */
+    void setVisibleBaseLevel(LogLevel visibleBaseLevel) {
+        this.intLevelThreshold = toIntLevelThreshold(visibleBaseLevel);
+        this.visibleBaseLevel = visibleBaseLevel;
+    }
+
+    /**
+     * 发布新的标记阈值，之后的级别检查立即生效。
+     *
+     * @param markerLevels 新的标记阈值
+     */
+    void setMarkerLevels(KeelMarkerLevels markerLevels) {
+        this.markerLevels = markerLevels;
+    }
 }
@@ -3,6 +3,12 @@ package io.github.sinri.keel.logger.ext.log4j2;
 import io.github.sinri.keel.logger.api.LogLevel;
 import io.github.sinri.keel.logger.api.adapter.LogWriterAdapter;
 import io.github.sinri.keel.logger.api.log.Log;
+import io.github.sinri.keel.logger.ext.KeelLogWriterHolder;
+import io.github.sinri.keel.logger.ext.KeelLoggerFeatures;
+import io.github.sinri.keel.logger.ext.KeelLoggerLevels;
+import io.github.sinri.keel.logger.ext.KeelLoggerMetrics;
+import io.github.sinri.keel.logger.ext.KeelLoggingControl;
+import io.github.sinri.keel.logger.ext.KeelMarkerLevels;
 import org.apache.logging.log4j.message.MessageFactory;
 import org.apache.logging.log4j.spi.ExtendedLogger;
 import org.apache.logging.log4j.spi.LoggerContext;
@@ -10,7 +16,9 @@ import org.jspecify.annotations.NullMarked;
 import org.jspecify.annotations.Nullable;
 
 import java.util.Map;
+import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 
@@ -22,9 +30,25 @@ import java.util.function.Supplier;
 @NullMarked
 final class KeelLog4j2LoggerContext implements LoggerContext {
     private final Map<String, KeelLog4j2Logger> loggerMap;
-    private final Supplier<LogWriterAdapter> adapterSupplier;
-    private final LogLevel visibleBaseLevel;
+    /**
+     * 以自定义 {@link MessageFactory} 创建的日志记录器，先按工厂的类、再按名称索引。
+     */
+    private final Map<Class<? extends MessageFactory>, Map<String, KeelLog4j2Logger>> factoryLoggerMap;
+    /**
+     * 上下文中所有日志记录器共享的适配器持有者。
+     */
+    private final KeelLogWriterHolder adapterHolder;
+    private volatile KeelLoggerLevels levels;
     private final @Nullable Consumer<Log> logInitializer;
+    private final KeelLoggerFeatures features;
+    /**
+     * 上下文中所有日志记录器的事件计数；同名的日志记录器（不同的 {@link MessageFactory}）共用一份计数。
+     */
+    private final KeelLoggerMetrics metrics = new KeelLoggerMetrics();
+    /**
+     * 运行期调整级别的入口，以构造时的级别配置为基础配置。
+     */
+    private final KeelLoggingControl control;
     private final boolean verbose;
 
     public KeelLog4j2LoggerContext(
@@ -32,12 +56,34 @@ final class KeelLog4j2LoggerContext implements LoggerContext {
             LogLevel visibleBaseLevel,
             @Nullable Consumer<Log> logInitializer,
             boolean verbose
+    ) {
+        this(adapterSupplier, new KeelLoggerLevels(visibleBaseLevel), logInitializer, verbose);
+    }
+
+    public KeelLog4j2LoggerContext(
+            Supplier<LogWriterAdapter> adapterSupplier,
+            KeelLoggerLevels levels,
+            @Nullable Consumer<Log> logInitializer,
+            boolean verbose
+    ) {
+        this(adapterSupplier, levels, logInitializer, KeelLoggerFeatures.none(), verbose);
+    }
+
+    public KeelLog4j2LoggerContext(
+            Supplier<LogWriterAdapter> adapterSupplier,
+            KeelLoggerLevels levels,
+            @Nullable Consumer<Log> logInitializer,
+            KeelLoggerFeatures features,
+            boolean verbose
     ) {
         this.loggerMap = new ConcurrentHashMap<>();
-        this.adapterSupplier = adapterSupplier;
-        this.visibleBaseLevel = visibleBaseLevel;
+        this.factoryLoggerMap = new ConcurrentHashMap<>();
+        this.adapterHolder = KeelLogWriterHolder.of(adapterSupplier, verbose);
+        this.levels = levels;
         this.logInitializer = logInitializer;
+        this.features = features;
         this.verbose = verbose;
+        this.control = new KeelLoggingControl(levels, this::applyLevels, this::loggerLevels, verbose);
     }
 
     @Override
@@ -53,11 +99,8 @@ final class KeelLog4j2LoggerContext implements LoggerContext {
             synchronized (loggerMap) {
                 KeelLog4j2Logger existed = loggerMap.get(name);
                 if (existed == null) {
-                    var logger = new KeelLog4j2Logger(this.adapterSupplier, visibleBaseLevel, name, logInitializer, verbose);
+                    var logger = createLogger(name, null);
                     loggerMap.put(name, logger);
-                    if (verbose) {
-                        System.out.println("Keel Logging for log4j built logger for [" + name + "]");
-                    }
                     return logger;
                 } else {
                     return existed;
@@ -66,13 +109,114 @@ final class KeelLog4j2LoggerContext implements LoggerContext {
         }
     }
 
+    /**
+     * 创建日志记录器，调用方须持有 {@link #loggerMap} 的锁。
+     *
+     * @param name           日志记录器名称
+     * @param messageFactory 创建消息的工厂；为 null 时使用 Log4j2 的默认工厂
+     * @return 新建的日志记录器
+     */
+    private KeelLog4j2Logger createLogger(String name, @Nullable MessageFactory messageFactory) {
+        LogLevel visibleBaseLevel = levels.resolve(name);
+        var logger = new KeelLog4j2Logger(this.adapterHolder, visibleBaseLevel, name, logInitializer, features, messageFactory, metrics.counters(name), verbose);
+        logger.setMarkerLevels(levels.markers());
+        if (verbose) {
+            System.out.println("Keel Logging for log4j built logger for [" + name + "] at level " + visibleBaseLevel
+                    + (messageFactory == null ? "" : " with " + messageFactory.getClass().getName()));
+        }
+        return logger;
+    }
+
+    /**
+     * @return 上下文中所有日志记录器的事件计数
+     */
+    KeelLoggerMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * 替换级别配置，并将重新计算的有效级别发布到所有已缓存的日志记录器。
+     * <p>
+     * 与日志记录器的创建互斥，但不阻塞日志记录：日志记录器只对自身的级别字段做 volatile 读取。
+     *
+     * @param newLevels 新的级别配置
+     */
+    void applyLevels(KeelLoggerLevels newLevels) {
+        synchronized (loggerMap) {
+            this.levels = newLevels;
+            KeelMarkerLevels markerLevels = newLevels.markers();
+            BiConsumer<String, KeelLog4j2Logger> publisher = (name, logger) -> {
+                logger.setVisibleBaseLevel(newLevels.resolve(name));
+                logger.setMarkerLevels(markerLevels);
+            };
+            loggerMap.forEach(publisher);
+            factoryLoggerMap.values().forEach(loggers -> loggers.forEach(publisher));
+        }
+        if (verbose) {
+            System.out.println("Keel Logging for log4j applied levels " + newLevels + " to " + loggerMap.size() + " loggers");
+        }
+    }
+
+    /**
+     * @return 当前生效的级别配置
+     */
+    KeelLoggerLevels getLevels() {
+        return levels;
+    }
+
+    /**
+     * 以自定义 {@link MessageFactory} 创建的同名日志记录器与默认的日志记录器级别相同，只列出一次。
+     *
+     * @return 已缓存的日志记录器名称与其当前的可见基础级别
+     */
+    Map<String, LogLevel> loggerLevels() {
+        Map<String, LogLevel> loggerLevels = new TreeMap<>();
+        BiConsumer<String, KeelLog4j2Logger> collector = (name, logger) -> loggerLevels.put(name, logger.getVisibleBaseLevel());
+        factoryLoggerMap.values().forEach(loggers -> loggers.forEach(collector));
+        loggerMap.forEach(collector);
+        return loggerLevels;
+    }
+
+    /**
+     * 运行期调整级别的入口；级别配置文件的变化应交给 {@link KeelLoggingControl#applyBase(KeelLoggerLevels)}，
+     * 以免覆盖运行期的设置。
+     *
+     * @return 级别控制
+     */
+    KeelLoggingControl getControl() {
+        return control;
+    }
+
+    /**
+     * 获取以指定 {@link MessageFactory} 创建消息的日志记录器。
+     * <p>
+     * 例如传入 {@link org.apache.logging.log4j.message.ReusableMessageFactory} 时，参数化消息由线程本地复用的实例承载，
+     * 日志记录器在 {@link KeelLog4j2Logger#logMessage} 返回前已取出所需内容，不持有消息本身。
+     * 日志记录器按工厂的类缓存，同一名称、同一类的工厂得到同一实例。
+     *
+     * @param name           日志记录器名称
+     * @param messageFactory 创建消息的工厂；为 null 时等同于 {@link #getLogger(String)}
+     * @return 日志记录器
+     */
     @Override
-    public ExtendedLogger getLogger(String name, MessageFactory messageFactory) {
-        if (verbose && messageFactory != null) {
-            System.out.println("Keel Logging for log4j ignores custom MessageFactory ("
-                    + messageFactory.getClass().getName() + ") for logger [" + name + "]");
+    public ExtendedLogger getLogger(String name, @Nullable MessageFactory messageFactory) {
+        if (messageFactory == null) {
+            return getLogger(name);
+        }
+        Map<String, KeelLog4j2Logger> loggers = factoryLoggerMap.get(messageFactory.getClass());
+        KeelLog4j2Logger logger = loggers == null ? null : loggers.get(name);
+        if (logger != null) {
+            return logger;
+        }
+        synchronized (loggerMap) {
+            loggers = factoryLoggerMap.computeIfAbsent(messageFactory.getClass(), k -> new ConcurrentHashMap<>());
+            logger = loggers.get(name);
+            if (logger == null) {
+                logger = createLogger(name, messageFactory);
+                loggers.put(name, logger);
+            }
+            return logger;
         }
-        return getLogger(name);
     }
 
     @Override
@@ -82,11 +226,13 @@ final class KeelLog4j2LoggerContext implements LoggerContext {
 
     @Override
     public boolean hasLogger(String name, Class<? extends MessageFactory> messageFactoryClass) {
-        return hasLogger(name);
+        Map<String, KeelLog4j2Logger> loggers = factoryLoggerMap.get(messageFactoryClass);
+        // 以默认工厂创建的日志记录器不区分工厂的类
+        return (loggers != null && loggers.containsKey(name)) || hasLogger(name);
     }
 
     @Override
     public boolean hasLogger(String name, MessageFactory messageFactory) {
-        return hasLogger(name);
+        return hasLogger(name, messageFactory.getClass());
     }
 }
@@ -4,12 +4,22 @@ import io.github.sinri.keel.logger.api.LogLevel;
 import io.github.sinri.keel.logger.api.adapter.BaseLogWriter;
 import io.github.sinri.keel.logger.api.adapter.LogWriterAdapter;
 import io.github.sinri.keel.logger.api.log.Log;
+import io.github.sinri.keel.logger.ext.KeelAsyncLogWriter;
+import io.github.sinri.keel.logger.ext.KeelAsyncLogWriterOptions;
+import io.github.sinri.keel.logger.ext.KeelLogWriterHolder;
+import io.github.sinri.keel.logger.ext.KeelLoggerConfigWatcher;
+import io.github.sinri.keel.logger.ext.KeelLoggerFeatures;
+import io.github.sinri.keel.logger.ext.KeelLoggerLevels;
+import io.github.sinri.keel.logger.ext.KeelLoggerMetrics;
+import io.github.sinri.keel.logger.ext.KeelLoggingControl;
 import org.apache.logging.log4j.spi.LoggerContext;
 import org.apache.logging.log4j.spi.LoggerContextFactory;
 import org.jspecify.annotations.NullMarked;
 import org.jspecify.annotations.Nullable;
 
+import java.io.IOException;
 import java.net.URI;
+import java.nio.file.Path;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 
@@ -21,6 +31,9 @@ import java.util.function.Supplier;
  * 文件中写入本类全名
  * {@code io.github.sinri.keel.logger.ext.log4j2.KeelLog4j2LoggerContextFactory}，
  * 从而使 Log4j2 的 LogManager 通过 ServiceLoader 自动加载本工厂以提供日志记录能力。
+ * <p>
+ * 通过 SPI 加载时，可用系统属性 {@value KeelAsyncLogWriterOptions#ASYNC_PROPERTY} 启用异步写出，
+ * 见 {@link KeelAsyncLogWriterOptions#fromSystemProperties()}。
  *
  * @since 5.0.0
  */
@@ -28,6 +41,7 @@ import java.util.function.Supplier;
 public final class KeelLog4j2LoggerContextFactory implements LoggerContextFactory {
 
     private final KeelLog4j2LoggerContext loggerContext;
+    private final KeelLogWriterHolder adapterHolder;
 
     public KeelLog4j2LoggerContextFactory() {
         this(BaseLogWriter::getInstance, LogLevel.INFO, null);
@@ -37,7 +51,118 @@ public final class KeelLog4j2LoggerContextFactory implements LoggerContextFactor
             Supplier<LogWriterAdapter> adapterSupplier,
             LogLevel visibleBaseLevel,
             @Nullable Consumer<Log> logInitializer) {
-        this.loggerContext = new KeelLog4j2LoggerContext(adapterSupplier, visibleBaseLevel, logInitializer, isVerbose());
+        this(adapterSupplier, new KeelLoggerLevels(visibleBaseLevel), logInitializer);
+    }
+
+    /**
+     * 以按日志记录器名称前缀配置的级别创建工厂。
+     * <p>
+     * 若通过系统属性 {@value KeelLoggerConfigWatcher#CONFIG_FILE_PROPERTY} 指定了级别配置文件，
+     * 则启动 {@link KeelLoggerConfigWatcher}，文件内容覆盖在 {@code levels} 之上并在变化时热更新。
+     *
+     * @param adapterSupplier 用于获取 {@link LogWriterAdapter} 的供应者
+     * @param levels          按名称前缀配置的可见基础级别
+     * @param logInitializer  写入前用于初始化 {@link Log} 的钩子；可为 null
+     * @since 5.0.3
+     */
+    public KeelLog4j2LoggerContextFactory(
+            Supplier<LogWriterAdapter> adapterSupplier,
+            KeelLoggerLevels levels,
+            @Nullable Consumer<Log> logInitializer) {
+        this(adapterSupplier, levels, logInitializer, KeelAsyncLogWriterOptions.fromSystemProperties());
+    }
+
+    /**
+     * 以按日志记录器名称前缀配置的级别及异步写出配置创建工厂。
+     * <p>
+     * {@code asyncOptions} 非 null 时，以 {@link KeelAsyncLogWriter} 包装适配器，日志事件交由专用线程异步写出。
+     *
+     * @param adapterSupplier 用于获取 {@link LogWriterAdapter} 的供应者
+     * @param levels          按名称前缀配置的可见基础级别
+     * @param logInitializer  写入前用于初始化 {@link Log} 的钩子；可为 null
+     * @param asyncOptions    异步写出的配置；为 null 时同步写出
+     * @since 5.0.3
+     */
+    public KeelLog4j2LoggerContextFactory(
+            Supplier<LogWriterAdapter> adapterSupplier,
+            KeelLoggerLevels levels,
+            @Nullable Consumer<Log> logInitializer,
+            @Nullable KeelAsyncLogWriterOptions asyncOptions) {
+        this(adapterSupplier, levels, logInitializer, asyncOptions, KeelLoggerFeatures.fromSystemProperties());
+    }
+
+    /**
+     * 以按日志记录器名称前缀配置的级别、异步写出配置及可选功能创建工厂。
+     *
+     * @param adapterSupplier 用于获取 {@link LogWriterAdapter} 的供应者
+     * @param levels          按名称前缀配置的可见基础级别
+     * @param logInitializer  写入前用于初始化 {@link Log} 的钩子；可为 null
+     * @param asyncOptions    异步写出的配置；为 null 时同步写出
+     * @param features        日志记录器共享的可选功能，如日志风暴抑制
+     * @since 5.0.3
+     */
+    public KeelLog4j2LoggerContextFactory(
+            Supplier<LogWriterAdapter> adapterSupplier,
+            KeelLoggerLevels levels,
+            @Nullable Consumer<Log> logInitializer,
+            @Nullable KeelAsyncLogWriterOptions asyncOptions,
+            KeelLoggerFeatures features) {
+        boolean verbose = isVerbose();
+        this.adapterHolder = KeelLogWriterHolder.of(adapterSupplier, verbose);
+        this.loggerContext = new KeelLog4j2LoggerContext(
+                KeelAsyncLogWriter.wrap(adapterHolder, asyncOptions, verbose),
+                levels,
+                logInitializer,
+                features,
+                verbose);
+        if (KeelLoggerMetrics.isJmxEnabled()) {
+            loggerContext.getMetrics().registerMBean("log4j2", verbose);
+            loggerContext.getControl().registerMBean("log4j2", verbose);
+        }
+
+        Path levelConfigFile = KeelLoggerConfigWatcher.configuredFile();
+        if (levelConfigFile != null) {
+            var watcher = new KeelLoggerConfigWatcher(levelConfigFile, levels, loggerContext.getControl()::applyBase, verbose);
+            try {
+                watcher.start();
+            } catch (IOException e) {
+                System.err.println("Keel Logging for log4j cannot watch level config [" + levelConfigFile + "]: " + e);
+            }
+        }
+    }
+
+    /**
+     * 获取缓存写入适配器的持有者，用于在运行期切换适配器，见 {@link KeelLogWriterHolder#swap(LogWriterAdapter)}。
+     * <p>
+     * 启用异步写出时持有者位于异步写出器的下游，缓冲区中尚未写出的事件在切换后交给新的适配器。
+     *
+     * @return 适配器持有者
+     * @since 5.0.3
+     */
+    public KeelLogWriterHolder getAdapterHolder() {
+        return adapterHolder;
+    }
+
+    /**
+     * 获取上下文中所有日志记录器的事件计数；同一计数在构造时注册为 MBean，
+     * 系统属性 {@value KeelLoggerMetrics#JMX_PROPERTY} 为 false 时不注册。
+     *
+     * @return 事件计数
+     * @since 5.0.3
+     */
+    public KeelLoggerMetrics getMetrics() {
+        return loggerContext.getMetrics();
+    }
+
+    /**
+     * 获取运行期调整级别的入口；同一对象在构造时注册为 MBean，
+     * 系统属性 {@value KeelLoggerMetrics#JMX_PROPERTY} 为 false 时不注册。
+     *
+     * @return 级别控制
+     * @since 5.0.3
+     */
+    public KeelLoggingControl getControl() {
+        return loggerContext.getControl();
     }
 
     @Override
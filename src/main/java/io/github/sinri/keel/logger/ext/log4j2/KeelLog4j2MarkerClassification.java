@@ -0,0 +1,85 @@
+package io.github.sinri.keel.logger.ext.log4j2;
+
+import org.apache.logging.log4j.Marker;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 将 Log4j2 {@link Marker} 转换为 Keel classification（分类）列表，并按标记实例缓存转换结果。
+ * <p>
+ * 与 SLF4J 桥接的语义一致：分类由标记自身名称与其直接父标记的名称组成。
+ * {@link Marker#getParents()} 每次调用都复制数组，因而只在首次遇到标记时调用；
+ * 之后的每次记录只做一次哈希查找与引用比较，返回同一个不可变列表，不创建任何对象。
+ * <p>
+ * Log4j2 的标记由 {@link org.apache.logging.log4j.MarkerManager} 按名称全局持有，通常在启动时声明父标记。
+ * 缓存能感知标记从无父标记变为有父标记（{@link Marker#hasParents()} 变化），
+ * 但不跟踪已有父标记之后的增删。缓存的标记数有上限，超出后的标记每次重新计算。
+ *
+ * @since 5.0.3
+ */
+@NullMarked
+final class KeelLog4j2MarkerClassification {
+    /**
+     * 缓存的标记数上限，防止动态创建大量标记时无限增长。
+     */
+    private static final int MAX_CACHED_MARKERS = 1024;
+    /**
+     * 以标记为键的缓存；Log4j2 的标记按名称判等，条目中另存标记实例，以引用比较区分同名的不同实例。
+     */
+    private static final ConcurrentMap<Marker, Entry> CACHE = new ConcurrentHashMap<>();
+
+    private KeelLog4j2MarkerClassification() {
+    }
+
+    /**
+     * 获取标记对应的 Keel 分类列表。
+     *
+     * @param marker Log4j2 标记；可为 null
+     * @return 不可变的分类列表；marker 为 null 时返回空列表
+     */
+    static List<String> classification(@Nullable Marker marker) {
+        if (marker == null) {
+            return List.of();
+        }
+        Entry cached = CACHE.get(marker);
+        if (cached != null && cached.marker == marker && cached.hasParents == marker.hasParents()) {
+            return cached.classification;
+        }
+        Entry computed = new Entry(marker);
+        if (cached != null || CACHE.size() < MAX_CACHED_MARKERS) {
+            CACHE.put(marker, computed);
+        }
+        return computed.classification;
+    }
+
+    /**
+     * 单个标记的转换结果。
+     */
+    private static final class Entry {
+        private final Marker marker;
+        private final boolean hasParents;
+        private final List<String> classification;
+
+        private Entry(Marker marker) {
+            this.marker = marker;
+            this.hasParents = marker.hasParents();
+            Marker[] parents = marker.getParents();
+            if (parents == null || parents.length == 0) {
+                this.classification = List.of(marker.getName());
+            } else {
+                List<String> names = new ArrayList<>(1 + parents.length);
+                names.add(marker.getName());
+                for (Marker parent : parents) {
+                    names.add(parent.getName());
+                }
+                this.classification = Collections.unmodifiableList(names);
+            }
+        }
+    }
+}
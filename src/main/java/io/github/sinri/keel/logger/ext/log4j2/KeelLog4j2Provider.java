@@ -5,11 +5,17 @@ import io.github.sinri.keel.logger.api.LogLevel;
 import io.github.sinri.keel.logger.api.adapter.BaseLogWriter;
 import io.github.sinri.keel.logger.api.adapter.LogWriterAdapter;
 import io.github.sinri.keel.logger.api.log.Log;
+import io.github.sinri.keel.logger.ext.KeelAsyncLogWriterOptions;
+import io.github.sinri.keel.logger.ext.KeelLoggerFeatures;
+import io.github.sinri.keel.logger.ext.KeelLoggerLevels;
+import io.github.sinri.keel.logger.ext.KeelMarkerLevels;
 import org.apache.logging.log4j.spi.LoggerContextFactory;
 import org.apache.logging.log4j.spi.Provider;
+import org.apache.logging.log4j.spi.ThreadContextMap;
 import org.jspecify.annotations.NullMarked;
 import org.jspecify.annotations.Nullable;
 
+import java.util.Map;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 
@@ -39,8 +45,10 @@ public class KeelLog4j2Provider extends Provider {
     public LoggerContextFactory getLoggerContextFactory() {
         return lateLoggerContextFactory.ensure(() -> new KeelLog4j2LoggerContextFactory(
                 getAdapterSupplier(),
-                getVisibleBaseLevel(),
-                getLogInitializer()
+                new KeelLoggerLevels(getVisibleBaseLevel(), getLoggerLevels(), getMarkerLevels()),
+                getLogInitializer(),
+                getAsyncOptions(),
+                getLoggerFeatures()
         ));
     }
 
@@ -52,6 +60,11 @@ public class KeelLog4j2Provider extends Provider {
         return KeelLog4j2LoggerContextFactory.class;
     }
 
+    @Override
+    public Class<? extends ThreadContextMap> loadThreadContextMap() {
+        return KeelThreadContextMap.class;
+    }
+
     /**
      * 提供对外可见的基础日志级别。
      * <p>
@@ -63,6 +76,31 @@ public class KeelLog4j2Provider extends Provider {
         return LogLevel.INFO;
     }
 
+    /**
+     * 提供按日志记录器名称前缀配置的可见基础级别。
+     * <p>
+     * 子类可以重写本方法，为特定前缀指定不同于 {@link #getVisibleBaseLevel()} 的级别。
+     * 默认返回空映射。
+     *
+     * @return 前缀与级别的映射
+     */
+    protected Map<String, LogLevel> getLoggerLevels() {
+        return Map.of();
+    }
+
+    /**
+     * 提供按标记名称配置的级别阈值。
+     * <p>
+     * 子类可以重写本方法，例如让 {@code AUDIT} 标记的事件始终输出（{@code TRACE}），
+     * 或屏蔽 {@code SQL} 标记的事件（{@code OFF}）；标记的父标记同样参与匹配，见 {@link KeelMarkerLevels}。
+     * 默认返回空映射。
+     *
+     * @return 标记名称与级别的映射
+     */
+    protected Map<String, LogLevel> getMarkerLevels() {
+        return Map.of();
+    }
+
     /**
      * 提供用于获取 {@link LogWriterAdapter} 实例的 {@link Supplier}。
      *
@@ -75,6 +113,29 @@ public class KeelLog4j2Provider extends Provider {
         return BaseLogWriter::getInstance;
     }
 
+    /**
+     * 提供异步写出的配置。
+     * <p>
+     * 默认读取系统属性，见 {@link KeelAsyncLogWriterOptions#fromSystemProperties()}；返回 null 表示同步写出。
+     *
+     * @return 异步写出的配置；可为 null
+     */
+    @Nullable
+    protected KeelAsyncLogWriterOptions getAsyncOptions() {
+        return KeelAsyncLogWriterOptions.fromSystemProperties();
+    }
+
+    /**
+     * 提供日志记录器共享的可选功能，如日志风暴抑制。
+     * <p>
+     * 默认读取系统属性，见 {@link KeelLoggerFeatures#fromSystemProperties()}。
+     *
+     * @return 可选功能
+     */
+    protected KeelLoggerFeatures getLoggerFeatures() {
+        return KeelLoggerFeatures.fromSystemProperties();
+    }
+
     @Nullable
     protected Consumer<Log> getLogInitializer() {
         return null;
@@ -0,0 +1,225 @@
+package io.github.sinri.keel.logger.ext.log4j2;
+
+import org.apache.logging.log4j.spi.CleanableThreadContextMap;
+import org.apache.logging.log4j.spi.ReadOnlyThreadContextMap;
+import org.apache.logging.log4j.util.SortedArrayStringMap;
+import org.apache.logging.log4j.util.StringMap;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 在 Keel 日志系统中封装实现的 Log4j2 线程上下文映射（{@code ThreadContext} 的存储）。
+ * <p>
+ * 每个线程持有一个不可变的 {@link Snapshot}：修改操作生成新的快照并递增版本号，
+ * 读取快照不产生任何复制。{@link KeelLog4j2Logger} 直接按引用读取快照写入日志事件，
+ * 不再像 {@code ThreadContext.getContext()} 那样为每条日志事件复制整个映射。
+ * <p>
+ * 通过 {@code META-INF/log4j-provider.properties} 中的 {@code ThreadContextMap} 属性注册；
+ * 也可以通过系统属性 {@code log4j2.threadContextMap} 显式指定本类。
+ *
+ * @since 5.0.3
+ */
+@NullMarked
+public final class KeelThreadContextMap implements CleanableThreadContextMap, ReadOnlyThreadContextMap {
+    private final ThreadLocal<Snapshot> snapshotHolder = ThreadLocal.withInitial(() -> Snapshot.EMPTY);
+
+    /**
+     * 供 Log4j2 通过反射实例化的构造函数。
+     */
+    public KeelThreadContextMap() {
+    }
+
+    /**
+     * 获取当前线程的线程上下文快照。
+     * <p>
+     * 返回值不可变，且在当前线程下一次修改线程上下文之前始终是同一个实例。
+     *
+     * @return 当前线程的快照
+     */
+    public Snapshot snapshot() {
+        return snapshotHolder.get();
+    }
+
+    private void update(Map<String, String> next) {
+        Snapshot current = snapshotHolder.get();
+        if (next.isEmpty()) {
+            if (!current.isEmpty()) {
+                snapshotHolder.set(new Snapshot(Map.of(), current.version + 1));
+            }
+        } else {
+            snapshotHolder.set(new Snapshot(next, current.version + 1));
+        }
+    }
+
+    @Override
+    public void put(String key, String value) {
+        Snapshot current = snapshotHolder.get();
+        if (value != null && value.equals(current.map.get(key))) {
+            return;
+        }
+        Map<String, String> next = new HashMap<>(current.map);
+        next.put(key, value);
+        update(next);
+    }
+
+    @Override
+    public void putAll(Map<String, String> map) {
+        if (map == null || map.isEmpty()) {
+            return;
+        }
+        Map<String, String> next = new HashMap<>(snapshotHolder.get().map);
+        next.putAll(map);
+        update(next);
+    }
+
+    @Override
+    public @Nullable String get(String key) {
+        return snapshotHolder.get().map.get(key);
+    }
+
+    @Override
+    public void remove(String key) {
+        Snapshot current = snapshotHolder.get();
+        if (!current.map.containsKey(key)) {
+            return;
+        }
+        Map<String, String> next = new HashMap<>(current.map);
+        next.remove(key);
+        update(next);
+    }
+
+    @Override
+    public void removeAll(Iterable<String> keys) {
+        Snapshot current = snapshotHolder.get();
+        if (current.isEmpty()) {
+            return;
+        }
+        Map<String, String> next = new HashMap<>(current.map);
+        for (String key : keys) {
+            next.remove(key);
+        }
+        if (next.size() != current.size()) {
+            update(next);
+        }
+    }
+
+    @Override
+    public void clear() {
+        if (!snapshotHolder.get().isEmpty()) {
+            update(Map.of());
+        }
+    }
+
+    @Override
+    public boolean containsKey(String key) {
+        return snapshotHolder.get().map.containsKey(key);
+    }
+
+    @Override
+    public Map<String, String> getCopy() {
+        return new HashMap<>(snapshotHolder.get().map);
+    }
+
+    @Override
+    public @Nullable Map<String, String> getImmutableMapOrNull() {
+        Snapshot current = snapshotHolder.get();
+        return current.isEmpty() ? null : current.map;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return snapshotHolder.get().isEmpty();
+    }
+
+    @Override
+    public StringMap getReadOnlyContextData() {
+        Snapshot current = snapshotHolder.get();
+        SortedArrayStringMap data = new SortedArrayStringMap(current.size());
+        for (int i = 0; i < current.size(); i++) {
+            data.putValue(current.keys[i], current.values[i]);
+        }
+        data.freeze();
+        return data;
+    }
+
+    @Override
+    public String toString() {
+        return snapshotHolder.get().map.toString();
+    }
+
+    /**
+     * 某一线程在某一时刻的线程上下文的不可变快照。
+     * <p>
+     * 除只读映射视图外，还以并行数组保存键值，便于逐项写入日志事件而不创建迭代器；
+     * 版本号在所属线程每次修改线程上下文时递增，可用于判断两条日志事件的上下文是否相同。
+     */
+    public static final class Snapshot {
+        private static final Snapshot EMPTY = new Snapshot(Map.of(), 0);
+
+        private final Map<String, String> map;
+        private final String[] keys;
+        private final String[] values;
+        private final long version;
+
+        private Snapshot(Map<String, String> map, long version) {
+            this.map = map.isEmpty() ? Map.of() : Collections.unmodifiableMap(map);
+            this.version = version;
+            this.keys = new String[map.size()];
+            this.values = new String[map.size()];
+            int i = 0;
+            for (Map.Entry<String, String> entry : map.entrySet()) {
+                keys[i] = entry.getKey();
+                values[i] = entry.getValue();
+                i++;
+            }
+        }
+
+        /**
+         * @return 条目数量
+         */
+        public int size() {
+            return keys.length;
+        }
+
+        /**
+         * @return 是否为空
+         */
+        public boolean isEmpty() {
+            return keys.length == 0;
+        }
+
+        /**
+         * @param index 条目下标，范围为 {@code [0, size())}
+         * @return 指定条目的键
+         */
+        public String key(int index) {
+            return keys[index];
+        }
+
+        /**
+         * @param index 条目下标，范围为 {@code [0, size())}
+         * @return 指定条目的值；可能为 null
+         */
+        public @Nullable String value(int index) {
+            return values[index];
+        }
+
+        /**
+         * @return 快照的版本号
+         */
+        public long version() {
+            return version;
+        }
+
+        /**
+         * @return 快照的只读映射视图
+         */
+        public Map<String, String> asMap() {
+            return map;
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package io.github.sinri.keel.logger.ext.slf4j;
+
+import io.github.sinri.keel.logger.api.LogLevel;
+import io.github.sinri.keel.logger.api.log.Log;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Marker;
+import org.slf4j.spi.CallerBoundaryAware;
+import org.slf4j.spi.LoggingEventBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * {@link KeelSlf4jLogger} 的 SLF4J 2 流式 API 构建器。
+ * <p>
+ * 与 {@link org.slf4j.spi.DefaultLoggingEventBuilder} 不同，本构建器不创建中间的
+ * {@link org.slf4j.event.LoggingEvent}，也不把键值对拼接进消息字符串：
+ * <ul>
+ *     <li>键值对在 {@code addKeyValue} 时直接写入 Keel 日志事件的 {@code context}</li>
+ *     <li>标记转换为 classification（分类）；只有一个标记时直接使用其分类列表，不做复制</li>
+ * </ul>
+ * 只有通过级别检查与采样后才会创建本构建器（见 {@link KeelSlf4jLogger#atLevel(org.slf4j.event.Level)}），
+ * 被过滤或被采样丢弃的事件得到的是 {@link org.slf4j.spi.NOPLoggingEventBuilder}。
+ * 配置了标记阈值时，{@code log} 先按所添加的标记再做一次级别检查，未通过的事件不格式化消息。
+ * <p>
+ * 开启了调用位置记录时，以本类为边界类查找调用方；包装本构建器的门面可通过
+ * {@link CallerBoundaryAware#setCallerBoundary(String)} 指定自己的边界类。
+ * <p>
+ * 与 SLF4J 的约定一致，本构建器不是线程安全的，也不应在 {@code log} 之后复用。
+ *
+ * @since 5.0.3
+ */
+@NullMarked
+final class KeelLoggingEventBuilder implements LoggingEventBuilder, CallerBoundaryAware {
+    private static final String FQCN = KeelLoggingEventBuilder.class.getName();
+
+    private final KeelSlf4jLogger logger;
+    private final LogLevel level;
+    private final Log issue;
+    private @Nullable Marker marker;
+    private @Nullable List<String> mergedClassification;
+    private @Nullable List<@Nullable Object> arguments;
+    private @Nullable String message;
+    private @Nullable Throwable cause;
+    private String callerBoundary = FQCN;
+
+    KeelLoggingEventBuilder(KeelSlf4jLogger logger, LogLevel level) {
+        this.logger = logger;
+        this.level = level;
+        this.issue = logger.createIssueRecordTemplate();
+    }
+
+    @Override
+    public void setCallerBoundary(String fqcn) {
+        this.callerBoundary = fqcn;
+    }
+
+    @Override
+    public LoggingEventBuilder setCause(@Nullable Throwable cause) {
+        this.cause = cause;
+        return this;
+    }
+
+    @Override
+    public LoggingEventBuilder addMarker(@Nullable Marker marker) {
+        if (marker == null) {
+            return this;
+        }
+        if (this.marker == null) {
+            this.marker = marker;
+        } else {
+            if (mergedClassification == null) {
+                mergedClassification = new ArrayList<>(logger.transformMarkerToClassification(this.marker));
+            }
+            mergedClassification.addAll(logger.transformMarkerToClassification(marker));
+        }
+        return this;
+    }
+
+    @Override
+    public LoggingEventBuilder addArgument(@Nullable Object p) {
+        if (arguments == null) {
+            arguments = new ArrayList<>(4);
+        }
+        arguments.add(p);
+        return this;
+    }
+
+    @Override
+    public LoggingEventBuilder addArgument(Supplier<?> objectSupplier) {
+        return addArgument(objectSupplier.get());
+    }
+
+    @Override
+    public LoggingEventBuilder addKeyValue(String key, @Nullable Object value) {
+        if (value != null) {
+            issue.context(key, value);
+        }
+        return this;
+    }
+
+    @Override
+    public LoggingEventBuilder addKeyValue(String key, Supplier<Object> valueSupplier) {
+        return addKeyValue(key, valueSupplier.get());
+    }
+
+    @Override
+    public LoggingEventBuilder setMessage(@Nullable String message) {
+        this.message = message;
+        return this;
+    }
+
+    @Override
+    public LoggingEventBuilder setMessage(Supplier<String> messageSupplier) {
+        this.message = messageSupplier.get();
+        return this;
+    }
+
+    @Override
+    public void log() {
+        List<String> classification = mergedClassification != null
+                ? mergedClassification
+                : logger.transformMarkerToClassification(marker);
+        if (!logger.isEnabled(level, classification)) {
+            return;
+        }
+        String pattern = message == null ? "" : message;
+        if (logger.isStormSuppressed(level, pattern)) {
+            return;
+        }
+        issue.level(level);
+        logger.annotateSampleRate(issue, level);
+        if (!classification.isEmpty()) {
+            issue.classification(classification);
+        }
+        Throwable throwable = cause;
+        if (arguments == null || arguments.isEmpty()) {
+            issue.message(pattern);
+        } else {
+            Object[] argumentArray = arguments.toArray();
+            String formatted = KeelMessageFormatter.arrayFormat(pattern, argumentArray);
+            issue.message(formatted == null ? pattern : formatted);
+            if (throwable == null) {
+                // 未显式设置异常时，与 SLF4J 的约定一致，最后一个 Throwable 参数作为异常
+                throwable = KeelMessageFormatter.trailingThrowable(argumentArray);
+            }
+        }
+        if (throwable != null) {
+            logger.attachException(issue, throwable);
+        }
+        logger.dispatch(issue, level, classification, callerBoundary);
+    }
+
+    @Override
+    public void log(String message) {
+        setMessage(message);
+        log();
+    }
+
+    @Override
+    public void log(String message, @Nullable Object arg) {
+        setMessage(message);
+        addArgument(arg);
+        log();
+    }
+
+    @Override
+    public void log(String message, @Nullable Object arg0, @Nullable Object arg1) {
+        setMessage(message);
+        addArgument(arg0);
+        addArgument(arg1);
+        log();
+    }
+
+    @Override
+    public void log(String message, @Nullable Object... args) {
+        setMessage(message);
+        if (args != null) {
+            for (Object arg : args) {
+                addArgument(arg);
+            }
+        }
+        log();
+    }
+
+    @Override
+    public void log(Supplier<String> messageSupplier) {
+        setMessage(messageSupplier);
+        log();
+    }
+}
@@ -0,0 +1,119 @@
+package io.github.sinri.keel.logger.ext.slf4j;
+
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.helpers.ThreadLocalMapOfStacks;
+import org.slf4j.spi.MDCAdapter;
+
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 在 Keel 日志系统中封装实现的 SLF4J 映射诊断上下文（MDC）适配器。
+ * <p>
+ * 每个线程持有一个写时复制的不可变映射快照：{@code put}/{@code remove} 等修改操作会生成新的快照，
+ * 而读取快照不产生任何复制。多条日志事件在 MDC 未变化期间共享同一个快照实例。
+ * <p>
+ * {@link KeelSlf4jLogger} 只为通过级别检查的日志事件读取快照，并将其中的键值写入 Keel 日志事件的
+ * {@code context}；被过滤的日志事件不会访问 MDC。
+ *
+ * @since 5.0.3
+ */
+@NullMarked
+public final class KeelMDCAdapter implements MDCAdapter {
+    private final ThreadLocal<Map<String, @Nullable String>> snapshotHolder =
+            ThreadLocal.withInitial(Collections::emptyMap);
+    private final ThreadLocalMapOfStacks threadLocalMapOfDeques = new ThreadLocalMapOfStacks();
+
+    /**
+     * 获取当前线程的 MDC 快照。
+     * <p>
+     * 返回的映射不可修改，且在当前线程下一次修改 MDC 之前始终是同一个实例；
+     * 调用方可以安全地持有或跨线程传递。
+     *
+     * @return 当前线程的 MDC 快照；无内容时返回空映射
+     */
+    public Map<String, @Nullable String> snapshot() {
+        return snapshotHolder.get();
+    }
+
+    @Override
+    public void put(String key, @Nullable String val) {
+        if (key == null) {
+            throw new IllegalArgumentException("key cannot be null");
+        }
+        Map<String, @Nullable String> current = snapshotHolder.get();
+        if (current.containsKey(key) && Objects.equals(current.get(key), val)) {
+            return;
+        }
+        Map<String, @Nullable String> next = new HashMap<>(current);
+        next.put(key, val);
+        snapshotHolder.set(Collections.unmodifiableMap(next));
+    }
+
+    @Override
+    public @Nullable String get(String key) {
+        return snapshotHolder.get().get(key);
+    }
+
+    @Override
+    public void remove(String key) {
+        Map<String, @Nullable String> current = snapshotHolder.get();
+        if (!current.containsKey(key)) {
+            return;
+        }
+        if (current.size() == 1) {
+            snapshotHolder.remove();
+            return;
+        }
+        Map<String, @Nullable String> next = new HashMap<>(current);
+        next.remove(key);
+        snapshotHolder.set(Collections.unmodifiableMap(next));
+    }
+
+    @Override
+    public void clear() {
+        snapshotHolder.remove();
+    }
+
+    @Override
+    public @Nullable Map<String, String> getCopyOfContextMap() {
+        Map<String, @Nullable String> current = snapshotHolder.get();
+        if (current.isEmpty()) {
+            return null;
+        }
+        return new HashMap<>(current);
+    }
+
+    @Override
+    public void setContextMap(Map<String, String> contextMap) {
+        if (contextMap == null || contextMap.isEmpty()) {
+            snapshotHolder.remove();
+        } else {
+            snapshotHolder.set(Collections.unmodifiableMap(new HashMap<>(contextMap)));
+        }
+    }
+
+    @Override
+    public void pushByKey(String key, String value) {
+        threadLocalMapOfDeques.pushByKey(key, value);
+    }
+
+    @Override
+    public @Nullable String popByKey(String key) {
+        return threadLocalMapOfDeques.popByKey(key);
+    }
+
+    @Override
+    public @Nullable Deque<String> getCopyOfDequeByKey(String key) {
+        return threadLocalMapOfDeques.getCopyOfDequeByKey(key);
+    }
+
+    @Override
+    public void clearDequeByKey(String key) {
+        threadLocalMapOfDeques.clearDequeByKey(key);
+    }
+}
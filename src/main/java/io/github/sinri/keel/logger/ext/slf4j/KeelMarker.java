@@ -0,0 +1,179 @@
+package io.github.sinri.keel.logger.ext.slf4j;
+
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Marker;
+
+import java.io.Serial;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 缓存了 Keel classification（分类）的 SLF4J 标记实现。
+ * <p>
+ * 行为与 {@link org.slf4j.helpers.BasicMarker} 一致（按名称判等，引用列表写时复制），
+ * 区别在于标记自身持有由「标记名称 + 直接引用的名称」组成的不可变分类列表：
+ * 首次使用时计算，之后的每次记录都直接复用，不再遍历引用、不再创建列表。
+ * <p>
+ * 调用 {@link #add(Marker)} 或 {@link #remove(Marker)} 修改引用时，版本号递增，缓存随之失效。
+ * 缓存保存在标记实例上，随标记一同被回收，动态创建的标记不会造成内存泄漏。
+ *
+ * @since 5.0.3
+ */
+@NullMarked
+final class KeelMarker implements Marker {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private final String name;
+    private final List<Marker> referenceList = new CopyOnWriteArrayList<>();
+    /**
+     * 引用列表的版本号，每次修改引用后递增。
+     */
+    private final AtomicInteger version = new AtomicInteger();
+    private transient volatile @Nullable CachedClassification cachedClassification;
+
+    KeelMarker(String name) {
+        this.name = name;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * 获取本标记对应的 Keel 分类列表。
+     * <p>
+     * 缓存与引用列表的版本号绑定：计算期间若引用被修改，下一次调用会重新计算。
+     *
+     * @return 不可变的分类列表
+     */
+    List<String> classification() {
+        int currentVersion = version.get();
+        CachedClassification cached = cachedClassification;
+        if (cached != null && cached.version() == currentVersion) {
+            return cached.classification();
+        }
+        List<String> classification = new ArrayList<>(1 + referenceList.size());
+        classification.add(name);
+        for (Marker reference : referenceList) {
+            classification.add(reference.getName());
+        }
+        List<String> unmodifiable = Collections.unmodifiableList(classification);
+        cachedClassification = new CachedClassification(currentVersion, unmodifiable);
+        return unmodifiable;
+    }
+
+    @Override
+    public void add(Marker reference) {
+        if (reference == null) {
+            throw new IllegalArgumentException("A null value cannot be added to a Marker as reference.");
+        }
+        // no point in adding the reference multiple times
+        if (this.contains(reference)) {
+            return;
+        } else if (reference.contains(this)) { // avoid recursion
+            // a potential reference should not hold its future "parent" as a reference
+            return;
+        }
+        referenceList.add(reference);
+        version.incrementAndGet();
+    }
+
+    @Override
+    public boolean hasReferences() {
+        return !referenceList.isEmpty();
+    }
+
+    @Deprecated
+    @Override
+    public boolean hasChildren() {
+        return hasReferences();
+    }
+
+    @Override
+    public Iterator<Marker> iterator() {
+        return referenceList.iterator();
+    }
+
+    @Override
+    public boolean remove(Marker referenceToRemove) {
+        boolean removed = referenceList.remove(referenceToRemove);
+        if (removed) {
+            version.incrementAndGet();
+        }
+        return removed;
+    }
+
+    @Override
+    public boolean contains(Marker other) {
+        if (other == null) {
+            throw new IllegalArgumentException("Other cannot be null");
+        }
+        if (this.equals(other)) {
+            return true;
+        }
+        for (Marker ref : referenceList) {
+            if (ref.contains(other)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean contains(String name) {
+        if (name == null) {
+            throw new IllegalArgumentException("Other cannot be null");
+        }
+        if (this.name.equals(name)) {
+            return true;
+        }
+        for (Marker ref : referenceList) {
+            if (ref.contains(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean equals(@Nullable Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof Marker other)) {
+            return false;
+        }
+        return name.equals(other.getName());
+    }
+
+    @Override
+    public int hashCode() {
+        return name.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        if (!this.hasReferences()) {
+            return this.getName();
+        }
+        StringBuilder sb = new StringBuilder(this.getName()).append(" [ ");
+        Iterator<Marker> it = this.iterator();
+        while (it.hasNext()) {
+            sb.append(it.next().getName());
+            if (it.hasNext()) {
+                sb.append(", ");
+            }
+        }
+        return sb.append(" ]").toString();
+    }
+
+    private record CachedClassification(int version, List<String> classification) {
+    }
+}
@@ -0,0 +1,54 @@
+package io.github.sinri.keel.logger.ext.slf4j;
+
+import org.jspecify.annotations.NullMarked;
+import org.slf4j.IMarkerFactory;
+import org.slf4j.Marker;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 创建 {@link KeelMarker} 的标记工厂。
+ * <p>
+ * 行为与 {@link org.slf4j.helpers.BasicMarkerFactory} 一致：同名的已挂载标记只创建一次，
+ * 游离标记（detached marker）每次都新建且不被工厂持有。
+ *
+ * @since 5.0.3
+ */
+@NullMarked
+final class KeelMarkerFactory implements IMarkerFactory {
+    private final ConcurrentMap<String, Marker> markerMap = new ConcurrentHashMap<>();
+
+    @Override
+    public Marker getMarker(String name) {
+        if (name == null) {
+            throw new IllegalArgumentException("Marker name cannot be null");
+        }
+        Marker marker = markerMap.get(name);
+        if (marker == null) {
+            marker = markerMap.computeIfAbsent(name, KeelMarker::new);
+        }
+        return marker;
+    }
+
+    @Override
+    public boolean exists(String name) {
+        if (name == null) {
+            return false;
+        }
+        return markerMap.containsKey(name);
+    }
+
+    @Override
+    public boolean detachMarker(String name) {
+        if (name == null) {
+            return false;
+        }
+        return markerMap.remove(name) != null;
+    }
+
+    @Override
+    public Marker getDetachedMarker(String name) {
+        return new KeelMarker(name);
+    }
+}
@@ -0,0 +1,318 @@
+package io.github.sinri.keel.logger.ext.slf4j;
+
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.helpers.MessageFormatter;
+import org.slf4j.helpers.Util;
+
+/**
+ * 与 {@link MessageFormatter} 结果一致的参数化消息格式化器，热路径上不产生中间对象。
+ * <p>
+ * 与 {@code MessageFormatter.arrayFormat(format, args).getMessage()} 的区别仅在于开销：
+ * <ul>
+ *     <li>模板中 {@code {}} 的位置与转义情况只解析一次，按模板字符串的引用缓存在有界的直接映射表中</li>
+ *     <li>1 个与 2 个参数的调用不创建参数数组，也不创建 {@link org.slf4j.helpers.FormattingTuple}</li>
+ *     <li>格式化写入线程本地复用的 {@link StringBuilder}，最终只分配结果字符串；没有占位符的模板直接返回模板本身</li>
+ * </ul>
+ * 转义规则与 SLF4J 相同：{@code \{}} 输出字面量 {@code {}} 且不消耗参数，{@code \\{}} 输出一个反斜杠并替换参数；
+ * 参数用尽后模板的剩余部分原样输出。最后一个参数为 {@link Throwable} 时不参与替换，
+ * 由调用方通过 {@link #trailingThrowable(Object)} 取出作为日志事件的异常。
+ *
+ * @since 5.0.3
+ */
+@NullMarked
+final class KeelMessageFormatter {
+    /**
+     * 模板缓存的槽位数，须为 2 的幂。
+     */
+    private static final int CACHE_SIZE = 1024;
+    /**
+     * 复用的 {@link StringBuilder} 超过该容量后不再保留，避免个别超长消息长期占用内存。
+     */
+    private static final int MAX_RETAINED_CAPACITY = 4096;
+
+    private static final byte PLAIN = 0;
+    private static final byte ESCAPED = 1;
+    private static final byte DOUBLE_ESCAPED = 2;
+
+    /**
+     * 按 {@link System#identityHashCode(Object)} 直接映射的模板缓存；冲突时后来者覆盖。
+     * 元素是不可变对象，跨线程的竞争写入是良性的。
+     */
+    private static final @Nullable Template[] CACHE = new Template[CACHE_SIZE];
+    private static final ThreadLocal<Buffer> BUFFERS = ThreadLocal.withInitial(Buffer::new);
+
+    private KeelMessageFormatter() {
+    }
+
+    /**
+     * 取出作为异常的最后一个参数。
+     *
+     * @param lastArgument 最后一个参数
+     * @return 最后一个参数为 {@link Throwable} 时返回它，否则返回 null
+     */
+    @Nullable
+    static Throwable trailingThrowable(@Nullable Object lastArgument) {
+        return lastArgument instanceof Throwable throwable ? throwable : null;
+    }
+
+    /**
+     * 取出参数数组中作为异常的最后一个参数。
+     *
+     * @param arguments 参数数组；可为 null
+     * @return 最后一个参数为 {@link Throwable} 时返回它，否则返回 null
+     */
+    @Nullable
+    static Throwable trailingThrowable(@Nullable Object @Nullable [] arguments) {
+        if (arguments == null || arguments.length == 0) {
+            return null;
+        }
+        return trailingThrowable(arguments[arguments.length - 1]);
+    }
+
+    /**
+     * 以 1 个参数格式化消息，等价于 {@code MessageFormatter.format(pattern, argument).getMessage()}。
+     *
+     * @param pattern  消息模板；可为 null
+     * @param argument 参数
+     * @return 格式化后的消息；模板为 null 时返回 null
+     */
+    @Nullable
+    static String format(@Nullable String pattern, @Nullable Object argument) {
+        int count = argument instanceof Throwable ? 0 : 1;
+        return format(pattern, count, argument, null, null);
+    }
+
+    /**
+     * 以 2 个参数格式化消息，等价于 {@code MessageFormatter.format(pattern, argument1, argument2).getMessage()}。
+     *
+     * @param pattern   消息模板；可为 null
+     * @param argument1 第 1 个参数
+     * @param argument2 第 2 个参数
+     * @return 格式化后的消息；模板为 null 时返回 null
+     */
+    @Nullable
+    static String format(@Nullable String pattern, @Nullable Object argument1, @Nullable Object argument2) {
+        int count = argument2 instanceof Throwable ? 1 : 2;
+        return format(pattern, count, argument1, argument2, null);
+    }
+
+    /**
+     * 以参数数组格式化消息，等价于 {@code MessageFormatter.arrayFormat(pattern, arguments).getMessage()}。
+     *
+     * @param pattern   消息模板；可为 null
+     * @param arguments 参数数组；可为 null
+     * @return 格式化后的消息；模板为 null 时返回 null
+     */
+    @Nullable
+    static String arrayFormat(@Nullable String pattern, @Nullable Object @Nullable [] arguments) {
+        if (arguments == null) {
+            return pattern;
+        }
+        int count = trailingThrowable(arguments) != null ? arguments.length - 1 : arguments.length;
+        return format(pattern, count, null, null, arguments);
+    }
+
+    /**
+     * 渲染延迟格式化的消息；参数快照中不含作为异常的参数。
+     *
+     * @param pattern  消息模板
+     * @param snapshot 参数快照
+     * @return 格式化后的消息
+     */
+    static String render(String pattern, @Nullable Object[] snapshot) {
+        String message = format(pattern, snapshot.length, null, null, snapshot);
+        return message == null ? pattern : message;
+    }
+
+    /**
+     * 按 SLF4J 的规则将单个参数渲染为字符串，结果与替换占位符时输出的内容相同。
+     *
+     * @param argument 参数
+     * @return 渲染结果
+     */
+    static String renderArgument(Object argument) {
+        StringBuilder builder = new StringBuilder();
+        appendArgument(builder, argument);
+        return builder.toString();
+    }
+
+    /**
+     * 按 SLF4J 的规则替换占位符。
+     * <p>
+     * {@code arguments} 不为 null 时从中取参数，否则依次使用 {@code argument1}、{@code argument2}。
+     *
+     * @param pattern   消息模板；可为 null
+     * @param count     参与替换的参数个数（已去掉作为异常的最后一个参数）
+     * @param argument1 第 1 个参数
+     * @param argument2 第 2 个参数
+     * @param arguments 参数数组；可为 null
+     * @return 格式化后的消息；模板为 null 时返回 null
+     */
+    @Nullable
+    private static String format(
+            @Nullable String pattern,
+            int count,
+            @Nullable Object argument1,
+            @Nullable Object argument2,
+            @Nullable Object @Nullable [] arguments) {
+        if (pattern == null) {
+            return null;
+        }
+        if (count == 0) {
+            return pattern;
+        }
+        Template template = template(pattern);
+        if (template.offsets.length == 0) {
+            return pattern;
+        }
+
+        Buffer buffer = BUFFERS.get();
+        StringBuilder builder;
+        if (buffer.inUse) {
+            // 参数的 toString() 中再次记录日志时，外层仍在使用复用的缓冲区
+            builder = new StringBuilder(pattern.length() + 50);
+        } else {
+            buffer.inUse = true;
+            builder = buffer.builder;
+            builder.setLength(0);
+        }
+        try {
+            int start = 0;
+            int consumed = 0;
+            for (int k = 0; k < template.offsets.length && consumed < count; k++) {
+                int offset = template.offsets[k];
+                switch (template.kinds[k]) {
+                    case ESCAPED -> {
+                        builder.append(pattern, start, offset - 1).append('{');
+                        start = offset + 1;
+                    }
+                    case DOUBLE_ESCAPED -> {
+                        builder.append(pattern, start, offset - 1);
+                        appendArgument(builder, arguments != null ? arguments[consumed] : consumed == 0 ? argument1 : argument2);
+                        consumed++;
+                        start = offset + 2;
+                    }
+                    default -> {
+                        builder.append(pattern, start, offset);
+                        appendArgument(builder, arguments != null ? arguments[consumed] : consumed == 0 ? argument1 : argument2);
+                        consumed++;
+                        start = offset + 2;
+                    }
+                }
+            }
+            builder.append(pattern, start, pattern.length());
+            return builder.toString();
+        } finally {
+            if (builder == buffer.builder) {
+                if (builder.capacity() > MAX_RETAINED_CAPACITY) {
+                    buffer.builder = new StringBuilder(256);
+                }
+                buffer.inUse = false;
+            }
+        }
+    }
+
+    /**
+     * 按 SLF4J 的规则输出单个参数：null 输出 {@code null}；数组交给 {@link MessageFormatter} 处理以保持完全一致；
+     * {@code toString()} 抛出异常时输出 {@code [FAILED toString()]}。
+     *
+     * @param builder  输出目标
+     * @param argument 参数
+     */
+    private static void appendArgument(StringBuilder builder, @Nullable Object argument) {
+        if (argument == null) {
+            builder.append("null");
+            return;
+        }
+        if (argument.getClass().isArray()) {
+            builder.append(MessageFormatter.format("{}", argument).getMessage());
+            return;
+        }
+        try {
+            builder.append(argument.toString());
+        } catch (Throwable t) {
+            Util.report("SLF4J: Failed toString() invocation on an object of type [" + argument.getClass().getName() + "]", t);
+            builder.append("[FAILED toString()]");
+        }
+    }
+
+    /**
+     * 获取模板的解析结果，未命中缓存时解析并写入缓存。
+     *
+     * @param pattern 消息模板
+     * @return 解析结果
+     */
+    static Template template(String pattern) {
+        int slot = System.identityHashCode(pattern) & (CACHE_SIZE - 1);
+        Template cached = CACHE[slot];
+        if (cached != null && cached.pattern == pattern) {
+            return cached;
+        }
+        Template parsed = Template.parse(pattern);
+        CACHE[slot] = parsed;
+        return parsed;
+    }
+
+    /**
+     * 预先解析的模板：按扫描顺序记录每个 {@code {}} 的位置及其转义情况。
+     * <p>
+     * 扫描方式与 {@link MessageFormatter} 相同（单个转义的占位符之后从 {@code }} 处继续查找），
+     * 格式化时按参数个数截断即可得到与之相同的结果。
+     */
+    static final class Template {
+        private final String pattern;
+        private final int[] offsets;
+        private final byte[] kinds;
+
+        private Template(String pattern, int[] offsets, byte[] kinds) {
+            this.pattern = pattern;
+            this.offsets = offsets;
+            this.kinds = kinds;
+        }
+
+        static Template parse(String pattern) {
+            int count = 0;
+            int start = 0;
+            int offset;
+            while ((offset = pattern.indexOf("{}", start)) >= 0) {
+                count++;
+                start = isEscaped(pattern, offset) && !isDoubleEscaped(pattern, offset) ? offset + 1 : offset + 2;
+            }
+            int[] offsets = new int[count];
+            byte[] kinds = new byte[count];
+            start = 0;
+            for (int k = 0; k < count; k++) {
+                offset = pattern.indexOf("{}", start);
+                offsets[k] = offset;
+                if (!isEscaped(pattern, offset)) {
+                    kinds[k] = PLAIN;
+                    start = offset + 2;
+                } else if (!isDoubleEscaped(pattern, offset)) {
+                    kinds[k] = ESCAPED;
+                    start = offset + 1;
+                } else {
+                    kinds[k] = DOUBLE_ESCAPED;
+                    start = offset + 2;
+                }
+            }
+            return new Template(pattern, offsets, kinds);
+        }
+
+        private static boolean isEscaped(String pattern, int offset) {
+            return offset > 0 && pattern.charAt(offset - 1) == '\\';
+        }
+
+        private static boolean isDoubleEscaped(String pattern, int offset) {
+            return offset >= 2 && pattern.charAt(offset - 2) == '\\';
+        }
+    }
+
+    /**
+     * 单个线程复用的缓冲区及其使用状态。
+     */
+    private static final class Buffer {
+        private StringBuilder builder = new StringBuilder(256);
+        private boolean inUse;
+    }
+}
@@ -5,15 +5,26 @@ import io.github.sinri.keel.logger.api.LogLevel;
 import io.github.sinri.keel.logger.api.adapter.BaseLogWriter;
 import io.github.sinri.keel.logger.api.adapter.LogWriterAdapter;
 import io.github.sinri.keel.logger.api.log.Log;
+import io.github.sinri.keel.logger.ext.KeelAsyncLogWriter;
+import io.github.sinri.keel.logger.ext.KeelAsyncLogWriterOptions;
+import io.github.sinri.keel.logger.ext.KeelLogWriterHolder;
+import io.github.sinri.keel.logger.ext.KeelLoggerConfigWatcher;
+import io.github.sinri.keel.logger.ext.KeelLoggerFeatures;
+import io.github.sinri.keel.logger.ext.KeelLoggerLevels;
+import io.github.sinri.keel.logger.ext.KeelLoggerMetrics;
+import io.github.sinri.keel.logger.ext.KeelLoggingControl;
+import io.github.sinri.keel.logger.ext.KeelMarkerLevels;
 import org.jspecify.annotations.NullMarked;
 import org.jspecify.annotations.Nullable;
 import org.slf4j.ILoggerFactory;
 import org.slf4j.IMarkerFactory;
 import org.slf4j.helpers.BasicMarkerFactory;
-import org.slf4j.helpers.NOPMDCAdapter;
 import org.slf4j.spi.MDCAdapter;
 import org.slf4j.spi.SLF4JServiceProvider;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Map;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 
@@ -22,9 +33,8 @@ import java.util.function.Supplier;
  * 在 Keel 日志系统中封装实现的 SLF4J 日志记录服务提供者。
  * <p>
  *  <ul>
- *      <li>{@link #getMarkerFactory()} 返回 {@link BasicMarkerFactory}，提供基础标记支持</li>
- *      <li>{@link #getMDCAdapter()} 返回 {@link NOPMDCAdapter}，MDC 操作无实际效果</li>
- *      <li>建议使用 Keel 日志系统的 {@code attribute} 和 {@code context} 方法替代 MDC</li>
+ *      <li>{@link #getMarkerFactory()} 返回 {@link KeelMarkerFactory}，标记缓存其对应的 Keel 分类</li>
+ *      <li>{@link #getMDCAdapter()} 返回 {@link KeelMDCAdapter}，MDC 内容会写入 Keel 日志事件的 {@code context}</li>
  *  </ul>
  * <p>
  * 可以使用本类或本类的集成类作为具体的服务提供者，通过 Java SPI 机制自动发现和加载，
@@ -52,8 +62,12 @@ public class KeelSLF4JServiceProvider implements SLF4JServiceProvider {
      * 在 {@link #initialize()} 方法中初始化，负责创建和缓存 {@link KeelSlf4jLogger} 实例。
      */
     private final LateObject<KeelSlf4jLoggerFactory> lateLoggerFactory = new LateObject<>();
-    private final IMarkerFactory markerFactory = new BasicMarkerFactory();
-    private final MDCAdapter mdcAdapter = new NOPMDCAdapter();
+    /**
+     * 缓存写入适配器的持有者，在 {@link #initialize()} 方法中初始化，供运行期切换适配器。
+     */
+    private final LateObject<KeelLogWriterHolder> lateAdapterHolder = new LateObject<>();
+    private final IMarkerFactory markerFactory = new KeelMarkerFactory();
+    private final KeelMDCAdapter mdcAdapter = new KeelMDCAdapter();
 
     /**
      * 获取日志记录器工厂实例。
@@ -70,12 +84,13 @@ public class KeelSLF4JServiceProvider implements SLF4JServiceProvider {
     /**
      * 获取标记工厂实例。
      * <p>
-     * 返回 {@link BasicMarkerFactory}，提供基础的标记创建和管理支持。
+     * 返回 {@link KeelMarkerFactory}，其行为与 {@link BasicMarkerFactory} 一致，
+     * 但创建的标记会缓存转换后的 Keel classification（分类）信息，引用变化时自动失效。
      * <p>
-     * 注意：日志记录器实现仍会在日志方法中接收 {@link org.slf4j.Marker} 参数，
+     * 注意：日志记录器实现仍会在日志方法中接收任意 {@link org.slf4j.Marker} 参数，
      * 并将其转换为 Keel 的 classification（分类）信息。
      *
-     * @return {@link BasicMarkerFactory} 实例
+     * @return {@link KeelMarkerFactory} 实例
      */
     @Override
     public IMarkerFactory getMarkerFactory() {
@@ -85,13 +100,10 @@ public class KeelSLF4JServiceProvider implements SLF4JServiceProvider {
     /**
      * 获取映射诊断上下文 (MDC) 适配器。
      * <p>
-     * 返回 {@link NOPMDCAdapter}，{@link org.slf4j.MDC} 相关操作不会抛出异常，
-     * 但也不会产生实际效果。
-     * <p>
-     * 建议使用 Keel 日志系统的 {@code attribute} 和 {@code context}
-     * 方法来实现类似的上下文追踪功能。
+     * 返回 {@link KeelMDCAdapter}：每个线程持有写时复制的不可变快照，
+     * 通过级别检查的日志事件会将快照中的键值写入 Keel 日志事件的 {@code context}。
      *
-     * @return {@link NOPMDCAdapter} 实例
+     * @return {@link KeelMDCAdapter} 实例
      */
     @Override
     public MDCAdapter getMDCAdapter() {
@@ -118,16 +130,64 @@ public class KeelSLF4JServiceProvider implements SLF4JServiceProvider {
      * 该方法被声明为 {@code final}，确保子类无法修改初始化逻辑。
      * 在初始化过程中，会创建一个新的 {@link KeelSlf4jLoggerFactory} 实例，
      * 该工厂使用通过 {@link #getAdapterSupplier()} 方法获取的适配器提供者，
-     * 以及通过 {@link #getVisibleBaseLevel()} 方法获取的可见基础级别。
+     * 以及由 {@link #getVisibleBaseLevel()}（根级别）、{@link #getLoggerLevels()}（按前缀的级别）
+     * 与 {@link #getMarkerLevels()}（标记阈值）
+     * 组成的可见基础级别配置。
+     * <p>
+     * 适配器提供者只在首次写出时调用一次，结果缓存在 {@link KeelLogWriterHolder} 中，
+     * 运行期可通过 {@link #getAdapterHolder()} 切换适配器。
+     * <p>
+     * 若 {@link #getAsyncOptions()} 提供了配置，则以 {@link KeelAsyncLogWriter} 包装适配器持有者，
+     * 日志事件交由专用线程异步写出。
+     * <p>
+     * 工厂的事件计数（{@link KeelLoggerMetrics}）与运行期级别控制（{@link KeelLoggingControl}）注册为 MBean，系统属性
+     * {@value KeelLoggerMetrics#JMX_PROPERTY} 为 false 时不注册。
+     * <p>
+     * 若 {@link #getLevelConfigFile()} 提供了配置文件，则启动 {@link KeelLoggerConfigWatcher}，
+     * 在文件变化时将新的级别配置（保留运行期的设置）发布到所有已缓存的日志记录器。
      * <p>
      * 初始化完成后，可以通过 {@link #getLoggerFactory()} 方法获取
      * 日志记录器工厂实例。
      */
     @Override
     public final void initialize() {
+        boolean verbose = isVerbose();
+        KeelLoggerLevels levels = new KeelLoggerLevels(getVisibleBaseLevel(), getLoggerLevels(), getMarkerLevels());
+        KeelLogWriterHolder adapterHolder = KeelLogWriterHolder.of(getAdapterSupplier(), verbose);
+        lateAdapterHolder.set(adapterHolder);
         var loggerFactory = new KeelSlf4jLoggerFactory(
-                getAdapterSupplier(), getVisibleBaseLevel(), getLogInitializer(), isVerbose());
+                KeelAsyncLogWriter.wrap(adapterHolder, getAsyncOptions(), verbose),
+                levels,
+                getLogInitializer(),
+                mdcAdapter,
+                getLoggerFeatures(),
+                verbose);
         lateLoggerFactory.set(loggerFactory);
+        if (KeelLoggerMetrics.isJmxEnabled()) {
+            loggerFactory.getMetrics().registerMBean("slf4j", verbose);
+            loggerFactory.getControl().registerMBean("slf4j", verbose);
+        }
+
+        Path levelConfigFile = getLevelConfigFile();
+        if (levelConfigFile != null) {
+            var watcher = new KeelLoggerConfigWatcher(levelConfigFile, levels, loggerFactory.getControl()::applyBase, verbose);
+            try {
+                watcher.start();
+            } catch (IOException e) {
+                System.err.println("Keel Logging for slf4j cannot watch level config [" + levelConfigFile + "]: " + e);
+            }
+        }
+    }
+
+    /**
+     * 获取缓存写入适配器的持有者，用于在运行期切换适配器，见 {@link KeelLogWriterHolder#swap(LogWriterAdapter)}。
+     * <p>
+     * 仅在 {@link #initialize()} 之后可用。
+     *
+     * @return 适配器持有者
+     */
+    public final KeelLogWriterHolder getAdapterHolder() {
+        return lateAdapterHolder.get();
     }
 
     public boolean isVerbose() {
@@ -162,6 +222,70 @@ public class KeelSLF4JServiceProvider implements SLF4JServiceProvider {
         return LogLevel.INFO;
     }
 
+    /**
+     * 提供按日志记录器名称前缀配置的可见基础级别。
+     * <p>
+     * 子类可以重写本方法，为特定前缀（如 {@code io.vertx}、{@code com.ourco.billing}）
+     * 指定不同于 {@link #getVisibleBaseLevel()} 的级别；前缀按 {@code .} 分段完整匹配，取最长匹配前缀。
+     * 默认返回空映射，即所有日志记录器都使用 {@link #getVisibleBaseLevel()}。
+     *
+     * @return 前缀与级别的映射
+     */
+    protected Map<String, LogLevel> getLoggerLevels() {
+        return Map.of();
+    }
+
+    /**
+     * 提供按标记名称配置的级别阈值。
+     * <p>
+     * 子类可以重写本方法，例如让 {@code AUDIT} 标记的事件在日志记录器处于 WARN 时仍然输出（{@code TRACE}），
+     * 或屏蔽 {@code SQL} 标记的事件（{@code OFF}）；标记的引用同样参与匹配，见 {@link KeelMarkerLevels}。
+     * 默认返回空映射。
+     *
+     * @return 标记名称与级别的映射
+     */
+    protected Map<String, LogLevel> getMarkerLevels() {
+        return Map.of();
+    }
+
+    /**
+     * 提供可热更新的日志级别配置文件。
+     * <p>
+     * 文件格式见 {@link KeelLoggerConfigWatcher}；文件内容覆盖在
+     * {@link #getVisibleBaseLevel()} 与 {@link #getLoggerLevels()} 组成的基线配置之上。
+     * 默认读取系统属性 {@value KeelLoggerConfigWatcher#CONFIG_FILE_PROPERTY}；返回 null 表示不启用。
+     *
+     * @return 配置文件路径；可为 null
+     */
+    @Nullable
+    protected Path getLevelConfigFile() {
+        return KeelLoggerConfigWatcher.configuredFile();
+    }
+
+    /**
+     * 提供异步写出的配置。
+     * <p>
+     * 返回非 null 时，日志记录器不再在调用方线程上调用适配器，而是把事件交给 {@link KeelAsyncLogWriter}。
+     * 默认读取系统属性，见 {@link KeelAsyncLogWriterOptions#fromSystemProperties()}；返回 null 表示同步写出。
+     *
+     * @return 异步写出的配置；可为 null
+     */
+    @Nullable
+    protected KeelAsyncLogWriterOptions getAsyncOptions() {
+        return KeelAsyncLogWriterOptions.fromSystemProperties();
+    }
+
+    /**
+     * 提供日志记录器共享的可选功能，如日志风暴抑制。
+     * <p>
+     * 在 {@link #initialize()} 中调用一次。默认读取系统属性，见 {@link KeelLoggerFeatures#fromSystemProperties()}。
+     *
+     * @return 可选功能
+     */
+    protected KeelLoggerFeatures getLoggerFeatures() {
+        return KeelLoggerFeatures.fromSystemProperties();
+    }
+
     @Nullable
     protected Consumer<Log> getLogInitializer() {
         return null;
@@ -3,28 +3,61 @@ package io.github.sinri.keel.logger.ext.slf4j;
 import io.github.sinri.keel.logger.api.LogLevel;
 import io.github.sinri.keel.logger.api.adapter.LogWriterAdapter;
 import io.github.sinri.keel.logger.api.log.Log;
+import io.github.sinri.keel.logger.ext.KeelCallerLocation;
+import io.github.sinri.keel.logger.ext.KeelDeferredFormatting;
+import io.github.sinri.keel.logger.ext.KeelDeferredLog;
+import io.github.sinri.keel.logger.ext.KeelLogPool;
+import io.github.sinri.keel.logger.ext.KeelLogRouter;
+import io.github.sinri.keel.logger.ext.KeelLogSampler;
+import io.github.sinri.keel.logger.ext.KeelLogStormSuppressor;
+import io.github.sinri.keel.logger.ext.KeelLoggerCounters;
+import io.github.sinri.keel.logger.ext.KeelLoggerFeatures;
+import io.github.sinri.keel.logger.ext.KeelMarkerLevels;
+import io.github.sinri.keel.logger.ext.KeelStackTraceDeduplicator;
+import io.github.sinri.keel.logger.ext.KeelSynchronousLogWriter;
 import org.jspecify.annotations.Nullable;
-import org.slf4j.Logger;
 import org.slf4j.Marker;
-import org.slf4j.helpers.MessageFormatter;
+import org.slf4j.event.KeyValuePair;
+import org.slf4j.event.Level;
+import org.slf4j.event.LoggingEvent;
+import org.slf4j.spi.DefaultLoggingEventBuilder;
+import org.slf4j.spi.LocationAwareLogger;
+import org.slf4j.spi.LoggingEventAware;
+import org.slf4j.spi.LoggingEventBuilder;
+import org.slf4j.spi.NOPLoggingEventBuilder;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 
 /**
  * 在 Keel 日志系统中封装实现的 SLF4J 日志记录器。
  * <p>
- * SLF4J 的 {@link Marker} 会被转换为 Keel 的 classification（分类）信息。
+ * SLF4J 的 {@link Marker} 会被转换为 Keel 的 classification（分类）信息；
+ * 若配置了 {@link KeelMDCAdapter}，当前线程的 MDC 会被写入 Keel 的 context（上下文）。
+ * <p>
+ * 原生支持 SLF4J 2 流式 API：{@code atInfo().addKeyValue(...)} 的键值对直接写入 Keel 的 context，
+ * 不会被拼接进消息字符串。
+ * <p>
+ * 实现 {@link LocationAwareLogger}，桥接其他日志门面（如 jcl-over-slf4j、log4j-to-slf4j）时由门面传入边界类；
+ * 开启了调用位置记录（见 {@link KeelCallerLocation}）时据此找到真正的调用方。
  *
  * @since 5.0.0
  */
-final class KeelSlf4jLogger implements Logger {
+final class KeelSlf4jLogger implements LocationAwareLogger, LoggingEventAware {
+    /**
+     * 应用直接调用本日志记录器时，查找调用位置使用的边界类。
+     */
+    static final String FQCN = KeelSlf4jLogger.class.getName();
+    private static final Object[] NO_ARGUMENTS = new Object[0];
+
     /**
      * 用于获取 {@link LogWriterAdapter} 的供应者。
      * <p>
-     * 通过供应者可以实现延迟初始化以及运行期的适配器切换。
+     * 由工厂创建时传入共享的 {@link io.github.sinri.keel.logger.ext.KeelLogWriterHolder}，
+     * 每次写出只读取其缓存的适配器，运行期的适配器切换也通过它完成。
      */
     private final Supplier<LogWriterAdapter> adapterSupplier;
 
@@ -39,12 +72,64 @@ final class KeelSlf4jLogger implements Logger {
      * 对外可见的基础级别（最小处理级别）。
      * <p>
      * 低于该级别的日志事件会被过滤。
+     * 配置热更新时由工厂发布新值；热路径上只做一次无锁的 volatile 读取。
      */
-    private final LogLevel visibleBaseLevel;
+    private volatile LogLevel visibleBaseLevel;
+    /**
+     * 标记阈值；携带配置了阈值的标记的事件以其代替 {@link #visibleBaseLevel}。
+     * <p>
+     * 与可见基础级别一同由工厂发布。
+     */
+    private volatile KeelMarkerLevels markerLevels = KeelMarkerLevels.none();
     private final @Nullable Consumer<Log> logInitializer;
 
     /**
-     * 创建一个 SLF4J 日志记录器实例。
+     * 提供当前线程 MDC 快照的适配器；为 null 时不向日志事件写入 MDC。
+     */
+    private final @Nullable KeelMDCAdapter mdcAdapter;
+
+    /**
+     * 本主题的日志风暴抑制范围；为 null 时不抑制。
+     */
+    private final KeelLogStormSuppressor.@Nullable Scope stormScope;
+
+    /**
+     * 本日志记录器的采样器；为 null 时不采样。
+     */
+    private final @Nullable KeelLogSampler sampler;
+
+    /**
+     * 本日志记录器的路由器；为 null 时所有事件都交给 {@link #adapterSupplier}。
+     */
+    private final @Nullable KeelLogRouter router;
+
+    /**
+     * 是否启用无垃圾模式。
+     */
+    private final boolean garbageFree;
+
+    /**
+     * 延迟格式化的策略。
+     */
+    private final KeelDeferredFormatting deferredFormatting;
+
+    /**
+     * 堆栈去重器；为 null 时照常写入每个异常。
+     */
+    private final @Nullable KeelStackTraceDeduplicator stackTraceDeduplicator;
+
+    /**
+     * 本日志记录器的事件计数。
+     */
+    private final KeelLoggerCounters counters;
+
+    /**
+     * 是否为交给适配器的事件记录调用位置。
+     */
+    private final boolean captureLocation;
+
+    /**
+     * 创建一个不读取 MDC 的 SLF4J 日志记录器实例。
      *
      * @param adapterSupplier  用于获取日志写入适配器的供应者
      * @param visibleBaseLevel 对外可见的基础级别（最小处理级别）
@@ -56,10 +141,80 @@ final class KeelSlf4jLogger implements Logger {
             LogLevel visibleBaseLevel,
             String topic,
             @Nullable Consumer<Log> logInitializer) {
+        this(adapterSupplier, visibleBaseLevel, topic, logInitializer, null);
+    }
+
+    /**
+     * 创建一个 SLF4J 日志记录器实例。
+     *
+     * @param adapterSupplier  用于获取日志写入适配器的供应者
+     * @param visibleBaseLevel 对外可见的基础级别（最小处理级别）
+     * @param topic            日志主题（topic）/名称
+     * @param logInitializer   写入前用于初始化 {@link Log} 的钩子；可为 null
+     * @param mdcAdapter       提供 MDC 快照的适配器；可为 null
+     */
+    KeelSlf4jLogger(
+            Supplier<LogWriterAdapter> adapterSupplier,
+            LogLevel visibleBaseLevel,
+            String topic,
+            @Nullable Consumer<Log> logInitializer,
+            @Nullable KeelMDCAdapter mdcAdapter) {
+        this(adapterSupplier, visibleBaseLevel, topic, logInitializer, mdcAdapter, KeelLoggerFeatures.none());
+    }
+
+    /**
+     * 创建一个启用了可选功能的 SLF4J 日志记录器实例。
+     *
+     * @param adapterSupplier  用于获取日志写入适配器的供应者
+     * @param visibleBaseLevel 对外可见的基础级别（最小处理级别）
+     * @param topic            日志主题（topic）/名称
+     * @param logInitializer   写入前用于初始化 {@link Log} 的钩子；可为 null
+     * @param mdcAdapter       提供 MDC 快照的适配器；可为 null
+     * @param features         可选功能
+     */
+    KeelSlf4jLogger(
+            Supplier<LogWriterAdapter> adapterSupplier,
+            LogLevel visibleBaseLevel,
+            String topic,
+            @Nullable Consumer<Log> logInitializer,
+            @Nullable KeelMDCAdapter mdcAdapter,
+            KeelLoggerFeatures features) {
+        this(adapterSupplier, visibleBaseLevel, topic, logInitializer, mdcAdapter, features, KeelLoggerCounters.detached(topic));
+    }
+
+    /**
+     * 创建一个启用了可选功能、计入指定计数的 SLF4J 日志记录器实例。
+     *
+     * @param adapterSupplier  用于获取日志写入适配器的供应者
+     * @param visibleBaseLevel 对外可见的基础级别（最小处理级别）
+     * @param topic            日志主题（topic）/名称
+     * @param logInitializer   写入前用于初始化 {@link Log} 的钩子；可为 null
+     * @param mdcAdapter       提供 MDC 快照的适配器；可为 null
+     * @param features         可选功能
+     * @param counters         事件计数，通常由工厂的 {@link io.github.sinri.keel.logger.ext.KeelLoggerMetrics} 分配
+     */
+    KeelSlf4jLogger(
+            Supplier<LogWriterAdapter> adapterSupplier,
+            LogLevel visibleBaseLevel,
+            String topic,
+            @Nullable Consumer<Log> logInitializer,
+            @Nullable KeelMDCAdapter mdcAdapter,
+            KeelLoggerFeatures features,
+            KeelLoggerCounters counters) {
         this.adapterSupplier = adapterSupplier;
+        this.counters = counters;
         this.topic = topic;
         this.visibleBaseLevel = visibleBaseLevel;
         this.logInitializer = logInitializer;
+        this.mdcAdapter = mdcAdapter;
+        KeelLogStormSuppressor stormSuppressor = features.stormSuppressor();
+        this.stormScope = stormSuppressor == null ? null : stormSuppressor.scope(topic, this::emitSummary);
+        this.sampler = features.sampling().resolve(topic);
+        this.router = features.routing().resolve(topic, adapterSupplier);
+        this.garbageFree = features.garbageFree();
+        this.deferredFormatting = features.deferredFormatting();
+        this.stackTraceDeduplicator = features.stackTraceDeduplicator();
+        this.captureLocation = features.callerLocation().isEnabledFor(topic);
     }
 
     /**
@@ -72,40 +227,600 @@ final class KeelSlf4jLogger implements Logger {
         return topic;
     }
 
+    /**
+     * @return 本日志记录器的事件计数
+     */
+    KeelLoggerCounters getCounters() {
+        return counters;
+    }
+
     /**
      * 获取对外可见的基础级别（最小处理级别）。
      *
      * @return 对外可见的基础级别
      */
-    private LogLevel getVisibleBaseLevel() {
+    LogLevel getVisibleBaseLevel() {
         return visibleBaseLevel;
     }
 
-    private Log createIssueRecordTemplate() {
-        var x = new Log();
+    /**
+     * 发布新的对外可见的基础级别，之后的级别检查立即生效。
+     *
+     * @param visibleBaseLevel 新的对外可见的基础级别
+     */
+    void setVisibleBaseLevel(LogLevel visibleBaseLevel) {
+        this.visibleBaseLevel = visibleBaseLevel;
+    }
+
+    /**
+     * 发布新的标记阈值，之后的级别检查立即生效。
+     *
+     * @param markerLevels 新的标记阈值
+     */
+    void setMarkerLevels(KeelMarkerLevels markerLevels) {
+        this.markerLevels = markerLevels;
+    }
+
+    /**
+     * 携带标记时的级别检查：标记（或其引用）配置了阈值时以阈值判断，否则以可见基础级别判断。
+     * <p>
+     * 未配置任何标记阈值时与不带标记的检查相同；{@link KeelMarker} 的分类列表已缓存，查找不创建对象。
+     *
+     * @param level  日志级别
+     * @param marker SLF4J 标记；可为 null
+     * @return 是否需要处理该事件
+     */
+    boolean isEnabled(LogLevel level, @Nullable Marker marker) {
+        KeelMarkerLevels thresholds = markerLevels;
+        if (marker != null && !thresholds.isEmpty()) {
+            LogLevel threshold = thresholds.resolve(transformMarkerToClassification(marker));
+            if (threshold != null) {
+                return level.isEnoughSeriousAs(threshold);
+            }
+        }
+        return level.isEnoughSeriousAs(getVisibleBaseLevel());
+    }
+
+    /**
+     * 以标记转换得到的分类列表做级别检查，规则同 {@link #isEnabled(LogLevel, Marker)}。
+     *
+     * @param level          日志级别
+     * @param classification 分类列表；为空时以可见基础级别判断
+     * @return 是否需要处理该事件
+     */
+    boolean isEnabled(LogLevel level, List<String> classification) {
+        LogLevel threshold = markerLevels.resolve(classification);
+        return level.isEnoughSeriousAs(threshold != null ? threshold : getVisibleBaseLevel());
+    }
+
+    /**
+     * 创建日志事件模板：执行初始化钩子并写入当前线程的 MDC。
+     *
+     * @return 新的日志事件
+     */
+    Log createIssueRecordTemplate() {
+        return prepareIssueRecord(new Log());
+    }
+
+    /**
+     * 对新建的日志事件执行初始化钩子并写入当前线程的 MDC。
+     *
+     * @param x 新建的日志事件
+     * @return 传入的日志事件
+     */
+    private Log prepareIssueRecord(Log x) {
         if (this.logInitializer != null) {
             this.logInitializer.accept(x);
         }
+        addMdcToLog(x);
         return x;
     }
 
     /**
-     * 记录一条日志事件（先创建模板，再由处理器补充字段）。
+     * 将当前线程的 MDC 快照写入日志事件的上下文。
+     * <p>
+     * 快照是共享的不可变映射，读取时不产生复制；值为 null 的条目被跳过。
+     *
+     * @param issue 需要补充上下文的日志事件
+     */
+    private void addMdcToLog(Log issue) {
+        if (mdcAdapter == null) {
+            return;
+        }
+        Map<String, @Nullable String> mdc = mdcAdapter.snapshot();
+        if (mdc.isEmpty()) {
+            return;
+        }
+        for (Map.Entry<String, @Nullable String> entry : mdc.entrySet()) {
+            String value = entry.getValue();
+            if (value != null) {
+                issue.context(entry.getKey(), value);
+            }
+        }
+    }
+
+    /**
+     * 判断日志事件是否被采样丢弃或被日志风暴抑制。
+     * <p>
+     * 在格式化消息与创建 {@link Log} 之前调用；未启用采样与抑制时直接返回 false。
+     *
+     * @param level    日志级别
+     * @param template 未格式化的消息模板
+     * @return 被丢弃或抑制时返回 true
+     */
+    private boolean isSuppressed(LogLevel level, @Nullable String template) {
+        if (!isSampled(level)) {
+            return true;
+        }
+        return isStormSuppressed(level, template);
+    }
+
+    /**
+     * 判断日志事件是否被日志风暴抑制（不含采样）。
+     *
+     * @param level    日志级别
+     * @param template 未格式化的消息模板
+     * @return 被抑制时返回 true
+     */
+    boolean isStormSuppressed(LogLevel level, @Nullable String template) {
+        if (stormScope != null && !stormScope.tryAcquire(level, template)) {
+            counters.filtered(level);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 判断日志事件是否被采样保留。用于流式 API：在创建构建器之前决定，被丢弃时不创建 {@link Log}。
+     *
+     * @param level 日志级别
+     * @return 保留时返回 true
+     */
+    private boolean isSampled(LogLevel level) {
+        if (sampler == null || sampler.sample(level)) {
+            return true;
+        }
+        counters.filtered(level);
+        return false;
+    }
+
+    /**
+     * 为被采样保留的日志事件写入保留比例。
+     *
+     * @param issue 日志事件
+     * @param level 日志级别
+     */
+    void annotateSampleRate(Log issue, LogLevel level) {
+        if (sampler != null) {
+            sampler.annotate(issue, level);
+        }
+    }
+
+    /**
+     * 记录一条未参数化的日志事件；消息本身即作为日志风暴抑制的模板。
+     * <p>
+     * 调用方须先完成级别检查；被过滤的日志事件不会进入本方法，
+     * 因而不会创建 {@link Log}、访问适配器供应者或格式化消息。
+     *
+     * @param level     日志级别
+     * @param marker    SLF4J 标记；可为 null
+     * @param message   日志消息
+     * @param throwable 异常；可为 null
+     */
+    private void record(LogLevel level, @Nullable Marker marker, String message, @Nullable Throwable throwable) {
+        if (isSuppressed(level, message)) {
+            return;
+        }
+        emit(level, marker, message, throwable, FQCN);
+    }
+
+    /**
+     * 输出日志风暴抑制的汇总，不再经过采样与抑制检查，也不携带保留比例。
+     *
+     * @param level   被抑制事件的级别
+     * @param message 汇总消息
+     */
+    private void emitSummary(LogLevel level, String message) {
+        Log issue = createIssueRecordTemplate();
+        issue.level(level);
+        issue.message(message);
+        dispatch(issue, level, List.of(), null);
+    }
+
+    /**
+     * 创建并写出一条日志事件（先创建模板，再填充级别、分类、消息与异常）。
      * <p>
      * 适配器内部可能以异步方式处理实际写入。
+     * 无垃圾模式下，可以复用事件时改用当前线程的复用事件（见 {@link #canReuseLog(LogWriterAdapter, LogLevel)}）。
      *
-     * @param issueHandler 用于补充/修改日志事件的处理器
+     * @param level     日志级别
+     * @param marker    SLF4J 标记；可为 null
+     * @param message   日志消息
+     * @param throwable 异常；可为 null
+     * @param fqcn      查找调用位置使用的边界类
      */
-    private void record(Consumer<Log> issueHandler) {
+    private void emit(LogLevel level, @Nullable Marker marker, String message, @Nullable Throwable throwable, String fqcn) {
+        var adapter = adapterFor(level, marker);
+        if (adapter == null) {
+            counters.dropped(level);
+            return;
+        }
+        if (throwable == null && canReuseLog(adapter, level)) {
+            Log pooled = KeelLogPool.acquire(level, message, transformMarkerToClassification(marker));
+            if (pooled != null) {
+                try {
+                    counters.deliver(adapter, getName(), pooled, level);
+                } finally {
+                    KeelLogPool.release();
+                }
+                return;
+            }
+        }
         Log issue = createIssueRecordTemplate();
-        issueHandler.accept(issue);
+        issue.message(message);
+        deliver(adapter, issue, level, marker, throwable, fqcn);
+    }
+
+    /**
+     * 创建并写出一条延迟格式化的日志事件，消息在首次读取时才按 SLF4J 的规则渲染。
+     *
+     * @param level     日志级别
+     * @param marker    SLF4J 标记；可为 null
+     * @param format    消息模板
+     * @param snapshot  参数快照（见 {@link KeelDeferredFormatting}）
+     * @param throwable 异常；可为 null
+     * @param fqcn      查找调用位置使用的边界类
+     */
+    private void emitDeferred(LogLevel level, @Nullable Marker marker, String format, @Nullable Object[] snapshot, @Nullable Throwable throwable, String fqcn) {
+        var adapter = adapterFor(level, marker);
+        if (adapter == null) {
+            counters.dropped(level);
+            return;
+        }
+        Log issue = prepareIssueRecord(new KeelDeferredLog(format, snapshot, KeelMessageFormatter::render));
+        deliver(adapter, issue, level, marker, throwable, fqcn);
+    }
 
-        if (issue.level().isEnoughSeriousAs(getVisibleBaseLevel())) {
-            var adapter = adapterSupplier.get();
-            if (adapter != null) {
-                adapter.accept(getName(), issue);
+    /**
+     * 填充级别、保留比例、分类、异常与调用位置后将日志事件交给适配器。
+     *
+     * @param adapter   日志写入适配器
+     * @param issue     已写入消息的日志事件
+     * @param level     日志级别
+     * @param marker    SLF4J 标记；可为 null
+     * @param throwable 异常；可为 null
+     * @param fqcn      查找调用位置使用的边界类
+     */
+    private void deliver(LogWriterAdapter adapter, Log issue, LogLevel level, @Nullable Marker marker, @Nullable Throwable throwable, String fqcn) {
+        issue.level(level);
+        annotateSampleRate(issue, level);
+        if (marker != null) {
+            issue.classification(transformMarkerToClassification(marker));
+        }
+        if (throwable != null) {
+            attachException(issue, throwable);
+        }
+        if (captureLocation) {
+            KeelCallerLocation.annotate(issue, fqcn);
+        }
+        counters.deliver(adapter, getName(), issue, level);
+    }
+
+    /**
+     * 判断本次事件能否使用复用的日志事件：须启用无垃圾模式、适配器同步消费且不持有事件，
+     * 并且事件不会写入任何上下文（没有初始化钩子、当前线程 MDC 为空、该级别未采样、不记录调用位置）。
+     *
+     * @param adapter 日志写入适配器
+     * @param level   日志级别
+     * @return 可以复用时返回 true
+     */
+    private boolean canReuseLog(LogWriterAdapter adapter, LogLevel level) {
+        return garbageFree
+                && adapter instanceof KeelSynchronousLogWriter
+                && logInitializer == null
+                && !captureLocation
+                && (sampler == null || !sampler.isSampling(level))
+                && (mdcAdapter == null || mdcAdapter.snapshot().isEmpty());
+    }
+
+    /**
+     * 将异常写入日志事件；启用了堆栈去重时，窗口内重复出现的堆栈只写入指纹与出现次数。
+     *
+     * @param issue     日志事件
+     * @param throwable 异常
+     */
+    void attachException(Log issue, Throwable throwable) {
+        if (stackTraceDeduplicator != null) {
+            stackTraceDeduplicator.attach(issue, throwable);
+        } else {
+            issue.exception(throwable);
+        }
+    }
+
+    /**
+     * 选择事件的适配器：配置了路由时按级别与标记选择，否则使用 {@link #adapterSupplier}。
+     *
+     * @param level  日志级别
+     * @param marker SLF4J 标记；可为 null
+     * @return 日志写入适配器；尚不可用时返回 null
+     */
+    @Nullable
+    private LogWriterAdapter adapterFor(LogLevel level, @Nullable Marker marker) {
+        KeelLogRouter currentRouter = router;
+        if (currentRouter == null) {
+            return adapterSupplier.get();
+        }
+        return currentRouter.route(level, transformMarkerToClassification(marker)).get();
+    }
+
+    /**
+     * 将已填充完毕的日志事件交给适配器；配置了路由时按级别与分类选择适配器。
+     *
+     * @param issue          日志事件
+     * @param level          日志级别
+     * @param classification 分类列表；不带标记时为空列表
+     * @param fqcn           查找调用位置使用的边界类；为 null 时不记录调用位置
+     */
+    void dispatch(Log issue, LogLevel level, List<String> classification, @Nullable String fqcn) {
+        var adapter = router == null ? adapterSupplier.get() : router.route(level, classification).get();
+        if (adapter != null) {
+            if (captureLocation && fqcn != null) {
+                KeelCallerLocation.annotate(issue, fqcn);
+            }
+            counters.deliver(adapter, getName(), issue, level);
+        } else {
+            counters.dropped(level);
+        }
+    }
+
+    /**
+     * 以 1 个参数格式化消息后记录一条日志事件。
+     * <p>
+     * 调用方须先完成级别检查；日志风暴抑制以未格式化的模板为键，在格式化之前检查。
+     * 参数为 {@link Throwable} 时按 SLF4J 的约定作为异常记录，不参与替换。
+     *
+     * @param level    日志级别
+     * @param marker   SLF4J 标记；可为 null
+     * @param format   消息模板
+     * @param argument 模板参数
+     */
+    private void recordFormatted(LogLevel level, @Nullable Marker marker, String format, @Nullable Object argument) {
+        if (isSuppressed(level, format)) {
+            return;
+        }
+        Throwable throwable = KeelMessageFormatter.trailingThrowable(argument);
+        if (format != null && deferredFormatting.isEnabled()) {
+            emitDeferred(level, marker, format, throwable != null
+                    ? NO_ARGUMENTS
+                    : new Object[]{deferredFormatting.capture(argument, KeelMessageFormatter::renderArgument)}, throwable, FQCN);
+            return;
+        }
+        String message = KeelMessageFormatter.format(format, argument);
+        emit(level, marker, message == null ? "" : message, throwable, FQCN);
+    }
+
+    /**
+     * 以 2 个参数格式化消息后记录一条日志事件，规则同 {@link #recordFormatted(LogLevel, Marker, String, Object)}。
+     *
+     * @param level     日志级别
+     * @param marker    SLF4J 标记；可为 null
+     * @param format    消息模板
+     * @param argument1 第 1 个模板参数
+     * @param argument2 第 2 个模板参数
+     */
+    private void recordFormatted(LogLevel level, @Nullable Marker marker, String format, @Nullable Object argument1, @Nullable Object argument2) {
+        if (isSuppressed(level, format)) {
+            return;
+        }
+        Throwable throwable = KeelMessageFormatter.trailingThrowable(argument2);
+        if (format != null && deferredFormatting.isEnabled()) {
+            Object captured = deferredFormatting.capture(argument1, KeelMessageFormatter::renderArgument);
+            emitDeferred(level, marker, format, throwable != null
+                    ? new Object[]{captured}
+                    : new Object[]{captured, deferredFormatting.capture(argument2, KeelMessageFormatter::renderArgument)}, throwable, FQCN);
+            return;
+        }
+        String message = KeelMessageFormatter.format(format, argument1, argument2);
+        emit(level, marker, message == null ? "" : message, throwable, FQCN);
+    }
+
+    /**
+     * 以参数数组格式化消息后记录一条日志事件，规则同 {@link #recordFormatted(LogLevel, Marker, String, Object)}。
+     *
+     * @param level     日志级别
+     * @param marker    SLF4J 标记；可为 null
+     * @param format    消息模板
+     * @param arguments 模板参数
+     */
+    private void recordFormatted(LogLevel level, @Nullable Marker marker, String format, @Nullable Object @Nullable [] arguments) {
+        recordFormatted(level, marker, format, arguments, null, FQCN);
+    }
+
+    /**
+     * 以参数数组格式化消息后记录一条日志事件，并以指定的边界类查找调用位置。
+     *
+     * @param level     日志级别
+     * @param marker    SLF4J 标记；可为 null
+     * @param format    消息模板
+     * @param arguments 模板参数；可为 null
+     * @param throwable 显式传入的异常；为 null 时按 SLF4J 的约定以最后一个 {@link Throwable} 参数作为异常
+     * @param fqcn      查找调用位置使用的边界类
+     */
+    private void recordFormatted(
+            LogLevel level,
+            @Nullable Marker marker,
+            @Nullable String format,
+            @Nullable Object @Nullable [] arguments,
+            @Nullable Throwable throwable,
+            String fqcn) {
+        if (isSuppressed(level, format)) {
+            return;
+        }
+        Throwable trailing = KeelMessageFormatter.trailingThrowable(arguments);
+        if (throwable == null) {
+            throwable = trailing;
+        }
+        if (format != null && arguments != null && deferredFormatting.isEnabled()) {
+            int count = trailing != null ? arguments.length - 1 : arguments.length;
+            emitDeferred(level, marker, format, deferredFormatting.snapshot(arguments, count, KeelMessageFormatter::renderArgument), throwable, fqcn);
+            return;
+        }
+        String message = KeelMessageFormatter.arrayFormat(format, arguments);
+        emit(level, marker, message == null ? "" : message, throwable, fqcn);
+    }
+
+    /**
+     * 将 SLF4J 级别转换为 Keel 级别。
+     *
+     * @param level SLF4J 级别
+     * @return 对应的 Keel 级别
+     */
+    private static LogLevel transLevel(Level level) {
+        return switch (level) {
+            case TRACE -> LogLevel.TRACE;
+            case DEBUG -> LogLevel.DEBUG;
+            case INFO -> LogLevel.INFO;
+            case WARN -> LogLevel.WARNING;
+            case ERROR -> LogLevel.ERROR;
+        };
+    }
+
+    /**
+     * 创建原生的流式 API 构建器，键值对直接写入 Keel 日志事件的上下文。
+     *
+     * @param level SLF4J 级别
+     * @return {@link KeelLoggingEventBuilder} 实例
+     */
+    @Override
+    public LoggingEventBuilder makeLoggingEventBuilder(Level level) {
+        return new KeelLoggingEventBuilder(this, transLevel(level));
+    }
+
+    /**
+     * 级别被过滤或事件被采样丢弃时返回 {@link NOPLoggingEventBuilder}，不创建任何对象；否则返回原生构建器。
+     * <p>
+     * 级别低于可见基础级别、但可能因标记阈值而放行时（如 {@code AUDIT=TRACE}）同样返回原生构建器，
+     * 由构建器在 {@code log} 时按所添加的标记做最终的级别检查，未通过时不格式化消息。
+     *
+     * @param level SLF4J 级别
+     * @return 构建器
+     */
+    @Override
+    public LoggingEventBuilder atLevel(Level level) {
+        LogLevel keelLogLevel = transLevel(level);
+        LogLevel mostVerboseMarkerLevel = markerLevels.mostVerbose();
+        boolean mayBeEnabled = keelLogLevel.isEnoughSeriousAs(getVisibleBaseLevel())
+                || (mostVerboseMarkerLevel != null && keelLogLevel.isEnoughSeriousAs(mostVerboseMarkerLevel));
+        if (mayBeEnabled && isSampled(keelLogLevel)) {
+            return makeLoggingEventBuilder(level);
+        }
+        return NOPLoggingEventBuilder.singleton();
+    }
+
+    @Override
+    public LoggingEventBuilder atTrace() {
+        return atLevel(Level.TRACE);
+    }
+
+    @Override
+    public LoggingEventBuilder atDebug() {
+        return atLevel(Level.DEBUG);
+    }
+
+    @Override
+    public LoggingEventBuilder atInfo() {
+        return atLevel(Level.INFO);
+    }
+
+    @Override
+    public LoggingEventBuilder atWarn() {
+        return atLevel(Level.WARN);
+    }
+
+    @Override
+    public LoggingEventBuilder atError() {
+        return atLevel(Level.ERROR);
+    }
+
+    @Override
+    public boolean isEnabledForLevel(Level level) {
+        return transLevel(level).isEnoughSeriousAs(getVisibleBaseLevel());
+    }
+
+    /**
+     * 处理由其他 {@link LoggingEventBuilder}（如 {@link DefaultLoggingEventBuilder}）构建的日志事件。
+     * <p>
+     * 键值对写入 Keel 日志事件的上下文，所有标记合并为 classification（分类），不拼接进消息字符串。
+     * 查找调用位置时以事件的 {@link LoggingEvent#getCallerBoundary()} 为边界类，未设置时以 {@link DefaultLoggingEventBuilder} 为边界类。
+     *
+     * @param event SLF4J 日志事件
+     */
+    @Override
+    public void log(LoggingEvent event) {
+        LogLevel level = transLevel(event.getLevel());
+        List<Marker> markers = event.getMarkers();
+        List<String> classification;
+        if (markers == null || markers.isEmpty()) {
+            classification = List.of();
+        } else if (markers.size() == 1) {
+            classification = transformMarkerToClassification(markers.get(0));
+        } else {
+            classification = new ArrayList<>();
+            for (Marker marker : markers) {
+                classification.addAll(transformMarkerToClassification(marker));
             }
         }
+        if (!isEnabled(level, classification) || isSuppressed(level, event.getMessage())) {
+            return;
+        }
+        Log issue = createIssueRecordTemplate();
+        issue.level(level);
+        annotateSampleRate(issue, level);
+        if (!classification.isEmpty()) {
+            issue.classification(classification);
+        }
+        List<KeyValuePair> keyValuePairs = event.getKeyValuePairs();
+        if (keyValuePairs != null) {
+            for (KeyValuePair keyValuePair : keyValuePairs) {
+                if (keyValuePair.value != null) {
+                    issue.context(keyValuePair.key, keyValuePair.value);
+                }
+            }
+        }
+        Object[] arguments = event.getArgumentArray();
+        String message = KeelMessageFormatter.arrayFormat(event.getMessage(), arguments);
+        issue.message(message == null ? "" : message);
+        Throwable throwable = event.getThrowable();
+        if (throwable == null) {
+            // 未显式设置异常时，与 SLF4J 的约定一致，最后一个 Throwable 参数作为异常
+            throwable = KeelMessageFormatter.trailingThrowable(arguments);
+        }
+        if (throwable != null) {
+            attachException(issue, throwable);
+        }
+        String callerBoundary = event.getCallerBoundary();
+        dispatch(issue, level, classification, callerBoundary != null ? callerBoundary : DefaultLoggingEventBuilder.class.getName());
+    }
+
+    /**
+     * 处理其他日志门面转交的日志事件（{@link LocationAwareLogger}）。
+     * <p>
+     * 级别检查、采样与日志风暴抑制与直接调用时相同；{@code fqcn} 为门面中被应用直接调用的类，
+     * 开启了调用位置记录时据此跳过门面自身的栈帧。
+     *
+     * @param marker   SLF4J 标记；可为 null
+     * @param fqcn     门面的边界类
+     * @param level    {@link LocationAwareLogger} 的整数级别，如 {@link LocationAwareLogger#INFO_INT}
+     * @param message  日志消息或消息模板
+     * @param argArray 模板参数；可为 null
+     * @param t        异常；可为 null
+     */
+    @Override
+    public void log(@Nullable Marker marker, String fqcn, int level, @Nullable String message, @Nullable Object @Nullable [] argArray, @Nullable Throwable t) {
+        LogLevel keelLogLevel = transLevel(Level.intToLevel(level));
+        if (isEnabled(keelLogLevel, marker)) {
+            recordFormatted(keelLogLevel, marker, message, argArray, t, fqcn);
+        }
     }
 
     @Override
@@ -115,94 +830,77 @@ final class KeelSlf4jLogger implements Logger {
 
     @Override
     public void trace(String msg) {
-        record(log -> {
-            log.level(LogLevel.TRACE);
-            log.message(msg);
-        });
+        if (isTraceEnabled()) {
+            record(LogLevel.TRACE, null, msg, null);
+        }
     }
 
     @Override
     public void trace(String format, Object arg) {
-        record(log -> {
-            log.level(LogLevel.TRACE);
-            log.message(MessageFormatter.arrayFormat(format, new Object[]{arg}).getMessage());
-        });
+        if (isTraceEnabled()) {
+            recordFormatted(LogLevel.TRACE, null, format, arg);
+        }
     }
 
     @Override
     public void trace(String format, Object arg1, Object arg2) {
-        record(log -> {
-            log.level(LogLevel.TRACE);
-            log.message(MessageFormatter.arrayFormat(format, new Object[]{arg1, arg2}).getMessage());
-        });
+        if (isTraceEnabled()) {
+            recordFormatted(LogLevel.TRACE, null, format, arg1, arg2);
+        }
     }
 
     @Override
     public void trace(String format, Object... arguments) {
-        record(log -> {
-            log.level(LogLevel.TRACE);
-            log.message(MessageFormatter.arrayFormat(format, arguments).getMessage());
-        });
+        if (isTraceEnabled()) {
+            recordFormatted(LogLevel.TRACE, null, format, arguments);
+        }
     }
 
     @Override
     public void trace(String msg, Throwable t) {
-        record(log -> {
-            log.level(LogLevel.TRACE);
-            log.message(msg);
-            log.exception(t);
-        });
+        if (isTraceEnabled()) {
+            record(LogLevel.TRACE, null, msg, t);
+        }
     }
 
     @Override
     public boolean isTraceEnabled(Marker marker) {
-        return isTraceEnabled();
+        return isEnabled(LogLevel.TRACE, marker);
     }
 
     @Override
     public void trace(Marker marker, String msg) {
-        record(log -> {
-            log.level(LogLevel.TRACE);
-            log.classification(transformMarkerToClassification(marker));
-            log.message(msg);
-        });
+        if (isTraceEnabled(marker)) {
+            record(LogLevel.TRACE, marker, msg, null);
+        }
     }
 
     @Override
     public void trace(Marker marker, String format, Object arg) {
-        record(log -> {
-            log.level(LogLevel.TRACE);
-            log.classification(transformMarkerToClassification(marker));
-            log.message(MessageFormatter.arrayFormat(format, new Object[]{arg}).getMessage());
-        });
+        if (isTraceEnabled(marker)) {
+            recordFormatted(LogLevel.TRACE, marker, format, arg);
+        }
     }
 
     @Override
     public void trace(Marker marker, String format, Object arg1, Object arg2) {
-        record(log -> {
-            log.level(LogLevel.TRACE);
-            log.classification(transformMarkerToClassification(marker));
-            log.message(MessageFormatter.arrayFormat(format, new Object[]{arg1, arg2}).getMessage());
-        });
+        if (isTraceEnabled(marker)) {
+            recordFormatted(LogLevel.TRACE, marker, format, arg1, arg2);
+        }
     }
 
     @Override
     public void trace(Marker marker, String format, Object... argArray) {
-        record(log -> {
-            log.level(LogLevel.TRACE);
-            log.classification(transformMarkerToClassification(marker));
-            log.message(MessageFormatter.arrayFormat(format, argArray).getMessage());
-        });
+        if (isTraceEnabled(marker)) {
+            recordFormatted(LogLevel.TRACE, marker, format, argArray);
+        }
     }
 
     @Override
     public void trace(Marker marker, String msg, Throwable t) {
-        record(log -> {
-            log.level(LogLevel.TRACE);
-            log.classification(transformMarkerToClassification(marker));
-            log.message(msg);
-            log.exception(t);
-        });
+        if (isTraceEnabled(marker)) {
+            record(LogLevel.TRACE, marker, msg, t);
+        }
     }
 
     @Override
@@ -212,113 +910,103 @@ final class KeelSlf4jLogger implements Logger {
 
     @Override
     public void debug(String msg) {
-        record(log -> {
-            log.level(LogLevel.DEBUG);
-            log.message(msg);
-        });
+        if (isDebugEnabled()) {
+            record(LogLevel.DEBUG, null, msg, null);
+        }
     }
 
     @Override
     public void debug(String format, Object arg) {
-        record(log -> {
-            log.level(LogLevel.DEBUG);
-            log.message(MessageFormatter.arrayFormat(format, new Object[]{arg}).getMessage());
-        });
+        if (isDebugEnabled()) {
+            recordFormatted(LogLevel.DEBUG, null, format, arg);
+        }
     }
 
     @Override
     public void debug(String format, Object arg1, Object arg2) {
-        record(log -> {
-            log.level(LogLevel.DEBUG);
-            log.message(MessageFormatter.arrayFormat(format, new Object[]{arg1, arg2}).getMessage());
-        });
+        if (isDebugEnabled()) {
+            recordFormatted(LogLevel.DEBUG, null, format, arg1, arg2);
+        }
     }
 
     @Override
     public void debug(String format, Object... arguments) {
-        record(log -> {
-            log.level(LogLevel.DEBUG);
-            log.message(MessageFormatter.arrayFormat(format, arguments).getMessage());
-        });
+        if (isDebugEnabled()) {
+            recordFormatted(LogLevel.DEBUG, null, format, arguments);
+        }
     }
 
     @Override
     public void debug(String msg, Throwable t) {
-        record(log -> {
-            log.level(LogLevel.DEBUG);
-            log.message(msg);
-            log.exception(t);
-        });
+        if (isDebugEnabled()) {
+            record(LogLevel.DEBUG, null, msg, t);
+        }
     }
 
     @Override
     public boolean isDebugEnabled(Marker marker) {
-        return isDebugEnabled();
+        return isEnabled(LogLevel.DEBUG, marker);
     }
 
     @Override
     public void debug(Marker marker, String msg) {
-        record(log -> {
-            log.level(LogLevel.DEBUG);
-            log.classification(transformMarkerToClassification(marker));
-            log.message(msg);
-        });
+        if (isDebugEnabled(marker)) {
+            record(LogLevel.DEBUG, marker, msg, null);
+        }
     }
 
     @Override
     public void debug(Marker marker, String format, Object arg) {
-        record(log -> {
-            log.level(LogLevel.DEBUG);
-            log.classification(transformMarkerToClassification(marker));
-            log.message(MessageFormatter.arrayFormat(format, new Object[]{arg}).getMessage());
-        });
+        if (isDebugEnabled(marker)) {
+            recordFormatted(LogLevel.DEBUG, marker, format, arg);
+        }
     }
 
     @Override
     public void debug(Marker marker, String format, Object arg1, Object arg2) {
-        record(log -> {
-            log.level(LogLevel.DEBUG);
-            log.classification(transformMarkerToClassification(marker));
-            log.message(MessageFormatter.arrayFormat(format, new Object[]{arg1, arg2}).getMessage());
-        });
+        if (isDebugEnabled(marker)) {
+            recordFormatted(LogLevel.DEBUG, marker, format, arg1, arg2);
+        }
     }
 
     @Override
     public void debug(Marker marker, String format, Object... arguments) {
-        record(log -> {
-            log.level(LogLevel.DEBUG);
-            log.classification(transformMarkerToClassification(marker));
-            log.message(MessageFormatter.arrayFormat(format, arguments).getMessage());
-        });
+        if (isDebugEnabled(marker)) {
+            recordFormatted(LogLevel.DEBUG, marker, format, arguments);
+        }
     }
 
     @Override
     public void debug(Marker marker, String msg, Throwable t) {
-        record(log -> {
-            log.level(LogLevel.DEBUG);
-            log.classification(transformMarkerToClassification(marker));
-            log.message(msg);
-            log.exception(t);
-        });
+        if (isDebugEnabled(marker)) {
+            record(LogLevel.DEBUG, marker, msg, t);
+        }
     }
 
     /**
      * 将 SLF4J {@link Marker} 转换为 Keel 的 classification（分类）列表。
      * <p>
      * 返回值包含标记自身名称以及其引用的所有标记名称；当 marker 为 null 时返回空列表。
+     * <p>
+     * 由 {@link KeelMarkerFactory} 创建的 {@link KeelMarker} 直接返回其缓存的不可变列表，
+     * 不遍历引用、不创建新列表；其他 {@link Marker} 实现无法感知引用变化，每次重新计算。
      *
      * @param marker SLF4J 标记；可为 null
-     * @return classification（分类）列表
+     * @return classification（分类）列表，调用方不应修改
      */
-    private List<String> transformMarkerToClassification(@Nullable Marker marker) {
+    List<String> transformMarkerToClassification(@Nullable Marker marker) {
+        if (marker == null) {
+            return List.of();
+        }
+        if (marker instanceof KeelMarker keelMarker) {
+            return keelMarker.classification();
+        }
         List<String> classification = new ArrayList<>();
-        if (marker != null) {
-            classification.add(marker.getName());
-            if (marker.hasReferences()) {
-                marker.iterator().forEachRemaining(x -> {
-                    classification.add(x.getName());
-                });
-            }
+        classification.add(marker.getName());
+        if (marker.hasReferences()) {
+            marker.iterator().forEachRemaining(x -> {
+                classification.add(x.getName());
+            });
         }
         return classification;
     }
@@ -330,94 +1018,77 @@ final class KeelSlf4jLogger implements Logger {
 
     @Override
     public void info(String msg) {
-        record(log -> {
-            log.level(LogLevel.INFO);
-            log.message(msg);
-        });
+        if (isInfoEnabled()) {
+            record(LogLevel.INFO, null, msg, null);
+        }
     }
 
     @Override
     public void info(String format, Object arg) {
-        record(log -> {
-            log.level(LogLevel.INFO);
-            log.message(MessageFormatter.arrayFormat(format, new Object[]{arg}).getMessage());
-        });
+        if (isInfoEnabled()) {
+            recordFormatted(LogLevel.INFO, null, format, arg);
+        }
     }
 
     @Override
     public void info(String format, Object arg1, Object arg2) {
-        record(log -> {
-            log.level(LogLevel.INFO);
-            log.message(MessageFormatter.arrayFormat(format, new Object[]{arg1, arg2}).getMessage());
-        });
+        if (isInfoEnabled()) {
+            recordFormatted(LogLevel.INFO, null, format, arg1, arg2);
+        }
     }
 
     @Override
     public void info(String format, Object... arguments) {
-        record(log -> {
-            log.level(LogLevel.INFO);
-            log.message(MessageFormatter.arrayFormat(format, arguments).getMessage());
-        });
+        if (isInfoEnabled()) {
+            recordFormatted(LogLevel.INFO, null, format, arguments);
+        }
     }
 
     @Override
     public void info(String msg, Throwable t) {
-        record(log -> {
-            log.level(LogLevel.INFO);
-            log.message(msg);
-            log.exception(t);
-        });
+        if (isInfoEnabled()) {
+            record(LogLevel.INFO, null, msg, t);
+        }
     }
 
     @Override
     public boolean isInfoEnabled(Marker marker) {
-        return isInfoEnabled();
+        return isEnabled(LogLevel.INFO, marker);
     }
 
     @Override
     public void info(Marker marker, String msg) {
-        record(log -> {
-            log.level(LogLevel.INFO);
-            log.classification(transformMarkerToClassification(marker));
-            log.message(msg);
-        });
+        if (isInfoEnabled(marker)) {
+            record(LogLevel.INFO, marker, msg, null);
+        }
     }
 
     @Override
     public void info(Marker marker, String format, Object arg) {
-        record(log -> {
-            log.level(LogLevel.INFO);
-            log.classification(transformMarkerToClassification(marker));
-            log.message(MessageFormatter.arrayFormat(format, new Object[]{arg}).getMessage());
-        });
+        if (isInfoEnabled(marker)) {
+            recordFormatted(LogLevel.INFO, marker, format, arg);
+        }
     }
 
     @Override
     public void info(Marker marker, String format, Object arg1, Object arg2) {
-        record(log -> {
-            log.level(LogLevel.INFO);
-            log.classification(transformMarkerToClassification(marker));
-            log.message(MessageFormatter.arrayFormat(format, new Object[]{arg1, arg2}).getMessage());
-        });
+        if (isInfoEnabled(marker)) {
+            recordFormatted(LogLevel.INFO, marker, format, arg1, arg2);
+        }
     }
 
     @Override
     public void info(Marker marker, String format, Object... arguments) {
-        record(log -> {
-            log.level(LogLevel.INFO);
-            log.classification(transformMarkerToClassification(marker));
-            log.message(MessageFormatter.arrayFormat(format, arguments).getMessage());
-        });
+        if (isInfoEnabled(marker)) {
+            recordFormatted(LogLevel.INFO, marker, format, arguments);
+        }
     }
 
     @Override
     public void info(Marker marker, String msg, Throwable t) {
-        record(log -> {
-            log.level(LogLevel.INFO);
-            log.classification(transformMarkerToClassification(marker));
-            log.message(msg);
-            log.exception(t);
-        });
+        if (isInfoEnabled(marker)) {
+            record(LogLevel.INFO, marker, msg, t);
+        }
     }
 
     @Override
@@ -427,94 +1098,77 @@ final class KeelSlf4jLogger implements Logger {
 
     @Override
     public void warn(String msg) {
-        record(log -> {
-            log.level(LogLevel.WARNING);
-            log.message(msg);
-        });
+        if (isWarnEnabled()) {
+            record(LogLevel.WARNING, null, msg, null);
+        }
     }
 
     @Override
     public void warn(String format, Object arg) {
-        record(log -> {
-            log.level(LogLevel.WARNING);
-            log.message(MessageFormatter.arrayFormat(format, new Object[]{arg}).getMessage());
-        });
+        if (isWarnEnabled()) {
+            recordFormatted(LogLevel.WARNING, null, format, arg);
+        }
     }
 
     @Override
     public void warn(String format, Object... arguments) {
-        record(log -> {
-            log.level(LogLevel.WARNING);
-            log.message(MessageFormatter.arrayFormat(format, arguments).getMessage());
-        });
+        if (isWarnEnabled()) {
+            recordFormatted(LogLevel.WARNING, null, format, arguments);
+        }
     }
 
     @Override
     public void warn(String format, Object arg1, Object arg2) {
-        record(log -> {
-            log.level(LogLevel.WARNING);
-            log.message(MessageFormatter.arrayFormat(format, new Object[]{arg1, arg2}).getMessage());
-        });
+        if (isWarnEnabled()) {
+            recordFormatted(LogLevel.WARNING, null, format, arg1, arg2);
+        }
     }
 
     @Override
     public void warn(String msg, Throwable t) {
-        record(log -> {
-            log.level(LogLevel.WARNING);
-            log.message(msg);
-            log.exception(t);
-        });
+        if (isWarnEnabled()) {
+            record(LogLevel.WARNING, null, msg, t);
+        }
     }
 
     @Override
     public boolean isWarnEnabled(Marker marker) {
-        return isWarnEnabled();
+        return isEnabled(LogLevel.WARNING, marker);
     }
 
     @Override
     public void warn(Marker marker, String msg) {
-        record(log -> {
-            log.level(LogLevel.WARNING);
-            log.classification(transformMarkerToClassification(marker));
-            log.message(msg);
-        });
+        if (isWarnEnabled(marker)) {
+            record(LogLevel.WARNING, marker, msg, null);
+        }
     }
 
     @Override
     public void warn(Marker marker, String format, Object arg) {
-        record(log -> {
-            log.level(LogLevel.WARNING);
-            log.classification(transformMarkerToClassification(marker));
-            log.message(MessageFormatter.arrayFormat(format, new Object[]{arg}).getMessage());
-        });
+        if (isWarnEnabled(marker)) {
+            recordFormatted(LogLevel.WARNING, marker, format, arg);
+        }
     }
 
     @Override
     public void warn(Marker marker, String format, Object arg1, Object arg2) {
-        record(log -> {
-            log.level(LogLevel.WARNING);
-            log.classification(transformMarkerToClassification(marker));
-            log.message(MessageFormatter.arrayFormat(format, new Object[]{arg1, arg2}).getMessage());
-        });
+        if (isWarnEnabled(marker)) {
+            recordFormatted(LogLevel.WARNING, marker, format, arg1, arg2);
+        }
     }
 
     @Override
     public void warn(Marker marker, String format, Object... arguments) {
-        record(log -> {
-            log.level(LogLevel.WARNING);
-            log.classification(transformMarkerToClassification(marker));
-            log.message(MessageFormatter.arrayFormat(format, arguments).getMessage());
-        });
+        if (isWarnEnabled(marker)) {
+            recordFormatted(LogLevel.WARNING, marker, format, arguments);
+        }
     }
 
     @Override
     public void warn(Marker marker, String msg, Throwable t) {
-        record(log -> {
-            log.level(LogLevel.WARNING);
-            log.classification(transformMarkerToClassification(marker));
-            log.message(msg);
-            log.exception(t);
-        });
+        if (isWarnEnabled(marker)) {
+            record(LogLevel.WARNING, marker, msg, t);
+        }
     }
 
     @Override
@@ -524,93 +1178,76 @@ final class KeelSlf4jLogger implements Logger {
 
     @Override
     public void error(String msg) {
-        record(log -> {
-            log.level(LogLevel.ERROR);
-            log.message(msg);
-        });
+        if (isErrorEnabled()) {
+            record(LogLevel.ERROR, null, msg, null);
+        }
     }
 
     @Override
     public void error(String format, Object arg) {
-        record(log -> {
-            log.level(LogLevel.ERROR);
-            log.message(MessageFormatter.arrayFormat(format, new Object[]{arg}).getMessage());
-        });
+        if (isErrorEnabled()) {
+            recordFormatted(LogLevel.ERROR, null, format, arg);
+        }
     }
 
     @Override
     public void error(String format, Object arg1, Object arg2) {
-        record(log -> {
-            log.level(LogLevel.ERROR);
-            log.message(MessageFormatter.arrayFormat(format, new Object[]{arg1, arg2}).getMessage());
-        });
+        if (isErrorEnabled()) {
+            recordFormatted(LogLevel.ERROR, null, format, arg1, arg2);
+        }
     }
 
     @Override
     public void error(String format, Object... arguments) {
-        record(log -> {
-            log.level(LogLevel.ERROR);
-            log.message(MessageFormatter.arrayFormat(format, arguments).getMessage());
-        });
+        if (isErrorEnabled()) {
+            recordFormatted(LogLevel.ERROR, null, format, arguments);
+        }
     }
 
     @Override
     public void error(String msg, Throwable t) {
-        record(log -> {
-            log.level(LogLevel.ERROR);
-            log.message(msg);
-            log.exception(t);
-        });
+        if (isErrorEnabled()) {
+            record(LogLevel.ERROR, null, msg, t);
+        }
     }
 
     @Override
     public boolean isErrorEnabled(Marker marker) {
-        return isErrorEnabled();
+        return isEnabled(LogLevel.ERROR, marker);
     }
 
     @Override
     public void error(Marker marker, String msg) {
-        record(log -> {
-            log.level(LogLevel.ERROR);
-            log.classification(transformMarkerToClassification(marker));
-            log.message(msg);
-        });
+        if (isErrorEnabled(marker)) {
+            record(LogLevel.ERROR, marker, msg, null);
+        }
     }
 
     @Override
     public void error(Marker marker, String format, Object arg) {
-        record(log -> {
-            log.level(LogLevel.ERROR);
-            log.classification(transformMarkerToClassification(marker));
-            log.message(MessageFormatter.arrayFormat(format, new Object[]{arg}).getMessage());
-        });
+        if (isErrorEnabled(marker)) {
+            recordFormatted(LogLevel.ERROR, marker, format, arg);
+        }
     }
 
     @Override
     public void error(Marker marker, String format, Object arg1, Object arg2) {
-        record(log -> {
-            log.level(LogLevel.ERROR);
-            log.classification(transformMarkerToClassification(marker));
-            log.message(MessageFormatter.arrayFormat(format, new Object[]{arg1, arg2}).getMessage());
-        });
+        if (isErrorEnabled(marker)) {
+            recordFormatted(LogLevel.ERROR, marker, format, arg1, arg2);
+        }
     }
 
     @Override
     public void error(Marker marker, String format, Object... arguments) {
-        record(log -> {
-            log.level(LogLevel.ERROR);
-            log.classification(transformMarkerToClassification(marker));
-            log.message(MessageFormatter.arrayFormat(format, arguments).getMessage());
-        });
+        if (isErrorEnabled(marker)) {
+            recordFormatted(LogLevel.ERROR, marker, format, arguments);
+        }
     }
 
     @Override
     public void error(Marker marker, String msg, Throwable t) {
-        record(log -> {
-            log.level(LogLevel.ERROR);
-            log.classification(transformMarkerToClassification(marker));
-            log.message(msg);
-            log.exception(t);
-        });
+        if (isErrorEnabled(marker)) {
+            record(LogLevel.ERROR, marker, msg, t);
+        }
     }
 }
\ No newline at end of file
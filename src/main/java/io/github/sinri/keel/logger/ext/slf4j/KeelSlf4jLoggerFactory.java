@@ -3,11 +3,19 @@ package io.github.sinri.keel.logger.ext.slf4j;
 import io.github.sinri.keel.logger.api.LogLevel;
 import io.github.sinri.keel.logger.api.adapter.LogWriterAdapter;
 import io.github.sinri.keel.logger.api.log.Log;
+import io.github.sinri.keel.logger.ext.KeelLogWriterHolder;
+import io.github.sinri.keel.logger.ext.KeelLoggerFeatures;
+import io.github.sinri.keel.logger.ext.KeelLoggerMetrics;
+import io.github.sinri.keel.logger.ext.KeelLoggerLevels;
+import io.github.sinri.keel.logger.ext.KeelLoggingControl;
+import io.github.sinri.keel.logger.ext.KeelMarkerLevels;
 import org.jspecify.annotations.NullMarked;
 import org.jspecify.annotations.Nullable;
 import org.slf4j.ILoggerFactory;
 import org.slf4j.Logger;
 
+import java.util.Map;
+import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.function.Consumer;
@@ -25,14 +33,26 @@ import java.util.function.Supplier;
 final class KeelSlf4jLoggerFactory implements ILoggerFactory {
 
     /**
-     * 用于获取 {@link LogWriterAdapter} 实例的供应者。
+     * 缓存 {@link LogWriterAdapter} 的持有者。
      * <p>
-     * 通过供应者可以实现延迟初始化以及运行期的后端适配器切换。
-     * 工厂创建的所有日志记录器共享同一个供应者，从而保持一致的输出行为。
+     * 首次使用时通过构造时传入的供应者解析适配器，之后只读取缓存；运行期通过 {@link KeelLogWriterHolder#swap} 切换。
+     * 工厂创建的所有日志记录器共享同一个持有者，从而保持一致的输出行为。
      */
-    private final Supplier<LogWriterAdapter> adapterSupplier;
+    private final KeelLogWriterHolder adapterHolder;
     private final @Nullable Consumer<Log> logInitializer;
-    private final LogLevel visibleBaseLevel;
+
+    /**
+     * 提供 MDC 快照的适配器，由工厂创建的所有日志记录器共享；可为 null。
+     */
+    private final @Nullable KeelMDCAdapter mdcAdapter;
+
+    /**
+     * 按日志记录器名称前缀配置的可见基础级别。
+     * <p>
+     * 每个日志记录器在创建时解析一次自己的有效级别；
+     * 配置更新时由 {@link #applyLevels(KeelLoggerLevels)} 替换并重新发布到所有已缓存的日志记录器。
+     */
+    private volatile KeelLoggerLevels levels;
 
     /**
      * 日志记录器缓存（按名称唯一）。
@@ -40,7 +60,22 @@ final class KeelSlf4jLoggerFactory implements ILoggerFactory {
      * 按 SLF4J 规范要求：对同一个名称，多次获取应返回同一个 Logger 实例。
      * 使用 {@link ConcurrentHashMap#computeIfAbsent} 保证线程安全与实例唯一性。
      */
-    private final ConcurrentMap<String, Logger> loggerCache = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, KeelSlf4jLogger> loggerCache = new ConcurrentHashMap<>();
+
+    /**
+     * 由工厂创建的所有日志记录器共享的可选功能。
+     */
+    private final KeelLoggerFeatures features;
+
+    /**
+     * 由工厂创建的所有日志记录器的事件计数。
+     */
+    private final KeelLoggerMetrics metrics = new KeelLoggerMetrics();
+
+    /**
+     * 运行期调整级别的入口，以构造时的级别配置为基础配置。
+     */
+    private final KeelLoggingControl control;
 
     private final boolean verbose;
 
@@ -51,7 +86,7 @@ final class KeelSlf4jLoggerFactory implements ILoggerFactory {
      * 供应者应返回可用的适配器实例（建议保持配置一致）。
      *
      * @param adapterSupplier  用于获取日志写入适配器实例的供应者；不可为 null，且应返回非 null 的适配器
-     * @param visibleBaseLevel 对外可见的基础级别（最小处理级别）
+     * @param visibleBaseLevel 对外可见的基础级别（最小处理级别），对所有日志记录器生效
      * @param logInitializer   写入前用于初始化 {@link Log} 的钩子；可为 null
      * @param verbose          是否输出调试信息到标准输出
      * @throws NullPointerException 当 adapterSupplier 为 null 时抛出
@@ -61,10 +96,67 @@ final class KeelSlf4jLoggerFactory implements ILoggerFactory {
             LogLevel visibleBaseLevel,
             @Nullable Consumer<Log> logInitializer,
             boolean verbose) {
-        this.adapterSupplier = adapterSupplier;
-        this.visibleBaseLevel = visibleBaseLevel;
+        this(adapterSupplier, new KeelLoggerLevels(visibleBaseLevel), logInitializer, verbose);
+    }
+
+    /**
+     * 创建按日志记录器名称前缀配置级别的日志记录器工厂。
+     *
+     * @param adapterSupplier 用于获取日志写入适配器实例的供应者；不可为 null，且应返回非 null 的适配器
+     * @param levels          按名称前缀配置的可见基础级别
+     * @param logInitializer  写入前用于初始化 {@link Log} 的钩子；可为 null
+     * @param verbose         是否输出调试信息到标准输出
+     */
+    public KeelSlf4jLoggerFactory(
+            Supplier<LogWriterAdapter> adapterSupplier,
+            KeelLoggerLevels levels,
+            @Nullable Consumer<Log> logInitializer,
+            boolean verbose) {
+        this(adapterSupplier, levels, logInitializer, null, verbose);
+    }
+
+    /**
+     * 创建按日志记录器名称前缀配置级别、并将 MDC 写入日志事件的日志记录器工厂。
+     *
+     * @param adapterSupplier 用于获取日志写入适配器实例的供应者；不可为 null，且应返回非 null 的适配器
+     * @param levels          按名称前缀配置的可见基础级别
+     * @param logInitializer  写入前用于初始化 {@link Log} 的钩子；可为 null
+     * @param mdcAdapter      提供 MDC 快照的适配器；为 null 时不写入 MDC
+     * @param verbose         是否输出调试信息到标准输出
+     */
+    public KeelSlf4jLoggerFactory(
+            Supplier<LogWriterAdapter> adapterSupplier,
+            KeelLoggerLevels levels,
+            @Nullable Consumer<Log> logInitializer,
+            @Nullable KeelMDCAdapter mdcAdapter,
+            boolean verbose) {
+        this(adapterSupplier, levels, logInitializer, mdcAdapter, KeelLoggerFeatures.none(), verbose);
+    }
+
+    /**
+     * 创建启用了可选功能的日志记录器工厂。
+     *
+     * @param adapterSupplier 用于获取日志写入适配器实例的供应者；不可为 null，且应返回非 null 的适配器
+     * @param levels          按名称前缀配置的可见基础级别
+     * @param logInitializer  写入前用于初始化 {@link Log} 的钩子；可为 null
+     * @param mdcAdapter      提供 MDC 快照的适配器；为 null 时不写入 MDC
+     * @param features        由工厂创建的所有日志记录器共享的可选功能
+     * @param verbose         是否输出调试信息到标准输出
+     */
+    public KeelSlf4jLoggerFactory(
+            Supplier<LogWriterAdapter> adapterSupplier,
+            KeelLoggerLevels levels,
+            @Nullable Consumer<Log> logInitializer,
+            @Nullable KeelMDCAdapter mdcAdapter,
+            KeelLoggerFeatures features,
+            boolean verbose) {
+        this.adapterHolder = KeelLogWriterHolder.of(adapterSupplier, verbose);
+        this.levels = levels;
         this.logInitializer = logInitializer;
+        this.mdcAdapter = mdcAdapter;
+        this.features = features;
         this.verbose = verbose;
+        this.control = new KeelLoggingControl(levels, this::applyLevels, this::loggerLevels, verbose);
     }
 
     /**
@@ -73,24 +165,91 @@ final class KeelSlf4jLoggerFactory implements ILoggerFactory {
      * 按 SLF4J 约定：对同一个名称，多次调用必须返回同一个 Logger 实例。
      * 若缓存中不存在，则创建新的 {@link KeelSlf4jLogger}，并使用：
      * <ul>
-     *   <li>配置好的适配器供应者</li>
-     *   <li>构造时指定的可见基础级别</li>
+     *   <li>共享的适配器持有者</li>
+     *   <li>按名称最长匹配前缀解析出的可见基础级别</li>
+     *   <li>级别配置中的标记阈值</li>
      *   <li>传入的名称作为日志主题（topic）</li>
      * </ul>
      * <p>
-     * <strong>线程安全：</strong>通过 {@link ConcurrentHashMap#computeIfAbsent} 保证
-     * 同名 Logger 只被创建一次，不会出现竞态问题。
+     * <strong>线程安全：</strong>缓存命中时无锁返回；未命中时在缓存锁内通过
+     * {@link ConcurrentHashMap#computeIfAbsent} 创建，保证同名 Logger 只被创建一次，
+     * 且不会与 {@link #applyLevels(KeelLoggerLevels)} 交错而遗漏新的级别配置。
      *
      * @param name 日志记录器名称；通常使用类名或组件标识
      * @return 对应名称的日志记录器实例（不返回 null）
      */
     @Override
     public Logger getLogger(String name) {
-        return loggerCache.computeIfAbsent(name, n -> {
-            if (verbose) {
-                System.out.println("Keel Logging for slf4j built logger for [" + n + "]");
-            }
-            return new KeelSlf4jLogger(adapterSupplier, visibleBaseLevel, n, logInitializer);
-        });
+        KeelSlf4jLogger existed = loggerCache.get(name);
+        if (existed != null) {
+            return existed;
+        }
+        synchronized (loggerCache) {
+            return loggerCache.computeIfAbsent(name, n -> {
+                LogLevel visibleBaseLevel = levels.resolve(n);
+                if (verbose) {
+                    System.out.println("Keel Logging for slf4j built logger for [" + n + "] at level " + visibleBaseLevel);
+                }
+                var logger = new KeelSlf4jLogger(adapterHolder, visibleBaseLevel, n, logInitializer, mdcAdapter, features, metrics.counters(n));
+                logger.setMarkerLevels(levels.markers());
+                return logger;
+            });
+        }
+    }
+
+    /**
+     * 替换级别配置，并将重新计算的有效级别发布到所有已缓存的日志记录器。
+     * <p>
+     * 与日志记录器的创建互斥，但不阻塞日志记录：日志记录器只对自身的级别字段做 volatile 读取。
+     *
+     * @param newLevels 新的级别配置
+     */
+    void applyLevels(KeelLoggerLevels newLevels) {
+        synchronized (loggerCache) {
+            this.levels = newLevels;
+            KeelMarkerLevels markerLevels = newLevels.markers();
+            loggerCache.forEach((name, logger) -> {
+                logger.setVisibleBaseLevel(newLevels.resolve(name));
+                logger.setMarkerLevels(markerLevels);
+            });
+        }
+        if (verbose) {
+            System.out.println("Keel Logging for slf4j applied levels " + newLevels + " to " + loggerCache.size() + " loggers");
+        }
+    }
+
+    /**
+     * @return 当前生效的级别配置
+     */
+    KeelLoggerLevels getLevels() {
+        return levels;
+    }
+
+    /**
+     * @return 已缓存的日志记录器名称与其当前的可见基础级别
+     */
+    Map<String, LogLevel> loggerLevels() {
+        Map<String, LogLevel> loggerLevels = new TreeMap<>();
+        loggerCache.forEach((name, logger) -> loggerLevels.put(name, logger.getVisibleBaseLevel()));
+        return loggerLevels;
+    }
+
+    /**
+     * 获取运行期调整级别的入口。
+     * <p>
+     * 通过它设置的级别覆盖在基础配置之上；级别配置文件的变化应交给 {@link KeelLoggingControl#applyBase(KeelLoggerLevels)}，
+     * 而不是直接交给 {@link #applyLevels(KeelLoggerLevels)}，以免覆盖运行期的设置。
+     *
+     * @return 级别控制
+     */
+    public KeelLoggingControl getControl() {
+        return control;
+    }
+
+    /**
+     * @return 由工厂创建的所有日志记录器的事件计数
+     */
+    public KeelLoggerMetrics getMetrics() {
+        return metrics;
     }
 }
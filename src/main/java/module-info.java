@@ -1,9 +1,11 @@
 module io.github.sinri.keel.logger.ext {
     requires transitive io.github.sinri.keel.logger.api;
+    requires java.management;
     requires org.apache.logging.log4j;
     requires org.slf4j;
     requires static org.jspecify;
 
+    exports io.github.sinri.keel.logger.ext;
     exports io.github.sinri.keel.logger.ext.slf4j;
     exports io.github.sinri.keel.logger.ext.log4j2;
 
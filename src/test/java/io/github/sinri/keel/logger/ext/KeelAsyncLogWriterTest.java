@@ -0,0 +1,224 @@
+package io.github.sinri.keel.logger.ext;
+
+import io.github.sinri.keel.logger.api.LogLevel;
+import io.github.sinri.keel.logger.api.adapter.BaseLogWriter;
+import io.github.sinri.keel.logger.api.adapter.LogWriterAdapter;
+import io.github.sinri.keel.logger.api.log.Log;
+import io.github.sinri.keel.logger.api.log.SpecificLog;
+import org.jspecify.annotations.NullMarked;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+@NullMarked
+public class KeelAsyncLogWriterTest {
+
+    @Test
+    public void testOrderPerTopicAndDrainOnClose() throws InterruptedException {
+        Map<String, List<String>> received = new ConcurrentHashMap<>();
+        LogWriterAdapter adapter = new BaseLogWriter() {
+            @Override
+            public void accept(String topic, SpecificLog<?> log) {
+                received.computeIfAbsent(topic, t -> Collections.synchronizedList(new ArrayList<>())).add(log.message());
+            }
+        };
+        KeelAsyncLogWriterOptions options = KeelAsyncLogWriterOptions.defaults()
+                                                                     .withBufferSize(64)
+                                                                     .withShards(2)
+                                                                     .withWaitStrategy(KeelAsyncLogWriterOptions.WaitStrategy.YIELD);
+        KeelAsyncLogWriter writer = new KeelAsyncLogWriter(() -> adapter, options, false);
+        writer.start();
+
+        int eventsPerTopic = 1000;
+        List<Thread> producers = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            String topic = "topic-" + t;
+            Thread producer = new Thread(() -> {
+                for (int i = 0; i < eventsPerTopic; i++) {
+                    writer.accept(topic, new Log().level(LogLevel.INFO).message(String.valueOf(i)));
+                }
+            });
+            producers.add(producer);
+            producer.start();
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+        writer.close();
+
+        Assertions.assertEquals(4, received.size());
+        for (List<String> messages : received.values()) {
+            Assertions.assertEquals(eventsPerTopic, messages.size());
+            for (int i = 0; i < eventsPerTopic; i++) {
+                Assertions.assertEquals(String.valueOf(i), messages.get(i));
+            }
+        }
+        Assertions.assertEquals(4L * eventsPerTopic, writer.getWrittenCount());
+        Assertions.assertEquals(0, writer.getDroppedCount());
+    }
+
+    @Test
+    public void testDropPolicies() {
+        List<String> received = new ArrayList<>();
+        LogWriterAdapter adapter = new BaseLogWriter() {
+            @Override
+            public void accept(String topic, SpecificLog<?> log) {
+                received.add(log.message());
+            }
+        };
+
+        // 未启动消费者线程，缓冲区填满后即触发溢出策略
+        KeelAsyncLogWriter dropping = new KeelAsyncLogWriter(
+                () -> adapter,
+                KeelAsyncLogWriterOptions.defaults()
+                                         .withBufferSize(2)
+                                         .withOverflowPolicy(KeelAsyncLogWriterOptions.OverflowPolicy.DROP),
+                false);
+        for (int i = 0; i < 3; i++) {
+            dropping.accept("topic", new Log().level(LogLevel.ERROR).message("drop-" + i));
+        }
+        Assertions.assertEquals(2, dropping.getEnqueuedCount());
+        Assertions.assertEquals(1, dropping.getDroppedCount());
+        dropping.close();
+        Assertions.assertEquals(List.of("drop-0", "drop-1"), received);
+
+        received.clear();
+        KeelAsyncLogWriter droppingBelowLevel = new KeelAsyncLogWriter(
+                () -> adapter,
+                KeelAsyncLogWriterOptions.defaults()
+                                         .withBufferSize(2)
+                                         .withOverflowPolicy(KeelAsyncLogWriterOptions.OverflowPolicy.DROP_BELOW_LEVEL)
+                                         .withDropBelowLevel(LogLevel.WARNING),
+                false);
+        droppingBelowLevel.accept("topic", new Log().level(LogLevel.INFO).message("info-0"));
+        droppingBelowLevel.accept("topic", new Log().level(LogLevel.INFO).message("info-1"));
+        droppingBelowLevel.accept("topic", new Log().level(LogLevel.DEBUG).message("debug"));
+        Assertions.assertEquals(1, droppingBelowLevel.getDroppedCount());
+        droppingBelowLevel.close();
+        Assertions.assertEquals(List.of("info-0", "info-1"), received);
+
+        // 关闭后同步写出
+        droppingBelowLevel.accept("topic", new Log().level(LogLevel.INFO).message("after-close"));
+        Assertions.assertEquals(List.of("info-0", "info-1", "after-close"), received);
+    }
+
+    @Test
+    public void testNoEventLostWhenClosingUnderLoad() throws InterruptedException {
+        for (int round = 0; round < 20; round++) {
+            LongAdder delivered = new LongAdder();
+            LogWriterAdapter adapter = new BaseLogWriter() {
+                @Override
+                public void accept(String topic, SpecificLog<?> log) {
+                    delivered.increment();
+                }
+            };
+            KeelAsyncLogWriter writer = new KeelAsyncLogWriter(
+                    () -> adapter,
+                    KeelAsyncLogWriterOptions.defaults()
+                                             .withBufferSize(64)
+                                             .withShards(2)
+                                             .withWaitStrategy(KeelAsyncLogWriterOptions.WaitStrategy.YIELD)
+                                             .withOverflowPolicy(KeelAsyncLogWriterOptions.OverflowPolicy.DROP),
+                    false);
+            writer.start();
+
+            LongAdder accepted = new LongAdder();
+            AtomicBoolean running = new AtomicBoolean(true);
+            CountDownLatch started = new CountDownLatch(8);
+            List<Thread> producers = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                String topic = "topic-" + t;
+                Thread producer = new Thread(() -> {
+                    started.countDown();
+                    while (running.get()) {
+                        writer.accept(topic, new Log().level(LogLevel.INFO).message("event"));
+                        accepted.increment();
+                    }
+                    // 关闭之后继续写入，覆盖关闭前、关闭中与关闭后到达的事件
+                    for (int i = 0; i < 100; i++) {
+                        writer.accept(topic, new Log().level(LogLevel.INFO).message("late"));
+                        accepted.increment();
+                    }
+                });
+                producers.add(producer);
+                producer.start();
+            }
+            started.await();
+            Thread.sleep(2);
+            writer.close();
+            running.set(false);
+            for (Thread producer : producers) {
+                producer.join();
+            }
+
+            Assertions.assertEquals(0, writer.getPendingCount());
+            Assertions.assertEquals(accepted.sum(), delivered.sum() + writer.getDroppedCount());
+            Assertions.assertEquals(accepted.sum(), writer.getWrittenCount() + writer.getDroppedCount());
+        }
+    }
+
+    @Test
+    public void testDrainTimeoutCountsUnwrittenEvents() throws InterruptedException {
+        LongAdder delivered = new LongAdder();
+        LogWriterAdapter slow = new BaseLogWriter() {
+            @Override
+            public void accept(String topic, SpecificLog<?> log) {
+                try {
+                    Thread.sleep(20);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                delivered.increment();
+            }
+        };
+        KeelAsyncLogWriter writer = new KeelAsyncLogWriter(
+                () -> slow,
+                KeelAsyncLogWriterOptions.defaults()
+                                         .withBufferSize(256)
+                                         .withWaitStrategy(KeelAsyncLogWriterOptions.WaitStrategy.YIELD)
+                                         .withDrainTimeout(Duration.ofMillis(100)),
+                false);
+        writer.start();
+        int accepted = 100;
+        for (int i = 0; i < accepted; i++) {
+            writer.accept("topic", new Log().level(LogLevel.INFO).message("slow"));
+        }
+        writer.close();
+
+        // 超时时正在写出的事件写完后，消费者线程将剩余事件计入丢弃数
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (writer.getWrittenCount() + writer.getDroppedCount() < accepted && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assertions.assertEquals(accepted, writer.getWrittenCount() + writer.getDroppedCount());
+        Assertions.assertEquals(delivered.sum(), writer.getWrittenCount());
+        Assertions.assertTrue(writer.getDroppedCount() > 0);
+        Assertions.assertEquals(0, writer.getPendingCount());
+    }
+
+    @Test
+    public void testMissingDelegateCountedAsDropped() {
+        KeelAsyncLogWriter writer = new KeelAsyncLogWriter(() -> null, KeelAsyncLogWriterOptions.defaults(), false);
+        writer.close();
+        writer.accept("topic", new Log().level(LogLevel.INFO).message("nowhere"));
+        Assertions.assertEquals(0, writer.getWrittenCount());
+        Assertions.assertEquals(1, writer.getDroppedCount());
+    }
+
+    @Test
+    public void testOptionsValidation() {
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> KeelAsyncLogWriterOptions.defaults().withBufferSize(1000));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> KeelAsyncLogWriterOptions.defaults().withShards(0));
+    }
+}
@@ -0,0 +1,107 @@
+package io.github.sinri.keel.logger.ext;
+
+import io.github.sinri.keel.logger.api.LogLevel;
+import io.github.sinri.keel.logger.api.log.Log;
+import org.jspecify.annotations.NullMarked;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+@NullMarked
+public class KeelBatchingLogWriterTest {
+
+    private static Log log(String message) {
+        return new Log().level(LogLevel.INFO).message(message);
+    }
+
+    @Test
+    public void testFlushOnMaxCountPerTopic() {
+        List<String> batches = new ArrayList<>();
+        KeelBatchLogWriter downstream = (topic, logs) -> {
+            StringBuilder sb = new StringBuilder(topic).append(':');
+            logs.forEach(x -> sb.append(x.message()).append(','));
+            batches.add(sb.toString());
+        };
+        try (KeelBatchingLogWriter writer = new KeelBatchingLogWriter(downstream, 2, Long.MAX_VALUE, Duration.ofHours(1))) {
+            writer.accept("a", log("1"));
+            writer.accept("b", log("x"));
+            Assertions.assertEquals(0, batches.size());
+            writer.accept("a", log("2"));
+            Assertions.assertEquals(List.of("a:1,2,"), batches);
+
+            writer.flush();
+            Assertions.assertEquals(List.of("a:1,2,", "b:x,"), batches);
+            Assertions.assertEquals(2, writer.getFlushedBatchCount());
+            Assertions.assertEquals(3, writer.getFlushedEventCount());
+        }
+    }
+
+    @Test
+    public void testFlushOnMaxBytes() {
+        List<Integer> sizes = new ArrayList<>();
+        try (KeelBatchingLogWriter writer = new KeelBatchingLogWriter(
+                (topic, logs) -> sizes.add(logs.size()), 100, 20, Duration.ofHours(1))) {
+            writer.accept("a", log("12345"));
+            Assertions.assertEquals(List.of(), sizes);
+            writer.accept("a", log("12345"));
+            Assertions.assertEquals(List.of(2), sizes);
+        }
+    }
+
+    @Test
+    public void testFlushOnMaxLinger() throws InterruptedException {
+        List<Integer> sizes = new CopyOnWriteArrayList<>();
+        try (KeelBatchingLogWriter writer = new KeelBatchingLogWriter(
+                (topic, logs) -> sizes.add(logs.size()), 100, Long.MAX_VALUE, Duration.ofMillis(20))) {
+            writer.accept("a", log("1"));
+            long deadline = System.currentTimeMillis() + 2000;
+            while (sizes.isEmpty() && System.currentTimeMillis() < deadline) {
+                Thread.sleep(5);
+            }
+            Assertions.assertEquals(List.of(1), sizes);
+        }
+    }
+
+    @Test
+    public void testCloseDeliversBufferedAndLateEvents() {
+        List<String> batches = new ArrayList<>();
+        KeelBatchingLogWriter writer = new KeelBatchingLogWriter((topic, logs) -> {
+            StringBuilder sb = new StringBuilder(topic).append(':');
+            logs.forEach(x -> sb.append(x.message()).append(','));
+            batches.add(sb.toString());
+        }, 100, Long.MAX_VALUE, Duration.ofHours(1), false);
+        writer.accept("a", log("1"));
+        writer.accept("a", log("2"));
+        writer.accept("b", log("x"));
+        Assertions.assertTrue(batches.isEmpty());
+
+        writer.close();
+        Assertions.assertTrue(writer.isClosed());
+        Assertions.assertEquals(2, batches.size());
+        Assertions.assertTrue(batches.containsAll(List.of("a:1,2,", "b:x,")));
+
+        // 关闭之后到达的事件（如异步交接退出时写出的剩余事件）逐条直接交付
+        writer.accept("a", log("late"));
+        Assertions.assertEquals("a:late,", batches.get(2));
+        Assertions.assertEquals(4, writer.getFlushedEventCount());
+
+        // 重复关闭无副作用
+        writer.close();
+        Assertions.assertEquals(3, batches.size());
+    }
+
+    @Test
+    public void testCloseFlushesAndFailuresAreCounted() {
+        KeelBatchingLogWriter writer = new KeelBatchingLogWriter((topic, logs) -> {
+            throw new IllegalStateException("sink down");
+        }, 100, Long.MAX_VALUE, Duration.ofHours(1));
+        writer.accept("a", log("1"));
+        writer.close();
+        Assertions.assertEquals(1, writer.getFailedBatchCount());
+        Assertions.assertEquals(0, writer.getFlushedEventCount());
+    }
+}
@@ -0,0 +1,69 @@
+package io.github.sinri.keel.logger.ext;
+
+import io.github.sinri.keel.logger.api.log.Log;
+import org.jspecify.annotations.NullMarked;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+@NullMarked
+public class KeelCallerLocationTest {
+
+    /**
+     * 模拟日志门面：应用调用本类，本类再经过若干层内部调用到达查找调用位置的代码。
+     */
+    private static final class Facade {
+        static void log(Log log) {
+            inner(log);
+        }
+
+        private static void inner(Log log) {
+            KeelCallerLocation.annotate(log, Facade.class.getName());
+        }
+
+        static StackWalker.StackFrame locate() {
+            StackWalker.StackFrame frame = KeelCallerLocation.locate(Facade.class.getName());
+            Assertions.assertNotNull(frame);
+            return frame;
+        }
+    }
+
+    @Test
+    public void testPrefixResolution() {
+        KeelCallerLocation location = KeelCallerLocation.parse("com.ourco, -com.ourco.hotpath, io.vertx.core");
+        Assertions.assertTrue(location.isEnabledFor("com.ourco.billing.Invoice"));
+        Assertions.assertFalse(location.isEnabledFor("com.ourco.hotpath.Loop"));
+        Assertions.assertTrue(location.isEnabledFor("io.vertx.core.Vertx"));
+        Assertions.assertFalse(location.isEnabledFor("io.vertx.web.Router"));
+        Assertions.assertFalse(location.isEnabledFor("com.ourcox.Other"));
+
+        Assertions.assertTrue(KeelCallerLocation.parse("*").isEnabledFor("anything"));
+        Assertions.assertTrue(KeelCallerLocation.none().isEmpty());
+        Assertions.assertFalse(KeelCallerLocation.none().isEnabledFor("anything"));
+        Assertions.assertEquals(KeelCallerLocation.none().with("com.ourco", true), KeelCallerLocation.parse(" com.ourco ,"));
+    }
+
+    @Test
+    public void testLocateSkipsToCallerOfBoundary() {
+        StackWalker.StackFrame frame = Facade.locate();
+        Assertions.assertEquals(KeelCallerLocationTest.class.getName(), frame.getClassName());
+        Assertions.assertEquals("testLocateSkipsToCallerOfBoundary", frame.getMethodName());
+
+        Assertions.assertNull(KeelCallerLocation.locate("com.example.NotOnTheStack"));
+    }
+
+    @Test
+    public void testAnnotate() {
+        RecordingLog log = new RecordingLog();
+        int line = new Throwable().getStackTrace()[0].getLineNumber() + 1;
+        Facade.log(log);
+
+        Assertions.assertEquals(KeelCallerLocationTest.class.getName(), log.recorded(KeelCallerLocation.CALLER_CLASS_CONTEXT_KEY));
+        Assertions.assertEquals("testAnnotate", log.recorded(KeelCallerLocation.CALLER_METHOD_CONTEXT_KEY));
+        Assertions.assertEquals("KeelCallerLocationTest.java", log.recorded(KeelCallerLocation.CALLER_FILE_CONTEXT_KEY));
+        Assertions.assertEquals(line, log.recorded(KeelCallerLocation.CALLER_LINE_CONTEXT_KEY));
+
+        RecordingLog untouched = new RecordingLog();
+        KeelCallerLocation.annotate(untouched, "com.example.NotOnTheStack");
+        Assertions.assertTrue(untouched.isContextEmpty());
+    }
+}
@@ -0,0 +1,67 @@
+package io.github.sinri.keel.logger.ext;
+
+import io.github.sinri.keel.logger.api.LogLevel;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@NullMarked
+public class KeelDeferredFormattingTest {
+
+    private record Money(long cents) {
+    }
+
+    @Test
+    public void testSnapshotKeepsOnlyImmutableArguments() {
+        KeelDeferredFormatting formatting = KeelDeferredFormatting.enabled().withImmutableType(Money.class);
+        List<String> mutable = new ArrayList<>(List.of("a"));
+        Instant now = Instant.now();
+        Money money = new Money(100);
+        @Nullable Object[] arguments = {"text", 42, BigDecimal.ONE, now, LogLevel.INFO, money, null, mutable, "ignored"};
+
+        @Nullable Object[] snapshot = formatting.snapshot(arguments, arguments.length - 1, String::valueOf);
+        mutable.add("b");
+
+        Assertions.assertEquals(8, snapshot.length);
+        Assertions.assertSame(arguments[0], snapshot[0]);
+        Assertions.assertSame(arguments[1], snapshot[1]);
+        Assertions.assertSame(now, snapshot[3]);
+        Assertions.assertSame(LogLevel.INFO, snapshot[4]);
+        Assertions.assertSame(money, snapshot[5]);
+        Assertions.assertNull(snapshot[6]);
+        Assertions.assertEquals("[a]", snapshot[7]);
+
+        Assertions.assertFalse(KeelDeferredFormatting.enabled().isImmutable(money));
+        Assertions.assertFalse(KeelDeferredFormatting.none().isEnabled());
+    }
+
+    @Test
+    public void testDeferredLogRendersOnceOnFirstRead() {
+        AtomicInteger renders = new AtomicInteger();
+        KeelDeferredLog log = new KeelDeferredLog("user {}", new Object[]{"alice"}, (template, arguments) -> {
+            renders.incrementAndGet();
+            return template.replace("{}", String.valueOf(arguments[0]));
+        });
+
+        Assertions.assertFalse(log.isRendered());
+        Assertions.assertEquals("user {}", log.template());
+        Assertions.assertEquals(Arrays.asList("alice"), log.arguments());
+        Assertions.assertEquals(0, renders.get());
+
+        Assertions.assertEquals("user alice", log.message());
+        Assertions.assertEquals("user alice", log.message());
+        Assertions.assertEquals(1, renders.get());
+
+        log.message("replaced");
+        Assertions.assertEquals("replaced", log.message());
+        Assertions.assertEquals(1, renders.get());
+    }
+}
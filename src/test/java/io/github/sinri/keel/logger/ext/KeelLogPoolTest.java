@@ -0,0 +1,56 @@
+package io.github.sinri.keel.logger.ext;
+
+import io.github.sinri.keel.logger.api.LogLevel;
+import io.github.sinri.keel.logger.api.log.Log;
+import org.jspecify.annotations.NullMarked;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+@NullMarked
+public class KeelLogPoolTest {
+
+    @Test
+    public void testAcquireOverwritesAllFields() {
+        Log first = KeelLogPool.acquire(LogLevel.WARNING, "first", List.of("a", "b"));
+        Assertions.assertNotNull(first);
+        KeelLogPool.release();
+
+        Log second = KeelLogPool.acquire(LogLevel.INFO, "second", List.of());
+        Assertions.assertNotNull(second);
+        try {
+            Assertions.assertSame(first, second);
+            Assertions.assertEquals(LogLevel.INFO, second.level());
+            Assertions.assertEquals("second", second.message());
+            Assertions.assertEquals(List.of(), second.classification());
+        } finally {
+            KeelLogPool.release();
+        }
+    }
+
+    @Test
+    public void testReentrantAcquireReturnsNull() throws Exception {
+        Log outer = KeelLogPool.acquire(LogLevel.INFO, "outer", List.of());
+        Assertions.assertNotNull(outer);
+        try {
+            Assertions.assertNull(KeelLogPool.acquire(LogLevel.INFO, "inner", List.of()));
+            Assertions.assertEquals("outer", outer.message());
+
+            // 其他线程有各自的复用事件
+            Log[] other = new Log[1];
+            Thread thread = new Thread(() -> {
+                other[0] = KeelLogPool.acquire(LogLevel.INFO, "other", List.of());
+                KeelLogPool.release();
+            });
+            thread.start();
+            thread.join();
+            Assertions.assertNotNull(other[0]);
+            Assertions.assertNotSame(outer, other[0]);
+        } finally {
+            KeelLogPool.release();
+        }
+        Assertions.assertNotNull(KeelLogPool.acquire(LogLevel.INFO, "again", List.of()));
+        KeelLogPool.release();
+    }
+}
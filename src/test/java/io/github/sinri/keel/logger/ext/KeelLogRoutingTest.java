@@ -0,0 +1,93 @@
+package io.github.sinri.keel.logger.ext;
+
+import io.github.sinri.keel.logger.api.LogLevel;
+import io.github.sinri.keel.logger.api.adapter.BaseLogWriter;
+import io.github.sinri.keel.logger.api.adapter.LogWriterAdapter;
+import io.github.sinri.keel.logger.api.log.SpecificLog;
+import org.jspecify.annotations.NullMarked;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+@NullMarked
+public class KeelLogRoutingTest {
+
+    private static LogWriterAdapter sink() {
+        return new BaseLogWriter() {
+            @Override
+            public void accept(String topic, SpecificLog<?> log) {
+            }
+        };
+    }
+
+    @Test
+    public void testRoutesByPrefixLevelAndMarker() {
+        LogWriterAdapter main = sink();
+        LogWriterAdapter local = sink();
+        LogWriterAdapter durable = sink();
+        Supplier<LogWriterAdapter> mainSupplier = () -> main;
+        KeelLogRouting routing = KeelLogRouting.none()
+                                               .withRoute("", LogLevel.TRACE, "AUDIT", () -> durable)
+                                               .withRoute("io.netty", LogLevel.WARNING, null, () -> local);
+
+        KeelLogRouter netty = routing.resolve("io.netty.channel.Channel", mainSupplier);
+        Assertions.assertNotNull(netty);
+        Assertions.assertSame(local, netty.route(LogLevel.WARNING, List.of()).get());
+        Assertions.assertSame(local, netty.route(LogLevel.ERROR, List.of()).get());
+        Assertions.assertSame(main, netty.route(LogLevel.INFO, List.of()).get());
+        Assertions.assertSame(durable, netty.route(LogLevel.DEBUG, List.of("AUDIT")).get());
+        Assertions.assertSame(durable, netty.route(LogLevel.DEBUG, List.of("LOGIN", "AUDIT")).get());
+        Assertions.assertSame(local, netty.route(LogLevel.ERROR, List.of("SQL")).get());
+
+        KeelLogRouter other = routing.resolve("io.nettyx.Other", mainSupplier);
+        Assertions.assertNotNull(other);
+        Assertions.assertSame(main, other.route(LogLevel.ERROR, List.of()).get());
+        Assertions.assertSame(durable, other.route(LogLevel.INFO, List.of("AUDIT")).get());
+    }
+
+    @Test
+    public void testFirstMatchingRouteWins() {
+        LogWriterAdapter first = sink();
+        LogWriterAdapter second = sink();
+        KeelLogRouting routing = KeelLogRouting.none()
+                                               .withRoute("com.example", LogLevel.ERROR, null, () -> first)
+                                               .withRoute("com.example.chatty", LogLevel.TRACE, null, () -> second);
+        KeelLogRouter router = routing.resolve("com.example.chatty.Worker", KeelLogRoutingTest::sink);
+        Assertions.assertNotNull(router);
+        Assertions.assertSame(first, router.route(LogLevel.FATAL, List.of()).get());
+        Assertions.assertSame(second, router.route(LogLevel.INFO, List.of()).get());
+    }
+
+    @Test
+    public void testResolveWithoutApplicableRoutes() {
+        Assertions.assertTrue(KeelLogRouting.none().isEmpty());
+        Assertions.assertNull(KeelLogRouting.none().resolve("any", KeelLogRoutingTest::sink));
+        KeelLogRouting routing = KeelLogRouting.none().withRoute("io.netty", LogLevel.WARNING, null, KeelLogRoutingTest::sink);
+        Assertions.assertFalse(routing.isEmpty());
+        Assertions.assertNull(routing.resolve("com.example.Service", KeelLogRoutingTest::sink));
+    }
+
+    @Test
+    public void testTargetResolvedOnceAndShared() {
+        AtomicInteger calls = new AtomicInteger();
+        LogWriterAdapter durable = sink();
+        KeelLogRouting routing = KeelLogRouting.none().withRoute("", LogLevel.TRACE, "AUDIT", () -> {
+            calls.incrementAndGet();
+            return durable;
+        });
+        KeelLogRouter a = routing.resolve("a", KeelLogRoutingTest::sink);
+        KeelLogRouter b = routing.resolve("b", KeelLogRoutingTest::sink);
+        Assertions.assertNotNull(a);
+        Assertions.assertNotNull(b);
+        Assertions.assertEquals(0, calls.get());
+        for (int i = 0; i < 10; i++) {
+            Assertions.assertSame(durable, a.route(LogLevel.INFO, List.of("AUDIT")).get());
+            Assertions.assertSame(durable, b.route(LogLevel.INFO, List.of("AUDIT")).get());
+        }
+        Assertions.assertEquals(1, calls.get());
+        Assertions.assertSame(a.route(LogLevel.INFO, List.of("AUDIT")), a.route(LogLevel.INFO, List.of("AUDIT")));
+    }
+}
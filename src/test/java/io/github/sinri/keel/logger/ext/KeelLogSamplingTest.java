@@ -0,0 +1,77 @@
+package io.github.sinri.keel.logger.ext;
+
+import io.github.sinri.keel.logger.api.LogLevel;
+import org.jspecify.annotations.NullMarked;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+@NullMarked
+public class KeelLogSamplingTest {
+
+    @Test
+    public void testResolveLongestPrefixPerLevel() {
+        KeelLogSampling sampling = KeelLogSampling.parse(
+                "DEBUG=0.01, com.ourco.chatty:INFO=1/10, com.ourco.chatty.important:INFO=1");
+
+        Assertions.assertNull(KeelLogSampling.none().resolve("com.ourco.chatty.Foo"));
+
+        KeelLogSampler chatty = sampling.resolve("com.ourco.chatty.Foo");
+        Assertions.assertNotNull(chatty);
+        Assertions.assertTrue(chatty.sample(LogLevel.WARNING));
+
+        // 保留比例为 1 的规则覆盖较短前缀的规则，该日志记录器的 INFO 不再采样
+        KeelLogSampler important = sampling.resolve("com.ourco.chatty.important.Bar");
+        Assertions.assertNotNull(important);
+        for (int i = 0; i < 100; i++) {
+            Assertions.assertTrue(important.sample(LogLevel.INFO));
+        }
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> KeelLogSampling.parse("INFO"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> KeelLogSampling.parse("INFO=0"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> KeelLogSampling.parse("INFO=1/0"));
+    }
+
+    @Test
+    public void testOneInNIsDeterministicPerThread() {
+        KeelLogSampler sampler = KeelLogSampling.none().withOneIn("", LogLevel.INFO, 10).resolve("any");
+        Assertions.assertNotNull(sampler);
+        int kept = 0;
+        for (int i = 0; i < 1000; i++) {
+            if (sampler.sample(LogLevel.INFO)) {
+                kept++;
+            }
+        }
+        Assertions.assertEquals(100, kept);
+    }
+
+    @Test
+    public void testAnnotateWritesRateOnlyForSampledLevels() {
+        KeelLogSampler sampler = KeelLogSampling.parse("com.ourco:DEBUG=1/4, INFO=0.5").resolve("com.ourco.chatty");
+        Assertions.assertNotNull(sampler);
+
+        RecordingLog debug = new RecordingLog();
+        sampler.annotate(debug, LogLevel.DEBUG);
+        Assertions.assertEquals(0.25, debug.recorded(KeelLogSampling.SAMPLE_RATE_CONTEXT_KEY));
+
+        RecordingLog info = new RecordingLog();
+        sampler.annotate(info, LogLevel.INFO);
+        Assertions.assertEquals(0.5, info.recorded(KeelLogSampling.SAMPLE_RATE_CONTEXT_KEY));
+
+        RecordingLog warning = new RecordingLog();
+        sampler.annotate(warning, LogLevel.WARNING);
+        Assertions.assertTrue(warning.isContextEmpty());
+    }
+
+    @Test
+    public void testProbabilityIsApproximate() {
+        KeelLogSampler sampler = KeelLogSampling.none().withProbability("", LogLevel.DEBUG, 0.25).resolve("any");
+        Assertions.assertNotNull(sampler);
+        int kept = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (sampler.sample(LogLevel.DEBUG)) {
+                kept++;
+            }
+        }
+        Assertions.assertTrue(kept > 23_000 && kept < 27_000, "kept " + kept);
+    }
+}
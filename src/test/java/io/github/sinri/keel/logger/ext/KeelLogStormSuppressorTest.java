@@ -0,0 +1,104 @@
+package io.github.sinri.keel.logger.ext;
+
+import io.github.sinri.keel.logger.api.LogLevel;
+import org.jspecify.annotations.NullMarked;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@NullMarked
+public class KeelLogStormSuppressorTest {
+
+    @Test
+    public void testPermitsPerWindowAndSummary() {
+        List<String> summaries = new ArrayList<>();
+        try (KeelLogStormSuppressor suppressor = new KeelLogStormSuppressor(3, Duration.ofHours(1), 100)) {
+            KeelLogStormSuppressor.Scope scope = suppressor.scope("topic", (level, message) -> summaries.add(level + " " + message));
+
+            for (int i = 0; i < 3; i++) {
+                Assertions.assertTrue(scope.tryAcquire(LogLevel.WARNING, "retry {} failed"));
+            }
+            for (int i = 0; i < 5; i++) {
+                Assertions.assertFalse(scope.tryAcquire(LogLevel.WARNING, "retry {} failed"));
+            }
+            // 其他模板与其他主题互不影响
+            Assertions.assertTrue(scope.tryAcquire(LogLevel.WARNING, "another {}"));
+            Assertions.assertTrue(suppressor.scope("other", (level, message) -> {
+            }).tryAcquire(LogLevel.WARNING, "retry {} failed"));
+
+            suppressor.sweep();
+            Assertions.assertEquals(1, summaries.size());
+            Assertions.assertTrue(summaries.get(0).startsWith("WARNING Suppressed 5 similar events"));
+            Assertions.assertTrue(summaries.get(0).endsWith("retry {} failed"));
+
+            // 汇总只输出一次
+            suppressor.sweep();
+            Assertions.assertEquals(1, summaries.size());
+        }
+    }
+
+    @Test
+    public void testTemplatesAreBounded() {
+        List<String> summaries = new ArrayList<>();
+        try (KeelLogStormSuppressor suppressor = new KeelLogStormSuppressor(1, Duration.ofHours(1), 2)) {
+            KeelLogStormSuppressor.Scope scope = suppressor.scope("topic", (level, message) -> summaries.add(message));
+            Assertions.assertTrue(scope.tryAcquire(LogLevel.INFO, "a"));
+            Assertions.assertTrue(scope.tryAcquire(LogLevel.INFO, "b"));
+            Assertions.assertEquals(2, suppressor.getTrackedTemplateCount());
+
+            // 超出上限的模板共用溢出令牌桶
+            Assertions.assertTrue(scope.tryAcquire(LogLevel.INFO, "c"));
+            Assertions.assertFalse(scope.tryAcquire(LogLevel.INFO, "d"));
+            Assertions.assertEquals(2, suppressor.getTrackedTemplateCount());
+
+            suppressor.sweep();
+            Assertions.assertEquals(1, summaries.size());
+            Assertions.assertTrue(summaries.get(0).endsWith(KeelLogStormSuppressor.OVERFLOW_TEMPLATE));
+        }
+    }
+
+    @Test
+    public void testCloseEmitsLastWindowOnceAndSweeperIsShared() throws InterruptedException {
+        List<String> summaries = new ArrayList<>();
+        List<KeelLogStormSuppressor> suppressors = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            suppressors.add(new KeelLogStormSuppressor(1, Duration.ofMillis(20), 100));
+        }
+        try {
+            Thread.sleep(60);
+            long sweepers = Thread.getAllStackTraces().keySet().stream()
+                                  .filter(thread -> thread.getName().equals("keel-logger-storm-sweeper"))
+                                  .count();
+            Assertions.assertEquals(1, sweepers);
+        } finally {
+            suppressors.forEach(KeelLogStormSuppressor::close);
+        }
+
+        KeelLogStormSuppressor suppressor = new KeelLogStormSuppressor(1, Duration.ofHours(1), 100);
+        KeelLogStormSuppressor.Scope scope = suppressor.scope("topic", (level, message) -> summaries.add(message));
+        Assertions.assertTrue(scope.tryAcquire(LogLevel.ERROR, "down {}"));
+        Assertions.assertFalse(scope.tryAcquire(LogLevel.ERROR, "down {}"));
+        suppressor.close();
+        Assertions.assertEquals(1, summaries.size());
+        Assertions.assertTrue(summaries.get(0).startsWith("Suppressed 1 similar events"));
+
+        Assertions.assertFalse(scope.tryAcquire(LogLevel.ERROR, "down {}"));
+        suppressor.close();
+        Assertions.assertEquals(1, summaries.size());
+    }
+
+    @Test
+    public void testRefillAfterWindow() throws InterruptedException {
+        try (KeelLogStormSuppressor suppressor = new KeelLogStormSuppressor(1, Duration.ofMillis(50), 100)) {
+            KeelLogStormSuppressor.Scope scope = suppressor.scope("topic", (level, message) -> {
+            });
+            Assertions.assertTrue(scope.tryAcquire(LogLevel.INFO, "a"));
+            Assertions.assertFalse(scope.tryAcquire(LogLevel.INFO, "a"));
+            Thread.sleep(80);
+            Assertions.assertTrue(scope.tryAcquire(LogLevel.INFO, "a"));
+        }
+    }
+}
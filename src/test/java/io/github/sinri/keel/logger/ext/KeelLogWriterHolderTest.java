@@ -0,0 +1,227 @@
+package io.github.sinri.keel.logger.ext;
+
+import io.github.sinri.keel.logger.api.LogLevel;
+import io.github.sinri.keel.logger.api.adapter.BaseLogWriter;
+import io.github.sinri.keel.logger.api.adapter.LogWriterAdapter;
+import io.github.sinri.keel.logger.api.log.Log;
+import io.github.sinri.keel.logger.api.log.SpecificLog;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+@NullMarked
+public class KeelLogWriterHolderTest {
+
+    private static LogWriterAdapter recording(List<String> received) {
+        return new BaseLogWriter() {
+            @Override
+            public void accept(String topic, SpecificLog<?> log) {
+                received.add(log.message());
+            }
+        };
+    }
+
+    @Test
+    public void testSupplierResolvedOnce() {
+        AtomicInteger calls = new AtomicInteger();
+        List<String> received = new ArrayList<>();
+        LogWriterAdapter adapter = recording(received);
+        KeelLogWriterHolder holder = new KeelLogWriterHolder(() -> {
+            calls.incrementAndGet();
+            return adapter;
+        }, false);
+
+        Assertions.assertEquals(0, calls.get());
+        for (int i = 0; i < 10; i++) {
+            Assertions.assertSame(adapter, holder.get());
+        }
+        Assertions.assertEquals(1, calls.get());
+        Assertions.assertSame(holder, KeelLogWriterHolder.of(holder, false));
+    }
+
+    @Test
+    public void testNullResolutionIsRetried() {
+        List<String> received = new ArrayList<>();
+        LogWriterAdapter adapter = recording(received);
+        AtomicInteger calls = new AtomicInteger();
+        KeelLogWriterHolder holder = new KeelLogWriterHolder(() -> calls.incrementAndGet() == 1 ? nullAdapter() : adapter, false);
+
+        Assertions.assertNull(holder.get());
+        Assertions.assertSame(adapter, holder.get());
+        Assertions.assertSame(adapter, holder.get());
+        Assertions.assertEquals(2, calls.get());
+    }
+
+    @Test
+    public void testSwapRedirectsEvents() {
+        List<String> first = new ArrayList<>();
+        List<String> second = new ArrayList<>();
+        LogWriterAdapter firstAdapter = recording(first);
+        KeelLogWriterHolder holder = new KeelLogWriterHolder(() -> firstAdapter, false);
+
+        holder.get().accept("t", new Log().level(LogLevel.INFO).message("before"));
+        Assertions.assertSame(firstAdapter, holder.swap(recording(second)));
+        holder.get().accept("t", new Log().level(LogLevel.INFO).message("after"));
+
+        Assertions.assertEquals(List.of("before"), first);
+        Assertions.assertEquals(List.of("after"), second);
+    }
+
+    @Test
+    public void testSwapAndDrainWritesBufferedEventsOnce() {
+        List<String> first = new ArrayList<>();
+        List<String> second = new ArrayList<>();
+        // 未启动消费者线程，事件停留在旧适配器的缓冲区中，直到切换时关闭
+        KeelAsyncLogWriter buffered = new KeelAsyncLogWriter(
+                () -> recording(first),
+                KeelAsyncLogWriterOptions.defaults().withBufferSize(16),
+                false);
+        KeelLogWriterHolder holder = new KeelLogWriterHolder(() -> buffered, false);
+
+        LogWriterAdapter resolvedBeforeSwap = holder.get();
+        resolvedBeforeSwap.accept("t", new Log().level(LogLevel.INFO).message("queued"));
+        Assertions.assertTrue(first.isEmpty());
+
+        Assertions.assertSame(buffered, holder.swapAndDrain(recording(second)));
+        Assertions.assertEquals(List.of("queued"), first);
+
+        // 切换前已解析到旧适配器的事件在关闭后仍然写出
+        resolvedBeforeSwap.accept("t", new Log().level(LogLevel.INFO).message("in-flight"));
+        holder.get().accept("t", new Log().level(LogLevel.INFO).message("after"));
+
+        Assertions.assertEquals(List.of("queued", "in-flight"), first);
+        Assertions.assertEquals(List.of("after"), second);
+    }
+
+    @Test
+    public void testSwapAndDrainUnderLoadLosesNothing() throws InterruptedException {
+        for (int round = 0; round < 20; round++) {
+            LongAdder first = new LongAdder();
+            LongAdder second = new LongAdder();
+            KeelAsyncLogWriter buffered = new KeelAsyncLogWriter(
+                    () -> counting(first),
+                    KeelAsyncLogWriterOptions.defaults()
+                                             .withBufferSize(64)
+                                             .withShards(2)
+                                             .withWaitStrategy(KeelAsyncLogWriterOptions.WaitStrategy.YIELD),
+                    false);
+            buffered.start();
+            KeelLogWriterHolder holder = new KeelLogWriterHolder(() -> buffered, false);
+
+            LongAdder accepted = new LongAdder();
+            AtomicBoolean running = new AtomicBoolean(true);
+            CountDownLatch started = new CountDownLatch(8);
+            List<Thread> producers = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                String topic = "topic-" + t;
+                Thread producer = new Thread(() -> {
+                    started.countDown();
+                    while (running.get()) {
+                        holder.get().accept(topic, new Log().level(LogLevel.INFO).message("event"));
+                        accepted.increment();
+                    }
+                });
+                producers.add(producer);
+                producer.start();
+            }
+            started.await();
+            Thread.sleep(2);
+            Assertions.assertSame(buffered, holder.swapAndDrain(counting(second)));
+            Thread.sleep(2);
+            running.set(false);
+            for (Thread producer : producers) {
+                producer.join();
+            }
+
+            Assertions.assertEquals(0, buffered.getDroppedCount());
+            Assertions.assertEquals(accepted.sum(), first.sum() + second.sum());
+        }
+    }
+
+    @Test
+    public void testSwapAndDrainWithSlowOldAdapterAccountsForEveryEvent() throws InterruptedException {
+        LongAdder first = new LongAdder();
+        LongAdder second = new LongAdder();
+        LogWriterAdapter slow = new BaseLogWriter() {
+            @Override
+            public void accept(String topic, SpecificLog<?> log) {
+                try {
+                    Thread.sleep(2);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                first.increment();
+            }
+        };
+        KeelAsyncLogWriter buffered = new KeelAsyncLogWriter(
+                () -> slow,
+                KeelAsyncLogWriterOptions.defaults()
+                                         .withBufferSize(256)
+                                         .withWaitStrategy(KeelAsyncLogWriterOptions.WaitStrategy.YIELD)
+                                         .withDrainTimeout(Duration.ofMillis(50)),
+                false);
+        buffered.start();
+        KeelLogWriterHolder holder = new KeelLogWriterHolder(() -> buffered, false);
+
+        LongAdder accepted = new LongAdder();
+        AtomicBoolean running = new AtomicBoolean(true);
+        CountDownLatch started = new CountDownLatch(4);
+        List<Thread> producers = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            String topic = "topic-" + t;
+            Thread producer = new Thread(() -> {
+                started.countDown();
+                while (running.get()) {
+                    holder.get().accept(topic, new Log().level(LogLevel.INFO).message("event"));
+                    accepted.increment();
+                }
+            });
+            producers.add(producer);
+            producer.start();
+        }
+        started.await();
+        // 等待缓冲区积压到旧适配器无法在关闭等待时间内写完
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (buffered.getPendingCount() < 200 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+        Assertions.assertSame(buffered, holder.swapAndDrain(counting(second)));
+        Thread.sleep(10);
+        running.set(false);
+        for (Thread producer : producers) {
+            producer.join();
+        }
+
+        // 超时时正在写出的事件写完后，旧适配器的消费者线程将剩余事件计入丢弃数
+        deadline = System.currentTimeMillis() + 5_000;
+        while (first.sum() + second.sum() + buffered.getDroppedCount() < accepted.sum()
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assertions.assertEquals(accepted.sum(), first.sum() + second.sum() + buffered.getDroppedCount());
+        Assertions.assertTrue(buffered.getDroppedCount() > 0);
+        Assertions.assertTrue(second.sum() > 0);
+    }
+
+    private static LogWriterAdapter counting(LongAdder received) {
+        return new BaseLogWriter() {
+            @Override
+            public void accept(String topic, SpecificLog<?> log) {
+                received.increment();
+            }
+        };
+    }
+
+    private static @Nullable LogWriterAdapter nullAdapter() {
+        return null;
+    }
+}
@@ -0,0 +1,51 @@
+package io.github.sinri.keel.logger.ext;
+
+import io.github.sinri.keel.logger.api.LogLevel;
+import org.jspecify.annotations.NullMarked;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+@NullMarked
+public class KeelLoggerConfigWatcherTest {
+
+    @Test
+    public void testReloadOverlaysBaseline(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("keel-logger.properties");
+        Files.writeString(file, "level=WARN\nlevel.com.ourco.billing=DEBUG\n", StandardCharsets.UTF_8);
+
+        KeelLoggerLevels baseline = new KeelLoggerLevels(LogLevel.INFO, Map.of("io.vertx", LogLevel.ERROR));
+        List<KeelLoggerLevels> published = new ArrayList<>();
+        try (KeelLoggerConfigWatcher watcher = new KeelLoggerConfigWatcher(file, baseline, published::add, false)) {
+            watcher.start();
+            Assertions.assertEquals(1, published.size());
+            KeelLoggerLevels levels = published.get(0);
+            Assertions.assertEquals(LogLevel.WARNING, levels.rootLevel());
+            Assertions.assertEquals(LogLevel.DEBUG, levels.resolve("com.ourco.billing.Invoice"));
+            Assertions.assertEquals(LogLevel.ERROR, levels.resolve("io.vertx.core.Vertx"));
+
+            // 内容未变化时不重复发布
+            watcher.reload();
+            Assertions.assertEquals(1, published.size());
+
+            // 无法解析的内容保留当前配置
+            Files.writeString(file, "level=LOUD\n", StandardCharsets.UTF_8);
+            watcher.reload();
+            Assertions.assertEquals(1, published.size());
+
+            // 删除文件后恢复基线配置
+            Files.delete(file);
+            watcher.reload();
+            Assertions.assertEquals(2, published.size());
+            Assertions.assertEquals(baseline, published.get(1));
+        }
+    }
+}
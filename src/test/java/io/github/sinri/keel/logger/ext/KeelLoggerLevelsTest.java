@@ -0,0 +1,83 @@
+package io.github.sinri.keel.logger.ext;
+
+import io.github.sinri.keel.logger.api.LogLevel;
+import org.jspecify.annotations.NullMarked;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+@NullMarked
+public class KeelLoggerLevelsTest {
+
+    @Test
+    public void testResolveLongestPrefix() {
+        KeelLoggerLevels levels = new KeelLoggerLevels(LogLevel.INFO, Map.of(
+                "io.vertx", LogLevel.WARNING,
+                "com.ourco.billing", LogLevel.DEBUG,
+                "com.ourco.billing.noisy", LogLevel.ERROR
+        ));
+
+        Assertions.assertEquals(LogLevel.WARNING, levels.resolve("io.vertx"));
+        Assertions.assertEquals(LogLevel.WARNING, levels.resolve("io.vertx.core.impl.VertxImpl"));
+        Assertions.assertEquals(LogLevel.INFO, levels.resolve("io.vertxx.Other"));
+        Assertions.assertEquals(LogLevel.DEBUG, levels.resolve("com.ourco.billing.Invoice"));
+        Assertions.assertEquals(LogLevel.ERROR, levels.resolve("com.ourco.billing.noisy.Poller"));
+        Assertions.assertEquals(LogLevel.INFO, levels.resolve("com.ourco"));
+        Assertions.assertEquals(LogLevel.INFO, levels.resolve("test-topic"));
+    }
+
+    @Test
+    public void testEmptyPrefixOverridesRoot() {
+        KeelLoggerLevels levels = new KeelLoggerLevels(LogLevel.INFO, Map.of("", LogLevel.ERROR));
+        Assertions.assertEquals(LogLevel.ERROR, levels.resolve("any.logger"));
+    }
+
+    @Test
+    public void testParseLevel() {
+        Assertions.assertEquals(LogLevel.WARNING, KeelLoggerLevels.parseLevel("warn"));
+        Assertions.assertEquals(LogLevel.WARNING, KeelLoggerLevels.parseLevel("WARNING"));
+        Assertions.assertEquals(LogLevel.SILENT, KeelLoggerLevels.parseLevel(" off "));
+        Assertions.assertEquals(LogLevel.DEBUG, KeelLoggerLevels.parseLevel("Debug"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> KeelLoggerLevels.parseLevel("LOUD"));
+    }
+
+    @Test
+    public void testMarkerLevels() {
+        Properties properties = new Properties();
+        properties.setProperty("level", "WARN");
+        properties.setProperty("marker.AUDIT", "TRACE");
+        properties.setProperty("marker.SQL", "OFF");
+        KeelLoggerLevels levels = new KeelLoggerLevels(LogLevel.INFO).withProperties(properties);
+
+        Assertions.assertEquals(LogLevel.WARNING, levels.rootLevel());
+        Assertions.assertEquals(Map.of("AUDIT", LogLevel.TRACE, "SQL", LogLevel.SILENT), levels.markerLevels());
+        KeelMarkerLevels markers = levels.markers();
+        Assertions.assertEquals(LogLevel.TRACE, markers.resolve("AUDIT"));
+        Assertions.assertEquals(LogLevel.SILENT, markers.resolve("SQL"));
+        Assertions.assertNull(markers.resolve("OTHER"));
+        Assertions.assertEquals(LogLevel.TRACE, markers.mostVerbose());
+        // 标记自身的阈值优先于其引用
+        Assertions.assertEquals(LogLevel.SILENT, markers.resolve(List.of("SQL", "AUDIT")));
+        Assertions.assertEquals(LogLevel.TRACE, markers.resolve(List.of("OTHER", "AUDIT")));
+        Assertions.assertNull(markers.resolve(List.of("OTHER")));
+
+        Assertions.assertTrue(new KeelLoggerLevels(LogLevel.INFO).markers().isEmpty());
+        Assertions.assertNotEquals(new KeelLoggerLevels(LogLevel.WARNING), levels);
+    }
+
+    @Test
+    public void testMarkerLevelsLookupWithManyMarkers() {
+        Map<String, LogLevel> thresholds = new HashMap<>();
+        for (int i = 0; i < 100; i++) {
+            thresholds.put("M" + i, LogLevel.values()[i % LogLevel.values().length]);
+        }
+        KeelMarkerLevels markers = KeelMarkerLevels.of(thresholds);
+        thresholds.forEach((name, level) -> Assertions.assertEquals(level, markers.resolve(name)));
+        Assertions.assertNull(markers.resolve("M100"));
+        Assertions.assertEquals(LogLevel.TRACE, markers.mostVerbose());
+    }
+}
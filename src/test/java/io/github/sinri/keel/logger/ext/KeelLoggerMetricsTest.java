@@ -0,0 +1,126 @@
+package io.github.sinri.keel.logger.ext;
+
+import io.github.sinri.keel.logger.api.LogLevel;
+import io.github.sinri.keel.logger.api.adapter.BaseLogWriter;
+import io.github.sinri.keel.logger.api.adapter.LogWriterAdapter;
+import io.github.sinri.keel.logger.api.log.Log;
+import io.github.sinri.keel.logger.api.log.SpecificLog;
+import org.jspecify.annotations.NullMarked;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@NullMarked
+public class KeelLoggerMetricsTest {
+
+    @Test
+    public void testHistogramBuckets() {
+        Assertions.assertEquals(0, KeelLatencyHistogram.bucketOf(-1));
+        Assertions.assertEquals(0, KeelLatencyHistogram.bucketOf(0));
+        Assertions.assertEquals(0, KeelLatencyHistogram.bucketOf(255));
+        Assertions.assertEquals(1, KeelLatencyHistogram.bucketOf(256));
+        Assertions.assertEquals(1, KeelLatencyHistogram.bucketOf(511));
+        Assertions.assertEquals(2, KeelLatencyHistogram.bucketOf(512));
+        Assertions.assertEquals(KeelLatencyHistogram.BUCKETS - 1, KeelLatencyHistogram.bucketOf(Long.MAX_VALUE));
+
+        long[] bounds = KeelLatencyHistogram.upperBoundsNanos();
+        for (long nanos : new long[]{0, 300, 5_000, 1_000_000, 100_000_000}) {
+            int bucket = KeelLatencyHistogram.bucketOf(nanos);
+            Assertions.assertTrue(nanos < bounds[bucket]);
+            Assertions.assertTrue(bucket == 0 || nanos >= bounds[bucket - 1]);
+        }
+
+        KeelLatencyHistogram histogram = new KeelLatencyHistogram();
+        histogram.record(100);
+        histogram.record(300);
+        histogram.record(300);
+        long[] snapshot = histogram.snapshot();
+        Assertions.assertEquals(1, snapshot[0]);
+        Assertions.assertEquals(2, snapshot[1]);
+        Assertions.assertEquals(3, histogram.count());
+    }
+
+    @Test
+    public void testCountersPerLevel() {
+        AtomicInteger written = new AtomicInteger();
+        LogWriterAdapter adapter = new BaseLogWriter() {
+            @Override
+            public void accept(String topic, SpecificLog<?> log) {
+                written.incrementAndGet();
+            }
+        };
+        KeelLoggerMetrics metrics = new KeelLoggerMetrics();
+        KeelLoggerCounters counters = metrics.counters("com.example.Service");
+        Assertions.assertSame(counters, metrics.counters("com.example.Service"));
+
+        counters.deliver(adapter, "com.example.Service", new Log().level(LogLevel.INFO).message("hello"), LogLevel.INFO);
+        counters.deliver(adapter, "com.example.Service", new Log().level(LogLevel.INFO).message("hi"), LogLevel.INFO);
+        KeelDeferredLog deferred = new KeelDeferredLog("user {}", new Object[]{"alice"}, (template, arguments) -> "user alice");
+        counters.deliver(adapter, "com.example.Service", deferred, LogLevel.ERROR);
+        counters.filtered(LogLevel.DEBUG);
+        counters.dropped(LogLevel.WARNING);
+
+        Assertions.assertEquals(3, written.get());
+        Assertions.assertFalse(deferred.isRendered());
+        Assertions.assertEquals(2, counters.getAcceptedCount(LogLevel.INFO));
+        Assertions.assertEquals(1, counters.getAcceptedCount(LogLevel.ERROR));
+        Assertions.assertEquals(7, counters.getMessageChars(LogLevel.INFO));
+        Assertions.assertEquals(0, counters.getMessageChars(LogLevel.ERROR));
+        Assertions.assertEquals(1, counters.getFilteredCount(LogLevel.DEBUG));
+        Assertions.assertEquals(1, counters.getDroppedCount(LogLevel.WARNING));
+
+        metrics.counters("io.netty.Channel").deliver(adapter, "io.netty.Channel", new Log().message("x"), LogLevel.INFO);
+        Assertions.assertEquals(List.of("com.example.Service", "io.netty.Channel"), metrics.getLoggerNames());
+        Assertions.assertEquals(4, metrics.getAcceptedCount());
+        Assertions.assertEquals(1, metrics.getFilteredCount());
+        Assertions.assertEquals(1, metrics.getDroppedCount());
+        Assertions.assertEquals(8, metrics.getMessageChars());
+        Assertions.assertEquals(Map.of("com.example.Service", 3L, "io.netty.Channel", 1L), metrics.getAcceptedCountByLogger());
+        Assertions.assertEquals(3L, (long) metrics.getAcceptedCountByLevel().get("INFO"));
+        Assertions.assertEquals(2L, (long) metrics.loggerCounters("com.example.Service").get("accepted.INFO"));
+        Assertions.assertTrue(metrics.loggerCounters("unknown").isEmpty());
+    }
+
+    @Test
+    public void testAdapterLatencySampled() {
+        LogWriterAdapter adapter = new BaseLogWriter() {
+            @Override
+            public void accept(String topic, SpecificLog<?> log) {
+            }
+        };
+        KeelLoggerMetrics metrics = new KeelLoggerMetrics();
+        KeelLoggerCounters counters = metrics.counters("sampled");
+        int events = KeelLoggerCounters.LATENCY_SAMPLE_INTERVAL * 10;
+        for (int i = 0; i < events; i++) {
+            counters.deliver(adapter, "sampled", new Log().message("m"), LogLevel.INFO);
+        }
+        Assertions.assertEquals(10, metrics.getAdapterLatency().count());
+        Assertions.assertSame(metrics.getAdapterLatency(), counters.getAdapterLatency());
+    }
+
+    @Test
+    public void testRegisterMBean() throws Exception {
+        KeelLoggerMetrics metrics = new KeelLoggerMetrics();
+        metrics.counters("jmx.Logger").filtered(LogLevel.INFO);
+        ObjectName objectName = metrics.registerMBean("test", true);
+        Assertions.assertNotNull(objectName);
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            Assertions.assertEquals(1L, server.getAttribute(objectName, "FilteredCount"));
+            Assertions.assertArrayEquals(new String[]{"jmx.Logger"}, (String[]) server.getAttribute(objectName, "LoggerNames"));
+
+            ObjectName second = new KeelLoggerMetrics().registerMBean("test", false);
+            Assertions.assertNotNull(second);
+            Assertions.assertNotEquals(objectName, second);
+            server.unregisterMBean(second);
+        } finally {
+            server.unregisterMBean(objectName);
+        }
+    }
+}
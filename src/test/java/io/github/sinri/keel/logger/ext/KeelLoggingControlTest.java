@@ -0,0 +1,94 @@
+package io.github.sinri.keel.logger.ext;
+
+import io.github.sinri.keel.logger.api.LogLevel;
+import org.jspecify.annotations.NullMarked;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+@NullMarked
+public class KeelLoggingControlTest {
+
+    @Test
+    public void testOverridesSurviveBaseReplacement() {
+        List<KeelLoggerLevels> published = new ArrayList<>();
+        KeelLoggingControl control = new KeelLoggingControl(
+                new KeelLoggerLevels(LogLevel.INFO, Map.of("io.vertx", LogLevel.WARNING), Map.of("AUDIT", LogLevel.TRACE)),
+                published::add,
+                Map::of,
+                false);
+
+        control.setLevel("com.ourco.billing", "debug");
+        Assertions.assertEquals(LogLevel.DEBUG, published.get(0).resolve("com.ourco.billing.Invoice"));
+        Assertions.assertEquals(LogLevel.WARNING, published.get(0).resolve("io.vertx.core.Vertx"));
+        Assertions.assertEquals(Map.of("AUDIT", LogLevel.TRACE), published.get(0).markerLevels());
+
+        control.setLevel("", "WARN");
+        Assertions.assertEquals("WARNING", control.getRootLevel());
+
+        control.applyBase(new KeelLoggerLevels(LogLevel.ERROR, Map.of("io.vertx", LogLevel.INFO)));
+        KeelLoggerLevels levels = control.getLevels();
+        Assertions.assertSame(levels, published.get(published.size() - 1));
+        Assertions.assertEquals(LogLevel.WARNING, levels.rootLevel());
+        Assertions.assertEquals(LogLevel.INFO, levels.resolve("io.vertx.core.Vertx"));
+        Assertions.assertEquals(LogLevel.DEBUG, levels.resolve("com.ourco.billing.Invoice"));
+
+        control.clearLevel("");
+        Assertions.assertEquals("ERROR", control.getRootLevel());
+        control.resetLevels();
+        Assertions.assertEquals(Map.of("io.vertx", "INFO"), control.getPrefixLevels());
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> control.setLevel("x", "LOUD"));
+    }
+
+    @Test
+    public void testTemporaryLevelReverts() throws InterruptedException {
+        List<KeelLoggerLevels> published = new ArrayList<>();
+        KeelLoggingControl control = new KeelLoggingControl(new KeelLoggerLevels(LogLevel.INFO), published::add, Map::of, false);
+
+        control.setLevel("com.ourco", "WARN");
+        control.setLevelTemporarily("com.ourco", "TRACE", 1);
+        Assertions.assertEquals(LogLevel.TRACE, control.getLevels().resolve("com.ourco.Service"));
+        Assertions.assertTrue(control.getTemporaryLevels().get("com.ourco").startsWith("TRACE until "));
+
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!control.getTemporaryLevels().isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        Assertions.assertTrue(control.getTemporaryLevels().isEmpty());
+        Assertions.assertEquals(LogLevel.WARNING, control.getLevels().resolve("com.ourco.Service"));
+
+        control.setLevelTemporarily("com.ourco", "DEBUG", 60);
+        control.clearLevel("com.ourco");
+        Assertions.assertTrue(control.getTemporaryLevels().isEmpty());
+        Assertions.assertEquals(LogLevel.INFO, control.getLevels().resolve("com.ourco.Service"));
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> control.setLevelTemporarily("com.ourco", "DEBUG", 0));
+    }
+
+    @Test
+    public void testRegisterMBean() throws Exception {
+        KeelLoggingControl control = new KeelLoggingControl(
+                new KeelLoggerLevels(LogLevel.INFO),
+                levels -> {
+                },
+                () -> Map.of("com.ourco.Service", LogLevel.INFO),
+                false);
+        ObjectName objectName = control.registerMBean("test", true);
+        Assertions.assertNotNull(objectName);
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            server.invoke(objectName, "setLevel", new Object[]{"com.ourco", "DEBUG"}, new String[]{String.class.getName(), String.class.getName()});
+            Assertions.assertEquals(LogLevel.DEBUG, control.getLevels().resolve("com.ourco.Service"));
+            Assertions.assertEquals("INFO", server.getAttribute(objectName, "RootLevel"));
+        } finally {
+            server.unregisterMBean(objectName);
+        }
+    }
+}
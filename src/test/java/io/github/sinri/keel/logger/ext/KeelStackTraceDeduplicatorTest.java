@@ -0,0 +1,77 @@
+package io.github.sinri.keel.logger.ext;
+
+import org.jspecify.annotations.NullMarked;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+@NullMarked
+public class KeelStackTraceDeduplicatorTest {
+
+    private static IllegalStateException failure(String message) {
+        return new IllegalStateException(message, new IllegalArgumentException("cause"));
+    }
+
+    @Test
+    public void testFingerprintIgnoresMessageButNotFrames() {
+        IllegalStateException[] sameSite = new IllegalStateException[2];
+        for (int i = 0; i < sameSite.length; i++) {
+            sameSite[i] = failure("request " + i);
+        }
+        long fingerprint = KeelStackTraceDeduplicator.fingerprint(sameSite[0]);
+        Assertions.assertEquals(fingerprint, KeelStackTraceDeduplicator.fingerprint(sameSite[1]));
+
+        IllegalStateException otherSite = failure("request 0");
+        Assertions.assertNotEquals(fingerprint, KeelStackTraceDeduplicator.fingerprint(otherSite));
+
+        IllegalStateException withoutCause = new IllegalStateException("request 0");
+        withoutCause.setStackTrace(sameSite[0].getStackTrace());
+        Assertions.assertNotEquals(fingerprint, KeelStackTraceDeduplicator.fingerprint(withoutCause));
+    }
+
+    @Test
+    public void testRepeatsReferenceFingerprintWithinWindow() throws InterruptedException {
+        KeelStackTraceDeduplicator deduplicator = new KeelStackTraceDeduplicator(Duration.ofMillis(200), 10);
+        RecordingLog[] logs = new RecordingLog[3];
+        IllegalStateException[] failures = new IllegalStateException[3];
+        for (int i = 0; i < logs.length; i++) {
+            failures[i] = failure("request " + i);
+            logs[i] = new RecordingLog();
+            deduplicator.attach(logs[i], failures[i]);
+        }
+
+        String id = Long.toHexString(KeelStackTraceDeduplicator.fingerprint(failures[0]));
+        Assertions.assertSame(failures[0], logs[0].exception());
+        Assertions.assertEquals(id, logs[0].recorded(KeelStackTraceDeduplicator.FINGERPRINT_CONTEXT_KEY));
+        Assertions.assertNull(logs[0].recorded(KeelStackTraceDeduplicator.OCCURRENCE_CONTEXT_KEY));
+        for (int i = 1; i < logs.length; i++) {
+            Assertions.assertNull(logs[i].exception());
+            Assertions.assertEquals(id, logs[i].recorded(KeelStackTraceDeduplicator.FINGERPRINT_CONTEXT_KEY));
+            Assertions.assertEquals((long) i + 1, logs[i].recorded(KeelStackTraceDeduplicator.OCCURRENCE_CONTEXT_KEY));
+        }
+
+        Thread.sleep(250);
+        RecordingLog afterWindow = new RecordingLog();
+        IllegalStateException again = failures[0];
+        deduplicator.attach(afterWindow, again);
+        Assertions.assertSame(again, afterWindow.exception());
+    }
+
+    @Test
+    public void testCacheIsBounded() {
+        KeelStackTraceDeduplicator deduplicator = new KeelStackTraceDeduplicator(Duration.ofMinutes(1), 2);
+        IllegalStateException first = failure("first");
+        IllegalStateException second = failure("second");
+        IllegalStateException third = failure("third");
+        for (IllegalStateException failure : new IllegalStateException[]{first, second, third, third}) {
+            deduplicator.attach(new RecordingLog(), failure);
+        }
+        Assertions.assertEquals(2, deduplicator.getTrackedFingerprintCount());
+
+        // 未被跟踪的堆栈每次都完整输出
+        RecordingLog untracked = new RecordingLog();
+        deduplicator.attach(untracked, third);
+        Assertions.assertSame(third, untracked.exception());
+    }
+}
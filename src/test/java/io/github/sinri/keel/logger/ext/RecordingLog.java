@@ -0,0 +1,37 @@
+package io.github.sinri.keel.logger.ext;
+
+import io.github.sinri.keel.logger.api.log.Log;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 记录写入上下文的日志事件，供测试断言。
+ */
+@NullMarked
+public final class RecordingLog extends Log {
+    private final Map<String, Object> recordedContext = new HashMap<>();
+
+    @Override
+    public Log context(String key, Object value) {
+        recordedContext.put(key, value);
+        return super.context(key, value);
+    }
+
+    /**
+     * @param key 上下文的键
+     * @return 写入的值；未写入时为 null
+     */
+    public @Nullable Object recorded(String key) {
+        return recordedContext.get(key);
+    }
+
+    /**
+     * @return 是否没有写入任何上下文
+     */
+    public boolean isContextEmpty() {
+        return recordedContext.isEmpty();
+    }
+}
@@ -3,12 +3,20 @@ package io.github.sinri.keel.logger.ext.log4j2;
 import io.github.sinri.keel.logger.api.LogLevel;
 import io.github.sinri.keel.logger.api.adapter.BaseLogWriter;
 import io.github.sinri.keel.logger.api.adapter.LogWriterAdapter;
+import io.github.sinri.keel.logger.api.log.Log;
+import io.github.sinri.keel.logger.ext.KeelLoggerCounters;
+import io.github.sinri.keel.logger.ext.KeelLoggingControl;
+import org.apache.logging.log4j.message.ReusableMessageFactory;
+import org.apache.logging.log4j.spi.ExtendedLogger;
 import org.apache.logging.log4j.spi.LoggerContext;
 import org.jspecify.annotations.NullMarked;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.function.Supplier;
 
 @NullMarked
@@ -50,4 +58,80 @@ public class KeelLog4j2LoggerContextFactoryTest {
 
         Assertions.assertDoesNotThrow(() -> factory.removeContext(context));
     }
+
+    @Test
+    public void testGetLoggerHonoursMessageFactory() {
+        List<Log> logs = new ArrayList<>();
+        LogWriterAdapter adapter = new BaseLogWriter() {
+            @Override
+            public void accept(String topic, io.github.sinri.keel.logger.api.log.SpecificLog<?> log) {
+                logs.add((Log) log);
+            }
+        };
+        KeelLog4j2LoggerContext context = new KeelLog4j2LoggerContext(() -> adapter, LogLevel.INFO, null, false);
+
+        ExtendedLogger reusing = context.getLogger("reusing", ReusableMessageFactory.INSTANCE);
+        Assertions.assertInstanceOf(ReusableMessageFactory.class, reusing.getMessageFactory());
+        Assertions.assertSame(reusing, context.getLogger("reusing", new ReusableMessageFactory()));
+        Assertions.assertNotSame(reusing, context.getLogger("reusing"));
+        Assertions.assertTrue(context.hasLogger("reusing", ReusableMessageFactory.class));
+
+        reusing.info("order {} of {}", "1", "2");
+        reusing.info("order {} of {}", "3", "4");
+
+        Assertions.assertEquals(2, logs.size());
+        Assertions.assertEquals("order 1 of 2", logs.get(0).message());
+        Assertions.assertEquals("order 3 of 4", logs.get(1).message());
+    }
+
+    @Test
+    public void testMetricsPerLoggerAndLevel() {
+        LogWriterAdapter adapter = new BaseLogWriter() {
+            @Override
+            public void accept(String topic, io.github.sinri.keel.logger.api.log.SpecificLog<?> log) {
+            }
+        };
+        KeelLog4j2LoggerContextFactory factory = new KeelLog4j2LoggerContextFactory(() -> adapter, LogLevel.INFO, null);
+        LoggerContext context = factory.getContext("fqcn", null, null, true);
+
+        ExtendedLogger logger = context.getLogger("com.example.Service");
+        logger.info("hello {}", "world");
+        logger.warn("warned");
+        logger.debug("disabled");
+        context.getLogger("com.example.Service", ReusableMessageFactory.INSTANCE).error("reused");
+
+        KeelLoggerCounters counters = factory.getMetrics().find("com.example.Service");
+        Assertions.assertNotNull(counters);
+        Assertions.assertEquals(1, counters.getAcceptedCount(LogLevel.INFO));
+        Assertions.assertEquals(1, counters.getAcceptedCount(LogLevel.WARNING));
+        Assertions.assertEquals(1, counters.getAcceptedCount(LogLevel.ERROR));
+        Assertions.assertEquals(0, counters.getAcceptedCount(LogLevel.DEBUG));
+        Assertions.assertEquals("hello world".length() + "warned".length() + "reused".length(), counters.getMessageChars());
+    }
+
+    @Test
+    public void testLoggingControlReachesCachedLoggers() {
+        LogWriterAdapter adapter = new BaseLogWriter() {
+            @Override
+            public void accept(String topic, io.github.sinri.keel.logger.api.log.SpecificLog<?> log) {
+            }
+        };
+        KeelLog4j2LoggerContextFactory factory = new KeelLog4j2LoggerContextFactory(() -> adapter, LogLevel.INFO, null);
+        LoggerContext context = factory.getContext("fqcn", null, null, true);
+        ExtendedLogger logger = context.getLogger("com.ourco.billing.Invoice");
+        ExtendedLogger reusing = context.getLogger("com.ourco.billing.Invoice", ReusableMessageFactory.INSTANCE);
+        KeelLoggingControl control = factory.getControl();
+
+        control.setLevel("com.ourco.billing", "DEBUG");
+        Assertions.assertTrue(logger.isDebugEnabled());
+        Assertions.assertTrue(reusing.isDebugEnabled());
+        Assertions.assertEquals(Map.of("com.ourco.billing.Invoice", "DEBUG"), control.getLoggerLevels());
+
+        control.setLevelTemporarily("", "TRACE", 60);
+        Assertions.assertTrue(context.getLogger("com.ourco.web.Handler").isTraceEnabled());
+
+        control.resetLevels();
+        Assertions.assertFalse(logger.isDebugEnabled());
+        Assertions.assertFalse(context.getLogger("com.ourco.web.Handler").isDebugEnabled());
+    }
 }
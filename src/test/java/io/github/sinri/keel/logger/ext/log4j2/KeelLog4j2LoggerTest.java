@@ -4,15 +4,33 @@ import io.github.sinri.keel.logger.api.LogLevel;
 import io.github.sinri.keel.logger.api.adapter.BaseLogWriter;
 import io.github.sinri.keel.logger.api.adapter.LogWriterAdapter;
 import io.github.sinri.keel.logger.api.log.Log;
+import io.github.sinri.keel.logger.ext.KeelCallerLocation;
+import io.github.sinri.keel.logger.ext.KeelDeferredFormatting;
+import io.github.sinri.keel.logger.ext.KeelDeferredLog;
+import io.github.sinri.keel.logger.ext.KeelLogRouting;
+import io.github.sinri.keel.logger.ext.KeelLogSampling;
+import io.github.sinri.keel.logger.ext.KeelLoggerFeatures;
+import io.github.sinri.keel.logger.ext.KeelMarkerLevels;
+import io.github.sinri.keel.logger.ext.KeelSynchronousLogWriter;
 import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.Marker;
+import org.apache.logging.log4j.MarkerManager;
 import org.apache.logging.log4j.ThreadContext;
+import org.apache.logging.log4j.message.ObjectMessage;
 import org.apache.logging.log4j.message.SimpleMessage;
+import org.apache.logging.log4j.message.StringMapMessage;
+import org.apache.logging.log4j.message.StructuredDataMessage;
+import org.apache.logging.log4j.spi.AbstractLogger;
 import org.jspecify.annotations.NullMarked;
 import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
 import org.junit.jupiter.api.Test;
 
+import java.lang.management.ManagementFactory;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Supplier;
 
 @NullMarked
@@ -101,4 +119,353 @@ public class KeelLog4j2LoggerTest {
         Assertions.assertEquals(LogLevel.FATAL, logs.get(0).level());
         logs.clear();
     }
+
+    @Test
+    public void testCustomLevelsMappedByRange() {
+        Level notice = Level.forName("KEEL_TEST_NOTICE", 350);
+        Level verbose = Level.forName("KEEL_TEST_VERBOSE", 550);
+
+        Assertions.assertEquals(LogLevel.NOTICE, KeelLog4j2Logger.transLevel(notice));
+        Assertions.assertEquals(LogLevel.TRACE, KeelLog4j2Logger.transLevel(verbose));
+        Assertions.assertEquals(LogLevel.TRACE, KeelLog4j2Logger.transLevel(Level.ALL));
+        Assertions.assertEquals(LogLevel.SILENT, KeelLog4j2Logger.transLevel(Level.OFF));
+
+        List<Log> logs = new ArrayList<>();
+        LogWriterAdapter adapter = new BaseLogWriter() {
+            @Override
+            public void accept(String topic, io.github.sinri.keel.logger.api.log.SpecificLog<?> log) {
+                if (log instanceof Log) {
+                    logs.add((Log) log);
+                }
+            }
+        };
+        KeelLog4j2Logger logger = new KeelLog4j2Logger(() -> adapter, LogLevel.NOTICE, "test-topic", null, true);
+
+        Assertions.assertTrue(logger.isEnabled(notice));
+        Assertions.assertFalse(logger.isEnabled(Level.INFO));
+        Assertions.assertFalse(logger.isEnabled(verbose));
+
+        logger.log(notice, "custom {}", "notice");
+        logger.log(verbose, "custom {}", "verbose");
+        Assertions.assertEquals(1, logs.size());
+        Assertions.assertEquals(LogLevel.NOTICE, logs.get(0).level());
+        Assertions.assertEquals("custom notice", logs.get(0).message());
+    }
+
+    @Test
+    public void testThresholdMatchesLevelMapping() {
+        int[] boundaries = {0, 1, 100, 101, 200, 201, 300, 301, 399, 400, 401, 500, 501, 600};
+        for (LogLevel base : LogLevel.values()) {
+            int threshold = KeelLog4j2Logger.toIntLevelThreshold(base);
+            for (int intLevel : boundaries) {
+                Level level = Level.forName("KEEL_TEST_LEVEL_" + intLevel, intLevel);
+                Assertions.assertEquals(
+                        KeelLog4j2Logger.transLevel(level).isEnoughSeriousAs(base),
+                        intLevel <= threshold,
+                        base + " / " + intLevel
+                );
+            }
+        }
+    }
+
+    /**
+     * 同步消费且不持有事件的适配器：只在写出时读取事件字段。
+     */
+    private static final class CountingSynchronousWriter extends BaseLogWriter implements KeelSynchronousLogWriter {
+        private final List<Log> instances = new ArrayList<>();
+        private final List<String> messages = new ArrayList<>();
+        private int count;
+        private boolean recording = true;
+
+        @Override
+        public void accept(String topic, io.github.sinri.keel.logger.api.log.SpecificLog<?> log) {
+            count++;
+            if (recording && log instanceof Log) {
+                instances.add((Log) log);
+                messages.add(log.message());
+            }
+        }
+    }
+
+    @Test
+    public void testGarbageFreeModeReusesLog() {
+        CountingSynchronousWriter writer = new CountingSynchronousWriter();
+        KeelLog4j2Logger logger = new KeelLog4j2Logger(() -> writer, LogLevel.INFO, "test-topic", null,
+                KeelLoggerFeatures.none().withGarbageFree(true), true);
+
+        logger.info("first");
+        logger.info("second {}", 2);
+        Assertions.assertSame(writer.instances.get(0), writer.instances.get(1));
+        Assertions.assertEquals(List.of("first", "second 2"), writer.messages);
+
+        // 携带异常或线程上下文的事件仍新建
+        logger.error("failed", new IllegalStateException("boom"));
+        ThreadContext.put("traceId", "t-1");
+        try {
+            logger.info("with context");
+        } finally {
+            ThreadContext.clearMap();
+        }
+        Assertions.assertNotSame(writer.instances.get(0), writer.instances.get(2));
+        Assertions.assertNotSame(writer.instances.get(0), writer.instances.get(3));
+        Assertions.assertNotSame(writer.instances.get(2), writer.instances.get(3));
+    }
+
+    @Test
+    public void testGarbageFreeModeAllocatesNothing() {
+        Assumptions.assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean
+                && bean.isThreadAllocatedMemorySupported(), "thread allocation accounting is not supported");
+        com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+        CountingSynchronousWriter writer = new CountingSynchronousWriter();
+        writer.recording = false;
+        KeelLog4j2Logger logger = new KeelLog4j2Logger(() -> writer, LogLevel.INFO, "test-topic", null,
+                KeelLoggerFeatures.none().withGarbageFree(true), true);
+        SimpleMessage message = new SimpleMessage("constant message");
+
+        int operations = 100_000;
+        for (int round = 0; round < 5; round++) {
+            long threadId = Thread.currentThread().getId();
+            long before = bean.getThreadAllocatedBytes(threadId);
+            for (int i = 0; i < operations; i++) {
+                logger.logIfEnabled("fqcn", Level.INFO, null, message, null);
+                logger.debug("disabled {}", "argument");
+            }
+            long allocated = bean.getThreadAllocatedBytes(threadId) - before;
+            // 预热轮次之后，每次调用的分配应为 0（允许测量本身的少量噪声）
+            if (round > 1) {
+                Assertions.assertTrue(allocated < operations, "allocated " + allocated + " bytes for " + operations + " operations");
+            }
+        }
+        Assertions.assertEquals(5 * operations, writer.count);
+    }
+
+    @Test
+    public void testDeferredFormatting() {
+        List<Log> logs = new ArrayList<>();
+        LogWriterAdapter adapter = new BaseLogWriter() {
+            @Override
+            public void accept(String topic, io.github.sinri.keel.logger.api.log.SpecificLog<?> log) {
+                logs.add((Log) log);
+            }
+        };
+        KeelLog4j2Logger logger = new KeelLog4j2Logger(() -> adapter, LogLevel.INFO, "test-topic", null,
+                KeelLoggerFeatures.none().withDeferredFormatting(KeelDeferredFormatting.enabled()), true);
+        List<String> mutable = new ArrayList<>(List.of("a"));
+        IllegalStateException exception = new IllegalStateException("boom");
+
+        logger.info("user {}", "alice");
+        logger.info("items {} at {}", mutable, 3);
+        logger.warn("failed {}", "x", exception);
+        logger.info("plain message");
+        mutable.add("b");
+
+        KeelDeferredLog first = Assertions.assertInstanceOf(KeelDeferredLog.class, logs.get(0));
+        Assertions.assertFalse(first.isRendered());
+        Assertions.assertEquals("user {}", first.template());
+        Assertions.assertEquals(List.of("alice"), first.arguments());
+        Assertions.assertEquals("user alice", first.message());
+
+        Assertions.assertEquals("items [a] at 3", logs.get(1).message());
+        KeelDeferredLog third = Assertions.assertInstanceOf(KeelDeferredLog.class, logs.get(2));
+        Assertions.assertEquals(List.of("x"), third.arguments());
+        Assertions.assertEquals("failed x", third.message());
+        Assertions.assertSame(exception, third.exception());
+        Assertions.assertEquals("plain message", logs.get(3).message());
+    }
+
+    @Test
+    public void testStructuredMessagesAreNotRendered() {
+        List<Log> logs = new ArrayList<>();
+        LogWriterAdapter adapter = new BaseLogWriter() {
+            @Override
+            public void accept(String topic, io.github.sinri.keel.logger.api.log.SpecificLog<?> log) {
+                logs.add((Log) log);
+            }
+        };
+        KeelLog4j2Logger logger = new KeelLog4j2Logger(() -> adapter, LogLevel.INFO, "test-topic", null, true);
+        AtomicInteger rendered = new AtomicInteger();
+        Object value = new Object() {
+            @Override
+            public String toString() {
+                rendered.incrementAndGet();
+                return "value";
+            }
+        };
+
+        logger.info(new StructuredDataMessage("order-1", "order placed", "audit").with("amount", "42"));
+        logger.info(new StringMapMessage().with("key", "value"));
+        logger.info(new ObjectMessage(Map.of("order", value)));
+        logger.info(new ObjectMessage(value));
+
+        Assertions.assertEquals(4, logs.size());
+        Assertions.assertEquals("order placed", logs.get(0).message());
+        Assertions.assertEquals("", logs.get(1).message());
+        Assertions.assertEquals("", logs.get(2).message());
+        Assertions.assertEquals(1, rendered.get());
+        Assertions.assertEquals("value", logs.get(3).message());
+    }
+
+    @Test
+    public void testMarkerMappedToClassification() {
+        List<Log> logs = new ArrayList<>();
+        LogWriterAdapter adapter = new BaseLogWriter() {
+            @Override
+            public void accept(String topic, io.github.sinri.keel.logger.api.log.SpecificLog<?> log) {
+                logs.add((Log) log);
+            }
+        };
+        KeelLog4j2Logger logger = new KeelLog4j2Logger(() -> adapter, LogLevel.INFO, "test-topic", null, true);
+        Marker parent = MarkerManager.getMarker("KEEL_TEST_DB");
+        Marker marker = MarkerManager.getMarker("KEEL_TEST_SQL").setParents(parent);
+
+        logger.info(marker, "query {}", "select 1");
+        logger.info(marker, "query {}", "select 2");
+        logger.info(parent, "plain");
+        logger.info("no marker");
+
+        Assertions.assertEquals(4, logs.size());
+        Assertions.assertEquals(List.of("KEEL_TEST_SQL", "KEEL_TEST_DB"), logs.get(0).classification());
+        Assertions.assertSame(logs.get(0).classification(), logs.get(1).classification());
+        Assertions.assertEquals(List.of("KEEL_TEST_DB"), logs.get(2).classification());
+        Assertions.assertTrue(logs.get(3).classification() == null || logs.get(3).classification().isEmpty());
+    }
+
+    @Test
+    public void testMarkerLevelsBeforeFormatting() {
+        List<Log> logs = new ArrayList<>();
+        LogWriterAdapter adapter = new BaseLogWriter() {
+            @Override
+            public void accept(String topic, io.github.sinri.keel.logger.api.log.SpecificLog<?> log) {
+                logs.add((Log) log);
+            }
+        };
+        KeelLog4j2Logger logger = new KeelLog4j2Logger(() -> adapter, LogLevel.WARNING, "test-topic", null, true);
+        logger.setMarkerLevels(KeelMarkerLevels.of(Map.of("KEEL_TEST_AUDIT", LogLevel.TRACE, "KEEL_TEST_QUERY", LogLevel.SILENT)));
+        Marker audit = MarkerManager.getMarker("KEEL_TEST_AUDIT");
+        Marker query = MarkerManager.getMarker("KEEL_TEST_QUERY");
+        Marker login = MarkerManager.getMarker("KEEL_TEST_LOGIN").setParents(audit);
+        AtomicInteger rendered = new AtomicInteger();
+        Object argument = new Object() {
+            @Override
+            public String toString() {
+                rendered.incrementAndGet();
+                return "argument";
+            }
+        };
+
+        Assertions.assertFalse(logger.isDebugEnabled());
+        Assertions.assertTrue(logger.isDebugEnabled(audit));
+        Assertions.assertTrue(logger.isTraceEnabled(login));
+        Assertions.assertFalse(logger.isErrorEnabled(query));
+        Assertions.assertTrue(logger.isWarnEnabled(MarkerManager.getMarker("KEEL_TEST_OTHER")));
+
+        logger.debug(audit, "audit {}", "debug");
+        logger.error(query, "query {}", argument);
+        logger.trace(login, "login {}", "trace");
+
+        Assertions.assertEquals(0, rendered.get());
+        Assertions.assertEquals(2, logs.size());
+        Assertions.assertEquals("audit debug", logs.get(0).message());
+        Assertions.assertEquals(LogLevel.DEBUG, logs.get(0).level());
+        Assertions.assertEquals("login trace", logs.get(1).message());
+        Assertions.assertEquals(List.of("KEEL_TEST_LOGIN", "KEEL_TEST_AUDIT"), logs.get(1).classification());
+    }
+
+    @Test
+    public void testSamplingBeforeFormatting() {
+        List<String> messages = new ArrayList<>();
+        LogWriterAdapter adapter = recordingAdapter(messages);
+        AtomicInteger formatted = new AtomicInteger();
+        Object argument = new Object() {
+            @Override
+            public String toString() {
+                return String.valueOf(formatted.incrementAndGet());
+            }
+        };
+        KeelLog4j2Logger logger = new KeelLog4j2Logger(() -> adapter, LogLevel.DEBUG, "com.ourco.chatty", null,
+                KeelLoggerFeatures.none().withSampling(KeelLogSampling.parse("com.ourco:DEBUG=1/4")), false);
+
+        for (int i = 0; i < 16; i++) {
+            logger.debug("chatty {}", argument);
+        }
+        Assertions.assertEquals(List.of("chatty 1", "chatty 2", "chatty 3", "chatty 4"), messages);
+        Assertions.assertEquals(4, formatted.get());
+        Assertions.assertEquals(4, logger.getCounters().getAcceptedCount(LogLevel.DEBUG));
+        Assertions.assertEquals(12, logger.getCounters().getFilteredCount(LogLevel.DEBUG));
+
+        messages.clear();
+        logger.info("not sampled");
+        Assertions.assertEquals(List.of("not sampled"), messages);
+        Assertions.assertEquals(12, logger.getCounters().getFilteredCount());
+    }
+
+    @Test
+    public void testRoutingByPrefixLevelAndMarker() {
+        List<String> main = new ArrayList<>();
+        List<String> local = new ArrayList<>();
+        List<String> durable = new ArrayList<>();
+        KeelLoggerFeatures features = KeelLoggerFeatures.none().withRouting(KeelLogRouting.none()
+                .withRoute("", LogLevel.TRACE, "KEEL_TEST_ROUTE_AUDIT", () -> recordingAdapter(durable))
+                .withRoute("io.netty", LogLevel.WARNING, null, () -> recordingAdapter(local)));
+        LogWriterAdapter mainAdapter = recordingAdapter(main);
+        KeelLog4j2Logger netty = new KeelLog4j2Logger(() -> mainAdapter, LogLevel.INFO, "io.netty.channel.Channel", null, features, true);
+        KeelLog4j2Logger service = new KeelLog4j2Logger(() -> mainAdapter, LogLevel.INFO, "com.example.Service", null, features, true);
+        Marker audit = MarkerManager.getMarker("KEEL_TEST_ROUTE_AUDIT");
+        Marker login = MarkerManager.getMarker("KEEL_TEST_ROUTE_LOGIN").setParents(audit);
+
+        netty.info("netty info");
+        netty.warn("netty {}", "warn");
+        netty.error(new StringMapMessage().with("key", "value"));
+        netty.info(audit, "netty audit");
+        service.error("service error");
+        service.info(login, "service {}", "login");
+
+        Assertions.assertEquals(List.of("netty info", "service error"), main);
+        Assertions.assertEquals(2, local.size());
+        Assertions.assertEquals("netty warn", local.get(0));
+        Assertions.assertEquals(List.of("netty audit", "service login"), durable);
+    }
+
+    /**
+     * 模拟以自身为边界类调用 {@code logMessage} 的日志门面。
+     */
+    private static final class Facade {
+        static void info(KeelLog4j2Logger logger, String message) {
+            logger.logMessage(Facade.class.getName(), Level.INFO, null, new SimpleMessage(message), null);
+        }
+    }
+
+    @Test
+    public void testCallerLocationBoundaries() {
+        String[] boundary = {AbstractLogger.class.getName()};
+        List<String> callers = new ArrayList<>();
+        LogWriterAdapter adapter = new BaseLogWriter() {
+            @Override
+            public void accept(String topic, io.github.sinri.keel.logger.api.log.SpecificLog<?> log) {
+                StackWalker.StackFrame caller = KeelCallerLocation.locate(boundary[0]);
+                callers.add(log.message() + "@" + (caller == null ? null : caller.getMethodName()));
+            }
+        };
+        KeelLoggerFeatures features = KeelLoggerFeatures.none().withCallerLocation(KeelCallerLocation.parse("com.example"));
+        KeelLog4j2Logger logger = new KeelLog4j2Logger(() -> adapter, LogLevel.INFO, "com.example.Service", null, features, true);
+
+        logger.info("direct {}", 1);
+        logger.debug("filtered");
+        boundary[0] = Facade.class.getName();
+        Facade.info(logger, "facade");
+
+        Assertions.assertEquals(List.of(
+                "direct 1@testCallerLocationBoundaries",
+                "facade@testCallerLocationBoundaries"), callers);
+    }
+
+    private static LogWriterAdapter recordingAdapter(List<String> messages) {
+        return new BaseLogWriter() {
+            @Override
+            public void accept(String topic, io.github.sinri.keel.logger.api.log.SpecificLog<?> log) {
+                messages.add(log.message());
+            }
+        };
+    }
 }
@@ -0,0 +1,44 @@
+package io.github.sinri.keel.logger.ext.log4j2;
+
+import org.jspecify.annotations.NullMarked;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+@NullMarked
+public class KeelThreadContextMapTest {
+
+    @Test
+    public void testVersionedSnapshot() {
+        KeelThreadContextMap map = new KeelThreadContextMap();
+        Assertions.assertTrue(map.isEmpty());
+        Assertions.assertNull(map.getImmutableMapOrNull());
+
+        map.put("requestId", "r-1");
+        KeelThreadContextMap.Snapshot first = map.snapshot();
+        Assertions.assertEquals(1, first.size());
+        Assertions.assertEquals("requestId", first.key(0));
+        Assertions.assertEquals("r-1", first.value(0));
+        // 未修改时快照是同一个实例
+        Assertions.assertSame(first, map.snapshot());
+        map.put("requestId", "r-1");
+        Assertions.assertSame(first, map.snapshot());
+
+        map.putAll(Map.of("userId", "u-1", "tenant", "t-1"));
+        KeelThreadContextMap.Snapshot second = map.snapshot();
+        Assertions.assertTrue(second.version() > first.version());
+        Assertions.assertEquals(3, second.size());
+        Assertions.assertEquals(1, first.size());
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> second.asMap().put("x", "y"));
+
+        map.removeAll(List.of("userId", "tenant"));
+        Assertions.assertEquals(Map.of("requestId", "r-1"), map.getCopy());
+        Assertions.assertEquals("r-1", map.getReadOnlyContextData().getValue("requestId"));
+
+        map.clear();
+        Assertions.assertTrue(map.snapshot().isEmpty());
+        Assertions.assertFalse(map.containsKey("requestId"));
+    }
+}
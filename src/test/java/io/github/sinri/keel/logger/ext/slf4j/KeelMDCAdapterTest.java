@@ -0,0 +1,74 @@
+package io.github.sinri.keel.logger.ext.slf4j;
+
+import org.jspecify.annotations.NullMarked;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+@NullMarked
+public class KeelMDCAdapterTest {
+
+    @Test
+    public void testCopyOnWriteSnapshot() {
+        KeelMDCAdapter adapter = new KeelMDCAdapter();
+        Assertions.assertTrue(adapter.snapshot().isEmpty());
+        Assertions.assertNull(adapter.getCopyOfContextMap());
+
+        adapter.put("requestId", "r-1");
+        Map<String, String> first = adapter.snapshot();
+        Assertions.assertEquals("r-1", first.get("requestId"));
+        // 未修改时快照是同一个实例
+        Assertions.assertSame(first, adapter.snapshot());
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> first.put("x", "y"));
+
+        adapter.put("requestId", "r-1");
+        Assertions.assertSame(first, adapter.snapshot());
+
+        adapter.put("userId", "u-1");
+        Map<String, String> second = adapter.snapshot();
+        Assertions.assertNotSame(first, second);
+        Assertions.assertEquals(1, first.size());
+        Assertions.assertEquals(2, second.size());
+
+        adapter.remove("requestId");
+        Assertions.assertNull(adapter.get("requestId"));
+        Assertions.assertEquals("u-1", adapter.get("userId"));
+
+        adapter.setContextMap(Map.of("a", "1", "b", "2"));
+        Assertions.assertEquals(Map.of("a", "1", "b", "2"), adapter.getCopyOfContextMap());
+
+        adapter.clear();
+        Assertions.assertTrue(adapter.snapshot().isEmpty());
+    }
+
+    @Test
+    public void testThreadIsolation() throws InterruptedException {
+        KeelMDCAdapter adapter = new KeelMDCAdapter();
+        adapter.put("requestId", "main");
+
+        AtomicReference<Map<String, String>> seen = new AtomicReference<>();
+        Thread thread = new Thread(() -> {
+            adapter.put("requestId", "worker");
+            seen.set(adapter.snapshot());
+        });
+        thread.start();
+        thread.join();
+
+        Assertions.assertEquals("main", adapter.get("requestId"));
+        Assertions.assertEquals("worker", seen.get().get("requestId"));
+        adapter.clear();
+    }
+
+    @Test
+    public void testDequeByKey() {
+        KeelMDCAdapter adapter = new KeelMDCAdapter();
+        adapter.pushByKey("stack", "a");
+        adapter.pushByKey("stack", "b");
+        Assertions.assertEquals(2, adapter.getCopyOfDequeByKey("stack").size());
+        Assertions.assertEquals("b", adapter.popByKey("stack"));
+        adapter.clearDequeByKey("stack");
+        Assertions.assertTrue(adapter.getCopyOfDequeByKey("stack").isEmpty());
+    }
+}
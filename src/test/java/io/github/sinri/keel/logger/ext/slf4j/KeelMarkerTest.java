@@ -0,0 +1,62 @@
+package io.github.sinri.keel.logger.ext.slf4j;
+
+import io.github.sinri.keel.logger.api.LogLevel;
+import org.jspecify.annotations.NullMarked;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Marker;
+
+import java.util.List;
+
+@NullMarked
+public class KeelMarkerTest {
+
+    @Test
+    public void testClassificationIsCached() {
+        KeelMarkerFactory factory = new KeelMarkerFactory();
+        KeelMarker audit = (KeelMarker) factory.getMarker("AUDIT");
+        audit.add(factory.getMarker("SECURITY"));
+
+        List<String> first = audit.classification();
+        Assertions.assertEquals(List.of("AUDIT", "SECURITY"), first);
+        Assertions.assertSame(first, audit.classification());
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> first.add("X"));
+    }
+
+    @Test
+    public void testClassificationInvalidatedOnReferenceChange() {
+        KeelMarkerFactory factory = new KeelMarkerFactory();
+        KeelMarker audit = (KeelMarker) factory.getMarker("AUDIT");
+        Marker slowQuery = factory.getMarker("SLOW_QUERY");
+
+        Assertions.assertEquals(List.of("AUDIT"), audit.classification());
+
+        audit.add(slowQuery);
+        Assertions.assertEquals(List.of("AUDIT", "SLOW_QUERY"), audit.classification());
+
+        Assertions.assertTrue(audit.remove(slowQuery));
+        Assertions.assertEquals(List.of("AUDIT"), audit.classification());
+
+        Assertions.assertFalse(audit.remove(slowQuery));
+    }
+
+    @Test
+    public void testFactorySemantics() {
+        KeelMarkerFactory factory = new KeelMarkerFactory();
+        Marker a = factory.getMarker("A");
+        Assertions.assertSame(a, factory.getMarker("A"));
+        Assertions.assertTrue(factory.exists("A"));
+        Assertions.assertNotSame(a, factory.getDetachedMarker("A"));
+        Assertions.assertEquals(a, factory.getDetachedMarker("A"));
+        Assertions.assertTrue(factory.detachMarker("A"));
+        Assertions.assertFalse(factory.exists("A"));
+    }
+
+    @Test
+    public void testLoggerUsesCachedClassification() {
+        KeelSlf4jLogger logger = new KeelSlf4jLogger(() -> null, LogLevel.INFO, "test-topic", null);
+        KeelMarker marker = (KeelMarker) new KeelMarkerFactory().getMarker("AUDIT");
+        Assertions.assertSame(marker.classification(), logger.transformMarkerToClassification(marker));
+        Assertions.assertEquals(List.of(), logger.transformMarkerToClassification(null));
+    }
+}
@@ -0,0 +1,95 @@
+package io.github.sinri.keel.logger.ext.slf4j;
+
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.slf4j.helpers.MessageFormatter;
+
+@NullMarked
+public class KeelMessageFormatterTest {
+    private static final String[] PATTERNS = {
+            "",
+            "no placeholder",
+            "{}",
+            "{}{}",
+            "a {} b {} c {}",
+            "{} and {",
+            "{ } and }{",
+            "escaped \\{} then {}",
+            "double escaped \\\\{} then {}",
+            "\\{}\\{}{}",
+            "\\\\{}\\{}{}",
+            "trailing backslash {}\\",
+            "{}\\\\{}",
+            "{{}}",
+            "{}}{",
+    };
+
+    private static final Object[][] ARGUMENTS = {
+            {},
+            {"x"},
+            {"x", 2},
+            {"x", 2, 3.5},
+            {"x", 2, 3.5, 'c'},
+            {null},
+            {null, null},
+            {new int[]{1, 2}, new String[]{"a", "b"}},
+            {new Object[]{"nested", new long[]{1L}}},
+            {new IllegalStateException("only throwable")},
+            {"x", new IllegalStateException("trailing")},
+            {"x", 2, new IllegalStateException("trailing")},
+            {new IllegalStateException("not trailing"), "x"},
+            {new Object() {
+                @Override
+                public String toString() {
+                    throw new UnsupportedOperationException();
+                }
+            }},
+    };
+
+    @Test
+    public void testMatchesMessageFormatter() {
+        for (String pattern : PATTERNS) {
+            for (int i = 0; i < ARGUMENTS.length; i++) {
+                Object[] arguments = ARGUMENTS[i];
+                String expected = MessageFormatter.arrayFormat(pattern, arguments).getMessage();
+                String description = pattern + " / arguments #" + i;
+                Assertions.assertEquals(expected, KeelMessageFormatter.arrayFormat(pattern, arguments), description);
+                // 模板以不同的引用传入时同样正确（不命中缓存）
+                Assertions.assertEquals(expected, KeelMessageFormatter.arrayFormat(new String(pattern), arguments), description);
+                if (arguments.length == 1) {
+                    Assertions.assertEquals(expected, KeelMessageFormatter.format(pattern, arguments[0]), description);
+                } else if (arguments.length == 2) {
+                    Assertions.assertEquals(expected, KeelMessageFormatter.format(pattern, arguments[0], arguments[1]), description);
+                }
+            }
+        }
+        Assertions.assertNull(KeelMessageFormatter.arrayFormat(null, new Object[]{"x"}));
+        Assertions.assertEquals("a {}", KeelMessageFormatter.arrayFormat("a {}", null));
+    }
+
+    @Test
+    public void testTrailingThrowable() {
+        IllegalStateException exception = new IllegalStateException("boom");
+        Assertions.assertSame(exception, KeelMessageFormatter.trailingThrowable(new Object[]{"x", exception}));
+        Assertions.assertSame(exception, KeelMessageFormatter.trailingThrowable((Object) exception));
+        Assertions.assertNull(KeelMessageFormatter.trailingThrowable(new Object[]{exception, "x"}));
+        Assertions.assertNull(KeelMessageFormatter.trailingThrowable((Object @Nullable []) null));
+        Assertions.assertEquals(
+                MessageFormatter.format("value {}", "x", exception).getThrowable(),
+                KeelMessageFormatter.trailingThrowable((Object) exception));
+    }
+
+    @Test
+    public void testReentrantFormatting() {
+        Object reentrant = new Object() {
+            @Override
+            public String toString() {
+                return KeelMessageFormatter.format("inner {}", "value");
+            }
+        };
+        Assertions.assertEquals("outer [inner value] done", KeelMessageFormatter.format("outer [{}] {}", reentrant, "done"));
+        Assertions.assertEquals("after x", KeelMessageFormatter.format("after {}", "x"));
+    }
+}
@@ -3,11 +3,17 @@ package io.github.sinri.keel.logger.ext.slf4j;
 import io.github.sinri.keel.logger.api.LogLevel;
 import io.github.sinri.keel.logger.api.adapter.BaseLogWriter;
 import io.github.sinri.keel.logger.api.adapter.LogWriterAdapter;
+import io.github.sinri.keel.logger.ext.KeelLogSampling;
+import io.github.sinri.keel.logger.ext.KeelLoggerCounters;
+import io.github.sinri.keel.logger.ext.KeelLoggerFeatures;
+import io.github.sinri.keel.logger.ext.KeelLoggerLevels;
+import io.github.sinri.keel.logger.ext.KeelLoggingControl;
 import org.jspecify.annotations.NullMarked;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.slf4j.Logger;
 
+import java.util.Map;
 import java.util.function.Supplier;
 
 @NullMarked
@@ -28,4 +34,115 @@ public class KeelSlf4jLoggerFactoryTest {
         Assertions.assertInstanceOf(KeelSlf4jLogger.class, logger);
         Assertions.assertEquals("test-logger", logger.getName());
     }
+
+    @Test
+    public void testPrefixLevels() {
+        LogWriterAdapter adapter = new BaseLogWriter() {
+            @Override
+            public void accept(String topic, io.github.sinri.keel.logger.api.log.SpecificLog<?> log) {
+            }
+        };
+        KeelLoggerLevels levels = new KeelLoggerLevels(LogLevel.INFO, Map.of(
+                "io.vertx", LogLevel.WARNING,
+                "com.ourco.billing", LogLevel.DEBUG
+        ));
+        KeelSlf4jLoggerFactory factory = new KeelSlf4jLoggerFactory(() -> adapter, levels, null, false);
+
+        Logger vertxLogger = factory.getLogger("io.vertx.core.Vertx");
+        Assertions.assertFalse(vertxLogger.isInfoEnabled());
+        Assertions.assertTrue(vertxLogger.isWarnEnabled());
+
+        Logger billingLogger = factory.getLogger("com.ourco.billing.Invoice");
+        Assertions.assertTrue(billingLogger.isDebugEnabled());
+        Assertions.assertFalse(billingLogger.isTraceEnabled());
+
+        Logger otherLogger = factory.getLogger("com.ourco.web.Handler");
+        Assertions.assertTrue(otherLogger.isInfoEnabled());
+        Assertions.assertFalse(otherLogger.isDebugEnabled());
+    }
+
+    @Test
+    public void testApplyLevelsToCachedLoggers() {
+        LogWriterAdapter adapter = new BaseLogWriter() {
+            @Override
+            public void accept(String topic, io.github.sinri.keel.logger.api.log.SpecificLog<?> log) {
+            }
+        };
+        KeelSlf4jLoggerFactory factory = new KeelSlf4jLoggerFactory(() -> adapter, LogLevel.INFO, null, false);
+        Logger logger = factory.getLogger("com.ourco.billing.Invoice");
+        Assertions.assertFalse(logger.isDebugEnabled());
+
+        factory.applyLevels(new KeelLoggerLevels(LogLevel.INFO, Map.of("com.ourco.billing", LogLevel.DEBUG)));
+        Assertions.assertTrue(logger.isDebugEnabled());
+        Assertions.assertSame(logger, factory.getLogger("com.ourco.billing.Invoice"));
+        Assertions.assertFalse(factory.getLogger("com.ourco.web.Handler").isDebugEnabled());
+
+        factory.applyLevels(new KeelLoggerLevels(LogLevel.ERROR));
+        Assertions.assertFalse(logger.isWarnEnabled());
+        Assertions.assertTrue(logger.isErrorEnabled());
+    }
+
+    @Test
+    public void testLoggingControlReachesCachedLoggers() {
+        LogWriterAdapter adapter = new BaseLogWriter() {
+            @Override
+            public void accept(String topic, io.github.sinri.keel.logger.api.log.SpecificLog<?> log) {
+            }
+        };
+        KeelSlf4jLoggerFactory factory = new KeelSlf4jLoggerFactory(() -> adapter, LogLevel.INFO, null, false);
+        Logger logger = factory.getLogger("com.ourco.billing.Invoice");
+        factory.getLogger("com.ourco.web.Handler");
+        KeelLoggingControl control = factory.getControl();
+
+        control.setLevel("com.ourco.billing", "DEBUG");
+        Assertions.assertTrue(logger.isDebugEnabled());
+        Assertions.assertEquals(Map.of("com.ourco.billing.Invoice", "DEBUG", "com.ourco.web.Handler", "INFO"), control.getLoggerLevels());
+        Assertions.assertTrue(factory.getLogger("com.ourco.billing.Payment").isDebugEnabled());
+
+        control.setLevelTemporarily("com.ourco", "TRACE", 60);
+        Assertions.assertTrue(factory.getLogger("com.ourco.web.Handler").isTraceEnabled());
+        Assertions.assertFalse(logger.isTraceEnabled());
+
+        control.resetLevels();
+        Assertions.assertFalse(logger.isDebugEnabled());
+        Assertions.assertEquals(new KeelLoggerLevels(LogLevel.INFO), factory.getLevels());
+    }
+
+    @Test
+    public void testMetricsPerLoggerAndLevel() {
+        LogWriterAdapter adapter = new BaseLogWriter() {
+            @Override
+            public void accept(String topic, io.github.sinri.keel.logger.api.log.SpecificLog<?> log) {
+            }
+        };
+        KeelLoggerFeatures features = KeelLoggerFeatures.none()
+                                                        .withSampling(KeelLogSampling.none().withOneIn("com.example.chatty", LogLevel.INFO, 2));
+        KeelSlf4jLoggerFactory factory = new KeelSlf4jLoggerFactory(() -> adapter, new KeelLoggerLevels(LogLevel.INFO), null, null, features, false);
+
+        Logger service = factory.getLogger("com.example.Service");
+        service.info("hello {}", "world");
+        service.atWarn().log("warned");
+        service.debug("disabled");
+        Logger chatty = factory.getLogger("com.example.chatty.Poller");
+        for (int i = 0; i < 4; i++) {
+            chatty.info("poll {}", i);
+        }
+
+        KeelLoggerCounters serviceCounters = factory.getMetrics().find("com.example.Service");
+        Assertions.assertNotNull(serviceCounters);
+        Assertions.assertEquals(1, serviceCounters.getAcceptedCount(LogLevel.INFO));
+        Assertions.assertEquals(1, serviceCounters.getAcceptedCount(LogLevel.WARNING));
+        Assertions.assertEquals(0, serviceCounters.getAcceptedCount(LogLevel.DEBUG));
+        Assertions.assertEquals("hello world".length() + "warned".length(), serviceCounters.getMessageChars());
+
+        KeelLoggerCounters chattyCounters = factory.getMetrics().find("com.example.chatty.Poller");
+        Assertions.assertNotNull(chattyCounters);
+        Assertions.assertEquals(2, chattyCounters.getAcceptedCount(LogLevel.INFO));
+        Assertions.assertEquals(2, chattyCounters.getFilteredCount(LogLevel.INFO));
+        Assertions.assertEquals(4, factory.getMetrics().getAcceptedCount());
+
+        KeelSlf4jLoggerFactory unavailable = new KeelSlf4jLoggerFactory(() -> null, LogLevel.INFO, null, false);
+        unavailable.getLogger("com.example.Service").error("lost");
+        Assertions.assertEquals(1, unavailable.getMetrics().getDroppedCount());
+    }
 }
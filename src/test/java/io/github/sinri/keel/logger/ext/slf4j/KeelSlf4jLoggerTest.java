@@ -4,12 +4,33 @@ import io.github.sinri.keel.logger.api.LogLevel;
 import io.github.sinri.keel.logger.api.adapter.BaseLogWriter;
 import io.github.sinri.keel.logger.api.adapter.LogWriterAdapter;
 import io.github.sinri.keel.logger.api.log.Log;
+import io.github.sinri.keel.logger.ext.KeelCallerLocation;
+import io.github.sinri.keel.logger.ext.KeelDeferredFormatting;
+import io.github.sinri.keel.logger.ext.KeelDeferredLog;
+import io.github.sinri.keel.logger.ext.KeelLogRouting;
+import io.github.sinri.keel.logger.ext.KeelLogSampling;
+import io.github.sinri.keel.logger.ext.KeelLogStormSuppressor;
+import io.github.sinri.keel.logger.ext.KeelLoggerFeatures;
+import io.github.sinri.keel.logger.ext.KeelMarkerLevels;
+import io.github.sinri.keel.logger.ext.RecordingLog;
+import io.github.sinri.keel.logger.ext.KeelStackTraceDeduplicator;
+import io.github.sinri.keel.logger.ext.KeelSynchronousLogWriter;
 import org.jspecify.annotations.NullMarked;
 import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
 import org.junit.jupiter.api.Test;
+import org.slf4j.Marker;
+import org.slf4j.MarkerFactory;
+import org.slf4j.helpers.MessageFormatter;
+import org.slf4j.spi.LocationAwareLogger;
+import org.slf4j.spi.NOPLoggingEventBuilder;
 
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Supplier;
 
 @NullMarked
@@ -64,4 +85,446 @@ public class KeelSlf4jLoggerTest {
         logger.trace("trace message");
         Assertions.assertEquals(0, logs.size());
     }
+
+    @Test
+    public void testDisabledLevelSkipsAdapterSupplier() {
+        AtomicInteger supplierCalls = new AtomicInteger();
+        LogWriterAdapter adapter = new BaseLogWriter() {
+            @Override
+            public void accept(String topic, io.github.sinri.keel.logger.api.log.SpecificLog<?> log) {
+            }
+        };
+        Supplier<LogWriterAdapter> adapterSupplier = () -> {
+            supplierCalls.incrementAndGet();
+            return adapter;
+        };
+        Object argument = new Object() {
+            @Override
+            public String toString() {
+                throw new AssertionError("disabled events must not be formatted");
+            }
+        };
+
+        KeelSlf4jLogger logger = new KeelSlf4jLogger(adapterSupplier, LogLevel.WARNING, "test-topic", null);
+        Marker marker = MarkerFactory.getDetachedMarker("TEST");
+
+        logger.trace("trace {}", argument);
+        logger.debug("debug {} {}", argument, argument);
+        logger.info("info {} {} {}", argument, argument, argument);
+        logger.debug(marker, "debug {}", argument);
+        logger.info(marker, "info", new RuntimeException());
+        Assertions.assertEquals(0, supplierCalls.get());
+
+        logger.warn(marker, "warn");
+        Assertions.assertEquals(1, supplierCalls.get());
+    }
+
+    @Test
+    public void testFluentApi() {
+        List<Log> logs = new ArrayList<>();
+        LogWriterAdapter adapter = new BaseLogWriter() {
+            @Override
+            public void accept(String topic, io.github.sinri.keel.logger.api.log.SpecificLog<?> log) {
+                if (log instanceof Log) {
+                    logs.add((Log) log);
+                }
+            }
+        };
+        KeelSlf4jLogger logger = new KeelSlf4jLogger(() -> adapter, LogLevel.INFO, "test-topic", null);
+
+        Assertions.assertSame(NOPLoggingEventBuilder.singleton(), logger.atDebug());
+        Assertions.assertInstanceOf(KeelLoggingEventBuilder.class, logger.atInfo());
+
+        logger.atInfo()
+              .addMarker(MarkerFactory.getDetachedMarker("FLUENT"))
+              .addKeyValue("key", "value")
+              .log("fluent {}", "message");
+        Assertions.assertEquals(1, logs.size());
+        Assertions.assertEquals(LogLevel.INFO, logs.get(0).level());
+        Assertions.assertEquals("fluent message", logs.get(0).message());
+
+        logs.clear();
+        logger.atWarn().setMessage("plain").setCause(new RuntimeException()).log();
+        Assertions.assertEquals(1, logs.size());
+        Assertions.assertEquals(LogLevel.WARNING, logs.get(0).level());
+        Assertions.assertEquals("plain", logs.get(0).message());
+    }
+
+    @Test
+    public void testStormSuppressionBeforeFormatting() {
+        List<Log> logs = new ArrayList<>();
+        LogWriterAdapter adapter = new BaseLogWriter() {
+            @Override
+            public void accept(String topic, io.github.sinri.keel.logger.api.log.SpecificLog<?> log) {
+                if (log instanceof Log) {
+                    logs.add((Log) log);
+                }
+            }
+        };
+        AtomicInteger formatted = new AtomicInteger();
+        Object argument = new Object() {
+            @Override
+            public String toString() {
+                return String.valueOf(formatted.incrementAndGet());
+            }
+        };
+        try (KeelLogStormSuppressor suppressor = new KeelLogStormSuppressor(2, Duration.ofHours(1), 100)) {
+            KeelSlf4jLogger logger = new KeelSlf4jLogger(() -> adapter, LogLevel.INFO, "test-topic", null, null,
+                    KeelLoggerFeatures.none().withStormSuppressor(suppressor));
+            for (int i = 0; i < 10; i++) {
+                logger.warn("retry {} failed", argument);
+            }
+            Assertions.assertEquals(2, logs.size());
+            Assertions.assertEquals(2, formatted.get());
+
+            // 关闭时输出剩余的汇总
+            suppressor.close();
+            Assertions.assertEquals(3, logs.size());
+            Assertions.assertEquals(LogLevel.WARNING, logs.get(2).level());
+            Assertions.assertTrue(logs.get(2).message().startsWith("Suppressed 8 similar events"));
+        }
+    }
+
+    @Test
+    public void testSamplingBeforeFormatting() {
+        List<String> messages = new ArrayList<>();
+        LogWriterAdapter adapter = new BaseLogWriter() {
+            @Override
+            public void accept(String topic, io.github.sinri.keel.logger.api.log.SpecificLog<?> log) {
+                messages.add(log.message());
+            }
+        };
+        AtomicInteger formatted = new AtomicInteger();
+        Object argument = new Object() {
+            @Override
+            public String toString() {
+                return String.valueOf(formatted.incrementAndGet());
+            }
+        };
+        KeelSlf4jLogger logger = new KeelSlf4jLogger(() -> adapter, LogLevel.DEBUG, "com.ourco.chatty", null, null,
+                KeelLoggerFeatures.none().withSampling(KeelLogSampling.parse("com.ourco:DEBUG=1/4")));
+
+        for (int i = 0; i < 8; i++) {
+            logger.debug("chatty {}", argument);
+        }
+        for (int i = 0; i < 8; i++) {
+            logger.atDebug().log("fluent {}", argument);
+        }
+        Assertions.assertEquals(List.of("chatty 1", "chatty 2", "fluent 3", "fluent 4"), messages);
+        Assertions.assertEquals(4, formatted.get());
+        Assertions.assertEquals(4, logger.getCounters().getAcceptedCount(LogLevel.DEBUG));
+        Assertions.assertEquals(12, logger.getCounters().getFilteredCount(LogLevel.DEBUG));
+
+        // 直接调用与流式调用都经由 annotateSampleRate 写入保留比例
+        RecordingLog sampled = new RecordingLog();
+        logger.annotateSampleRate(sampled, LogLevel.DEBUG);
+        Assertions.assertEquals(0.25, sampled.recorded(KeelLogSampling.SAMPLE_RATE_CONTEXT_KEY));
+        RecordingLog unsampled = new RecordingLog();
+        logger.annotateSampleRate(unsampled, LogLevel.INFO);
+        Assertions.assertNull(unsampled.recorded(KeelLogSampling.SAMPLE_RATE_CONTEXT_KEY));
+
+        messages.clear();
+        logger.info("not sampled");
+        Assertions.assertEquals(List.of("not sampled"), messages);
+    }
+
+    /**
+     * 同步消费且不持有事件的适配器：只在写出时读取事件字段。
+     */
+    private static final class CountingSynchronousWriter extends BaseLogWriter implements KeelSynchronousLogWriter {
+        private final List<Log> instances = new ArrayList<>();
+        private final List<String> messages = new ArrayList<>();
+        private int count;
+        private boolean recording = true;
+
+        @Override
+        public void accept(String topic, io.github.sinri.keel.logger.api.log.SpecificLog<?> log) {
+            count++;
+            if (recording && log instanceof Log) {
+                instances.add((Log) log);
+                messages.add(log.message());
+            }
+        }
+    }
+
+    @Test
+    public void testGarbageFreeModeReusesLog() {
+        CountingSynchronousWriter writer = new CountingSynchronousWriter();
+        KeelMDCAdapter mdcAdapter = new KeelMDCAdapter();
+        KeelSlf4jLogger logger = new KeelSlf4jLogger(() -> writer, LogLevel.INFO, "test-topic", null, mdcAdapter,
+                KeelLoggerFeatures.none().withGarbageFree(true));
+
+        logger.info("first");
+        logger.info("second {}", 2);
+        Assertions.assertSame(writer.instances.get(0), writer.instances.get(1));
+        Assertions.assertEquals(List.of("first", "second 2"), writer.messages);
+
+        // 携带异常或 MDC 的事件仍新建
+        logger.error("failed", new IllegalStateException("boom"));
+        mdcAdapter.put("traceId", "t-1");
+        try {
+            logger.info("with mdc");
+        } finally {
+            mdcAdapter.clear();
+        }
+        Assertions.assertNotSame(writer.instances.get(0), writer.instances.get(2));
+        Assertions.assertNotSame(writer.instances.get(0), writer.instances.get(3));
+        Assertions.assertNotSame(writer.instances.get(2), writer.instances.get(3));
+
+        // 未声明同步消费的适配器不复用
+        List<Log> logs = new ArrayList<>();
+        LogWriterAdapter retaining = new BaseLogWriter() {
+            @Override
+            public void accept(String topic, io.github.sinri.keel.logger.api.log.SpecificLog<?> log) {
+                logs.add((Log) log);
+            }
+        };
+        KeelSlf4jLogger retainingLogger = new KeelSlf4jLogger(() -> retaining, LogLevel.INFO, "test-topic", null, null,
+                KeelLoggerFeatures.none().withGarbageFree(true));
+        retainingLogger.info("a");
+        retainingLogger.info("b");
+        Assertions.assertNotSame(logs.get(0), logs.get(1));
+        Assertions.assertEquals("a", logs.get(0).message());
+    }
+
+    @Test
+    public void testGarbageFreeModeAllocatesNothing() {
+        Assumptions.assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean
+                && bean.isThreadAllocatedMemorySupported(), "thread allocation accounting is not supported");
+        com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+        CountingSynchronousWriter writer = new CountingSynchronousWriter();
+        writer.recording = false;
+        KeelSlf4jLogger logger = new KeelSlf4jLogger(() -> writer, LogLevel.INFO, "test-topic", null, new KeelMDCAdapter(),
+                KeelLoggerFeatures.none().withGarbageFree(true));
+        Marker marker = new KeelMarkerFactory().getMarker("AUDIT");
+
+        int operations = 100_000;
+        for (int round = 0; round < 5; round++) {
+            long threadId = Thread.currentThread().getId();
+            long before = bean.getThreadAllocatedBytes(threadId);
+            for (int i = 0; i < operations; i++) {
+                logger.info("constant message");
+                logger.info(marker, "constant message with marker");
+                logger.debug("disabled {}", "argument");
+            }
+            long allocated = bean.getThreadAllocatedBytes(threadId) - before;
+            // 预热轮次之后，每次调用的分配应为 0（允许测量本身的少量噪声）
+            if (round > 1) {
+                Assertions.assertTrue(allocated < operations, "allocated " + allocated + " bytes for " + operations + " operations");
+            }
+        }
+        Assertions.assertEquals(10 * operations, writer.count);
+    }
+
+    @Test
+    public void testTrailingThrowableIsRecordedAsException() {
+        List<Log> logs = new ArrayList<>();
+        LogWriterAdapter adapter = new BaseLogWriter() {
+            @Override
+            public void accept(String topic, io.github.sinri.keel.logger.api.log.SpecificLog<?> log) {
+                logs.add((Log) log);
+            }
+        };
+        KeelSlf4jLogger logger = new KeelSlf4jLogger(() -> adapter, LogLevel.INFO, "test-topic", null);
+        IllegalStateException exception = new IllegalStateException("boom");
+
+        logger.warn("failed {}", "job-1", exception);
+        logger.error("failed", (Object) exception);
+        logger.info("failed {} {} {}", "a", "b", exception);
+        logger.atInfo().log("fluent {}", "job-2", exception);
+
+        Assertions.assertEquals(4, logs.size());
+        Assertions.assertEquals("failed job-1", logs.get(0).message());
+        Assertions.assertSame(exception, logs.get(0).exception());
+        Assertions.assertEquals("failed", logs.get(1).message());
+        Assertions.assertSame(exception, logs.get(1).exception());
+        Assertions.assertEquals("failed a b {}", logs.get(2).message());
+        Assertions.assertSame(exception, logs.get(2).exception());
+        Assertions.assertEquals("fluent job-2", logs.get(3).message());
+        Assertions.assertSame(exception, logs.get(3).exception());
+    }
+
+    @Test
+    public void testDeferredFormatting() {
+        List<Log> logs = new ArrayList<>();
+        LogWriterAdapter adapter = new BaseLogWriter() {
+            @Override
+            public void accept(String topic, io.github.sinri.keel.logger.api.log.SpecificLog<?> log) {
+                logs.add((Log) log);
+            }
+        };
+        KeelSlf4jLogger logger = new KeelSlf4jLogger(() -> adapter, LogLevel.INFO, "test-topic", null, null,
+                KeelLoggerFeatures.none().withDeferredFormatting(KeelDeferredFormatting.enabled()));
+        List<String> mutable = new ArrayList<>(List.of("a"));
+        IllegalStateException exception = new IllegalStateException("boom");
+
+        logger.info("user {}", "alice");
+        logger.info("items {} at {}", mutable, 3);
+        Object[] arguments = {"x", new int[]{1, 2}, exception};
+        logger.warn("failed {} \\{} \\\\{} {}", arguments);
+        logger.error("failed", (Object) exception);
+        mutable.add("b");
+
+        KeelDeferredLog first = Assertions.assertInstanceOf(KeelDeferredLog.class, logs.get(0));
+        Assertions.assertFalse(first.isRendered());
+        Assertions.assertEquals("user {}", first.template());
+        Assertions.assertEquals(List.of("alice"), first.arguments());
+        Assertions.assertEquals("user alice", first.message());
+
+        Assertions.assertEquals("items [a] at 3", logs.get(1).message());
+        Assertions.assertEquals(MessageFormatter.arrayFormat("failed {} \\{} \\\\{} {}", arguments).getMessage(), logs.get(2).message());
+        Assertions.assertSame(exception, logs.get(2).exception());
+        Assertions.assertEquals("failed", logs.get(3).message());
+        Assertions.assertSame(exception, logs.get(3).exception());
+    }
+
+    @Test
+    public void testStackTraceDeduplication() {
+        List<Log> logs = new ArrayList<>();
+        LogWriterAdapter adapter = new BaseLogWriter() {
+            @Override
+            public void accept(String topic, io.github.sinri.keel.logger.api.log.SpecificLog<?> log) {
+                logs.add((Log) log);
+            }
+        };
+        KeelSlf4jLogger logger = new KeelSlf4jLogger(() -> adapter, LogLevel.INFO, "test-topic", null, null,
+                KeelLoggerFeatures.none().withStackTraceDeduplicator(new KeelStackTraceDeduplicator(Duration.ofMinutes(1), 16)));
+        List<IllegalStateException> exceptions = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            exceptions.add(new IllegalStateException("request " + i));
+        }
+
+        logger.error("failed", exceptions.get(0));
+        logger.warn("failed {}", "again", exceptions.get(1));
+        logger.atError().setCause(exceptions.get(2)).log("fluent");
+
+        Assertions.assertEquals(3, logs.size());
+        Assertions.assertSame(exceptions.get(0), logs.get(0).exception());
+        Assertions.assertNull(logs.get(1).exception());
+        Assertions.assertEquals("failed again", logs.get(1).message());
+        Assertions.assertNull(logs.get(2).exception());
+    }
+
+    @Test
+    public void testMarkerLevelsBeforeFormatting() {
+        List<Log> logs = new ArrayList<>();
+        LogWriterAdapter adapter = new BaseLogWriter() {
+            @Override
+            public void accept(String topic, io.github.sinri.keel.logger.api.log.SpecificLog<?> log) {
+                logs.add((Log) log);
+            }
+        };
+        KeelSlf4jLogger logger = new KeelSlf4jLogger(() -> adapter, LogLevel.WARNING, "test-topic", null);
+        logger.setMarkerLevels(KeelMarkerLevels.of(Map.of("AUDIT", LogLevel.TRACE, "SQL", LogLevel.SILENT)));
+        KeelMarkerFactory markerFactory = new KeelMarkerFactory();
+        Marker audit = markerFactory.getMarker("AUDIT");
+        Marker sql = markerFactory.getMarker("SQL");
+        Marker login = markerFactory.getDetachedMarker("LOGIN");
+        login.add(audit);
+        AtomicInteger rendered = new AtomicInteger();
+        Object argument = new Object() {
+            @Override
+            public String toString() {
+                rendered.incrementAndGet();
+                return "argument";
+            }
+        };
+
+        Assertions.assertFalse(logger.isDebugEnabled());
+        Assertions.assertTrue(logger.isDebugEnabled(audit));
+        Assertions.assertTrue(logger.isTraceEnabled(login));
+        Assertions.assertFalse(logger.isErrorEnabled(sql));
+        Assertions.assertTrue(logger.isWarnEnabled(markerFactory.getDetachedMarker("OTHER")));
+
+        logger.debug(audit, "audit {}", "debug");
+        logger.error(sql, "query {}", argument);
+        logger.atError().addMarker(sql).log("fluent {}", argument);
+        logger.atTrace().addMarker(login).log("login {}", "trace");
+        logger.atTrace().log("dropped {}", argument);
+
+        Assertions.assertEquals(0, rendered.get());
+        Assertions.assertEquals(2, logs.size());
+        Assertions.assertEquals("audit debug", logs.get(0).message());
+        Assertions.assertEquals(List.of("AUDIT"), logs.get(0).classification());
+        Assertions.assertEquals("login trace", logs.get(1).message());
+        Assertions.assertEquals(List.of("LOGIN", "AUDIT"), logs.get(1).classification());
+    }
+
+    @Test
+    public void testRoutingByPrefixLevelAndMarker() {
+        List<String> main = new ArrayList<>();
+        List<String> local = new ArrayList<>();
+        List<String> durable = new ArrayList<>();
+        KeelLoggerFeatures features = KeelLoggerFeatures.none().withRouting(KeelLogRouting.none()
+                .withRoute("", LogLevel.TRACE, "AUDIT", () -> recordingAdapter(durable))
+                .withRoute("io.netty", LogLevel.WARNING, null, () -> recordingAdapter(local)));
+        LogWriterAdapter mainAdapter = recordingAdapter(main);
+        KeelSlf4jLogger netty = new KeelSlf4jLogger(() -> mainAdapter, LogLevel.INFO, "io.netty.channel.Channel", null, null, features);
+        KeelSlf4jLogger service = new KeelSlf4jLogger(() -> mainAdapter, LogLevel.INFO, "com.example.Service", null, null, features);
+        KeelMarkerFactory markerFactory = new KeelMarkerFactory();
+        Marker audit = markerFactory.getMarker("AUDIT");
+        Marker login = markerFactory.getDetachedMarker("LOGIN");
+        login.add(audit);
+
+        netty.info("netty info");
+        netty.warn("netty {}", "warn");
+        netty.atError().log("netty error");
+        netty.info(audit, "netty audit");
+        service.error("service error");
+        service.atInfo().addMarker(login).log("service {}", "login");
+
+        Assertions.assertEquals(List.of("netty info", "service error"), main);
+        Assertions.assertEquals(List.of("netty warn", "netty error"), local);
+        Assertions.assertEquals(List.of("netty audit", "service login"), durable);
+    }
+
+    /**
+     * 模拟通过 {@link LocationAwareLogger} 转交事件的日志门面。
+     */
+    private static final class Facade {
+        static void info(LocationAwareLogger logger, String format, Object argument) {
+            logger.log(null, Facade.class.getName(), LocationAwareLogger.INFO_INT, format, new Object[]{argument}, null);
+        }
+
+        static void debug(LocationAwareLogger logger, String message) {
+            logger.log(null, Facade.class.getName(), LocationAwareLogger.DEBUG_INT, message, null, null);
+        }
+    }
+
+    @Test
+    public void testCallerLocationBoundaries() {
+        String[] boundary = {KeelSlf4jLogger.FQCN};
+        List<String> callers = new ArrayList<>();
+        LogWriterAdapter adapter = new BaseLogWriter() {
+            @Override
+            public void accept(String topic, io.github.sinri.keel.logger.api.log.SpecificLog<?> log) {
+                StackWalker.StackFrame caller = KeelCallerLocation.locate(boundary[0]);
+                callers.add(log.message() + "@" + (caller == null ? null : caller.getMethodName()));
+            }
+        };
+        KeelLoggerFeatures features = KeelLoggerFeatures.none().withCallerLocation(KeelCallerLocation.parse("com.example"));
+        KeelSlf4jLogger logger = new KeelSlf4jLogger(() -> adapter, LogLevel.INFO, "com.example.Service", null, null, features);
+
+        logger.info("direct {}", 1);
+        boundary[0] = KeelLoggingEventBuilder.class.getName();
+        logger.atInfo().log("fluent");
+        boundary[0] = Facade.class.getName();
+        Facade.info(logger, "facade {}", "x");
+        Facade.debug(logger, "filtered");
+
+        Assertions.assertEquals(List.of(
+                "direct 1@testCallerLocationBoundaries",
+                "fluent@testCallerLocationBoundaries",
+                "facade x@testCallerLocationBoundaries"), callers);
+    }
+
+    private static LogWriterAdapter recordingAdapter(List<String> messages) {
+        return new BaseLogWriter() {
+            @Override
+            public void accept(String topic, io.github.sinri.keel.logger.api.log.SpecificLog<?> log) {
+                messages.add(log.message());
+            }
+        };
+    }
 }